@@ -0,0 +1,61 @@
+#!/usr/bin/env bash
+# Measures time-to-first-successful-login: from process launch until POST /api/auth/login returns 200.
+#
+# Usage: scripts/measure-startup.sh [java options...]
+#   scripts/measure-startup.sh                                   # plain java -jar
+#   scripts/measure-startup.sh -XX:SharedArchiveFile=app.jsa     # with an AppCDS archive
+#   scripts/measure-startup.sh -Dspring.aot.enabled=true         # jar built with -P aot
+# Environment: JAR (default target/auth-kit-*.jar), PORT (default 18080),
+#              TIMEOUT seconds to wait for the first login before failing (default 120).
+set -euo pipefail
+
+JAR=${JAR:-$(ls target/auth-kit-*.jar | grep -v -- '-plain' | head -n 1)}
+PORT=${PORT:-18080}
+TIMEOUT=${TIMEOUT:-120}
+WORK_DIR=$(mktemp -d)
+EMAIL="startup-check@example.com"
+PASSWORD="startup-check-password"
+# BCrypt (cost 10) of PASSWORD. The account is provisioned as an admin at startup: /actuator/prometheus is admin-only,
+# and admin emails cannot be registered through /api/auth/register.
+PASSWORD_HASH='$2a$10$TjfFRjrDzFzsl8hGRqUdHOf4aLPAArbq4BQbaL/Mz/V2lTuY/WTVW'
+BODY="{\"email\":\"${EMAIL}\",\"password\":\"${PASSWORD}\"}"
+
+now_ms() { date +%s%3N; }
+
+started=$(now_ms)
+java "$@" -jar "$JAR" \
+    --server.port="$PORT" \
+    --authkit.store.log.path="$WORK_DIR/users.log" \
+    --authkit.jwt.revocation.path="$WORK_DIR/revoked-tokens.bin" \
+    --authkit.audit.directory="$WORK_DIR/audit" \
+    --authkit.import.admins="$EMAIL" \
+    "--authkit.import.admin-password-hashes[${EMAIL}]=${PASSWORD_HASH}" \
+    > "$WORK_DIR/app.log" 2>&1 &
+pid=$!
+trap 'kill "$pid" 2>/dev/null || true; wait "$pid" 2>/dev/null || true; rm -rf "$WORK_DIR"' EXIT
+
+deadline=$(( started + TIMEOUT * 1000 ))
+while true; do
+    if ! kill -0 "$pid" 2>/dev/null; then
+        echo "Application exited before the first login; log follows." >&2
+        cat "$WORK_DIR/app.log" >&2
+        exit 1
+    fi
+    if [ "$(now_ms)" -ge "$deadline" ]; then
+        echo "No successful login within ${TIMEOUT} s; log follows." >&2
+        cat "$WORK_DIR/app.log" >&2
+        exit 1
+    fi
+    code=$(curl -s --max-time 5 -o "$WORK_DIR/login.json" -w '%{http_code}' \
+        -H 'Content-Type: application/json' -d "$BODY" "http://localhost:${PORT}/api/auth/login" || true)
+    [ "$code" = 200 ] && break
+    sleep 0.05
+done
+elapsed=$(( $(now_ms) - started ))
+
+# The application's own view (authkit_startup_first_login_seconds, measured from JVM start); needs the admin token
+token=$(sed -n 's/.*"token":"\([^"]*\)".*/\1/p' "$WORK_DIR/login.json")
+reported=$(curl -s --max-time 5 -H "Authorization: Bearer ${token}" "http://localhost:${PORT}/actuator/prometheus" \
+    | awk '/^authkit_startup_first_login_seconds/ {print $2}')
+echo "time-to-first-successful-login: ${elapsed} ms (process launch to HTTP 200)"
+echo "authkit_startup_first_login_seconds: ${reported:-n/a}"
@@ -0,0 +1,107 @@
+package io.github.montytsai.authkit.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.helpers.NOPAppender;
+import io.github.montytsai.authkit.config.AuthEventLogProperties;
+import io.github.montytsai.authkit.metrics.AuthEventLogger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.authentication.BadCredentialsException;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * **登入熱路徑日誌基準測試。**
+ * 比較舊版每次登入輸出的多行 INFO／DEBUG 日誌與 {@link AuthEventLogger} 的單行、取樣事件，請搭配 {@code -prof gc}
+ * 以 {@code gc.alloc.rate.norm} 觀察每次呼叫配置的位元組數。
+ *
+ * @apiNote 兩者皆寫入 {@link NOPAppender}，只量測日誌呼叫本身（事件物件與參數陣列）的成本，不含格式化與輸出。
+ *          {@code eventSuccessSampled} 使用正式環境的 1% 取樣，應接近零配置。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuthEventLoggingBenchmark {
+
+    private static final int USERS = 1024;
+
+    /** 模擬舊版設定：{@code logging.level.io.github.montytsai.authkit=DEBUG}。 */
+    private Logger legacyLog;
+    private AuthEventLogger sampledEvents;
+    private String[] emails;
+    private RuntimeException failure;
+
+    @Setup
+    public void setUp() {
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        NOPAppender<ILoggingEvent> sink = new NOPAppender<>();
+        sink.setContext(context);
+        sink.start();
+
+        legacyLog = quietLogger(context, "io.github.montytsai.authkit.legacy", Level.DEBUG, sink);
+        quietLogger(context, AuthEventLogger.LOGGER_NAME, Level.INFO, sink);
+
+        AuthEventLogProperties properties = new AuthEventLogProperties();
+        properties.setSuccessSampleRate(0.01);
+        sampledEvents = new AuthEventLogger(properties);
+
+        emails = new String[USERS];
+        for (int i = 0; i < USERS; i++) {
+            emails[i] = BenchmarkFixtures.email(i);
+        }
+        failure = new BadCredentialsException("Bad credentials");
+    }
+
+    /**
+     * 舊版一次成功登入在 Controller 與 Service 中輸出的日誌。
+     */
+    @Benchmark
+    public void legacySuccessLogging() {
+        String email = nextEmail();
+        legacyLog.info("Attempting login for user: {}", email);
+        legacyLog.info("Attempting to load user by email: {}", email);
+        legacyLog.debug("Successfully retrieved user details for email: {}", email);
+        legacyLog.debug("User details loaded for email: {}", email);
+        legacyLog.info("User {} logged in successfully.", email);
+    }
+
+    @Benchmark
+    public void eventSuccessSampled() {
+        sampledEvents.loginSucceeded(nextEmail());
+    }
+
+    @Benchmark
+    public void eventFailure() {
+        sampledEvents.loginFailed(nextEmail(), failure);
+    }
+
+    private String nextEmail() {
+        return emails[ThreadLocalRandom.current().nextInt(USERS)];
+    }
+
+    private static Logger quietLogger(LoggerContext context, String name, Level level, NOPAppender<ILoggingEvent> sink) {
+        Logger logger = context.getLogger(name);
+        logger.setLevel(level);
+        logger.setAdditive(false);
+        logger.addAppender(sink);
+        return logger;
+    }
+
+}
@@ -0,0 +1,74 @@
+package io.github.montytsai.authkit.benchmark;
+
+import io.github.montytsai.authkit.service.AuthService;
+import io.github.montytsai.authkit.store.UserStore;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * **{@link AuthService} 基準測試。**
+ * 在 1K / 1M / 10M 既有使用者的規模下，量測 {@code register} 與 {@code loadUserByUsername}。
+ *
+ * @implNote {@code register} 使用成本 4 的 BCrypt，量測結果反映服務與儲存層的開銷；
+ *           雜湊本身的成本請參考 {@link PasswordEncoderBenchmark}。10M 規模需要約 6 GB heap。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+public class AuthServiceBenchmark {
+
+    @Param({"1000", "1000000", "10000000"})
+    public int users;
+
+    private AuthService authService;
+    private final AtomicLong nextEmail = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        UserStore store = BenchmarkFixtures.populatedStore(users);
+        authService = BenchmarkFixtures.authService(store, BenchmarkFixtures.CHEAP_BCRYPT);
+    }
+
+    @Benchmark
+    public void register() {
+        authService.register(BenchmarkFixtures.registerRequest("new" + nextEmail.incrementAndGet() + "@example.com"));
+    }
+
+    @Benchmark
+    public UserDetails loadUserByUsername() {
+        return authService.loadUserByUsername(BenchmarkFixtures.email(ThreadLocalRandom.current().nextInt(users)));
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public UserDetails loadUserByUsernameContended() {
+        return loadUserByUsername();
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public void registerContended() {
+        register();
+    }
+
+}
@@ -0,0 +1,60 @@
+package io.github.montytsai.authkit.benchmark;
+
+import io.github.montytsai.authkit.config.CredentialCacheProperties;
+import io.github.montytsai.authkit.config.UserImportProperties;
+import io.github.montytsai.authkit.dto.RegisterRequest;
+import io.github.montytsai.authkit.metrics.AuthMetrics;
+import io.github.montytsai.authkit.security.VerifiedCredentialCache;
+import io.github.montytsai.authkit.service.AuthService;
+import io.github.montytsai.authkit.store.InMemoryUserStore;
+import io.github.montytsai.authkit.store.UserStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * **基準測試共用的測試資料與物件組裝。**
+ * 讓各個 JMH 套件以相同方式建立 {@link AuthService}，不需啟動 Spring 容器。
+ */
+final class BenchmarkFixtures {
+
+    /** 所有預先填入的使用者共用的密碼。 */
+    static final String PASSWORD = "password123";
+
+    /** 最低成本的 BCrypt，用來量測服務本身的開銷而非雜湊成本。 */
+    static final PasswordEncoder CHEAP_BCRYPT = new BCryptPasswordEncoder(4);
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * 建立預先填入 {@code users} 位使用者的記憶體儲存。
+     * 所有使用者共用同一個雜湊，避免填充階段花費數小時在 BCrypt 上。
+     */
+    static UserStore populatedStore(int users) {
+        UserStore store = new InMemoryUserStore();
+        String hash = CHEAP_BCRYPT.encode(PASSWORD);
+        for (int i = 0; i < users; i++) {
+            store.save(email(i), hash);
+        }
+        return store;
+    }
+
+    static AuthService authService(UserStore store, PasswordEncoder passwordEncoder) {
+        return new AuthService(store, passwordEncoder, new VerifiedCredentialCache(new CredentialCacheProperties()),
+                new AuthMetrics(new SimpleMeterRegistry(), store), new UserImportProperties());
+    }
+
+    static RegisterRequest registerRequest(String email) {
+        RegisterRequest request = new RegisterRequest();
+        request.setEmail(email);
+        request.setPassword(PASSWORD);
+        return request;
+    }
+
+    static String email(int i) {
+        return "user" + i + "@example.com";
+    }
+
+}
@@ -0,0 +1,107 @@
+package io.github.montytsai.authkit.benchmark;
+
+import io.github.montytsai.authkit.config.UserStoreProperties;
+import io.github.montytsai.authkit.store.ClusteredUserStore;
+import io.github.montytsai.authkit.store.InMemoryUserStore;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * **叢集使用者查詢基準測試。**
+ * 在本機啟動兩個 {@link ClusteredUserStore} 節點（{@code replication=1}），量測由本節點負責與轉送給另一節點的雜湊查詢延遲。
+ *
+ * @apiNote 轉送的成本是一次 loopback TCP 往返加上訊框編解碼，應遠小於一次 BCrypt 驗證；
+ *          密碼驗證不會被轉送，因此每個節點的雜湊吞吐量可以直接相加。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ClusteredUserStoreBenchmark {
+
+    private static final int USERS = 10_000;
+
+    private final List<ClusteredUserStore> nodes = new ArrayList<>();
+    private String[] ownedEmails;
+    private String[] forwardedEmails;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, InterruptedException {
+        List<String> members = List.of("127.0.0.1:" + freePort(), "127.0.0.1:" + freePort());
+        for (String member : members) {
+            UserStoreProperties.Cluster properties = new UserStoreProperties.Cluster();
+            properties.setEnabled(true);
+            properties.setSelf(member);
+            properties.setMembers(members);
+            properties.setBindAddress("127.0.0.1");
+            properties.setSecret("benchmark-secret");
+            properties.setAllowPlaintext(true);
+            properties.setReplication(1);
+            nodes.add(new ClusteredUserStore(new InMemoryUserStore(), properties));
+        }
+        while (nodes.stream().anyMatch(node -> node.getLiveMembers().size() < 2)) {
+            Thread.sleep(50);
+        }
+
+        ClusteredUserStore node = nodes.get(0);
+        List<String> owned = new ArrayList<>();
+        List<String> forwarded = new ArrayList<>();
+        String hash = BenchmarkFixtures.CHEAP_BCRYPT.encode(BenchmarkFixtures.PASSWORD);
+        for (int i = 0; i < USERS; i++) {
+            String email = BenchmarkFixtures.email(i);
+            node.save(email, hash);
+            (node.ownersOf(email).get(0).equals(members.get(0)) ? owned : forwarded).add(email);
+        }
+        ownedEmails = owned.toArray(String[]::new);
+        forwardedEmails = forwarded.toArray(String[]::new);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        for (ClusteredUserStore node : nodes) {
+            node.close();
+        }
+    }
+
+    @Benchmark
+    public Optional<String> ownedLookup() {
+        return nodes.get(0).findPasswordHash(pick(ownedEmails));
+    }
+
+    @Benchmark
+    public Optional<String> forwardedLookup() {
+        return nodes.get(0).findPasswordHash(pick(forwardedEmails));
+    }
+
+    private static String pick(String[] emails) {
+        return emails[ThreadLocalRandom.current().nextInt(emails.length)];
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+}
@@ -0,0 +1,113 @@
+package io.github.montytsai.authkit.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.helpers.NOPAppender;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.montytsai.authkit.config.AuthEventLogProperties;
+import io.github.montytsai.authkit.exception.AuthFailures;
+import io.github.montytsai.authkit.exception.GlobalExceptionHandler;
+import io.github.montytsai.authkit.metrics.AuthEventLogger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.core.AuthenticationException;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * **登入失敗路徑（雜湊以外）基準測試。**
+ * 比較一次登入失敗在密碼比對之後的固定開銷：建立異常、產生 401 回應內容與寫入失敗事件。
+ * {@code legacyFailure} 重現先前的作法（帶完整堆疊的 {@link BadCredentialsException}、每次新建 {@code HashMap} 交給 Jackson
+ * 序列化、每次失敗都輸出事件），{@code stacklessFailure} 使用 {@link AuthFailures}、{@link GlobalExceptionHandler} 的快取回應
+ * 與每秒上限的事件日誌。
+ *
+ * @apiNote {@code depth} 模擬異常建立時的呼叫深度；Servlet 過濾鏈加上 Spring Security 與 MVC 的堆疊通常超過 100 層。
+ *          日誌寫入 {@link NOPAppender}，只量測日誌呼叫本身。請搭配 {@code -prof gc} 觀察每次失敗配置的位元組數。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FailedLoginBenchmark {
+
+    private static final int USERS = 1024;
+    private static final String INVALID_CREDENTIALS = "Invalid credentials. Please check your email and password.";
+
+    @Param({"120"})
+    private int depth;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final GlobalExceptionHandler handler = new GlobalExceptionHandler();
+    private AuthEventLogger everyFailureEvents;
+    private AuthEventLogger cappedFailureEvents;
+    private String[] emails;
+
+    @Setup
+    public void setUp() {
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        NOPAppender<ILoggingEvent> sink = new NOPAppender<>();
+        sink.setContext(context);
+        sink.start();
+        Logger events = context.getLogger(AuthEventLogger.LOGGER_NAME);
+        events.setLevel(Level.INFO);
+        events.setAdditive(false);
+        events.addAppender(sink);
+
+        AuthEventLogProperties unlimited = new AuthEventLogProperties();
+        unlimited.setMaxFailuresPerSecond(0);
+        everyFailureEvents = new AuthEventLogger(unlimited);
+        cappedFailureEvents = new AuthEventLogger(new AuthEventLogProperties());
+
+        emails = new String[USERS];
+        for (int i = 0; i < USERS; i++) {
+            emails[i] = BenchmarkFixtures.email(i);
+        }
+    }
+
+    @Benchmark
+    public byte[] legacyFailure() throws Exception {
+        AuthenticationException failure = atDepth(depth, () -> new BadCredentialsException("Bad credentials"));
+        Map<String, String> error = new HashMap<>();
+        error.put("error", INVALID_CREDENTIALS);
+        byte[] body = objectMapper.writeValueAsBytes(error);
+        everyFailureEvents.loginFailed(nextEmail(), failure);
+        return body;
+    }
+
+    @Benchmark
+    public byte[] stacklessFailure() {
+        AuthenticationException failure = atDepth(depth, () -> AuthFailures.badCredentials("Bad credentials"));
+        byte[] body = handler.handleAuthenticationException(failure).getBody();
+        cappedFailureEvents.loginFailed(nextEmail(), failure);
+        return body;
+    }
+
+    private String nextEmail() {
+        return emails[ThreadLocalRandom.current().nextInt(USERS)];
+    }
+
+    private static <T> T atDepth(int depth, Supplier<T> supplier) {
+        return depth <= 0 ? supplier.get() : atDepth(depth - 1, supplier);
+    }
+
+}
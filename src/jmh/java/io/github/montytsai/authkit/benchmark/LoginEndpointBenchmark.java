@@ -0,0 +1,99 @@
+package io.github.montytsai.authkit.benchmark;
+
+import io.github.montytsai.authkit.AuthKitApplication;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * **完整 {@code /api/auth/login} 路徑基準測試。**
+ * 透過 MockMvc 走完 Security 過濾鏈、JSON 綁定、驗證、認證與 JWT 簽發，量測單一登入請求的端到端成本。
+ *
+ * @implNote 以記憶體儲存啟動完整的 Spring 容器。應用程式預設會在啟動時依機器校準 BCrypt 成本，
+ *           這裡改以 {@code strength} 參數固定（預設 10），不同機器與不同次執行的結果才能互相比較。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoginEndpointBenchmark {
+
+    private static final String REGISTER_BODY = "{\"email\":\"bench@example.com\",\"password\":\"password123\"}";
+    private static final String LOGIN_BODY = REGISTER_BODY;
+    private static final String WRONG_LOGIN_BODY = "{\"email\":\"bench@example.com\",\"password\":\"wrongpassword\"}";
+
+    @Param({"10"})
+    private int strength;
+
+    private ConfigurableApplicationContext context;
+    private MockMvc mockMvc;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        // 以命令列參數傳入：builder 的 properties() 只是預設值，會被 application.properties 覆蓋
+        context = new SpringApplicationBuilder(AuthKitApplication.class)
+                .run(
+                        "--server.port=0",
+                        "--authkit.store.type=memory",
+                        "--authkit.password.bcrypt.strength=" + strength,
+                        "--authkit.jwt.revocation.path=${java.io.tmpdir}/authkit-bench-${random.uuid}/revoked-tokens.bin",
+                        "--authkit.audit.directory=${java.io.tmpdir}/authkit-bench-${random.uuid}/audit",
+                        // 基準測試反覆以同一帳號登入，關閉限流以量測認證路徑本身
+                        "--authkit.rate-limit.enabled=false",
+                        "--logging.level.io.github.montytsai.authkit=WARN");
+        mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context)
+                .apply(springSecurity())
+                .build();
+        mockMvc.perform(post("/api/auth/register").contentType(MediaType.APPLICATION_JSON).content(REGISTER_BODY));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public MvcResult login() throws Exception {
+        return mockMvc.perform(post("/api/auth/login").contentType(MediaType.APPLICATION_JSON).content(LOGIN_BODY))
+                .andReturn();
+    }
+
+    @Benchmark
+    public MvcResult failedLogin() throws Exception {
+        return mockMvc.perform(post("/api/auth/login").contentType(MediaType.APPLICATION_JSON).content(WRONG_LOGIN_BODY))
+                .andReturn();
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public MvcResult loginContended() throws Exception {
+        return login();
+    }
+
+}
@@ -0,0 +1,78 @@
+package io.github.montytsai.authkit.benchmark;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.github.montytsai.authkit.config.LoginRateLimitProperties;
+import io.github.montytsai.authkit.security.LoginRateLimiter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * **{@link LoginRateLimiter#checkAllowed} 基準測試。**
+ * 量測單次檢查的成本：鍵數由少量熱門帳號到百萬個相異 email／IP，單執行緒與多執行緒競爭。
+ *
+ * @apiNote 配額設得足夠大，讓每次檢查都走「允許」路徑（也就是正常登入流量付出的成本）。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class LoginRateLimiterBenchmark {
+
+    @Param({"1000", "1000000"})
+    public int keys;
+
+    private LoginRateLimiter limiter;
+    private String[] emails;
+    private String[] ips;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        LoginRateLimitProperties properties = new LoginRateLimitProperties();
+        properties.getEmail().setCapacity(Integer.MAX_VALUE);
+        properties.getEmail().setRefillPeriod(Duration.ofNanos(1));
+        properties.getIp().setCapacity(Integer.MAX_VALUE);
+        properties.getIp().setRefillPeriod(Duration.ofNanos(1));
+        properties.setMaxKeys(keys * 2L);
+        limiter = new LoginRateLimiter(properties, Ticker.systemTicker());
+
+        emails = new String[keys];
+        ips = new String[keys];
+        for (int i = 0; i < keys; i++) {
+            emails[i] = BenchmarkFixtures.email(i);
+            ips[i] = "10." + (i >>> 16 & 0xFF) + "." + (i >>> 8 & 0xFF) + "." + (i & 0xFF);
+            limiter.checkAllowed(emails[i], ips[i]);
+        }
+    }
+
+    @Benchmark
+    public void checkAllowed() {
+        int i = ThreadLocalRandom.current().nextInt(keys);
+        limiter.checkAllowed(emails[i], ips[i]);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public void checkAllowedContended() {
+        int i = ThreadLocalRandom.current().nextInt(keys);
+        limiter.checkAllowed(emails[i], ips[i]);
+    }
+
+}
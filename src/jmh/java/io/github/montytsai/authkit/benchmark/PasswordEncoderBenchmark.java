@@ -0,0 +1,78 @@
+package io.github.montytsai.authkit.benchmark;
+
+import io.github.montytsai.authkit.crypto.BoundedPasswordEncoder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * **{@link PasswordEncoder#matches} 基準測試。**
+ * 依 BCrypt 成本因子量測單次驗證延遲，以及在多執行緒競爭下直接執行與經由 {@link BoundedPasswordEncoder} 的差異。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PasswordEncoderBenchmark {
+
+    @Param({"4", "8", "10", "12"})
+    public int strength;
+
+    private PasswordEncoder bcrypt;
+    private PasswordEncoder bounded;
+    private ThreadPoolExecutor executor;
+    private String hash;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        bcrypt = new BCryptPasswordEncoder(strength);
+        int cores = Runtime.getRuntime().availableProcessors();
+        executor = new ThreadPoolExecutor(cores, cores, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(1024));
+        bounded = new BoundedPasswordEncoder(bcrypt, executor, new SimpleMeterRegistry());
+        hash = bcrypt.encode(BenchmarkFixtures.PASSWORD);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public boolean matches() {
+        return bcrypt.matches(BenchmarkFixtures.PASSWORD, hash);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public boolean matchesContended() {
+        return bcrypt.matches(BenchmarkFixtures.PASSWORD, hash);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public boolean matchesContendedBounded() {
+        return bounded.matches(BenchmarkFixtures.PASSWORD, hash);
+    }
+
+}
@@ -0,0 +1,126 @@
+package io.github.montytsai.authkit.benchmark;
+
+import io.github.montytsai.authkit.config.AuditLogProperties;
+import io.github.montytsai.authkit.security.SecurityAuditLog;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * **安全稽核日誌基準測試。**
+ * 量測請求執行緒記錄一個稽核事件所增加的延遲，並與在請求執行緒上同步寫入並 fsync 一行做比較。
+ *
+ * @apiNote 每次操作先做一段固定的模擬請求工作（{@link Blackhole#consumeCPU}），讓事件到達率低於寫入執行緒的吞吐量，
+ *          如同真實登入（每次都有一次雜湊）的情況；增加的延遲為各方法減去 {@code baseline} 的差值，
+ *          單核心機器上也包含寫入執行緒搶走的 CPU 時間。結束時輸出寫入與丟棄數量，丟棄應為零，否則量測到的是丟棄路徑。
+ *          fsync 的耗時取決於檔案系統（tmpfs 上幾乎為零），同步寫入的數字應在正式環境的磁碟上重新量測。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SecurityAuditBenchmark {
+
+    private static final int EMAILS = 1024;
+    private static final String CLIENT_IP = "203.0.113.7";
+    private static final BadCredentialsException FAILURE = new BadCredentialsException("Bad credentials");
+    /** 模擬的請求工作量，約數微秒。 */
+    private static final long REQUEST_WORK = 1_000;
+
+    @Param({"DROP", "BLOCK"})
+    public AuditLogProperties.Backpressure backpressure;
+
+    private Path directory;
+    private SecurityAuditLog auditLog;
+    private FileChannel synchronousFile;
+    private String[] emails;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("authkit-audit-bench");
+        AuditLogProperties properties = new AuditLogProperties();
+        properties.setDirectory(directory.resolve("audit"));
+        properties.setBackpressure(backpressure);
+        auditLog = new SecurityAuditLog(properties, Clock.systemUTC());
+        synchronousFile = FileChannel.open(directory.resolve("synchronous.ndjson"),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+
+        emails = new String[EMAILS];
+        for (int i = 0; i < EMAILS; i++) {
+            emails[i] = BenchmarkFixtures.email(i);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        auditLog.close();
+        synchronousFile.close();
+        System.out.printf("%naudit events written=%d dropped=%d failed=%d%n",
+                auditLog.writtenEvents(), auditLog.droppedEvents(), auditLog.failedEvents());
+        FileSystemUtils.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public void baseline() {
+        Blackhole.consumeCPU(REQUEST_WORK);
+    }
+
+    @Benchmark
+    public void recordLoginFailure() {
+        Blackhole.consumeCPU(REQUEST_WORK);
+        auditLog.loginFailed(pick(), CLIENT_IP, FAILURE);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public void recordLoginFailureContended() {
+        Blackhole.consumeCPU(REQUEST_WORK);
+        auditLog.loginFailed(pick(), CLIENT_IP, FAILURE);
+    }
+
+    /**
+     * 對照組：在請求執行緒上直接寫入一行並 fsync。
+     */
+    @Benchmark
+    public int synchronousAppendWithFsync() throws IOException {
+        Blackhole.consumeCPU(REQUEST_WORK);
+        String line = "{\"ts\":" + System.currentTimeMillis() + ",\"event\":\"login_failure\",\"user\":\"" + pick()
+                + "\",\"ip\":\"" + CLIENT_IP + "\",\"reason\":\"BadCredentialsException\"}\n";
+        int written = synchronousFile.write(ByteBuffer.wrap(line.getBytes(StandardCharsets.UTF_8)));
+        synchronousFile.force(false);
+        return written;
+    }
+
+    private String pick() {
+        return emails[ThreadLocalRandom.current().nextInt(EMAILS)];
+    }
+
+}
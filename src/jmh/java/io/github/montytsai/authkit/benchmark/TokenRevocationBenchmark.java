@@ -0,0 +1,106 @@
+package io.github.montytsai.authkit.benchmark;
+
+import io.github.montytsai.authkit.config.JwtProperties;
+import io.github.montytsai.authkit.security.JwtService;
+import io.github.montytsai.authkit.security.TokenRevocationStore;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * **Token 撤銷檢查基準測試。**
+ * 量測每個請求都要付出的撤銷檢查成本：未撤銷（走 Bloom filter 快速路徑）、已撤銷（再查精確索引），
+ * 以及包含撤銷檢查的 {@link JwtService#verify}（已驗證 Token 快取命中）。
+ *
+ * @apiNote 撤銷名單預先填入 {@code revoked} 筆紀錄，且關閉 fsync，只量測查詢路徑。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TokenRevocationBenchmark {
+
+    private static final int PROBES = 1024;
+
+    @Param({"1000", "100000"})
+    public int revoked;
+
+    private Path directory;
+    private TokenRevocationStore store;
+    private JwtService jwtService;
+    private UUID[] activeIds;
+    private UUID[] revokedIds;
+    private String accessToken;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("authkit-revocation-bench");
+        JwtProperties properties = new JwtProperties();
+        properties.getRevocation().setPath(directory.resolve("revoked-tokens.bin"));
+        properties.getRevocation().setSyncOnWrite(false);
+        properties.getRevocation().setCompactionInterval(Duration.ZERO);
+        store = new TokenRevocationStore(properties.getRevocation(), Clock.systemUTC());
+
+        Instant expiresAt = Instant.now().plus(Duration.ofDays(1));
+        revokedIds = new UUID[PROBES];
+        for (int i = 0; i < revoked; i++) {
+            UUID id = UUID.randomUUID();
+            store.revoke(id, expiresAt);
+            revokedIds[i % PROBES] = id;
+        }
+        activeIds = new UUID[PROBES];
+        for (int i = 0; i < PROBES; i++) {
+            activeIds[i] = UUID.randomUUID();
+        }
+
+        jwtService = new JwtService(properties, store, Clock.systemUTC());
+        accessToken = jwtService.issueTokens(BenchmarkFixtures.email(0)).accessToken();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        store.close();
+        Files.deleteIfExists(directory.resolve("revoked-tokens.bin"));
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public boolean isRevokedMiss() {
+        return store.isRevoked(activeIds[ThreadLocalRandom.current().nextInt(PROBES)]);
+    }
+
+    @Benchmark
+    public boolean isRevokedHit() {
+        return store.isRevoked(revokedIds[ThreadLocalRandom.current().nextInt(Math.min(revoked, PROBES))]);
+    }
+
+    @Benchmark
+    public Optional<?> verifyCachedAccessToken() {
+        return jwtService.verify(accessToken);
+    }
+
+}
@@ -0,0 +1,116 @@
+package io.github.montytsai.authkit.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.montytsai.authkit.config.CredentialCacheProperties;
+import io.github.montytsai.authkit.config.PasswordHashingProperties;
+import io.github.montytsai.authkit.config.UserImportProperties;
+import io.github.montytsai.authkit.config.UserStoreProperties;
+import io.github.montytsai.authkit.dto.UserImportSummary;
+import io.github.montytsai.authkit.security.VerifiedCredentialCache;
+import io.github.montytsai.authkit.service.UserImportFormat;
+import io.github.montytsai.authkit.service.UserImportService;
+import io.github.montytsai.authkit.store.InMemoryUserStore;
+import io.github.montytsai.authkit.store.LogStructuredUserStore;
+import io.github.montytsai.authkit.store.UserStore;
+import jakarta.validation.Validation;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * **批次匯入基準測試。**
+ * 量測匯入 {@code records} 位使用者的總時間：預先雜湊（完全跳過雜湊）與明文（最低成本 BCrypt，平行雜湊）兩種內容，
+ * 分別寫入記憶體儲存與 append-only 日誌儲存。
+ *
+ * @apiNote 每次呼叫都從空的儲存開始；預先雜湊的結果可直接外推 1M 使用者的匯入時間。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class UserImportBenchmark {
+
+    @Param({"100000"})
+    public int records;
+
+    @Param({"preHashed", "plaintext"})
+    public String content;
+
+    @Param({"memory", "log"})
+    public String store;
+
+    private byte[] body;
+    private Path directory;
+    private UserStore userStore;
+    private UserImportService importService;
+
+    @Setup(Level.Trial)
+    public void setUpTrial() throws IOException {
+        String hash = BenchmarkFixtures.CHEAP_BCRYPT.encode(BenchmarkFixtures.PASSWORD);
+        StringBuilder ndjson = new StringBuilder(records * 120);
+        for (int i = 0; i < records; i++) {
+            ndjson.append("{\"email\":\"").append(BenchmarkFixtures.email(i)).append("\",");
+            if ("preHashed".equals(content)) {
+                ndjson.append("\"passwordHash\":\"").append(hash).append("\"}\n");
+            } else {
+                ndjson.append("\"password\":\"").append(BenchmarkFixtures.PASSWORD).append("\"}\n");
+            }
+        }
+        body = ndjson.toString().getBytes(StandardCharsets.UTF_8);
+        directory = Files.createTempDirectory("authkit-import-bench");
+    }
+
+    @Setup(Level.Invocation)
+    public void setUpInvocation() throws IOException {
+        if ("log".equals(store)) {
+            UserStoreProperties.Log properties = new UserStoreProperties.Log();
+            Path path = directory.resolve("users.log");
+            Files.deleteIfExists(path);
+            properties.setPath(path);
+            properties.setCompactionInterval(Duration.ZERO);
+            userStore = new LogStructuredUserStore(properties);
+        } else {
+            userStore = new InMemoryUserStore();
+        }
+        importService = new UserImportService(userStore, BenchmarkFixtures.CHEAP_BCRYPT,
+                new VerifiedCredentialCache(new CredentialCacheProperties()),
+                Validation.buildDefaultValidatorFactory().getValidator(), new ObjectMapper(),
+                new UserImportProperties(), new PasswordHashingProperties());
+    }
+
+    @TearDown(Level.Invocation)
+    public void tearDownInvocation() throws IOException {
+        if (userStore instanceof Closeable closeable) {
+            closeable.close();
+        }
+    }
+
+    @Benchmark
+    public UserImportSummary importUsers() throws IOException {
+        return importService.importUsers(new ByteArrayInputStream(body), UserImportFormat.NDJSON, results -> {
+        });
+    }
+
+}
@@ -0,0 +1,120 @@
+package io.github.montytsai.authkit.benchmark;
+
+import io.github.montytsai.authkit.config.UserStoreProperties;
+import io.github.montytsai.authkit.store.CompactUserStore;
+import io.github.montytsai.authkit.store.InMemoryUserStore;
+import io.github.montytsai.authkit.store.UserStore;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.IterationParams;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * **使用者儲存的記憶體佔用與查詢基準測試。**
+ * 比較 {@link InMemoryUserStore}（{@code ConcurrentHashMap<String, String>}）與 {@link CompactUserStore}
+ * 填入 {@code users} 位使用者後每位使用者增加的堆積用量，以及 {@code findPasswordHash} 的耗時。
+ *
+ * @apiNote 堆積用量以 {@code bytesPerUser} 輔助計數器回報（填充前後各執行數次 GC 後的已用堆積差 ÷ 使用者數）。
+ *          每位使用者各有不同的 BCrypt 雜湊，與實際資料相同，不會因共用字串而低估 {@code memory} 引擎的用量。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class UserStoreFootprintBenchmark {
+
+    private static final int PROBES = 1024;
+    private static final String BCRYPT_ALPHABET = "./ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789";
+
+    @Param({"memory", "compact"})
+    public String store;
+
+    @Param({"1000000"})
+    public int users;
+
+    private UserStore userStore;
+    private String[] probes;
+    private double bytesPerUser;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        long before = usedHeapAfterGc();
+        userStore = "compact".equals(store) ? new CompactUserStore(new UserStoreProperties().getCompact()) : new InMemoryUserStore();
+        char[] hash = BenchmarkFixtures.CHEAP_BCRYPT.encode(BenchmarkFixtures.PASSWORD).toCharArray();
+        for (int i = 0; i < users; i++) {
+            userStore.save(BenchmarkFixtures.email(i), distinctHash(hash, i));
+        }
+        bytesPerUser = (double) (usedHeapAfterGc() - before) / users;
+
+        probes = new String[PROBES];
+        for (int i = 0; i < PROBES; i++) {
+            probes[i] = BenchmarkFixtures.email(ThreadLocalRandom.current().nextInt(users));
+        }
+    }
+
+    @Benchmark
+    public Optional<String> findPasswordHash(Footprint footprint) {
+        footprint.bytesPerUser = footprint.share;
+        return userStore.findPasswordHash(probes[ThreadLocalRandom.current().nextInt(PROBES)]);
+    }
+
+    /**
+     * 以使用者編號改寫雜湊末 4 個字元，得到格式合法且互不相同的雜湊。
+     */
+    private static String distinctHash(char[] hash, int i) {
+        for (int k = 0; k < 4; k++) {
+            hash[hash.length - 1 - k] = BCRYPT_ALPHABET.charAt((i >>> (6 * k)) & 0x3F);
+        }
+        return new String(hash);
+    }
+
+    private static long usedHeapAfterGc() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 4; i++) {
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    /**
+     * 以輔助計數器回報的每位使用者堆積用量。
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Footprint {
+
+        public double bytesPerUser;
+
+        private double share;
+
+        /**
+         * EVENTS 計數器的分數是各量測迭代的總和，且每次迭代開始時歸零，因此在迭代中寫入平均分攤的值，
+         * 使總和等於每位使用者的位元組數。
+         */
+        @Setup(Level.Iteration)
+        public void share(UserStoreFootprintBenchmark benchmark, IterationParams iteration) {
+            share = benchmark.bytesPerUser / iteration.getCount();
+        }
+
+    }
+
+}
@@ -0,0 +1,189 @@
+package io.github.montytsai.authkit.benchmark;
+
+import io.github.montytsai.authkit.config.ThreadingModeVerifier;
+import io.github.montytsai.authkit.crypto.BoundedPasswordEncoder;
+import io.github.montytsai.authkit.service.AuthService;
+import io.github.montytsai.authkit.store.UserStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * **虛擬執行緒與平台執行緒的並行登入吞吐量比較。**
+ * 每次呼叫同時送出 {@code concurrency} 個登入（儲存查詢 + 密碼比對），比較請求執行緒為固定大小的平台執行緒池
+ * （模擬 Tomcat 預設的 200 條工作執行緒）或每請求一條虛擬執行緒時的吞吐量。
+ *
+ * @apiNote 使用者儲存以 {@link LatencyUserStore} 包裝，每次查詢阻塞 {@code storeLatencyMillis}，模擬遠端資料庫或快取。
+ *          {@code virtual} 模式需以 Java 21 以上的 JRE 執行，例如
+ *          {@code JAVA_HOME=/path/to/jdk21 ./mvnw -P benchmarks -DskipTests verify -Djmh.args="VirtualThreadLoginBenchmark"}。
+ * @implNote 兩種模式的 BCrypt 都交由 {@link BoundedPasswordEncoder} 的平台執行緒池執行，與正式環境的設定一致。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class VirtualThreadLoginBenchmark {
+
+    private static final int PLATFORM_POOL_SIZE = 200;
+
+    @Param({"platform", "virtual"})
+    public String threads;
+
+    @Param({"1000"})
+    public int concurrency;
+
+    @Param({"20"})
+    public long storeLatencyMillis;
+
+    private ExecutorService requestExecutor;
+    private ThreadPoolExecutor hashingExecutor;
+    private AuthService authService;
+    private PasswordEncoder passwordEncoder;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        requestExecutor = "virtual".equals(threads) ? newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(PLATFORM_POOL_SIZE);
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        hashingExecutor = new ThreadPoolExecutor(cores, cores, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(concurrency));
+        passwordEncoder = new BoundedPasswordEncoder(BenchmarkFixtures.CHEAP_BCRYPT, hashingExecutor,
+                new SimpleMeterRegistry());
+
+        UserStore store = new LatencyUserStore(BenchmarkFixtures.populatedStore(concurrency), storeLatencyMillis);
+        authService = BenchmarkFixtures.authService(store, passwordEncoder);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        requestExecutor.shutdownNow();
+        hashingExecutor.shutdownNow();
+    }
+
+    /**
+     * 一次送出 {@code concurrency} 個登入並等待全部完成；分數為每秒完成的批次數。
+     */
+    @Benchmark
+    public int concurrentLogins() throws InterruptedException, ExecutionException {
+        List<Future<Boolean>> logins = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            String email = BenchmarkFixtures.email(i);
+            logins.add(requestExecutor.submit(() -> login(email)));
+        }
+        int succeeded = 0;
+        for (Future<Boolean> login : logins) {
+            if (login.get()) {
+                succeeded++;
+            }
+        }
+        return succeeded;
+    }
+
+    private boolean login(String email) {
+        UserDetails user = authService.loadUserByUsername(email);
+        return passwordEncoder.matches(BenchmarkFixtures.PASSWORD, user.getPassword());
+    }
+
+    /**
+     * 專案以 Java 17 編譯，因此以反射取得 Java 21 的 {@code Executors.newVirtualThreadPerTaskExecutor()}。
+     */
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        if (!ThreadingModeVerifier.isVirtualThreadSupported()) {
+            throw new IllegalStateException("threads=virtual requires Java 21+, running on Java "
+                    + Runtime.version().feature());
+        }
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException ex) {
+            throw new IllegalStateException("Virtual-thread executor is not available.", ex);
+        }
+    }
+
+    /**
+     * 在每次查詢前阻塞固定時間的 {@link UserStore} 裝飾器，模擬遠端儲存的網路往返。
+     */
+    static final class LatencyUserStore implements UserStore {
+
+        private final UserStore delegate;
+        private final long latencyMillis;
+
+        LatencyUserStore(UserStore delegate, long latencyMillis) {
+            this.delegate = delegate;
+            this.latencyMillis = latencyMillis;
+        }
+
+        @Override
+        public Optional<String> findPasswordHash(String email) {
+            pause();
+            return delegate.findPasswordHash(email);
+        }
+
+        @Override
+        public boolean exists(String email) {
+            pause();
+            return delegate.exists(email);
+        }
+
+        @Override
+        public void save(String email, String passwordHash) {
+            pause();
+            delegate.save(email, passwordHash);
+        }
+
+        @Override
+        public boolean replacePasswordHash(String email, String expectedHash, String newHash) {
+            pause();
+            return delegate.replacePasswordHash(email, expectedHash, newHash);
+        }
+
+        @Override
+        public boolean delete(String email) {
+            pause();
+            return delegate.delete(email);
+        }
+
+        @Override
+        public long size() {
+            return delegate.size();
+        }
+
+        private void pause() {
+            try {
+                Thread.sleep(latencyMillis);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while simulating store latency.", ex);
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,243 @@
+package io.github.montytsai.authkit.loadtest;
+
+import io.github.montytsai.authkit.AuthKitApplication;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * **認證 API 的負載測試工具。**
+ * 以開放模型（固定到達率）對 {@code /api/auth/register} 與 {@code /api/auth/login} 送出混合流量，
+ * 量測每個情境的吞吐量與延遲分布，並在 SLO 門檻被突破時以非零結束碼結束，讓建置失敗。
+ *
+ * <p>執行方式（參數見 {@code src/loadtest/resources/loadtest.properties}）：
+ * <pre>{@code
+ * ./mvnw -P loadtest -DskipTests verify
+ * ./mvnw -P loadtest -DskipTests verify -Dloadtest.args="--target=http://localhost:8080 --rate=100 --duration=60s"
+ * }</pre>
+ *
+ * @apiNote 未設定 {@code target} 時在本行程中以記憶體儲存、關閉限流的設定啟動應用程式；
+ *          對外部的應用程式施壓時，它也必須關閉限流（{@code authkit.rate-limit.enabled=false}），否則重複的帳號與來源 IP 會收到 {@code 429}。
+ *          結束碼：{@code 0} 全部符合、{@code 1} 違反 SLO、{@code 2} 設定錯誤或無法準備測試資料。
+ * @implNote 開放模型：第 {@code i} 個請求預定在 {@code start + i / rate} 送出，不等待先前的回應；
+ *           伺服器變慢時在途請求增加，而不是像封閉模型（固定使用者數）那樣自動降低送出速率而掩蓋延遲。
+ *           延遲從預定時間起算，排程執行緒落後時補送的請求也會反映等待時間。
+ */
+public final class LoadTest {
+
+    private static final String PASSWORD = "loadtest-password";
+    private static final int SEED_CONCURRENCY = 16;
+
+    private final LoadTestOptions options;
+    private final String target;
+    private final String runId = Long.toString(System.currentTimeMillis(), 36);
+    private final HttpClient client;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    LoadTest(LoadTestOptions options, String target) {
+        this.options = options;
+        this.target = target;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(options.requestTimeout)
+                .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options;
+        try {
+            options = LoadTestOptions.parse(args);
+        } catch (IllegalArgumentException ex) {
+            System.err.println("Invalid load test options: " + ex.getMessage());
+            System.exit(2);
+            return;
+        }
+
+        ConfigurableApplicationContext app = null;
+        String target = options.target;
+        if (target.isEmpty()) {
+            app = startApp(options);
+            target = "http://localhost:" + app.getEnvironment().getProperty("local.server.port");
+        }
+
+        List<String> violations;
+        try {
+            LoadTestReport report = new LoadTest(options, target).run();
+            report.print(System.out);
+            report.writeTo(options.reportDir);
+            violations = report.violations(options.slos);
+        } catch (IllegalStateException ex) {
+            System.err.println("Load test aborted: " + ex.getMessage());
+            System.exit(2);
+            return;
+        } finally {
+            if (app != null) {
+                app.close();
+            }
+        }
+
+        if (violations.isEmpty()) {
+            System.out.printf("%nAll %d SLO thresholds met. Report: %s%n", options.slos.size(), options.reportDir.toAbsolutePath());
+            System.exit(0);
+        }
+        System.out.printf("%nSLO violations:%n");
+        violations.forEach(violation -> System.out.println("  " + violation));
+        System.exit(1);
+    }
+
+    /**
+     * 預先註冊使用者、暖機，然後在量測時間內以固定到達率送出請求。
+     *
+     * @throws IllegalStateException 如果無法註冊預先建立的使用者。
+     */
+    LoadTestReport run() throws InterruptedException {
+        seedUsers();
+
+        Map<Scenario, ScenarioStats> results = new EnumMap<>(Scenario.class);
+        options.mix.keySet().forEach(scenario -> results.put(scenario, new ScenarioStats(scenario)));
+        Scenario[] scenarios = options.mix.keySet().toArray(Scenario[]::new);
+        int[] cumulativeWeights = new int[scenarios.length];
+        int totalWeight = 0;
+        for (int i = 0; i < scenarios.length; i++) {
+            totalWeight += options.mix.get(scenarios[i]);
+            cumulativeWeights[i] = totalWeight;
+        }
+
+        SplittableRandom random = new SplittableRandom(options.seed);
+        long start = System.nanoTime();
+        long measureFrom = start + options.warmup.toNanos();
+        long end = measureFrom + options.duration.toNanos();
+        double periodNanos = TimeUnit.SECONDS.toNanos(1) / options.rate;
+        for (long i = 0; ; i++) {
+            // 由序號計算預定時間而不是累加間隔，排程延誤不會讓後續請求跟著延後
+            long intended = start + (long) (i * periodNanos);
+            if (intended - end >= 0) {
+                break;
+            }
+            parkUntil(intended);
+
+            int pick = random.nextInt(totalWeight);
+            int index = 0;
+            while (pick >= cumulativeWeights[index]) {
+                index++;
+            }
+            Scenario scenario = scenarios[index];
+            ScenarioStats stats = intended - measureFrom >= 0 ? results.get(scenario) : null;
+            if (inFlight.get() >= options.maxInFlight) {
+                if (stats != null) {
+                    stats.recordDropped();
+                }
+                continue;
+            }
+
+            inFlight.incrementAndGet();
+            client.sendAsync(request(scenario, i, random), HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        long latency = System.nanoTime() - intended;
+                        if (stats != null) {
+                            if (error != null) {
+                                stats.recordError(latency, error);
+                            } else {
+                                stats.recordResponse(latency, response.statusCode());
+                            }
+                        }
+                        inFlight.decrementAndGet();
+                    });
+        }
+
+        awaitInFlight();
+        return new LoadTestReport(target, options.rate, options.duration, results);
+    }
+
+    private HttpRequest request(Scenario scenario, long sequence, SplittableRandom random) {
+        String email = switch (scenario) {
+            case LOGIN, WRONG_PASSWORD, DUPLICATE_REGISTER -> seededEmail(random.nextInt(options.users));
+            case UNKNOWN_EMAIL -> "lt-" + runId + "-missing" + sequence + "@loadtest.example";
+            case REGISTER -> "lt-" + runId + "-new" + sequence + "@loadtest.example";
+        };
+        String password = scenario == Scenario.WRONG_PASSWORD ? "wrong-" + PASSWORD : PASSWORD;
+        return post(scenario.path(), email, password);
+    }
+
+    private void seedUsers() throws InterruptedException {
+        System.out.printf("Registering %d users on %s ...%n", options.users, target);
+        Semaphore permits = new Semaphore(SEED_CONCURRENCY);
+        List<CompletableFuture<HttpResponse<Void>>> responses = new ArrayList<>(options.users);
+        for (int i = 0; i < options.users; i++) {
+            permits.acquire();
+            responses.add(client.sendAsync(post("/api/auth/register", seededEmail(i), PASSWORD), HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> permits.release()));
+        }
+        for (CompletableFuture<HttpResponse<Void>> response : responses) {
+            int status;
+            try {
+                status = response.join().statusCode();
+            } catch (RuntimeException ex) {
+                throw new IllegalStateException("cannot reach " + target + " (" + ex.getCause() + ")", ex);
+            }
+            if (status != Scenario.REGISTER.expectedStatus()) {
+                throw new IllegalStateException("registering a load test user returned HTTP " + status);
+            }
+        }
+    }
+
+    private void awaitInFlight() throws InterruptedException {
+        long deadline = System.nanoTime() + options.requestTimeout.toNanos() + TimeUnit.SECONDS.toNanos(5);
+        while (inFlight.get() > 0 && System.nanoTime() - deadline < 0) {
+            Thread.sleep(10);
+        }
+        if (inFlight.get() > 0) {
+            System.err.printf("%d requests were still in flight when the report was taken%n", inFlight.get());
+        }
+    }
+
+    private HttpRequest post(String path, String email, String password) {
+        return HttpRequest.newBuilder(URI.create(target + path))
+                .timeout(options.requestTimeout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        "{\"email\":\"" + email + "\",\"password\":\"" + password + "\"}"))
+                .build();
+    }
+
+    private String seededEmail(int index) {
+        return "lt-" + runId + "-user" + index + "@loadtest.example";
+    }
+
+    private static void parkUntil(long deadline) {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+
+    private static ConfigurableApplicationContext startApp(LoadTestOptions options) {
+        // 以命令列參數傳入：builder 的 properties() 只是預設值，會被 application.properties 覆蓋
+        List<String> args = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--authkit.store.type=memory",
+                "--authkit.jwt.revocation.path=${java.io.tmpdir}/authkit-loadtest-${random.uuid}/revoked-tokens.bin",
+                "--authkit.audit.directory=${java.io.tmpdir}/authkit-loadtest-${random.uuid}/audit",
+                // 所有請求來自同一個 IP，且預先建立的帳號被反覆登入，關閉限流以量測認證路徑本身
+                "--authkit.rate-limit.enabled=false",
+                "--logging.level.root=WARN"));
+        options.appProperties.forEach((key, value) -> args.add("--" + key + "=" + value));
+        return new SpringApplicationBuilder(AuthKitApplication.class).run(args.toArray(String[]::new));
+    }
+
+}
@@ -0,0 +1,168 @@
+package io.github.montytsai.authkit.loadtest;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * **負載測試設定。**
+ * 先讀取 classpath 上的 {@code loadtest.properties} 預設值，再以 {@code --key=value} 命令列參數覆寫。
+ *
+ * @apiNote {@code app.} 開頭的鍵會原樣（去掉前綴）傳給內嵌啟動的應用程式，例如 {@code --app.authkit.store.type=compact}；
+ *          {@code slo.} 開頭的鍵由 {@link SloThreshold#parse} 解析。
+ */
+final class LoadTestOptions {
+
+    static final String DEFAULTS = "loadtest.properties";
+
+    /**
+     * 目標應用程式的基礎 URL；空字串代表在本行程中啟動應用程式。
+     */
+    final String target;
+
+    /**
+     * 所有情境合計的固定到達率（每秒請求數）。
+     */
+    final double rate;
+
+    /**
+     * 暖機時間；期間照常送出請求但不記錄。
+     */
+    final Duration warmup;
+
+    /**
+     * 量測時間。
+     */
+    final Duration duration;
+
+    /**
+     * 各情境的權重，依設定順序排列。
+     */
+    final Map<Scenario, Integer> mix;
+
+    /**
+     * 開始前預先註冊、供登入情境使用的使用者數。
+     */
+    final int users;
+
+    /**
+     * 同時在途的請求上限；超過時請求不送出並計為錯誤，避免負載工具本身耗盡資源。
+     */
+    final int maxInFlight;
+
+    final Duration requestTimeout;
+
+    /**
+     * 選擇情境的亂數種子，固定後每次執行的請求序列相同。
+     */
+    final long seed;
+
+    /**
+     * 報告輸出目錄。
+     */
+    final Path reportDir;
+
+    final List<SloThreshold> slos;
+
+    /**
+     * 內嵌應用程式的額外屬性。
+     */
+    final Map<String, String> appProperties;
+
+    private LoadTestOptions(Properties properties) {
+        this.target = stripTrailingSlash(properties.getProperty("target", "").trim());
+        this.rate = Double.parseDouble(required(properties, "rate"));
+        this.warmup = DurationStyle.detectAndParse(required(properties, "warmup"));
+        this.duration = DurationStyle.detectAndParse(required(properties, "duration"));
+        this.mix = parseMix(required(properties, "mix"));
+        this.users = Integer.parseInt(required(properties, "users"));
+        this.maxInFlight = Integer.parseInt(required(properties, "max-in-flight"));
+        this.requestTimeout = DurationStyle.detectAndParse(required(properties, "request-timeout"));
+        this.seed = Long.parseLong(required(properties, "seed"));
+        this.reportDir = Path.of(required(properties, "report-dir"));
+
+        List<SloThreshold> thresholds = new ArrayList<>();
+        Map<String, String> app = new LinkedHashMap<>();
+        for (String key : properties.stringPropertyNames()) {
+            if (key.startsWith("slo.")) {
+                thresholds.add(SloThreshold.parse(key, properties.getProperty(key)));
+            } else if (key.startsWith("app.")) {
+                app.put(key.substring("app.".length()), properties.getProperty(key));
+            }
+        }
+        this.slos = List.copyOf(thresholds);
+        this.appProperties = app;
+
+        if (rate <= 0 || duration.isZero() || duration.isNegative() || users < 1 || maxInFlight < 1) {
+            throw new IllegalArgumentException("rate, duration, users and max-in-flight must be positive");
+        }
+    }
+
+    /**
+     * 讀取預設值並套用命令列參數。
+     *
+     * @throws IllegalArgumentException 如果參數不是 {@code --key=value} 格式或數值無效。
+     */
+    static LoadTestOptions parse(String[] args) {
+        Properties properties = new Properties();
+        try (InputStream in = LoadTestOptions.class.getClassLoader().getResourceAsStream(DEFAULTS)) {
+            if (in != null) {
+                properties.load(in);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot read " + DEFAULTS, ex);
+        }
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0) {
+                throw new IllegalArgumentException("Expected --key=value but got '" + arg + "'");
+            }
+            properties.setProperty(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+        return new LoadTestOptions(properties);
+    }
+
+    private static Map<Scenario, Integer> parseMix(String value) {
+        Map<Scenario, Integer> mix = new EnumMap<>(Scenario.class);
+        for (String entry : value.split(",")) {
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Expected scenario:weight in mix but got '" + entry + "'");
+            }
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("Negative weight for " + parts[0]);
+            }
+            if (weight > 0) {
+                mix.put(Scenario.of(parts[0].trim()), weight);
+            }
+        }
+        if (mix.isEmpty()) {
+            throw new IllegalArgumentException("The mix needs at least one scenario with a positive weight");
+        }
+        return mix;
+    }
+
+    private static String required(Properties properties, String key) {
+        String value = properties.getProperty(key);
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException("Missing load test option '" + key + "'");
+        }
+        return value.trim();
+    }
+
+    private static String stripTrailingSlash(String url) {
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+
+}
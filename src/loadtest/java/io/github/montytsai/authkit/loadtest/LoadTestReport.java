@@ -0,0 +1,130 @@
+package io.github.montytsai.authkit.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * **負載測試報告。**
+ * 列出每個情境的請求數、錯誤率、成功吞吐量與 p50/p99/p99.9/max 延遲，並檢查 SLO 門檻。
+ *
+ * @apiNote 輸出到報告目錄的檔案：{@code report.txt}（與主控台相同的表格）、{@code report.json}（供 CI 比較），
+ *          以及每個情境的 {@code <scenario>.hgrm} 完整百分位分布（可貼到 HdrHistogram 的 plotter 畫圖）。
+ */
+final class LoadTestReport {
+
+    private static final String ROW = "%-20s %9s %8s %9s %9s %9s %9s %9s%n";
+
+    private final String target;
+    private final double offeredRate;
+    private final Duration duration;
+    private final Map<Scenario, ScenarioStats> results;
+
+    LoadTestReport(String target, double offeredRate, Duration duration, Map<Scenario, ScenarioStats> results) {
+        this.target = target;
+        this.offeredRate = offeredRate;
+        this.duration = duration;
+        this.results = results;
+    }
+
+    /**
+     * 所有適用門檻的違反說明；空清單代表全部符合。
+     */
+    List<String> violations(List<SloThreshold> slos) {
+        List<String> violations = new ArrayList<>();
+        for (ScenarioStats stats : results.values()) {
+            for (SloThreshold slo : slos) {
+                if (slo.appliesTo(stats.scenario())) {
+                    slo.check(stats).ifPresent(violations::add);
+                }
+            }
+        }
+        return violations;
+    }
+
+    void print(PrintStream out) {
+        out.print(render());
+    }
+
+    String render() {
+        StringBuilder text = new StringBuilder();
+        text.append(String.format(Locale.ROOT, "Target %s, offered %.1f req/s for %ds%n%n",
+                target, offeredRate, duration.toSeconds()));
+        text.append(String.format(Locale.ROOT, ROW,
+                "scenario", "requests", "errors", "ok/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms"));
+        for (ScenarioStats stats : results.values()) {
+            text.append(String.format(Locale.ROOT, ROW,
+                    stats.scenario().id(),
+                    stats.requests(),
+                    String.format(Locale.ROOT, "%.2f%%", stats.errorRatePercent()),
+                    String.format(Locale.ROOT, "%.1f", stats.succeeded() / seconds()),
+                    millis(stats.percentileMicros(50.0)),
+                    millis(stats.percentileMicros(99.0)),
+                    millis(stats.percentileMicros(99.9)),
+                    millis(stats.maxMicros())));
+        }
+        for (ScenarioStats stats : results.values()) {
+            stats.failures().forEach((reason, count) ->
+                    text.append(String.format(Locale.ROOT, "  %s: %d x %s%n", stats.scenario().id(), count, reason)));
+        }
+        return text.toString();
+    }
+
+    /**
+     * 寫出報告檔案。
+     *
+     * @throws IOException 如果無法建立目錄或寫入檔案。
+     */
+    void writeTo(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        Files.writeString(directory.resolve("report.txt"), render(), StandardCharsets.UTF_8);
+
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("target", target);
+        json.put("offeredRate", offeredRate);
+        json.put("durationSeconds", seconds());
+        Map<String, Object> scenarios = new LinkedHashMap<>();
+        for (ScenarioStats stats : results.values()) {
+            Map<String, Object> scenario = new LinkedHashMap<>();
+            scenario.put("requests", stats.requests());
+            scenario.put("errors", stats.failed());
+            scenario.put("errorRatePercent", stats.errorRatePercent());
+            scenario.put("throughputPerSecond", stats.succeeded() / seconds());
+            scenario.put("p50Millis", stats.percentileMicros(50.0) / 1_000.0);
+            scenario.put("p99Millis", stats.percentileMicros(99.0) / 1_000.0);
+            scenario.put("p999Millis", stats.percentileMicros(99.9) / 1_000.0);
+            scenario.put("maxMillis", stats.maxMicros() / 1_000.0);
+            scenario.put("failures", stats.failures());
+            scenarios.put(stats.scenario().id(), scenario);
+
+            Histogram histogram = stats.histogram();
+            try (PrintStream out = new PrintStream(Files.newOutputStream(directory.resolve(stats.scenario().id() + ".hgrm")),
+                    false, StandardCharsets.UTF_8)) {
+                // 以微秒記錄，縮放 1000 後分布以毫秒輸出
+                histogram.outputPercentileDistribution(out, 1_000.0);
+            }
+        }
+        json.put("scenarios", scenarios);
+        new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(directory.resolve("report.json").toFile(), json);
+    }
+
+    private double seconds() {
+        return duration.toMillis() / 1_000.0;
+    }
+
+    private static String millis(double micros) {
+        return String.format(Locale.ROOT, "%.1f", micros / 1_000.0);
+    }
+
+}
@@ -0,0 +1,75 @@
+package io.github.montytsai.authkit.loadtest;
+
+import java.util.Locale;
+
+/**
+ * **負載測試情境。**
+ * 每個情境對應一種真實流量：一個端點、一個請求內容產生方式，以及預期的 HTTP 狀態碼。
+ *
+ * @apiNote 回應狀態碼與 {@link #expectedStatus()} 不同的請求計為錯誤（例如限流的 {@code 429}、雜湊池滿載的 {@code 503}）。
+ */
+enum Scenario {
+
+    /**
+     * 以已註冊的使用者與正確密碼登入。
+     */
+    LOGIN("/api/auth/login", 200),
+
+    /**
+     * 以已註冊的使用者與錯誤密碼登入。
+     */
+    WRONG_PASSWORD("/api/auth/login", 401),
+
+    /**
+     * 以不存在的 email 登入。
+     */
+    UNKNOWN_EMAIL("/api/auth/login", 401),
+
+    /**
+     * 註冊一個新的使用者。
+     */
+    REGISTER("/api/auth/register", 201),
+
+    /**
+     * 以已註冊的 email 再次註冊。
+     */
+    DUPLICATE_REGISTER("/api/auth/register", 409);
+
+    private final String path;
+    private final int expectedStatus;
+
+    Scenario(String path, int expectedStatus) {
+        this.path = path;
+        this.expectedStatus = expectedStatus;
+    }
+
+    /**
+     * 設定與報告中使用的名稱，例如 {@code wrong-password}。
+     */
+    String id() {
+        return name().toLowerCase(Locale.ROOT).replace('_', '-');
+    }
+
+    String path() {
+        return path;
+    }
+
+    int expectedStatus() {
+        return expectedStatus;
+    }
+
+    /**
+     * 依名稱查找情境。
+     *
+     * @throws IllegalArgumentException 如果沒有這個情境。
+     */
+    static Scenario of(String id) {
+        for (Scenario scenario : values()) {
+            if (scenario.id().equals(id)) {
+                return scenario;
+            }
+        }
+        throw new IllegalArgumentException("Unknown scenario '" + id + "'");
+    }
+
+}
@@ -0,0 +1,112 @@
+package io.github.montytsai.authkit.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * **單一情境的量測結果。**
+ * 以 HdrHistogram 記錄量測期間每個請求的延遲（微秒，3 位有效數字），並分類計算錯誤。
+ *
+ * @apiNote 延遲從請求<b>預定</b>送出的時間算起，而不是實際送出的時間；
+ *          負載工具或伺服器落後時的排隊時間也計入延遲，避免 coordinated omission 低估尾端延遲。
+ * @implNote 回應在 {@code HttpClient} 的執行緒上完成，因此使用 {@link ConcurrentHistogram} 與 {@link LongAdder}。
+ */
+final class ScenarioStats {
+
+    private final Scenario scenario;
+    private final Histogram latencies = new ConcurrentHistogram(TimeUnit.MINUTES.toMicros(1), 3);
+    private final LongAdder succeeded = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final Map<String, LongAdder> failures = new ConcurrentHashMap<>();
+
+    ScenarioStats(Scenario scenario) {
+        this.scenario = scenario;
+        latencies.setAutoResize(true);
+    }
+
+    Scenario scenario() {
+        return scenario;
+    }
+
+    /**
+     * 記錄一個收到回應的請求。
+     *
+     * @param latencyNanos 從預定送出時間到收到回應的時間。
+     * @param status HTTP 狀態碼。
+     */
+    void recordResponse(long latencyNanos, int status) {
+        latencies.recordValue(Math.max(1, TimeUnit.NANOSECONDS.toMicros(latencyNanos)));
+        if (status == scenario.expectedStatus()) {
+            succeeded.increment();
+        } else {
+            recordFailure("HTTP " + status);
+        }
+    }
+
+    /**
+     * 記錄一個以例外結束的請求（逾時、連線失敗）。
+     */
+    void recordError(long latencyNanos, Throwable error) {
+        latencies.recordValue(Math.max(1, TimeUnit.NANOSECONDS.toMicros(latencyNanos)));
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        recordFailure(cause.getClass().getSimpleName());
+    }
+
+    /**
+     * 記錄一個因在途請求已達上限而未送出的請求；它沒有延遲，只計入錯誤。
+     */
+    void recordDropped() {
+        recordFailure("dropped (max-in-flight)");
+    }
+
+    private void recordFailure(String reason) {
+        failed.increment();
+        failures.computeIfAbsent(reason, key -> new LongAdder()).increment();
+    }
+
+    long requests() {
+        return succeeded.sum() + failed.sum();
+    }
+
+    long succeeded() {
+        return succeeded.sum();
+    }
+
+    long failed() {
+        return failed.sum();
+    }
+
+    double errorRatePercent() {
+        long requests = requests();
+        return requests == 0 ? 0 : 100.0 * failed() / requests;
+    }
+
+    double percentileMicros(double percentile) {
+        return latencies.getValueAtPercentile(percentile);
+    }
+
+    double maxMicros() {
+        return latencies.getMaxValue();
+    }
+
+    /**
+     * 錯誤原因與次數，依原因排序。
+     */
+    Map<String, Long> failures() {
+        Map<String, Long> sorted = new TreeMap<>();
+        failures.forEach((reason, count) -> sorted.put(reason, count.sum()));
+        return sorted;
+    }
+
+    Histogram histogram() {
+        return latencies;
+    }
+
+}
@@ -0,0 +1,69 @@
+package io.github.montytsai.authkit.loadtest;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * **延遲 SLO 門檻。**
+ * 由 {@code slo.<scenario>.<metric>=<limit>} 設定，{@code <scenario>} 為情境名稱或代表所有情境的 {@code *}。
+ *
+ * @apiNote 支援的指標：{@code p50}、{@code p99}、{@code p99.9}、{@code max}（上限為時間長度，例如 {@code 250ms}），
+ *          以及 {@code error-rate}（上限為百分比，例如 {@code 1%}）。
+ *
+ * @param scenario 套用的情境；{@code null} 代表所有情境。
+ * @param metric 指標名稱。
+ * @param limit 上限；延遲以微秒表示，錯誤率以百分比表示。
+ */
+record SloThreshold(Scenario scenario, String metric, double limit) {
+
+    static SloThreshold parse(String key, String value) {
+        String rest = key.substring("slo.".length());
+        int dot = rest.indexOf('.');
+        if (dot < 0) {
+            throw new IllegalArgumentException("Expected slo.<scenario>.<metric> but got '" + key + "'");
+        }
+        String name = rest.substring(0, dot);
+        Scenario scenario = name.equals("*") ? null : Scenario.of(name);
+        String metric = rest.substring(dot + 1).toLowerCase(Locale.ROOT);
+        String limit = value.trim();
+        return switch (metric) {
+            case "p50", "p99", "p99.9", "max" ->
+                    new SloThreshold(scenario, metric, DurationStyle.detectAndParse(limit).toNanos() / 1_000.0);
+            case "error-rate" -> new SloThreshold(scenario, metric,
+                    Double.parseDouble(limit.endsWith("%") ? limit.substring(0, limit.length() - 1) : limit));
+            default -> throw new IllegalArgumentException("Unknown SLO metric '" + metric + "' in " + key);
+        };
+    }
+
+    boolean appliesTo(Scenario candidate) {
+        return scenario == null || scenario == candidate;
+    }
+
+    /**
+     * 以情境結果檢查門檻。
+     *
+     * @return 違反時的說明；符合時為空。
+     */
+    Optional<String> check(ScenarioStats stats) {
+        Scenario target = stats.scenario();
+        if (stats.requests() == 0) {
+            return Optional.of(target.id() + ": no requests were measured");
+        }
+        double actual = switch (metric) {
+            case "p50" -> stats.percentileMicros(50.0);
+            case "p99" -> stats.percentileMicros(99.0);
+            case "p99.9" -> stats.percentileMicros(99.9);
+            case "max" -> stats.maxMicros();
+            default -> stats.errorRatePercent();
+        };
+        if (actual <= limit) {
+            return Optional.empty();
+        }
+        return Optional.of(metric.equals("error-rate")
+                ? String.format(Locale.ROOT, "%s: error-rate %.2f%% > %.2f%%", target.id(), actual, limit)
+                : String.format(Locale.ROOT, "%s: %s %.1f ms > %.1f ms", target.id(), metric, actual / 1_000.0, limit / 1_000.0));
+    }
+
+}
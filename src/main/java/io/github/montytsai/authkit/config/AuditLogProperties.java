@@ -0,0 +1,78 @@
+package io.github.montytsai.authkit.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * **安全稽核日誌設定 (authkit.audit.*)。**
+ * 控制 {@link io.github.montytsai.authkit.security.SecurityAuditLog} 的環形緩衝區大小、批次寫入與檔案輪替。
+ *
+ * @apiNote 稽核日誌記錄每一次登入成功、登入失敗與註冊，不取樣，也不受 {@code authkit.logging.events.*} 的上限影響。
+ *          請求執行緒只把事件放進記憶體緩衝區；事件落地前的最長延遲約為 {@code flush-interval} 加上一次 fsync。
+ */
+@Data
+@ConfigurationProperties(prefix = "authkit.audit")
+public class AuditLogProperties {
+
+    /**
+     * 緩衝區已滿時發佈端的處理方式。
+     */
+    public enum Backpressure {
+        /** 立即丟棄並計數；被丟棄的數量之後以一行 {@code audit_dropped} 寫入稽核檔。 */
+        DROP,
+        /** 等待寫入執行緒騰出空間，最多 {@code block-timeout}，逾時才丟棄。 */
+        BLOCK
+    }
+
+    /**
+     * 是否啟用稽核日誌。
+     */
+    private boolean enabled = true;
+
+    /**
+     * 稽核檔目錄；檔名為 {@code audit-<序號>.ndjson}。
+     */
+    private Path directory = Path.of("data", "audit");
+
+    /**
+     * 環形緩衝區的事件數，向上取整為 2 的次方。
+     */
+    private int bufferSize = 65_536;
+
+    /**
+     * 每次寫入（與 fsync）最多包含的事件數。
+     */
+    private int batchSize = 4_096;
+
+    /**
+     * 緩衝區沒有事件時寫入執行緒的等待時間，也就是新事件最久多久後開始寫入。
+     */
+    private Duration flushInterval = Duration.ofMillis(20);
+
+    /**
+     * 每個批次寫入後是否呼叫 fsync（同一批次的事件共用一次 fsync）。
+     */
+    private boolean syncOnWrite = true;
+
+    /**
+     * 單一稽核檔的大小上限，超過後輪替到下一個檔案。
+     */
+    private DataSize maxFileSize = DataSize.ofMegabytes(64);
+
+    /**
+     * 保留的稽核檔數量，超過時刪除最舊的檔案；{@code 0} 代表全部保留。
+     */
+    private int maxFiles = 0;
+
+    private Backpressure backpressure = Backpressure.DROP;
+
+    /**
+     * {@link Backpressure#BLOCK} 時最長的等待時間。
+     */
+    private Duration blockTimeout = Duration.ofMillis(100);
+
+}
@@ -0,0 +1,29 @@
+package io.github.montytsai.authkit.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * **認證事件日誌設定 (authkit.logging.events.*)。**
+ * 控制 {@link io.github.montytsai.authkit.metrics.AuthEventLogger} 對成功事件的取樣比例。
+ *
+ * @apiNote 失敗事件（密碼錯誤、限流、註冊衝突）一律記錄，只有成功的登入與註冊會被取樣；
+ *          正式環境 ({@code prod} profile) 預設只記錄 1%，總量請以 {@code authkit_login_attempts_total} 指標為準。
+ *          失敗事件另有每秒上限，撞庫時超出的部分只彙總為一行計數。
+ */
+@Data
+@ConfigurationProperties(prefix = "authkit.logging.events")
+public class AuthEventLogProperties {
+
+    /**
+     * 成功事件的記錄比例，介於 {@code 0.0}（不記錄）與 {@code 1.0}（全部記錄）之間。
+     */
+    private double successSampleRate = 1.0;
+
+    /**
+     * 每秒最多逐筆記錄的失敗事件數；超出的失敗只計數，並在之後以一行 {@code event=failures_suppressed} 彙總。
+     * {@code 0} 代表不設上限。
+     */
+    private int maxFailuresPerSecond = 100;
+
+}
@@ -0,0 +1,33 @@
+package io.github.montytsai.authkit.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * **已驗證憑證快取設定 (authkit.credential-cache.*)。**
+ * 控制是否快取成功的密碼驗證結果，以及快取的存活時間與容量上限。
+ *
+ * @apiNote 預設關閉；只有在同一組帳密被大量重複登入（服務帳號、行動裝置）時才建議開啟。
+ */
+@Data
+@ConfigurationProperties(prefix = "authkit.credential-cache")
+public class CredentialCacheProperties {
+
+    /**
+     * 是否啟用已驗證憑證快取。
+     */
+    private boolean enabled = false;
+
+    /**
+     * 每筆驗證結果自寫入起的存活時間。
+     */
+    private Duration ttl = Duration.ofMinutes(10);
+
+    /**
+     * 快取最多保留的帳號數量，超過時依使用頻率淘汰。
+     */
+    private long maxSize = 10_000;
+
+}
@@ -0,0 +1,122 @@
+package io.github.montytsai.authkit.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * **JWT 簽發與驗證設定 (authkit.jwt.*)。**
+ * 定義簽章演算法、金鑰環（以 key id 區分）、Token 期限、已驗證 Token 快取容量與撤銷名單。
+ *
+ * @apiNote 金鑰輪替：新增一把金鑰並將 {@code activeKeyId} 指向它，舊金鑰保留在金鑰環中直到其簽發的 Token 全數過期。
+ *          未設定任何金鑰時會於啟動時產生臨時金鑰，重啟後先前簽發的 Token 將全部失效，僅適用於開發環境。
+ */
+@Data
+@ConfigurationProperties(prefix = "authkit.jwt")
+public class JwtProperties {
+
+    /**
+     * 支援的簽章演算法。
+     */
+    public enum Algorithm {
+        /** HMAC-SHA256，對稱金鑰。 */
+        HS256,
+        /** ECDSA P-256 + SHA-256，非對稱金鑰。 */
+        ES256
+    }
+
+    private Algorithm algorithm = Algorithm.HS256;
+
+    /**
+     * 寫入 {@code iss} claim 並於驗證時比對的簽發者名稱。
+     */
+    private String issuer = "auth-kit";
+
+    /**
+     * Access Token 的有效期限。
+     */
+    private Duration accessTokenTtl = Duration.ofMinutes(15);
+
+    /**
+     * Refresh Token 的有效期限；每次換發都會簽發新的 Refresh Token 並重新計算期限。
+     */
+    private Duration refreshTokenTtl = Duration.ofDays(14);
+
+    /**
+     * 簽發新 Token 時使用的 key id（寫入 JWS 標頭的 {@code kid}）。
+     */
+    private String activeKeyId = "default";
+
+    /**
+     * HS256 金鑰環：key id → Base64 編碼的密鑰（至少 32 bytes）。
+     */
+    private Map<String, String> hmacSecrets = new LinkedHashMap<>();
+
+    /**
+     * ES256 金鑰環：key id → 金鑰對。非啟用中的金鑰可只提供公鑰。
+     */
+    private Map<String, EcKey> ecKeys = new LinkedHashMap<>();
+
+    /**
+     * 已驗證 Token 快取的最大筆數。
+     */
+    private long verifiedTokenCacheSize = 10_000;
+
+    private final Revocation revocation = new Revocation();
+
+    /**
+     * **ES256 金鑰對 (Base64 DER)。**
+     */
+    @Data
+    public static class EcKey {
+
+        /**
+         * PKCS#8 格式私鑰。
+         */
+        private String privateKey;
+
+        /**
+         * X.509 (SubjectPublicKeyInfo) 格式公鑰。
+         */
+        private String publicKey;
+
+    }
+
+    /**
+     * **Token 撤銷名單設定 (authkit.jwt.revocation.*)。**
+     */
+    @Data
+    public static class Revocation {
+
+        /**
+         * 撤銷名單檔路徑（固定長度的二進位紀錄，僅附加寫入）。
+         */
+        private Path path = Path.of("data", "revoked-tokens.bin");
+
+        /**
+         * 每次撤銷後是否呼叫 fsync；關閉時斷電可能遺失最後幾筆登出。
+         */
+        private boolean syncOnWrite = true;
+
+        /**
+         * Bloom filter 的預期撤銷筆數；實際筆數超過時會在下次壓縮以兩倍容量重建。
+         */
+        private long expectedRevocations = 100_000;
+
+        /**
+         * Bloom filter 的目標偽陽性率；偽陽性只會多做一次記憶體中的精確查詢。
+         */
+        private double falsePositiveRate = 0.01;
+
+        /**
+         * 清除已過期紀錄、重寫檔案並重建 Bloom filter 的週期；{@code 0} 代表停用。
+         */
+        private Duration compactionInterval = Duration.ofHours(1);
+
+    }
+
+}
@@ -0,0 +1,55 @@
+package io.github.montytsai.authkit.config;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.type.MethodMetadata;
+import org.springframework.stereotype.Component;
+
+/**
+ * **延遲初始化 Swagger / springdoc Bean。**
+ * 將 {@code org.springdoc} 套件宣告的 Bean 標記為 lazy，讓它們在第一次請求 {@code /api-docs} 或 Swagger UI 時才建立，
+ * 不在每個新節點的啟動路徑上掃描控制器與產生 OpenAPI 模型。
+ *
+ * @apiNote 預設啟用；設定 {@code authkit.startup.lazy-springdoc=false} 可恢復啟動時初始化。
+ *          第一次開啟 API 文件會多花數百毫秒，登入相關端點不受影響。
+ * @implNote springdoc 部分 Bean 以 {@code @Lazy(false)} 宣告，因此不使用全域的 {@code spring.main.lazy-initialization}，
+ *           而是在 Bean 定義層級直接覆寫；{@link BeanFactoryPostProcessor} 與 {@code BeanPostProcessor} 本身不受 lazy 影響。
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "authkit.startup", name = "lazy-springdoc", havingValue = "true", matchIfMissing = true)
+public class LazySpringDocPostProcessor implements BeanFactoryPostProcessor {
+
+    private static final String SPRINGDOC_PACKAGE = "org.springdoc.";
+
+    @Override
+    public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) {
+        int deferred = 0;
+        for (String name : beanFactory.getBeanDefinitionNames()) {
+            BeanDefinition definition = beanFactory.getBeanDefinition(name);
+            if (isSpringDoc(definition) && !definition.isLazyInit()) {
+                definition.setLazyInit(true);
+                deferred++;
+            }
+        }
+        log.debug("Deferred initialization of {} springdoc beans.", deferred);
+    }
+
+    private static boolean isSpringDoc(BeanDefinition definition) {
+        String className = definition.getBeanClassName();
+        if (className != null && className.startsWith(SPRINGDOC_PACKAGE)) {
+            return true;
+        }
+        if (definition instanceof AnnotatedBeanDefinition annotated) {
+            MethodMetadata factoryMethod = annotated.getFactoryMethodMetadata();
+            return factoryMethod != null && factoryMethod.getDeclaringClassName().startsWith(SPRINGDOC_PACKAGE);
+        }
+        return false;
+    }
+
+}
@@ -0,0 +1,83 @@
+package io.github.montytsai.authkit.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * **登入限流與暴力破解鎖定設定 (authkit.rate-limit.*)。**
+ * 控制每個 email 與每個來源 IP 的 token bucket，以及連續密碼錯誤後的指數鎖定。
+ *
+ * @apiNote 來源 IP 取自 {@code HttpServletRequest#getRemoteAddr()}；部署在反向代理之後時，
+ *          請設定 {@code server.forward-headers-strategy=native} 或 {@code framework} 讓它反映真實客戶端。
+ */
+@Data
+@ConfigurationProperties(prefix = "authkit.rate-limit")
+public class LoginRateLimitProperties {
+
+    /**
+     * 是否啟用登入限流。
+     */
+    private boolean enabled = true;
+
+    /**
+     * 每個 email 的登入嘗試配額。
+     */
+    private final Bucket email = new Bucket(10, Duration.ofSeconds(6));
+
+    /**
+     * 每個來源 IP 的登入嘗試配額。
+     */
+    private final Bucket ip = new Bucket(100, Duration.ofMillis(600));
+
+    private final Lockout lockout = new Lockout();
+
+    /**
+     * 每種鍵（email、IP、失敗紀錄）最多追蹤的數量，超過時依使用頻率淘汰，避免大量相異鍵耗盡記憶體。
+     */
+    private long maxKeys = 1_000_000;
+
+    /**
+     * 鍵在最後一次存取後保留的時間；應大於 {@code lockout.max}，否則鎖定可能提早被淘汰。
+     */
+    private Duration idleTimeout = Duration.ofMinutes(30);
+
+    /**
+     * **Token bucket 設定。**
+     * 最多累積 {@code capacity} 個 token（可瞬間連續嘗試的次數），每 {@code refillPeriod} 補充一個。
+     */
+    @Data
+    public static class Bucket {
+
+        private int capacity;
+
+        private Duration refillPeriod;
+
+        public Bucket() {
+        }
+
+        Bucket(int capacity, Duration refillPeriod) {
+            this.capacity = capacity;
+            this.refillPeriod = refillPeriod;
+        }
+
+    }
+
+    /**
+     * **連續密碼錯誤的指數鎖定設定 (authkit.rate-limit.lockout.*)。**
+     * 同一 email 連續失敗 {@code threshold} 次後鎖定 {@code initial}，之後每多失敗一次鎖定時間加倍，上限為 {@code max}；
+     * 登入成功即重設。
+     */
+    @Data
+    public static class Lockout {
+
+        private int threshold = 5;
+
+        private Duration initial = Duration.ofSeconds(30);
+
+        private Duration max = Duration.ofMinutes(15);
+
+    }
+
+}
@@ -0,0 +1,32 @@
+package io.github.montytsai.authkit.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * **登入回應時間等化設定 (authkit.login-timing.*)。**
+ * 控制帳號不存在時如何讓回應時間與「帳號存在但密碼錯誤」一致，避免以回應時間推測 email 是否已註冊。
+ *
+ * @apiNote 開啟時（預設）不存在的帳號以「等待一段抽樣自近期真實驗證耗時的時間」取代假的密碼雜湊；
+ *          關閉時回到每次都對假雜湊做一次完整比對的作法（Spring Security 預設行為）。
+ */
+@Data
+@ConfigurationProperties(prefix = "authkit.login-timing")
+public class LoginTimingProperties {
+
+    /**
+     * 是否以延遲取代假雜湊。
+     */
+    private boolean pacing = true;
+
+    /**
+     * 保留的近期驗證耗時樣本數；延遲從這些樣本中隨機抽取。
+     */
+    private int samples = 256;
+
+    /**
+     * 開始以延遲取代假雜湊前所需的最少樣本數；樣本不足時仍執行假雜湊並記錄其耗時。
+     */
+    private int warmUpSamples = 8;
+
+}
@@ -0,0 +1,146 @@
+package io.github.montytsai.authkit.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * **密碼雜湊演算法設定 (authkit.password.*)。**
+ * 選擇新密碼使用的演算法（BCrypt、Argon2id 或 scrypt）與各自的參數，以及登入成功後是否在背景將過時的雜湊升級。
+ *
+ * @apiNote {@code bcrypt.strength} 為 0 時，啟動時會依 {@code bcrypt.target-latency} 在當前機器上校準成本因子。
+ *          Argon2id 與 scrypt 每次雜湊都需配置固定的記憶體，同時進行的雜湊數受雜湊工作池大小限制，
+ *          因此單一節點的尖峰雜湊記憶體約為 {@code authkit.hashing.pool-size} × 單次記憶體。
+ */
+@Data
+@ConfigurationProperties(prefix = "authkit.password")
+public class PasswordEncoderProperties {
+
+    /**
+     * 登入成功後，若使用者的雜湊成本低於目前設定，是否在背景重新雜湊。
+     */
+    private boolean rehashOnLogin = true;
+
+    /**
+     * 新密碼使用的演算法；既有雜湊依其 {@code {id}} 前綴驗證，沒有前綴的雜湊視為 BCrypt。
+     */
+    private Algorithm algorithm = Algorithm.BCRYPT;
+
+    private final BCrypt bcrypt = new BCrypt();
+
+    private final Argon2 argon2 = new Argon2();
+
+    private final SCrypt scrypt = new SCrypt();
+
+    /**
+     * **密碼雜湊演算法。**
+     */
+    public enum Algorithm {
+
+        BCRYPT("bcrypt"),
+        ARGON2ID("argon2"),
+        SCRYPT("scrypt");
+
+        private final String id;
+
+        Algorithm(String id) {
+            this.id = id;
+        }
+
+        /**
+         * 儲存時的 {@code {id}} 前綴（不含大括號），與 Spring Security 的 {@code DelegatingPasswordEncoder} 慣例一致。
+         */
+        public String id() {
+            return id;
+        }
+
+    }
+
+    /**
+     * **BCrypt 設定 (authkit.password.bcrypt.*)。**
+     */
+    @Data
+    public static class BCrypt {
+
+        /**
+         * 固定的成本因子 (4–31)；0 代表於啟動時自動校準。
+         */
+        private int strength = 0;
+
+        /**
+         * 自動校準的目標單次驗證延遲。
+         */
+        private Duration targetLatency = Duration.ofMillis(80);
+
+        /**
+         * 自動校準允許的最低成本因子，確保在高速機器上也不低於安全下限。
+         */
+        private int minStrength = 10;
+
+        /**
+         * 自動校準允許的最高成本因子。
+         */
+        private int maxStrength = 16;
+
+    }
+
+    /**
+     * **Argon2id 設定 (authkit.password.argon2.*)。**
+     * 預設值為 OWASP 建議的最低設定（19 MiB、2 次迭代、1 條 lane）。
+     */
+    @Data
+    public static class Argon2 {
+
+        /**
+         * 每次雜湊使用的記憶體。
+         */
+        private DataSize memory = DataSize.ofMegabytes(19);
+
+        /**
+         * 迭代次數 (t)。
+         */
+        private int iterations = 2;
+
+        /**
+         * 平行度 (p)，即記憶體分成的 lane 數。
+         */
+        private int parallelism = 1;
+
+        private int saltLength = 16;
+
+        private int hashLength = 32;
+
+    }
+
+    /**
+     * **scrypt 設定 (authkit.password.scrypt.*)。**
+     * 預設值為 OWASP 建議的等效設定之一（N=2^15、r=8、p=3，每次約 32 MiB）。
+     */
+    @Data
+    public static class SCrypt {
+
+        /**
+         * CPU／記憶體成本 (N)，必須是 2 的次方。
+         */
+        private int cpuCost = 1 << 15;
+
+        /**
+         * 區塊大小 (r)；每次雜湊使用約 {@code 128 × N × r} bytes 記憶體。
+         */
+        private int blockSize = 8;
+
+        /**
+         * 平行度 (p)。
+         */
+        private int parallelism = 3;
+
+        private int saltLength = 16;
+
+        private int keyLength = 32;
+
+    }
+
+}
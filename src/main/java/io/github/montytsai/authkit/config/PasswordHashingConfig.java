@@ -0,0 +1,62 @@
+package io.github.montytsai.authkit.config;
+
+import io.github.montytsai.authkit.crypto.HashingAdmission;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * **密碼雜湊工作池配置類。**
+ * 建立專供 BCrypt 運算使用的有界執行緒池，與 Tomcat 請求執行緒池隔離。
+ *
+ * @apiNote 佇列滿時採用 {@link ThreadPoolExecutor.AbortPolicy}，由呼叫端轉換為 HTTP 503 快速失敗。
+ */
+@Configuration
+@EnableConfigurationProperties(PasswordHashingProperties.class)
+public class PasswordHashingConfig {
+
+    /**
+     * **密碼雜湊專用執行緒池 Bean。**
+     *
+     * @param properties {@link PasswordHashingProperties} 工作池設定。
+     * @return 固定大小、等待佇列有上限的 {@link ThreadPoolExecutor}。
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ThreadPoolExecutor passwordHashingExecutor(PasswordHashingProperties properties) {
+        int poolSize = properties.resolvePoolSize();
+        return new ThreadPoolExecutor(
+                poolSize, poolSize,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(properties.getQueueCapacity()),
+                hashingThreadFactory(),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * **雜湊准入名額 Bean。**
+     *
+     * @param properties {@link PasswordHashingProperties} 工作池設定。
+     * @return 名額數等於工作池大小加上等待佇列容量的 {@link HashingAdmission}。
+     */
+    @Bean
+    public HashingAdmission hashingAdmission(PasswordHashingProperties properties) {
+        return HashingAdmission.forPool(properties.resolvePoolSize(), properties.getQueueCapacity());
+    }
+
+    private static ThreadFactory hashingThreadFactory() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "password-hashing-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+}
@@ -0,0 +1,40 @@
+package io.github.montytsai.authkit.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * **密碼雜湊工作池設定 (authkit.hashing.*)。**
+ * 控制專用於 BCrypt 運算的執行緒池大小與等待佇列容量。
+ *
+ * @apiNote {@code poolSize} 為 0 時，依 CPU 核心數自動決定執行緒數量。
+ */
+@Data
+@ConfigurationProperties(prefix = "authkit.hashing")
+public class PasswordHashingProperties {
+
+    /**
+     * 是否啟用專用雜湊工作池；關閉時 BCrypt 直接在請求執行緒上執行。
+     */
+    private boolean enabled = true;
+
+    /**
+     * 雜湊執行緒數量，0 代表使用 {@link Runtime#availableProcessors()}。
+     */
+    private int poolSize = 0;
+
+    /**
+     * 等待佇列容量，佇列滿時新的雜湊請求會立即被拒絕 (HTTP 503)。
+     */
+    private int queueCapacity = 64;
+
+    /**
+     * 取得實際生效的執行緒數量。
+     *
+     * @return 大於 0 的執行緒數。
+     */
+    public int resolvePoolSize() {
+        return poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+    }
+
+}
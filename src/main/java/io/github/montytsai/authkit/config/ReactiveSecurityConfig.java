@@ -0,0 +1,152 @@
+package io.github.montytsai.authkit.config;
+
+import io.github.montytsai.authkit.crypto.HashingAdmission;
+import io.github.montytsai.authkit.crypto.PasswordAlgorithms;
+import io.github.montytsai.authkit.crypto.ReactiveHashingScheduler;
+import io.github.montytsai.authkit.crypto.TimedPasswordEncoder;
+import io.github.montytsai.authkit.security.JwtAuthenticationWebFilter;
+import io.github.montytsai.authkit.security.JwtService;
+import io.github.montytsai.authkit.security.LoginTimingEqualizer;
+import io.github.montytsai.authkit.security.ReactivePasswordAuthenticationManager;
+import io.github.montytsai.authkit.security.ReactiveUserDetailsServiceAdapter;
+import io.github.montytsai.authkit.security.VerifiedCredentialCache;
+import io.github.montytsai.authkit.service.AuthService;
+import io.github.montytsai.authkit.service.PasswordUpgradeService;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.authentication.HttpStatusServerEntryPoint;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * **Spring Security 配置類（響應式堆疊）。**
+ * 以 {@code reactive} profile（{@code spring.main.web-application-type=reactive}）啟動時取代 {@link SecurityConfig}
+ * 中 Servlet 專用的部分：WebFlux 安全過濾鏈、響應式認證管理器，以及不經 {@code BoundedPasswordEncoder} 的密碼加密器。
+ *
+ * @apiNote 授權規則與 {@link SecurityConfig#securityFilterChain} 相同；其餘共用 Bean（{@link JwtService}、
+ *          {@link PasswordAlgorithms}、限流器、快取等）仍由 {@link SecurityConfig} 提供。
+ */
+@Configuration
+@EnableWebFluxSecurity
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveSecurityConfig {
+
+    /**
+     * **配置 WebFlux 的安全過濾鏈。**
+     *
+     * @param http {@link ServerHttpSecurity} 用於配置 web 安全。
+     * @param jwtService 用於驗證 Bearer Token 的 {@link JwtService}。
+     * @param importProperties 提供可呼叫管理端點的帳號清單。
+     * @return 配置好的 {@link SecurityWebFilterChain} 實例。
+     * @implSpec 停用 CSRF、HTTP Basic 與表單登入，不保存安全上下文；身份完全由 {@link JwtAuthenticationWebFilter}
+     *           從 Bearer Token 還原，未認證的請求回傳 401。與 Servlet 堆疊相同，{@code /api/admin/**} 與 {@code /actuator/prometheus} 僅限管理帳號。
+     */
+    @Bean
+    public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http, JwtService jwtService,
+                                                         UserImportProperties importProperties) {
+        return http.csrf(ServerHttpSecurity.CsrfSpec::disable)
+                .httpBasic(ServerHttpSecurity.HttpBasicSpec::disable)
+                .formLogin(ServerHttpSecurity.FormLoginSpec::disable)
+                .securityContextRepository(NoOpServerSecurityContextRepository.getInstance())
+                .exceptionHandling(ex -> ex.authenticationEntryPoint(new HttpStatusServerEntryPoint(HttpStatus.UNAUTHORIZED)))
+                .addFilterAt(new JwtAuthenticationWebFilter(jwtService), SecurityWebFiltersOrder.AUTHENTICATION)
+                .authorizeExchange(exchanges -> exchanges
+                        .pathMatchers("/", "/api/auth/**", "/actuator/health/**").permitAll()
+                        .pathMatchers("/api/admin/**", "/actuator/prometheus").access((authentication, context) -> authentication
+                                .map(current -> new AuthorizationDecision(SecurityConfig.isAdmin(current, importProperties)))
+                                .defaultIfEmpty(new AuthorizationDecision(false)))
+                        .anyExchange().authenticated())
+                .build();
+    }
+
+    /**
+     * **Netty 伺服器工廠。**
+     * Servlet 與 WebFlux 堆疊同時在 classpath 上時，Spring Boot 預設以 Tomcat 承載響應式應用；
+     * 明確指定 Netty，讓少數事件迴圈執行緒即可維持大量慢速客戶端連線。
+     *
+     * @return {@link NettyReactiveWebServerFactory} 實例，{@code server.*} 與 {@code server.netty.*} 設定仍會套用。
+     */
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    /**
+     * **雜湊排程器 Bean。**
+     *
+     * @param passwordHashingExecutor 雜湊專用執行緒池。
+     * @param hashingAdmission 密碼比對與帳號不存在時的延遲等待共用的准入名額。
+     * @param meterRegistry 用於輸出佇列深度與拒絕次數的指標。
+     * @return 以雜湊工作池執行任務的 {@link ReactiveHashingScheduler}。
+     */
+    @Bean
+    public ReactiveHashingScheduler reactiveHashingScheduler(ThreadPoolExecutor passwordHashingExecutor,
+                                                             HashingAdmission hashingAdmission,
+                                                             MeterRegistry meterRegistry) {
+        return new ReactiveHashingScheduler(passwordHashingExecutor, hashingAdmission, meterRegistry);
+    }
+
+    /**
+     * **密碼加密器 Bean（響應式堆疊）。**
+     *
+     * @param passwordAlgorithms 已解析的演算法與參數。
+     * @param meterRegistry 用於輸出雜湊延遲的指標。
+     * @return 以 {@link TimedPasswordEncoder} 包裝的 {@code {id}} 分派加密器。
+     * @implNote 呼叫端（{@link ReactiveHashingScheduler} 上的任務、背景升級執行緒）本身已不在事件迴圈上，
+     *           因此不再以 {@code BoundedPasswordEncoder} 轉交工作池，避免工作池執行緒等待自己。
+     */
+    @Bean
+    public PasswordEncoder reactivePasswordEncoder(PasswordAlgorithms passwordAlgorithms, MeterRegistry meterRegistry) {
+        return new TimedPasswordEncoder(passwordAlgorithms.delegatingEncoder(), meterRegistry);
+    }
+
+    /**
+     * **響應式使用者載入 Bean。**
+     *
+     * @param authService 作為 {@link org.springframework.security.core.userdetails.UserDetailsService} 的認證服務。
+     * @return 在 {@link Schedulers#boundedElastic()} 上查詢使用者儲存的 {@link ReactiveUserDetailsServiceAdapter}。
+     */
+    @Bean
+    public ReactiveUserDetailsService reactiveUserDetailsService(AuthService authService) {
+        return new ReactiveUserDetailsServiceAdapter(authService, Schedulers.boundedElastic());
+    }
+
+    /**
+     * **響應式帳密認證管理器 Bean。**
+     *
+     * @param userDetailsService 響應式使用者載入。
+     * @param reactivePasswordEncoder 密碼比對使用的加密器。
+     * @param hashingScheduler 執行密碼比對的雜湊排程器。
+     * @param credentialCache 已驗證憑證快取（關閉時一律未命中）。
+     * @param passwordUpgradeService 登入成功後在背景升級過時雜湊的服務。
+     * @param timingEqualizer 讓不存在帳號的回應時間與密碼錯誤一致的等化器。
+     * @return {@link ReactivePasswordAuthenticationManager} 實例。
+     */
+    @Bean
+    public ReactiveAuthenticationManager reactiveAuthenticationManager(ReactiveUserDetailsService userDetailsService,
+                                                                       PasswordEncoder reactivePasswordEncoder,
+                                                                       ReactiveHashingScheduler hashingScheduler,
+                                                                       VerifiedCredentialCache credentialCache,
+                                                                       PasswordUpgradeService passwordUpgradeService,
+                                                                       LoginTimingEqualizer timingEqualizer) {
+        return new ReactivePasswordAuthenticationManager(userDetailsService, reactivePasswordEncoder, hashingScheduler,
+                credentialCache, passwordUpgradeService, timingEqualizer);
+    }
+
+}
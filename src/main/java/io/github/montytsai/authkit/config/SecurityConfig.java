@@ -1,24 +1,67 @@
 package io.github.montytsai.authkit.config;
 
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.github.montytsai.authkit.crypto.BCryptStrengthCalibrator;
+import io.github.montytsai.authkit.crypto.BoundedPasswordEncoder;
+import io.github.montytsai.authkit.crypto.HashingAdmission;
+import io.github.montytsai.authkit.crypto.PasswordAlgorithms;
+import io.github.montytsai.authkit.crypto.TimedPasswordEncoder;
+import io.github.montytsai.authkit.exception.AuthFailures;
+import io.github.montytsai.authkit.security.CachingDaoAuthenticationProvider;
+import io.github.montytsai.authkit.security.JwtAuthenticationFilter;
+import io.github.montytsai.authkit.security.JwtService;
+import io.github.montytsai.authkit.security.LoginRateLimiter;
+import io.github.montytsai.authkit.security.LoginTimingEqualizer;
+import io.github.montytsai.authkit.security.SecurityAuditLog;
+import io.github.montytsai.authkit.security.TokenRevocationStore;
+import io.github.montytsai.authkit.security.VerifiedCredentialCache;
+import io.github.montytsai.authkit.service.AuthService;
+import io.github.montytsai.authkit.service.PasswordUpgradeService;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.DefaultAuthenticationEventPublisher;
+import org.springframework.security.authorization.AuthorizationDecision;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
-import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.util.concurrent.ThreadPoolExecutor;
 
 /**
  * **Spring Security 配置類。**
  * 定義應用程式的 Web 安全策略：HTTP 請求授權、CSRF 禁用與認證相關 Bean。
  *
  * @apiNote 針對 RESTful API 需求客製化了 Spring Security 的預設行為。
+ *          Servlet 專用的過濾鏈、認證管理器與密碼加密器只在 Servlet 堆疊下建立；
+ *          {@code reactive} profile 下由 {@link ReactiveSecurityConfig} 提供對應的 Bean。
+ * @implNote 不標註 {@code @EnableWebSecurity}：Servlet 堆疊下由 Spring Boot 自動啟用；
+ *           響應式堆疊下它與 {@code @EnableWebFluxSecurity} 會註冊同名 Bean 而無法啟動。
  */
 @Configuration
-@EnableWebSecurity
+@EnableConfigurationProperties({CredentialCacheProperties.class, JwtProperties.class, PasswordEncoderProperties.class,
+        UserImportProperties.class, LoginRateLimitProperties.class, LoginTimingProperties.class,
+        AuthEventLogProperties.class, AuditLogProperties.class})
+@Slf4j
 public class SecurityConfig {
 
     /**
@@ -26,28 +69,48 @@ public class SecurityConfig {
      * 定義請求授權規則及核心安全設定
      *
      * @param http {@link HttpSecurity} 用於配置 web 安全。
+     * @param jwtService 用於驗證 Bearer Token 的 {@link JwtService}。
+     * @param importProperties 提供可呼叫管理端點的帳號清單。
      * @return 配置好的 {@link SecurityFilterChain} 實例。
      * @throws Exception 如果配置過程中發生錯誤。
      *
      * @implSpec
      * - **CSRF 禁用：** 適用於無狀態 RESTful API (如 JWT 認證)，降低了 CSRF 攻擊風險並簡化前後端。
-     * - **授權規則：** `/,`/api/auth/**`, swagger 允許匿名訪問；其餘任何請求均需身份驗證。
+     * - **授權規則：** `/,`/api/auth/**`, swagger, `/actuator/health/**` 允許匿名訪問；
+     *   `/api/admin/**` 與 `/actuator/prometheus` 僅限 {@code authkit.import.admins} 中的帳號；其餘任何請求均需身份驗證。
+     * - **無狀態：** 不建立 HTTP Session，身份完全由 {@link JwtAuthenticationFilter} 從 Bearer Token 還原；
+     *   未認證的請求回傳 401。
      */
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, JwtService jwtService,
+                                                   UserImportProperties importProperties) throws Exception {
         http.csrf(AbstractHttpConfigurer::disable)
+                .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                .exceptionHandling(ex -> ex.authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED)))
+                .addFilterBefore(new JwtAuthenticationFilter(jwtService), UsernamePasswordAuthenticationFilter.class)
                 .authorizeHttpRequests(authz -> authz
                         // 確保以下所有路徑都包含在內
                         .requestMatchers(
                                 "/",
                                 "/api/auth/**",
-                                "/swagger-ui/**", "/api-docs/**"
+                                "/swagger-ui/**", "/api-docs/**",
+                                "/actuator/health/**"
                         ).permitAll()
+                        .requestMatchers("/api/admin/**", "/actuator/prometheus").access((authentication, context) ->
+                                new AuthorizationDecision(isAdmin(authentication.get(), importProperties)))
                         .anyRequest().authenticated()
                 );
         return http.build();
     }
 
+    static boolean isAdmin(Authentication authentication, UserImportProperties importProperties) {
+        return authentication != null
+                && authentication.isAuthenticated()
+                && !(authentication instanceof AnonymousAuthenticationToken)
+                && importProperties.getAdmins().contains(authentication.getName());
+    }
+
     /**
      * **定義並公開 {@link AuthenticationManager} Bean**
      * 負責協調和執行身份驗證請求，利用已配置的 {@link org.springframework.security.core.userdetails.UserDetailsService}
@@ -58,21 +121,221 @@ public class SecurityConfig {
      * @throws Exception 如果獲取過程中發生錯誤。
      */
     @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
     public AuthenticationManager authenticationManager(AuthenticationConfiguration authConfig) throws Exception {
         return authConfig.getAuthenticationManager();
     }
 
+    /**
+     * **定義帳密認證提供者 {@link AuthenticationProvider} Bean**
+     * 以 {@link AuthService} 載入使用者，並在完整密碼比對前查詢 {@link VerifiedCredentialCache}。
+     *
+     * @param authService 作為 {@link org.springframework.security.core.userdetails.UserDetailsService} 的認證服務。
+     * @param passwordEncoder 密碼比對使用的加密器。
+     * @param credentialCache 已驗證憑證快取（關閉時一律未命中）。
+     * @param passwordUpgradeService 登入成功後在背景升級過時雜湊的服務。
+     * @param timingEqualizer 讓不存在帳號的回應時間與密碼錯誤一致的等化器。
+     * @return {@link CachingDaoAuthenticationProvider} 實例。
+     */
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    public AuthenticationProvider authenticationProvider(AuthService authService,
+                                                         PasswordEncoder passwordEncoder,
+                                                         VerifiedCredentialCache credentialCache,
+                                                         PasswordUpgradeService passwordUpgradeService,
+                                                         LoginTimingEqualizer timingEqualizer) {
+        return new CachingDaoAuthenticationProvider(authService, passwordEncoder, credentialCache,
+                passwordUpgradeService, timingEqualizer);
+    }
+
+    /**
+     * **認證事件發佈器 Bean。**
+     * 取代 Spring Boot 預設的 {@link DefaultAuthenticationEventPublisher}，加入 {@link AuthFailures} 不帶堆疊異常的事件對應。
+     *
+     * @param applicationEventPublisher 實際發佈事件的容器。
+     * @return 與預設行為相同、但能辨識 {@link AuthFailures} 異常的 {@link DefaultAuthenticationEventPublisher}。
+     * @implNote 預設發佈器以異常的實際類別名稱查表，子類別查不到對應時不會發佈失敗事件。
+     */
+    @Bean
+    public DefaultAuthenticationEventPublisher authenticationEventPublisher(
+            ApplicationEventPublisher applicationEventPublisher) {
+        DefaultAuthenticationEventPublisher publisher = new DefaultAuthenticationEventPublisher(applicationEventPublisher);
+        publisher.setAdditionalExceptionMappings(AuthFailures.failureEventMappings());
+        return publisher;
+    }
+
+    /**
+     * **Token 撤銷名單 Bean。**
+     *
+     * @param properties {@link JwtProperties} 中的撤銷名單設定。
+     * @return {@link TokenRevocationStore} 實例，容器關閉時自動呼叫 {@code close()}。
+     * @throws IOException 如果撤銷名單檔無法開啟或格式不正確。
+     */
+    @Bean
+    public TokenRevocationStore tokenRevocationStore(JwtProperties properties) throws IOException {
+        return new TokenRevocationStore(properties.getRevocation(), Clock.systemUTC());
+    }
+
+    /**
+     * **安全稽核日誌 Bean。**
+     *
+     * @param properties {@link AuditLogProperties} 緩衝區、批次與檔案輪替設定。
+     * @param meterRegistry 用於輸出已寫入、丟棄、寫入失敗與待寫入的事件數。
+     * @return {@link SecurityAuditLog} 實例，容器關閉時自動呼叫 {@code close()}，寫完緩衝區中的事件。
+     * @throws IOException 如果無法建立稽核目錄或檔案。
+     */
+    @Bean
+    public SecurityAuditLog securityAuditLog(AuditLogProperties properties, MeterRegistry meterRegistry) throws IOException {
+        SecurityAuditLog auditLog = new SecurityAuditLog(properties, Clock.systemUTC());
+        FunctionCounter.builder("authkit.audit.events", auditLog, SecurityAuditLog::writtenEvents)
+                .description("Security audit events written to the audit file")
+                .tag("outcome", "written")
+                .register(meterRegistry);
+        FunctionCounter.builder("authkit.audit.events", auditLog, SecurityAuditLog::droppedEvents)
+                .description("Security audit events dropped because the buffer was full")
+                .tag("outcome", "dropped")
+                .register(meterRegistry);
+        FunctionCounter.builder("authkit.audit.events", auditLog, SecurityAuditLog::failedEvents)
+                .description("Security audit events lost to a failed write or fsync")
+                .tag("outcome", "failed")
+                .register(meterRegistry);
+        Gauge.builder("authkit.audit.buffer.pending", auditLog, SecurityAuditLog::pendingEvents)
+                .description("Security audit events waiting in the ring buffer")
+                .register(meterRegistry);
+        return auditLog;
+    }
+
+    /**
+     * **JWT 簽發與驗證服務 Bean。**
+     *
+     * @param properties {@link JwtProperties} 演算法與金鑰環設定。
+     * @param revocationStore 已登出工作階段與已使用 Refresh Token 的撤銷名單。
+     * @param storeProperties 用於判斷是否以叢集模式執行。
+     * @return {@link JwtService} 實例。
+     * @throws IllegalStateException 如果以叢集模式執行卻未設定金鑰環：各節點的臨時金鑰不同，
+     *                               在一個節點簽發的 Token 到了其他節點一律驗證失敗。
+     */
+    @Bean
+    public JwtService jwtService(JwtProperties properties, TokenRevocationStore revocationStore,
+                                 UserStoreProperties storeProperties) {
+        boolean keysConfigured = switch (properties.getAlgorithm()) {
+            case HS256 -> !properties.getHmacSecrets().isEmpty();
+            case ES256 -> !properties.getEcKeys().isEmpty();
+        };
+        if (storeProperties.getCluster().isEnabled() && !keysConfigured) {
+            throw new IllegalStateException("authkit.jwt.hmac-secrets (HS256) or authkit.jwt.ec-keys (ES256) must be "
+                    + "set when authkit.store.cluster.enabled=true; every node needs the same signing keys.");
+        }
+        return new JwtService(properties, revocationStore, Clock.systemUTC());
+    }
+
+    /**
+     * **已驗證憑證快取 Bean。**
+     *
+     * @param properties {@link CredentialCacheProperties} 快取設定。
+     * @return {@link VerifiedCredentialCache} 實例。
+     */
+    @Bean
+    public VerifiedCredentialCache verifiedCredentialCache(CredentialCacheProperties properties) {
+        return new VerifiedCredentialCache(properties);
+    }
+
+    /**
+     * **登入回應時間等化器 Bean。**
+     *
+     * @param passwordEncoder 樣本不足時用於假雜湊比對的加密器。
+     * @param properties {@link LoginTimingProperties} 等化設定。
+     * @param hashingProperties 雜湊工作池設定。
+     * @param hashingAdmission 與密碼比對共用的准入名額。
+     * @return {@link LoginTimingEqualizer} 實例。
+     * @implNote 停用雜湊工作池時，密碼比對不受名額限制，延遲等待也改用不限名額的准入，兩者的失敗方式保持一致。
+     */
+    @Bean
+    public LoginTimingEqualizer loginTimingEqualizer(PasswordEncoder passwordEncoder, LoginTimingProperties properties,
+                                                     PasswordHashingProperties hashingProperties,
+                                                     HashingAdmission hashingAdmission) {
+        return new LoginTimingEqualizer(passwordEncoder, properties,
+                hashingProperties.isEnabled() ? hashingAdmission : HashingAdmission.unlimited());
+    }
+
+    /**
+     * **登入限流器 Bean。**
+     *
+     * @param properties {@link LoginRateLimitProperties} 限流與鎖定設定。
+     * @return 以系統單調時鐘計時的 {@link LoginRateLimiter} 實例。
+     */
+    @Bean
+    public LoginRateLimiter loginRateLimiter(LoginRateLimitProperties properties) {
+        return new LoginRateLimiter(properties, Ticker.systemTicker());
+    }
+
+    /**
+     * **密碼雜湊演算法與參數 Bean。**
+     * 解析 BCrypt 成本因子，並依設定建立 BCrypt、Argon2id 與 scrypt 的加密器。
+     *
+     * @param passwordProperties 演算法與參數設定。
+     * @param hashingProperties 雜湊工作池設定，用於估算尖峰雜湊記憶體。
+     * @return {@link PasswordAlgorithms} 實例。
+     * @implNote 只有以 BCrypt 雜湊新密碼且未指定固定成本因子時才在啟動時校準；
+     *           其他演算法下 BCrypt 只用來驗證既有雜湊（成本因子取自雜湊本身），改用 {@code min-strength}。
+     *           尖峰雜湊記憶體（工作池大小 × 單次記憶體）超過最大堆積的四分之一時輸出警告。
+     */
+    @Bean
+    public PasswordAlgorithms passwordAlgorithms(PasswordEncoderProperties passwordProperties,
+                                                 PasswordHashingProperties hashingProperties) {
+        PasswordEncoderProperties.BCrypt settings = passwordProperties.getBcrypt();
+        int strength;
+        if (settings.getStrength() > 0) {
+            strength = settings.getStrength();
+        } else if (passwordProperties.getAlgorithm() == PasswordEncoderProperties.Algorithm.BCRYPT) {
+            strength = BCryptStrengthCalibrator.calibrate(settings.getTargetLatency(), settings.getMinStrength(),
+                    settings.getMaxStrength());
+        } else {
+            strength = settings.getMinStrength();
+        }
+
+        PasswordAlgorithms algorithms = new PasswordAlgorithms(passwordProperties, strength);
+        PasswordAlgorithms.HashingParameters active = algorithms.activeParameters();
+        long peakBytes = active.memoryBytes() * hashingProperties.resolvePoolSize();
+        log.info("Hashing new passwords with {} ({}); peak hashing memory about {} MiB.",
+                active.algorithm().id(), active.parameters(), peakBytes >> 20);
+        if (peakBytes > Runtime.getRuntime().maxMemory() / 4) {
+            log.warn("Peak hashing memory ({} MiB) exceeds a quarter of the max heap ({} MiB); "
+                    + "lower the memory cost or authkit.hashing.pool-size.", peakBytes >> 20,
+                    Runtime.getRuntime().maxMemory() >> 20);
+        }
+        return algorithms;
+    }
+
     /**
      * **密碼加密器 Bean (PasswordEncoder)。**
-     * 使用 {@link BCryptPasswordEncoder} 進行密碼單向雜湊，確保安全儲存。
-     * BCrypt 提供加鹽及可配置的計算成本，有效抵抗暴力破解。
+     * 以 {@code {id}} 前綴分派的 {@link org.springframework.security.crypto.password.DelegatingPasswordEncoder}：
+     * 新密碼以 {@code authkit.password.algorithm}（BCrypt、Argon2id 或 scrypt）雜湊，既有雜湊依前綴驗證。
      *
+     * @param passwordAlgorithms 已解析的演算法與參數。
+     * @param hashingProperties 雜湊工作池設定。
+     * @param passwordHashingExecutor 雜湊專用執行緒池。
+     * @param hashingAdmission 與帳號不存在時的延遲等待共用的准入名額。
+     * @param meterRegistry 用於輸出雜湊延遲、佇列深度與等待時間的指標。
      * @return {@link PasswordEncoder} 實例。
      * @apiNote 完整的密碼策略應結合複雜度要求、帳戶鎖定等。
+     * @implNote 啟用工作池時以 {@link BoundedPasswordEncoder} 包裝，讓雜湊不在 Tomcat 請求執行緒上執行；
+     *           最外層的 {@link TimedPasswordEncoder} 記錄呼叫端觀察到的端到端雜湊延遲。
+     *           沒有前綴、使用其他演算法或參數低於目前設定的既有雜湊，會經由
+     *           {@link PasswordEncoder#upgradeEncoding(String)} 於登入後升級。
      */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    public PasswordEncoder passwordEncoder(PasswordAlgorithms passwordAlgorithms,
+                                           PasswordHashingProperties hashingProperties,
+                                           ThreadPoolExecutor passwordHashingExecutor,
+                                           HashingAdmission hashingAdmission,
+                                           MeterRegistry meterRegistry) {
+        PasswordEncoder delegating = passwordAlgorithms.delegatingEncoder();
+        PasswordEncoder encoder = hashingProperties.isEnabled()
+                ? new BoundedPasswordEncoder(delegating, passwordHashingExecutor, hashingAdmission, meterRegistry)
+                : delegating;
+        return new TimedPasswordEncoder(encoder, meterRegistry);
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,60 @@
+package io.github.montytsai.authkit.config;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * **執行緒模式檢查器。**
+ * 啟動時確認 {@code spring.threads.virtual.enabled} 的設定能否在目前的 JRE 上生效，並檢查 CPU 密集的雜湊是否已移出虛擬執行緒。
+ *
+ * @apiNote 專案以 Java 17 編譯；虛擬執行緒模式需以 Java 21 以上的 JRE 執行，
+ *          此時 Spring Boot 會讓 Tomcat 以虛擬執行緒處理請求，使用者儲存的阻塞 I/O 不再佔用平台執行緒。
+ * @implNote BCrypt 在虛擬執行緒上執行會長時間佔住載體執行緒 (carrier thread)，
+ *           因此虛擬執行緒模式下應保持 {@code authkit.hashing.enabled=true}，讓雜湊在專用的平台執行緒池上完成。
+ */
+@Slf4j
+@Component
+public class ThreadingModeVerifier implements InitializingBean {
+
+    private static final int VIRTUAL_THREADS_MIN_JAVA = 21;
+
+    private final boolean virtualThreadsRequested;
+    private final PasswordHashingProperties hashingProperties;
+
+    public ThreadingModeVerifier(@Value("${spring.threads.virtual.enabled:false}") boolean virtualThreadsRequested,
+                                 PasswordHashingProperties hashingProperties) {
+        this.virtualThreadsRequested = virtualThreadsRequested;
+        this.hashingProperties = hashingProperties;
+    }
+
+    /**
+     * 判斷目前的 JRE 是否支援虛擬執行緒。
+     *
+     * @return Java 21 以上回傳 {@code true}。
+     */
+    public static boolean isVirtualThreadSupported() {
+        return Runtime.version().feature() >= VIRTUAL_THREADS_MIN_JAVA;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (!virtualThreadsRequested) {
+            log.info("Request handling runs on platform threads.");
+            return;
+        }
+        if (!isVirtualThreadSupported()) {
+            log.warn("spring.threads.virtual.enabled=true is ignored on Java {}; virtual threads require Java {}+.",
+                    Runtime.version().feature(), VIRTUAL_THREADS_MIN_JAVA);
+            return;
+        }
+        if (!hashingProperties.isEnabled()) {
+            log.warn("Virtual threads are enabled but authkit.hashing.enabled=false: BCrypt will run on carrier threads "
+                    + "and can starve other virtual threads.");
+        }
+        log.info("Request handling runs on virtual threads; password hashing stays on the platform hashing pool.");
+    }
+
+}
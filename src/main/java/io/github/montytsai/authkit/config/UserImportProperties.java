@@ -0,0 +1,44 @@
+package io.github.montytsai.authkit.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * **批次匯入使用者設定 (authkit.import.*)。**
+ * 控制 {@code POST /api/admin/users/import} 的存取權限、每批寫入筆數與雜湊並行度。
+ *
+ * @apiNote {@code admins} 為空時沒有任何帳號可以呼叫匯入端點。列在 {@code admins} 的 email 不能經由公開註冊建立，
+ *          第一個管理帳號以 {@code admin-password-hashes} 在啟動時建立。
+ */
+@Data
+@ConfigurationProperties(prefix = "authkit.import")
+public class UserImportProperties {
+
+    /**
+     * 允許呼叫匯入端點的帳號 email（以 JWT 的 subject 比對）。
+     */
+    private Set<String> admins = new LinkedHashSet<>();
+
+    /**
+     * 啟動時建立的管理帳號（email 對應預先雜湊的密碼，格式與匯入的 {@code passwordHash} 相同）。
+     * email 必須列在 {@code admins}；帳號已存在時不覆寫。
+     */
+    private Map<String, String> adminPasswordHashes = new LinkedHashMap<>();
+
+    /**
+     * 每批寫入使用者儲存的筆數；同時也是每次回寫結果串流的筆數。
+     */
+    private int batchSize = 1_000;
+
+    /**
+     * 同時進行的明文密碼雜湊數，0 代表雜湊工作池（{@code authkit.hashing.pool-size}）的一半；
+     * 實際值不超過工作池大小減一，保留雜湊執行緒給線上登入。
+     */
+    private int parallelism = 0;
+
+}
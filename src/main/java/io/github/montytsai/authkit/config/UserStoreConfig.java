@@ -0,0 +1,162 @@
+package io.github.montytsai.authkit.config;
+
+import io.github.montytsai.authkit.store.CachingUserStore;
+import io.github.montytsai.authkit.store.ClusteredUserStore;
+import io.github.montytsai.authkit.store.CompactUserStore;
+import io.github.montytsai.authkit.store.InMemoryUserStore;
+import io.github.montytsai.authkit.store.JdbcUserStore;
+import io.github.montytsai.authkit.store.LogStructuredUserStore;
+import io.github.montytsai.authkit.store.UserStore;
+import io.github.montytsai.authkit.store.WarmUpUserStore;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.ssl.SslBundles;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.net.ssl.SSLContext;
+import java.io.IOException;
+
+/**
+ * **使用者儲存引擎配置類。**
+ * 依 {@code authkit.store.type} 建立對應的 {@link UserStore} 實作，供 {@link io.github.montytsai.authkit.service.AuthService} 委派。
+ *
+ * @apiNote 未設定時預設為 {@code log}（嵌入式、落地於磁碟的 append-only 日誌引擎）。
+ *          {@code authkit.store.cache.enabled=true} 時，落地的引擎（{@code log}、{@code jdbc}）外層會包上 {@link CachingUserStore}；
+ *          記憶體引擎本身就是快取，不再包裝。
+ *          {@code authkit.store.cluster.enabled=true} 時，{@code memory}、{@code compact}、{@code log} 引擎成為本節點的分區，
+ *          外層包上 {@link ClusteredUserStore}；{@code jdbc} 已由資料庫在節點間共用，不支援叢集模式。
+ *          {@code authkit.warm-up.enabled=true} 時，最外層再包上 {@link WarmUpUserStore}，讓啟動暖機的合成帳號不寫入實際引擎。
+ */
+@Configuration
+@EnableConfigurationProperties(UserStoreProperties.class)
+public class UserStoreConfig {
+
+    /**
+     * **記憶體使用者儲存 Bean** ({@code authkit.store.type=memory})。
+     *
+     * @param properties {@link UserStoreProperties} 儲存引擎設定。
+     * @param warmUp {@link WarmUpProperties} 啟動暖機設定。
+     * @param sslBundles 提供叢集埠 TLS 設定 ({@code authkit.store.cluster.ssl-bundle}) 的 {@link SslBundles}。
+     * @return {@link InMemoryUserStore} 實例（啟用叢集時外包 {@link ClusteredUserStore}）。
+     * @throws IOException 如果啟用叢集但無法綁定叢集埠。
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "authkit.store", name = "type", havingValue = "memory")
+    public UserStore inMemoryUserStore(UserStoreProperties properties, WarmUpProperties warmUp,
+                                       SslBundles sslBundles) throws IOException {
+        return warmUp(clustered(new InMemoryUserStore(), properties, sslBundles), warmUp);
+    }
+
+    /**
+     * **緊湊記憶體使用者儲存 Bean** ({@code authkit.store.type=compact})。
+     *
+     * @param properties {@link UserStoreProperties} 儲存引擎設定。
+     * @param warmUp {@link WarmUpProperties} 啟動暖機設定。
+     * @param sslBundles 提供叢集埠 TLS 設定 ({@code authkit.store.cluster.ssl-bundle}) 的 {@link SslBundles}。
+     * @return {@link CompactUserStore} 實例（啟用叢集時外包 {@link ClusteredUserStore}）。
+     * @throws IOException 如果啟用叢集但無法綁定叢集埠。
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "authkit.store", name = "type", havingValue = "compact")
+    public UserStore compactUserStore(UserStoreProperties properties, WarmUpProperties warmUp,
+                                      SslBundles sslBundles) throws IOException {
+        return warmUp(clustered(new CompactUserStore(properties.getCompact()), properties, sslBundles), warmUp);
+    }
+
+    /**
+     * **日誌使用者儲存 Bean** ({@code authkit.store.type=log}，預設)。
+     *
+     * @param properties {@link UserStoreProperties} 儲存引擎設定。
+     * @param cacheManager 提供第二層快取的 {@link CacheManager}（可選）。
+     * @param meterRegistry 用於輸出快取命中率。
+     * @param warmUp {@link WarmUpProperties} 啟動暖機設定。
+     * @param sslBundles 提供叢集埠 TLS 設定 ({@code authkit.store.cluster.ssl-bundle}) 的 {@link SslBundles}。
+     * @return {@link LogStructuredUserStore} 實例（啟用快取時外包 {@link CachingUserStore}，啟用叢集時再外包
+     *         {@link ClusteredUserStore}），容器關閉時自動呼叫 {@code close()}。
+     * @throws IOException 如果日誌檔無法開啟或格式不正確，或啟用叢集但無法綁定叢集埠。
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "authkit.store", name = "type", havingValue = "log", matchIfMissing = true)
+    public UserStore logStructuredUserStore(UserStoreProperties properties, ObjectProvider<CacheManager> cacheManager,
+                                            MeterRegistry meterRegistry, WarmUpProperties warmUp,
+                                            SslBundles sslBundles) throws IOException {
+        UserStore store = cached(new LogStructuredUserStore(properties.getLog()), properties, cacheManager, meterRegistry);
+        return warmUp(clustered(store, properties, sslBundles), warmUp);
+    }
+
+    /**
+     * **JDBC 使用者儲存 Bean** ({@code authkit.store.type=jdbc})。
+     *
+     * @apiNote {@code application.properties} 預設排除 {@code DataSourceAutoConfiguration}，其他引擎不會建立資料來源與連線池；
+     *          請啟用 {@code jdbc} profile，它會選用此引擎並重新啟用資料來源的自動配置。
+     * @param jdbcTemplate 由 {@code spring.datasource.*} 設定的資料來源所建立的 {@link JdbcTemplate}。
+     * @param transactionManager 同一資料來源的交易管理器，用於批次寫入。
+     * @param properties {@link UserStoreProperties} 儲存引擎設定。
+     * @param cacheManager 提供第二層快取的 {@link CacheManager}（可選）。
+     * @param meterRegistry 用於輸出快取命中率。
+     * @param warmUp {@link WarmUpProperties} 啟動暖機設定。
+     * @return {@link JdbcUserStore} 實例（啟用快取時外包 {@link CachingUserStore}）。
+     * @throws IllegalStateException 如果同時啟用叢集模式，或沒有可用的資料來源。
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "authkit.store", name = "type", havingValue = "jdbc")
+    public UserStore jdbcUserStore(ObjectProvider<JdbcTemplate> jdbcTemplate,
+                                   ObjectProvider<PlatformTransactionManager> transactionManager,
+                                   UserStoreProperties properties,
+                                   ObjectProvider<CacheManager> cacheManager, MeterRegistry meterRegistry,
+                                   WarmUpProperties warmUp) {
+        if (properties.getCluster().isEnabled()) {
+            throw new IllegalStateException("authkit.store.cluster.enabled=true is not supported with "
+                    + "authkit.store.type=jdbc; the database is already shared between nodes");
+        }
+        JdbcTemplate template = jdbcTemplate.getIfAvailable();
+        if (template == null) {
+            throw new IllegalStateException("authkit.store.type=jdbc requires a DataSource; activate the 'jdbc' "
+                    + "profile, which re-enables DataSourceAutoConfiguration");
+        }
+        return warmUp(cached(new JdbcUserStore(template, transactionManager.getObject()), properties, cacheManager,
+                meterRegistry), warmUp);
+    }
+
+    private static UserStore cached(UserStore store, UserStoreProperties properties,
+                                    ObjectProvider<CacheManager> cacheManager, MeterRegistry meterRegistry) {
+        UserStoreProperties.Cache settings = properties.getCache();
+        if (!settings.isEnabled()) {
+            return store;
+        }
+        Cache remote = null;
+        if (!settings.getRemoteCacheName().isBlank()) {
+            CacheManager manager = cacheManager.getIfAvailable();
+            remote = manager != null ? manager.getCache(settings.getRemoteCacheName()) : null;
+            if (remote == null) {
+                throw new IllegalStateException("authkit.store.cache.remote-cache-name=" + settings.getRemoteCacheName()
+                        + " requires a CacheManager that provides that cache");
+            }
+        }
+        return new CachingUserStore(store, settings, remote, meterRegistry);
+    }
+
+    private static UserStore clustered(UserStore store, UserStoreProperties properties, SslBundles sslBundles)
+            throws IOException {
+        UserStoreProperties.Cluster cluster = properties.getCluster();
+        if (!cluster.isEnabled()) {
+            return store;
+        }
+        SSLContext sslContext = cluster.getSslBundle().isBlank()
+                ? null : sslBundles.getBundle(cluster.getSslBundle()).createSslContext();
+        return new ClusteredUserStore(store, cluster, sslContext);
+    }
+
+    private static UserStore warmUp(UserStore store, WarmUpProperties warmUp) {
+        return warmUp.isEnabled() ? new WarmUpUserStore(store) : store;
+    }
+
+}
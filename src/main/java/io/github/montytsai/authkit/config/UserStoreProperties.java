@@ -0,0 +1,223 @@
+package io.github.montytsai.authkit.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * **使用者儲存引擎設定 (authkit.store.*)。**
+ * 選擇 {@link io.github.montytsai.authkit.store.UserStore} 的實作，以及各引擎的專屬參數。
+ *
+ * @apiNote 預設使用嵌入式、落地於磁碟的 append-only 日誌引擎 ({@code log})。
+ */
+@Data
+@ConfigurationProperties(prefix = "authkit.store")
+public class UserStoreProperties {
+
+    /**
+     * 使用者儲存引擎類型。
+     */
+    public enum Type {
+        /** 記憶體 {@code ConcurrentHashMap}，重啟後資料遺失。 */
+        MEMORY,
+        /** 記憶體分片 slab 與開放定址索引，每位使用者的堆積用量遠低於 {@code MEMORY}；重啟後資料遺失。 */
+        COMPACT,
+        /** 嵌入式 append-only 日誌檔。 */
+        LOG,
+        /** 透過 JDBC 存取關聯式資料庫（預設為嵌入式 H2）。 */
+        JDBC
+    }
+
+    private Type type = Type.LOG;
+
+    private final Log log = new Log();
+
+    private final Compact compact = new Compact();
+
+    private final Cache cache = new Cache();
+
+    private final Cluster cluster = new Cluster();
+
+    /**
+     * **日誌引擎設定 (authkit.store.log.*)。**
+     */
+    @Data
+    public static class Log {
+
+        /**
+         * 日誌檔路徑。
+         */
+        private Path path = Path.of("data", "users.log");
+
+        /**
+         * 每次寫入後是否呼叫 fsync，關閉可提高寫入吞吐量，但斷電時可能遺失最後幾筆紀錄。
+         */
+        private boolean syncOnWrite = true;
+
+        /**
+         * 檢查是否需要壓縮 (compaction) 的週期；{@code 0} 代表停用定期壓縮。
+         */
+        private Duration compactionInterval = Duration.ofMinutes(10);
+
+        /**
+         * 觸發壓縮的失效資料比例門檻（被覆寫或刪除的紀錄佔檔案大小的比例）。
+         */
+        private double compactionGarbageRatio = 0.5;
+
+        /**
+         * 檔案小於此大小時不進行壓縮。
+         */
+        private DataSize compactionMinSize = DataSize.ofMegabytes(1);
+
+    }
+
+    /**
+     * **緊湊記憶體引擎設定 (authkit.store.compact.*)。**
+     */
+    @Data
+    public static class Compact {
+
+        /**
+         * 分片數（向上取整為 2 的冪次）；寫入只鎖定單一分片，約為預期並行寫入執行緒數的數倍即可。
+         */
+        private int shards = 64;
+
+        /**
+         * 每個 slab 的大小（向上取整為 2 的冪次，至少 256KB）；各分片在第一次寫入時才配置第一個 slab。
+         * 不小於 G1 region 一半的陣列會成為 humongous 物件並獨佔整數個 region，調大前請確認 region 大小。
+         */
+        private DataSize slabSize = DataSize.ofKilobytes(256);
+
+    }
+
+    /**
+     * **使用者快取設定 (authkit.store.cache.*)。**
+     * 啟用時在 {@code log} 或 {@code jdbc} 引擎前加上 {@link io.github.montytsai.authkit.store.CachingUserStore}。
+     */
+    @Data
+    public static class Cache {
+
+        /**
+         * 是否啟用使用者快取。
+         */
+        private boolean enabled = false;
+
+        /**
+         * 本地快取最多保留的 email 數量，超過時依 W-TinyLFU 淘汰。
+         */
+        private long maxSize = 100_000;
+
+        /**
+         * 存在的使用者在本地快取中的存活時間；也是其他節點寫入後，本節點最久可能讀到舊雜湊的時間。
+         */
+        private Duration ttl = Duration.ofMinutes(1);
+
+        /**
+         * 查無使用者的結果在本地快取中的存活時間。
+         */
+        private Duration negativeTtl = Duration.ofSeconds(10);
+
+        /**
+         * 第二層快取的名稱，從應用程式的 Spring {@code CacheManager} 取得；空白代表不使用第二層。
+         */
+        private String remoteCacheName = "";
+
+    }
+
+    /**
+     * **叢集模式設定 (authkit.store.cluster.*)。**
+     * 啟用時在 {@code memory}、{@code compact} 或 {@code log} 引擎外包上 {@link io.github.montytsai.authkit.store.ClusteredUserStore}，
+     * 以一致性雜湊將使用者分散到多個節點並複製到 {@code replication} 個節點。
+     */
+    @Data
+    public static class Cluster {
+
+        /**
+         * 是否啟用叢集模式。
+         */
+        private boolean enabled = false;
+
+        /**
+         * 本節點的叢集位址 ({@code host:port})，必須出現在 {@code members} 中；叢集埠監聽此埠號。
+         */
+        private String self = "";
+
+        /**
+         * 所有可能的叢集成員 ({@code host:port})；未啟動或無回應的成員不參與分區，回應後自動加入。
+         */
+        private List<String> members = new ArrayList<>();
+
+        /**
+         * 叢集埠的監聽位址。
+         */
+        private String bindAddress = "0.0.0.0";
+
+        /**
+         * 節點間共用的密鑰（至少 16 bytes）；每條連線建立時以挑戰-回應互相驗證，不會在線路上傳送。
+         */
+        private String secret = "";
+
+        /**
+         * 叢集埠使用的 SSL bundle 名稱 ({@code spring.ssl.bundle.*})；叢集埠以 TLS 服務並要求對方出示憑證 (mTLS)，
+         * 信任庫應只包含叢集節點的憑證或其 CA。
+         */
+        private String sslBundle = "";
+
+        /**
+         * 未設定 {@code ssl-bundle} 時是否允許明文叢集埠；明文時密碼雜湊與寫入請求都未加密，只能用於可信任的網路。
+         */
+        private boolean allowPlaintext = false;
+
+        /**
+         * 每位使用者保存的節點數（含主要擁有者）。
+         */
+        private int replication = 2;
+
+        /**
+         * 每個節點在雜湊環上的虛擬節點數；越多分布越平均，環也越大。
+         */
+        private int virtualNodes = 128;
+
+        /**
+         * 偵測成員上線、離線與重新啟動的週期。
+         */
+        private Duration heartbeatInterval = Duration.ofSeconds(1);
+
+        /**
+         * 成員連續幾次未回應心跳才移出雜湊環；單次請求失敗不會移出成員。
+         */
+        private int failureThreshold = 3;
+
+        /**
+         * 連線建立的逾時時間。
+         */
+        private Duration connectTimeout = Duration.ofMillis(500);
+
+        /**
+         * 單一請求等待回應的逾時時間。
+         */
+        private Duration requestTimeout = Duration.ofSeconds(2);
+
+        /**
+         * 每個遠端節點保留的閒置連線數上限。
+         */
+        private int maxIdleConnections = 16;
+
+        /**
+         * 新連線送出 HELLO 並通過密鑰驗證的期限；逾時即關閉連線。
+         */
+        private Duration handshakeTimeout = Duration.ofSeconds(1);
+
+        /**
+         * 叢集埠同時服務的連線數上限（每條連線佔用一個執行緒）；應大於其他成員數 × {@code max-idle-connections}。
+         */
+        private int maxConnections = 256;
+
+    }
+
+}
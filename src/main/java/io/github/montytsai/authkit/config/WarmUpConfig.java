@@ -0,0 +1,60 @@
+package io.github.montytsai.authkit.config;
+
+import io.github.montytsai.authkit.security.LoginRateLimiter;
+import io.github.montytsai.authkit.service.StartupWarmUp;
+import io.github.montytsai.authkit.store.UserStore;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * **啟動暖機配置類。**
+ * 建立 {@link StartupWarmUp} 與回報暖機進度的 {@code warmUp} 健康指標。
+ *
+ * @apiNote {@code warmUp} 指標已加入 Actuator 的 {@code readiness} 群組（見 {@code application.properties}），
+ *          暖機結束前群組狀態為 {@code OUT_OF_SERVICE}（HTTP 503），負載平衡器與 Kubernetes readiness probe 不會導入流量。
+ *          未啟用暖機時指標恆為 {@code UP}，因此兩個 Bean 都一律建立。
+ */
+@Configuration
+@EnableConfigurationProperties(WarmUpProperties.class)
+public class WarmUpConfig {
+
+    /**
+     * **啟動暖機 Bean。**
+     *
+     * @param properties {@link WarmUpProperties} 暖機設定。
+     * @param userStore 使用者儲存；啟用暖機時由 {@link UserStoreConfig} 包上拋棄式分流。
+     * @param loginRateLimiter 暖機期間豁免合成帳號的登入限流器。
+     * @param environment 提供實際的伺服器埠號。
+     * @return {@link StartupWarmUp} 實例。
+     */
+    @Bean
+    public StartupWarmUp startupWarmUp(WarmUpProperties properties, UserStore userStore,
+                                       LoginRateLimiter loginRateLimiter, Environment environment) {
+        return new StartupWarmUp(properties, userStore, loginRateLimiter, environment);
+    }
+
+    /**
+     * **暖機健康指標 Bean**（名稱 {@code warmUp}）。
+     *
+     * @param warmUp 啟動暖機。
+     * @return 暖機進行中回報 {@code OUT_OF_SERVICE}，結束或未啟用時回報 {@code UP}，並附上階段、循環數與延遲中位數。
+     */
+    @Bean
+    public HealthIndicator warmUpHealthIndicator(StartupWarmUp warmUp) {
+        return () -> {
+            Health.Builder health = warmUp.isFinished() ? Health.up() : Health.outOfService();
+            health.withDetail("phase", warmUp.getPhase()).withDetail("cycles", warmUp.getCycles());
+            double median = warmUp.getMedianCycleMillis();
+            if (!Double.isNaN(median)) {
+                health.withDetail("medianCycleMillis", Math.round(median));
+            }
+            return health.build();
+        };
+    }
+
+}
@@ -0,0 +1,54 @@
+package io.github.montytsai.authkit.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * **啟動暖機設定 (authkit.warm-up.*)。**
+ * 控制新節點在接受流量前，以合成的註冊／登入／登入失敗循環預熱 JIT 的方式與停止條件。
+ *
+ * @apiNote 預設關閉。開啟後，就緒狀態（{@code /actuator/health/readiness}）在暖機結束前維持 {@code OUT_OF_SERVICE}；
+ *          每個循環約花費四次密碼雜湊的時間，{@code max-cycles} 與 {@code timeout} 限制最長的暖機時間。
+ */
+@Data
+@ConfigurationProperties(prefix = "authkit.warm-up")
+public class WarmUpProperties {
+
+    /**
+     * 是否在啟動時執行暖機。
+     */
+    private boolean enabled = false;
+
+    /**
+     * 判定穩定前至少執行的循環數。
+     */
+    private int minCycles = 30;
+
+    /**
+     * 最多執行的循環數；達到時即使延遲尚未穩定也結束暖機。
+     */
+    private int maxCycles = 1000;
+
+    /**
+     * 每個量測視窗包含的循環數；以視窗內循環延遲的中位數比較前後視窗。
+     */
+    private int windowCycles = 10;
+
+    /**
+     * 相鄰兩個視窗中位數的最大相對變化，低於此值視為該視窗已穩定。
+     */
+    private double tolerance = 0.1;
+
+    /**
+     * 需要連續穩定的視窗數。
+     */
+    private int stableWindows = 3;
+
+    /**
+     * 暖機的時間上限；逾時即結束暖機並開始接受流量。
+     */
+    private Duration timeout = Duration.ofMinutes(2);
+
+}
@@ -2,14 +2,25 @@ package io.github.montytsai.authkit.controller;
 
 import io.github.montytsai.authkit.dto.LoginRequest;
 import io.github.montytsai.authkit.dto.LoginResponse;
+import io.github.montytsai.authkit.dto.RefreshTokenRequest;
 import io.github.montytsai.authkit.dto.RegisterRequest;
+import io.github.montytsai.authkit.exception.InvalidTokenException;
+import io.github.montytsai.authkit.exception.UserAlreadyExistsException;
+import io.github.montytsai.authkit.metrics.AuthEventLogger;
+import io.github.montytsai.authkit.metrics.AuthMetrics;
+import io.github.montytsai.authkit.security.JwtService;
+import io.github.montytsai.authkit.security.LoginRateLimiter;
+import io.github.montytsai.authkit.security.SecurityAuditLog;
+import io.github.montytsai.authkit.security.TokenPair;
 import io.github.montytsai.authkit.service.AuthService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
-import lombok.extern.slf4j.Slf4j;
 
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -20,39 +31,57 @@ import org.springframework.web.bind.annotation.RestController;
 
 /**
  * 認證相關的 RESTful API 控制器。
- * 處理使用者註冊、登入等身份驗證流程。
+ * 處理使用者註冊、登入、Token 換發與登出等身份驗證流程。
  *
  * @apiNote 所有 response 都應包含明確的 HTTP 狀態碼，
  * 異常情況由 {@link io.github.montytsai.authkit.exception.GlobalExceptionHandler} 統一處理。
  */
 @RestController
 @RequestMapping("/api/auth")
-@Slf4j
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class AuthController {
 
     private final AuthService authService;
     private final AuthenticationManager authenticationManager;
+    private final JwtService jwtService;
+    private final LoginRateLimiter loginRateLimiter;
+    private final AuthMetrics authMetrics;
+    private final AuthEventLogger authEvents;
+    private final SecurityAuditLog auditLog;
 
-    public AuthController(AuthService authService, AuthenticationManager authenticationManager) {
+    public AuthController(AuthService authService, AuthenticationManager authenticationManager, JwtService jwtService,
+                          LoginRateLimiter loginRateLimiter, AuthMetrics authMetrics, AuthEventLogger authEvents,
+                          SecurityAuditLog auditLog) {
         this.authService = authService;
         this.authenticationManager = authenticationManager;
+        this.jwtService = jwtService;
+        this.loginRateLimiter = loginRateLimiter;
+        this.authMetrics = authMetrics;
+        this.authEvents = authEvents;
+        this.auditLog = auditLog;
     }
 
     /**
      * 處理新使用者的註冊請求。
      *
      * @param registerRequest 包含使用者電子郵件和密碼的 DTO。
+     * @param request 用於取得來源 IP 以寫入稽核日誌。
      * @return 註冊成功時回傳成功代碼。
      * @apiNote 業務層將檢查 Email 唯一性，若衝突拋出 {@link io.github.montytsai.authkit.exception.UserAlreadyExistsException}。
      */
     @PostMapping("/register")
-    public ResponseEntity<String> register(@Valid @RequestBody RegisterRequest registerRequest) {
+    public ResponseEntity<String> register(@Valid @RequestBody RegisterRequest registerRequest, HttpServletRequest request) {
         String email = registerRequest.getEmail();
-        log.info("Received registration request for user: {}", email);
+        try {
+            authService.register(registerRequest);
+        } catch (UserAlreadyExistsException ex) {
+            authEvents.registrationConflict(email);
+            auditLog.registrationConflict(email, request.getRemoteAddr());
+            throw ex;
+        }
 
-        authService.register(registerRequest);
-
-        log.info("User {} registered successfully.", email);
+        authEvents.registered(email);
+        auditLog.registered(email, request.getRemoteAddr());
         return ResponseEntity.status(HttpStatus.CREATED).body("User registered successfully.");
     }
 
@@ -60,29 +89,89 @@ public class AuthController {
      * 處理使用者的登入請求。
      *
      * @param loginRequest 包含使用者電子郵件和密碼的 DTO。使用 {@code @Valid} 進行輸入格式驗證。
+     * @param request 用於取得來源 IP 以套用每個 IP 的登入配額。
      * @return {@link LoginResponse} 登入成功時回傳成功資訊，包含 JWT Token
      * @apiNote 身份驗證失敗時，{@link AuthenticationManager} 會拋出異常。（例如 BadCredentialsException）
+     * 超過登入配額或帳號鎖定中時，在密碼比對前即拋出 {@link io.github.montytsai.authkit.exception.TooManyLoginAttemptsException}。
+     * 每次嘗試的結果（含失敗的異常類型）與端到端延遲皆記錄於 {@link AuthMetrics}，並以 {@link AuthEventLogger} 記錄一行事件；
+     * 另外一律寫入 {@link SecurityAuditLog}，請求執行緒只付出放進記憶體緩衝區的成本。
      */
     @PostMapping("/login")
-    public ResponseEntity<LoginResponse> login(@Valid @RequestBody LoginRequest loginRequest) {
+    public ResponseEntity<LoginResponse> login(@Valid @RequestBody LoginRequest loginRequest, HttpServletRequest request) {
         String email = loginRequest.getEmail();
-        log.info("Attempting login for user: {}", email);
+        long startedAt = System.nanoTime();
+        try {
+            ResponseEntity<LoginResponse> response = authenticate(email, loginRequest.getPassword(), request);
+            authMetrics.recordLogin(startedAt, null);
+            authEvents.loginSucceeded(email);
+            auditLog.loginSucceeded(email, request.getRemoteAddr());
+            return response;
+        } catch (RuntimeException ex) {
+            authMetrics.recordLogin(startedAt, ex);
+            authEvents.loginFailed(email, ex);
+            auditLog.loginFailed(email, request.getRemoteAddr(), ex);
+            throw ex;
+        }
+    }
+
+    /**
+     * 執行限流檢查、身份驗證並簽發 Token 的登入主流程。
+     */
+    private ResponseEntity<LoginResponse> authenticate(String email, String password, HttpServletRequest request) {
+        // 1. 在付出雜湊成本之前檢查 email 與來源 IP 的登入配額
+        loginRateLimiter.checkAllowed(email, request.getRemoteAddr());
 
-        // 1. 將使用者參數整理為 Spring Security 的 Authentication 物件
-        Authentication authenticationRequest = new UsernamePasswordAuthenticationToken(email, loginRequest.getPassword());
+        // 2. 將使用者參數整理為 Spring Security 的 Authentication 物件
+        Authentication authenticationRequest = new UsernamePasswordAuthenticationToken(email, password);
 
-        // 2. 交由 AuthenticationManager 進行認證
-        Authentication authenticationResponse = authenticationManager.authenticate(authenticationRequest);
+        // 3. 交由 AuthenticationManager 進行認證；密碼錯誤（含不存在的帳號）計入連續失敗次數
+        Authentication authenticationResponse;
+        try {
+            authenticationResponse = authenticationManager.authenticate(authenticationRequest);
+        } catch (BadCredentialsException ex) {
+            loginRateLimiter.recordFailure(email);
+            throw ex;
+        }
+        loginRateLimiter.recordSuccess(email);
 
-        // 3. 認證成功，將認證資訊存入 SecurityContextHolder
+        // 4. 認證成功，將認證資訊存入 SecurityContextHolder
         SecurityContextHolder.getContext().setAuthentication(authenticationResponse);
 
-        // TODO 4. (未來實現) 生成 JWT Token
-        String token = "dummy-jwt-token-for-" + email;
+        // 5. 開啟新的工作階段，簽發無狀態的 Access Token 與 Refresh Token
+        TokenPair tokens = jwtService.issueTokens(authenticationResponse.getName());
+
+        // 6. 回傳成功響應
+        return ResponseEntity.ok(new LoginResponse("Login successful!", tokens.accessToken(), tokens.refreshToken()));
+    }
 
-        // 5. 回傳成功響應
-        log.info("User {} logged in successfully.", email);
-        return ResponseEntity.ok(new LoginResponse("Login successful!", token));
+    /**
+     * 以 Refresh Token 換發新的一組 Token（Refresh Token 輪替）。
+     *
+     * @param refreshRequest 包含登入或上次換發取得的 Refresh Token。
+     * @return 新的 Access Token 與 Refresh Token；舊的 Refresh Token 隨即失效。
+     * @throws InvalidTokenException 如果 Refresh Token 無效、已過期、已使用過或工作階段已登出。
+     * @apiNote 已使用過的 Refresh Token 再次提交會被視為遭竊，整個工作階段隨之撤銷，需重新登入。
+     */
+    @PostMapping("/refresh")
+    public ResponseEntity<LoginResponse> refresh(@Valid @RequestBody RefreshTokenRequest refreshRequest) {
+        TokenPair tokens = jwtService.refresh(refreshRequest.getRefreshToken())
+                .orElseThrow(() -> new InvalidTokenException("Refresh token is invalid, expired or already used."));
+        return ResponseEntity.ok(new LoginResponse("Token refreshed.", tokens.accessToken(), tokens.refreshToken()));
+    }
+
+    /**
+     * 登出：撤銷 Refresh Token 所屬的工作階段，該階段簽發的所有 Token 立即失效。
+     *
+     * @param refreshRequest 包含要登出之工作階段的 Refresh Token。
+     * @return 登出成功時回傳 204 No Content。
+     * @throws InvalidTokenException 如果 Refresh Token 無效或已過期。
+     */
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@Valid @RequestBody RefreshTokenRequest refreshRequest) {
+        if (!jwtService.revokeSession(refreshRequest.getRefreshToken())) {
+            throw new InvalidTokenException("Refresh token is invalid or expired.");
+        }
+        return ResponseEntity.noContent().build();
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,44 @@
+package io.github.montytsai.authkit.controller;
+
+import io.github.montytsai.authkit.dto.PasswordEncoderCalibration;
+import io.github.montytsai.authkit.service.PasswordEncoderCalibrationService;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * 管理用的密碼雜湊校準 API 控制器。
+ *
+ * @apiNote 僅限 {@code authkit.import.admins} 中的帳號呼叫（見 {@link io.github.montytsai.authkit.config.SecurityConfig}）。
+ * 每次呼叫會實際執行數十次雜湊，耗時數秒。
+ */
+@RestController
+@RequestMapping("/api/admin/password-encoders")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class PasswordEncoderController {
+
+    private final PasswordEncoderCalibrationService calibrationService;
+
+    public PasswordEncoderController(PasswordEncoderCalibrationService calibrationService) {
+        this.calibrationService = calibrationService;
+    }
+
+    /**
+     * 量測各演算法與參數組合在本機的每秒雜湊次數。
+     *
+     * @param presets 是否一併量測 OWASP 建議的參考參數（預設為是）。
+     * @return 每組參數一筆 {@link PasswordEncoderCalibration}，目前用於新密碼的設定標記為 {@code active}。
+     */
+    @GetMapping("/calibration")
+    public ResponseEntity<List<PasswordEncoderCalibration>> calibrate(
+            @RequestParam(defaultValue = "true") boolean presets) {
+        return ResponseEntity.ok(calibrationService.calibrate(presets));
+    }
+
+}
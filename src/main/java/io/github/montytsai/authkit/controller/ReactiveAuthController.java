@@ -0,0 +1,181 @@
+package io.github.montytsai.authkit.controller;
+
+import io.github.montytsai.authkit.crypto.ReactiveHashingScheduler;
+import io.github.montytsai.authkit.dto.LoginRequest;
+import io.github.montytsai.authkit.dto.LoginResponse;
+import io.github.montytsai.authkit.dto.RefreshTokenRequest;
+import io.github.montytsai.authkit.dto.RegisterRequest;
+import io.github.montytsai.authkit.exception.InvalidTokenException;
+import io.github.montytsai.authkit.exception.UserAlreadyExistsException;
+import io.github.montytsai.authkit.metrics.AuthEventLogger;
+import io.github.montytsai.authkit.metrics.AuthMetrics;
+import io.github.montytsai.authkit.security.JwtService;
+import io.github.montytsai.authkit.security.LoginRateLimiter;
+import io.github.montytsai.authkit.security.SecurityAuditLog;
+import io.github.montytsai.authkit.security.TokenPair;
+import io.github.montytsai.authkit.service.AuthService;
+import jakarta.validation.Valid;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.net.InetSocketAddress;
+
+/**
+ * 認證相關的 RESTful API 控制器（響應式堆疊，{@code reactive} profile）。
+ * 與 {@link AuthController} 提供相同的端點、請求與回應格式，但在 Netty 事件迴圈上處理請求。
+ *
+ * @apiNote 異常情況由 {@link io.github.montytsai.authkit.exception.ReactiveExceptionHandler} 轉換為與 Servlet 堆疊相同的錯誤回應。
+ * @implNote 事件迴圈上只執行限流檢查、Token 簽發等純 CPU 的短工作：
+ *           密碼雜湊（註冊與登入）經由 {@link ReactiveHashingScheduler} 在有界雜湊工作池上執行，
+ *           會寫入撤銷名單（可能 fsync）的換發與登出則在 {@link Schedulers#boundedElastic()} 上執行。
+ */
+@RestController
+@RequestMapping("/api/auth")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveAuthController {
+
+    private final AuthService authService;
+    private final ReactiveAuthenticationManager authenticationManager;
+    private final ReactiveHashingScheduler hashingScheduler;
+    private final JwtService jwtService;
+    private final LoginRateLimiter loginRateLimiter;
+    private final AuthMetrics authMetrics;
+    private final AuthEventLogger authEvents;
+    private final SecurityAuditLog auditLog;
+
+    public ReactiveAuthController(AuthService authService, ReactiveAuthenticationManager authenticationManager,
+                                  ReactiveHashingScheduler hashingScheduler, JwtService jwtService,
+                                  LoginRateLimiter loginRateLimiter, AuthMetrics authMetrics, AuthEventLogger authEvents,
+                                  SecurityAuditLog auditLog) {
+        this.authService = authService;
+        this.authenticationManager = authenticationManager;
+        this.hashingScheduler = hashingScheduler;
+        this.jwtService = jwtService;
+        this.loginRateLimiter = loginRateLimiter;
+        this.authMetrics = authMetrics;
+        this.authEvents = authEvents;
+        this.auditLog = auditLog;
+    }
+
+    /**
+     * 處理新使用者的註冊請求。
+     *
+     * @param registerRequest 包含使用者電子郵件和密碼的 DTO。
+     * @param request 用於取得來源 IP 以寫入稽核日誌。
+     * @return 註冊成功時回傳成功代碼。
+     * @apiNote Email 已存在時以 {@link UserAlreadyExistsException} 結束 (HTTP 409)。
+     */
+    @PostMapping("/register")
+    public Mono<ResponseEntity<String>> register(@Valid @RequestBody RegisterRequest registerRequest,
+                                                 ServerHttpRequest request) {
+        String email = registerRequest.getEmail();
+        String clientIp = clientIp(request);
+        return hashingScheduler.submit(() -> {
+                    authService.register(registerRequest);
+                    return email;
+                })
+                .doOnError(UserAlreadyExistsException.class, ex -> {
+                    authEvents.registrationConflict(email);
+                    auditLog.registrationConflict(email, clientIp);
+                })
+                .map(registered -> {
+                    authEvents.registered(registered);
+                    auditLog.registered(registered, clientIp);
+                    return ResponseEntity.status(HttpStatus.CREATED).body("User registered successfully.");
+                });
+    }
+
+    /**
+     * 處理使用者的登入請求。
+     *
+     * @param loginRequest 包含使用者電子郵件和密碼的 DTO。
+     * @param request 用於取得來源 IP 以套用每個 IP 的登入配額。
+     * @return {@link LoginResponse} 登入成功時回傳成功資訊，包含 JWT Token。
+     * @apiNote 限流、失敗計數、指標、事件日誌與稽核日誌的行為與 {@link AuthController#login} 相同。
+     */
+    @PostMapping("/login")
+    public Mono<ResponseEntity<LoginResponse>> login(@Valid @RequestBody LoginRequest loginRequest,
+                                                     ServerHttpRequest request) {
+        String email = loginRequest.getEmail();
+        String clientIp = clientIp(request);
+        long startedAt = System.nanoTime();
+        return Mono.defer(() -> {
+                    // 1. 在付出雜湊成本之前檢查 email 與來源 IP 的登入配額
+                    loginRateLimiter.checkAllowed(email, clientIp);
+                    // 2. 交由 ReactiveAuthenticationManager 認證；密碼錯誤（含不存在的帳號）計入連續失敗次數
+                    return authenticationManager.authenticate(
+                                    new UsernamePasswordAuthenticationToken(email, loginRequest.getPassword()))
+                            .doOnError(BadCredentialsException.class, ex -> loginRateLimiter.recordFailure(email));
+                })
+                .map(authentication -> {
+                    loginRateLimiter.recordSuccess(email);
+                    // 3. 開啟新的工作階段，簽發無狀態的 Access Token 與 Refresh Token
+                    TokenPair tokens = jwtService.issueTokens(authentication.getName());
+                    return ResponseEntity.ok(new LoginResponse("Login successful!", tokens.accessToken(), tokens.refreshToken()));
+                })
+                .doOnSuccess(response -> {
+                    authMetrics.recordLogin(startedAt, null);
+                    authEvents.loginSucceeded(email);
+                    auditLog.loginSucceeded(email, clientIp);
+                })
+                .doOnError(ex -> {
+                    authMetrics.recordLogin(startedAt, ex);
+                    authEvents.loginFailed(email, ex);
+                    auditLog.loginFailed(email, clientIp, ex);
+                });
+    }
+
+    /**
+     * 以 Refresh Token 換發新的一組 Token（Refresh Token 輪替）。
+     *
+     * @param refreshRequest 包含登入或上次換發取得的 Refresh Token。
+     * @return 新的 Access Token 與 Refresh Token；無效時以 {@link InvalidTokenException} 結束。
+     */
+    @PostMapping("/refresh")
+    public Mono<ResponseEntity<LoginResponse>> refresh(@Valid @RequestBody RefreshTokenRequest refreshRequest) {
+        return Mono.fromCallable(() -> jwtService.refresh(refreshRequest.getRefreshToken())
+                        .orElseThrow(() -> new InvalidTokenException("Refresh token is invalid, expired or already used.")))
+                .subscribeOn(Schedulers.boundedElastic())
+                .map(tokens -> ResponseEntity.ok(new LoginResponse("Token refreshed.", tokens.accessToken(), tokens.refreshToken())));
+    }
+
+    /**
+     * 登出：撤銷 Refresh Token 所屬的工作階段，該階段簽發的所有 Token 立即失效。
+     *
+     * @param refreshRequest 包含要登出之工作階段的 Refresh Token。
+     * @return 登出成功時回傳 204 No Content；無效時以 {@link InvalidTokenException} 結束。
+     */
+    @PostMapping("/logout")
+    public Mono<ResponseEntity<Void>> logout(@Valid @RequestBody RefreshTokenRequest refreshRequest) {
+        return Mono.fromCallable(() -> jwtService.revokeSession(refreshRequest.getRefreshToken()))
+                .subscribeOn(Schedulers.boundedElastic())
+                .map(revoked -> {
+                    if (!revoked) {
+                        throw new InvalidTokenException("Refresh token is invalid or expired.");
+                    }
+                    return ResponseEntity.noContent().<Void>build();
+                });
+    }
+
+    private static String clientIp(ServerHttpRequest request) {
+        InetSocketAddress remoteAddress = request.getRemoteAddress();
+        if (remoteAddress == null) {
+            return "unknown";
+        }
+        return remoteAddress.getAddress() != null ? remoteAddress.getAddress().getHostAddress() : remoteAddress.getHostString();
+    }
+
+}
@@ -0,0 +1,32 @@
+package io.github.montytsai.authkit.controller;
+
+import io.github.montytsai.authkit.dto.UserProfileResponse;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * 需要身份驗證的使用者 API 控制器。
+ *
+ * @apiNote 此控制器下的端點皆需攜帶有效的 {@code Authorization: Bearer <token>}，
+ * 身份由 {@link io.github.montytsai.authkit.security.JwtAuthenticationFilter} 從 Token 還原。
+ */
+@RestController
+@RequestMapping("/api/users")
+public class UserController {
+
+    /**
+     * 取得目前登入的使用者資訊。
+     *
+     * @param authentication 由 JWT 還原的身份資訊。
+     * @return {@link UserProfileResponse} 包含使用者 email。
+     */
+    @GetMapping("/me")
+    public ResponseEntity<UserProfileResponse> me(Authentication authentication) {
+        return ResponseEntity.ok(new UserProfileResponse(authentication.getName()));
+    }
+
+}
@@ -0,0 +1,87 @@
+package io.github.montytsai.authkit.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.montytsai.authkit.dto.UserImportResult;
+import io.github.montytsai.authkit.dto.UserImportSummary;
+import io.github.montytsai.authkit.service.UserImportFormat;
+import io.github.montytsai.authkit.service.UserImportService;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/**
+ * 管理用的批次匯入使用者 API 控制器。
+ *
+ * @apiNote 僅限 {@code authkit.import.admins} 中的帳號呼叫（見 {@link io.github.montytsai.authkit.config.SecurityConfig}）。
+ * 回應為 {@code application/x-ndjson}：每筆紀錄一行 {@link UserImportResult}，最後一行為 {@link UserImportSummary}；
+ * 每處理完一批就寫出並 flush，客戶端可以邊上傳邊讀取進度。
+ */
+@RestController
+@RequestMapping("/api/admin/users")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class UserImportController {
+
+    private static final byte[] NEWLINE = {'\n'};
+
+    private final UserImportService userImportService;
+    private final ObjectMapper objectMapper;
+
+    public UserImportController(UserImportService userImportService, ObjectMapper objectMapper) {
+        this.userImportService = userImportService;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * 批次匯入使用者。
+     *
+     * @param contentType {@code application/x-ndjson} 或 {@code text/csv}。
+     * @param body 以串流讀取的請求內容，不會整份載入記憶體。
+     * @param response 用於串流寫出逐筆結果。
+     * @throws IOException 如果讀取請求或寫出回應失敗。
+     * @apiNote 格式錯誤的單筆紀錄不會中止匯入，只會在結果中標記為 {@code INVALID}；
+     * 只有無法辨識的整體格式（例如 CSV 缺少標題列）才會回傳 400。
+     */
+    @PostMapping(value = "/import",
+            consumes = {UserImportFormat.NDJSON_VALUE, UserImportFormat.CSV_VALUE},
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void importUsers(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                            InputStream body, HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        OutputStream out = response.getOutputStream();
+
+        UserImportSummary summary = userImportService.importUsers(body, UserImportFormat.from(contentType),
+                results -> writeBatch(out, results));
+
+        writeLine(out, summary);
+        out.flush();
+    }
+
+    private void writeBatch(OutputStream out, List<UserImportResult> results) {
+        try {
+            for (UserImportResult result : results) {
+                writeLine(out, result);
+            }
+            out.flush();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to stream import results.", ex);
+        }
+    }
+
+    private void writeLine(OutputStream out, Object value) throws IOException {
+        out.write(objectMapper.writeValueAsBytes(value));
+        out.write(NEWLINE);
+    }
+
+}
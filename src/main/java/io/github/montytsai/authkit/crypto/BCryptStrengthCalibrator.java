@@ -0,0 +1,70 @@
+package io.github.montytsai.authkit.crypto;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * **BCrypt 成本因子校準器。**
+ * 在當前機器上量測最低成本因子的驗證延遲，再依「成本每加 1、耗時加倍」推算最接近目標延遲的成本因子。
+ *
+ * @implNote 只實際量測 {@code minStrength}，因此校準時間約為數次最低成本的驗證，不會隨目標延遲增長。
+ */
+@Slf4j
+public final class BCryptStrengthCalibrator {
+
+    private static final String PROBE_PASSWORD = "calibration-probe";
+    private static final int WARMUP_ROUNDS = 2;
+    private static final int MEASURED_ROUNDS = 5;
+
+    private BCryptStrengthCalibrator() {
+    }
+
+    /**
+     * 校準成本因子。
+     *
+     * @param targetLatency 目標單次驗證延遲。
+     * @param minStrength 成本因子下限。
+     * @param maxStrength 成本因子上限。
+     * @return 介於上下限之間、推算延遲最接近目標的成本因子。
+     */
+    public static int calibrate(Duration targetLatency, int minStrength, int maxStrength) {
+        BCryptPasswordEncoder probe = new BCryptPasswordEncoder(minStrength);
+        String hash = probe.encode(PROBE_PASSWORD);
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            probe.matches(PROBE_PASSWORD, hash);
+        }
+
+        long[] samples = new long[MEASURED_ROUNDS];
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            long started = System.nanoTime();
+            probe.matches(PROBE_PASSWORD, hash);
+            samples[i] = System.nanoTime() - started;
+        }
+        Arrays.sort(samples);
+        long baseNanos = samples[MEASURED_ROUNDS / 2];
+
+        int strength = selectStrength(baseNanos, targetLatency.toNanos(), minStrength, maxStrength);
+        log.info("Calibrated BCrypt strength {} (strength {} verifies in {} ms, target {} ms).", strength, minStrength,
+                TimeUnit.NANOSECONDS.toMillis(baseNanos), targetLatency.toMillis());
+        return strength;
+    }
+
+    /**
+     * 由最低成本因子的量測值推算最接近目標延遲的成本因子。
+     */
+    static int selectStrength(long baseNanos, long targetNanos, int minStrength, int maxStrength) {
+        int strength = minStrength;
+        long estimate = baseNanos;
+        while (strength < maxStrength && Math.abs(estimate * 2 - targetNanos) < Math.abs(estimate - targetNanos)) {
+            strength++;
+            estimate *= 2;
+        }
+        return strength;
+    }
+
+}
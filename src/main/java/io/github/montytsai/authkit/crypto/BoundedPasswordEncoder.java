@@ -0,0 +1,168 @@
+package io.github.montytsai.authkit.crypto;
+
+import io.github.montytsai.authkit.exception.HashingCapacityExceededException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * **有界雜湊工作池的密碼加密器裝飾器。**
+ * 將 {@code encode} 與 {@code matches} 這類 CPU 密集運算轉交給專用、固定大小的 {@link ThreadPoolExecutor}，
+ * 讓同時進行的雜湊數量不超過 CPU 核心數；等待佇列滿時立即拋出 {@link HashingCapacityExceededException}。
+ * 送出任務前先取得 {@link HashingAdmission} 名額，與帳號不存在時的延遲等待共用同一組容量。
+ *
+ * @implNote 請求執行緒仍會等待結果，但排隊長度有上限，因此登入暴衝時多餘的請求會快速失敗 (HTTP 503)，
+ *           其餘輕量端點（如 {@code /} 健康檢查）不會因 Tomcat 執行緒全被雜湊佔滿而逾時。
+ */
+@Slf4j
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private static final String OPERATION_ENCODE = "encode";
+    private static final String OPERATION_MATCHES = "matches";
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final HashingAdmission admission;
+
+    private final Timer encodeWaitTimer;
+    private final Timer matchesWaitTimer;
+    private final Timer encodeHashTimer;
+    private final Timer matchesHashTimer;
+    private final Counter rejectedCounter;
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, ThreadPoolExecutor executor, MeterRegistry meterRegistry) {
+        this(delegate, executor, HashingAdmission.forPool(executor.getMaximumPoolSize(),
+                executor.getQueue().remainingCapacity()), meterRegistry);
+    }
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, ThreadPoolExecutor executor, HashingAdmission admission,
+                                  MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.executor = executor;
+        this.admission = admission;
+
+        this.encodeWaitTimer = waitTimer(meterRegistry, OPERATION_ENCODE);
+        this.matchesWaitTimer = waitTimer(meterRegistry, OPERATION_MATCHES);
+        this.encodeHashTimer = hashTimer(meterRegistry, OPERATION_ENCODE);
+        this.matchesHashTimer = hashTimer(meterRegistry, OPERATION_MATCHES);
+        this.rejectedCounter = Counter.builder("authkit.hashing.rejected")
+                .description("Hashing requests rejected because the hashing queue was full")
+                .register(meterRegistry);
+
+        Gauge.builder("authkit.hashing.queue.depth", executor, e -> e.getQueue().size())
+                .description("Hashing requests waiting for a worker")
+                .register(meterRegistry);
+        Gauge.builder("authkit.hashing.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Hashing workers currently computing a hash")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return submit(() -> delegate.encode(rawPassword), encodeWaitTimer, encodeHashTimer);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return submit(() -> delegate.matches(rawPassword, encodedPassword), matchesWaitTimer, matchesHashTimer);
+    }
+
+    /**
+     * 判斷是否需要重新雜湊。此操作僅解析雜湊字串，不需要進入工作池。
+     */
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    /**
+     * 取得准入名額後將雜湊任務送入工作池並等待結果。
+     *
+     * @throws HashingCapacityExceededException 如果准入名額已用完，或工作池與等待佇列皆已滿。
+     * @implNote 名額由任務本身在雜湊結束時歸還，而不是在呼叫端停止等待時：等待中被中斷時，
+     *           已開始的 BCrypt 仍會在工作執行緒上算完，提早歸還會讓同時進行的雜湊數超過名額。
+     *           任務尚未開始就被拒絕或取消時，才由呼叫端歸還；{@code started} 確保兩者只有一方歸還。
+     */
+    private <T> T submit(Supplier<T> task, Timer waitTimer, Timer hashTimer) {
+        try {
+            admission.acquire();
+        } catch (HashingCapacityExceededException ex) {
+            rejectedCounter.increment();
+            log.debug("Password hashing rejected: no admission slot left ({} in use).", admission.inUse());
+            throw ex;
+        }
+        AtomicBoolean started = new AtomicBoolean();
+        try {
+            return await(enqueue(task, started, waitTimer, hashTimer));
+        } finally {
+            if (started.compareAndSet(false, true)) {
+                admission.release();
+            }
+        }
+    }
+
+    private <T> Future<T> enqueue(Supplier<T> task, AtomicBoolean started, Timer waitTimer, Timer hashTimer) {
+        long enqueuedAt = System.nanoTime();
+        try {
+            return executor.submit(() -> {
+                if (!started.compareAndSet(false, true)) {
+                    // 呼叫端已放棄並歸還名額
+                    return null;
+                }
+                try {
+                    waitTimer.record(System.nanoTime() - enqueuedAt, TimeUnit.NANOSECONDS);
+                    return hashTimer.record(task);
+                } finally {
+                    admission.release();
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            rejectedCounter.increment();
+            log.debug("Password hashing rejected: queue is full ({} waiting).", executor.getQueue().size());
+            throw new HashingCapacityExceededException("Server is busy. Please try again later.");
+        }
+    }
+
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException ex) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for password hashing.", ex);
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Password hashing failed.", cause);
+        }
+    }
+
+    private static Timer waitTimer(MeterRegistry registry, String operation) {
+        return Timer.builder("authkit.hashing.wait")
+                .description("Time a hashing request spent queued before a worker picked it up")
+                .tag("operation", operation)
+                .register(registry);
+    }
+
+    private static Timer hashTimer(MeterRegistry registry, String operation) {
+        return Timer.builder("authkit.hashing.duration")
+                .description("Time spent computing a password hash")
+                .tag("operation", operation)
+                .register(registry);
+    }
+
+}
@@ -0,0 +1,75 @@
+package io.github.montytsai.authkit.crypto;
+
+import io.github.montytsai.authkit.exception.HashingCapacityExceededException;
+
+import java.util.concurrent.Semaphore;
+
+/**
+ * **雜湊容量的准入名額。**
+ * 名額數等於雜湊工作池大小加上等待佇列容量；每次密碼比對（{@link BoundedPasswordEncoder}、{@link ReactiveHashingScheduler}）
+ * 與每次帳號不存在時的延遲等待（{@link io.github.montytsai.authkit.security.LoginTimingEqualizer}）都先取得一個名額，完成後歸還。
+ *
+ * @implNote 兩條路徑共用同一組名額，工作池飽和時不論 email 是否已註冊都回傳相同的 503，回應狀態碼不會洩露帳號是否存在；
+ *           延遲等待佔用的請求執行緒數也因此有上限。
+ */
+public final class HashingAdmission {
+
+    private static final String BUSY_MESSAGE = "Server is busy. Please try again later.";
+
+    private final Semaphore permits;
+    private final int capacity;
+
+    public HashingAdmission(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Hashing admission capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.permits = new Semaphore(capacity);
+    }
+
+    /**
+     * 建立名額與工作池（執行緒數加上佇列剩餘容量）相同的准入名額。
+     *
+     * @param poolSize 雜湊執行緒數。
+     * @param queueCapacity 等待佇列容量。
+     * @return {@link HashingAdmission} 實例。
+     */
+    public static HashingAdmission forPool(int poolSize, int queueCapacity) {
+        return new HashingAdmission(poolSize + queueCapacity);
+    }
+
+    /**
+     * 不限名額的准入；停用雜湊工作池時使用，此時比對也不會因容量而失敗。
+     *
+     * @return 永遠可取得名額的 {@link HashingAdmission}。
+     */
+    public static HashingAdmission unlimited() {
+        return new HashingAdmission(Integer.MAX_VALUE);
+    }
+
+    /**
+     * 取得一個名額，不等待。
+     *
+     * @throws HashingCapacityExceededException 如果名額已用完 (HTTP 503)。
+     */
+    public void acquire() {
+        if (!permits.tryAcquire()) {
+            throw new HashingCapacityExceededException(BUSY_MESSAGE);
+        }
+    }
+
+    /**
+     * 歸還以 {@link #acquire()} 取得的名額。
+     */
+    public void release() {
+        permits.release();
+    }
+
+    /**
+     * @return 目前使用中的名額數。
+     */
+    public int inUse() {
+        return capacity - permits.availablePermits();
+    }
+
+}
@@ -0,0 +1,145 @@
+package io.github.montytsai.authkit.crypto;
+
+import io.github.montytsai.authkit.config.PasswordEncoderProperties;
+import io.github.montytsai.authkit.config.PasswordEncoderProperties.Algorithm;
+
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.scrypt.SCryptPasswordEncoder;
+import org.springframework.util.unit.DataSize;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * **已解析的密碼雜湊演算法與參數。**
+ * 依 {@link PasswordEncoderProperties} 建立各演算法的加密器，並組成以 {@code {id}} 前綴分派的 {@link DelegatingPasswordEncoder}。
+ *
+ * @apiNote 新密碼以 {@code authkit.password.algorithm} 雜湊並加上前綴（例如 {@code {argon2}$argon2id$...}）；
+ *          沒有前綴的既有雜湊一律以 BCrypt 驗證，並在下次登入成功後經 rehash-on-login 改寫為帶前綴的目前演算法。
+ * @implNote BCrypt 成本因子在建構前已解析（固定值或啟動時校準的結果），其餘參數直接取自設定。
+ */
+public final class PasswordAlgorithms {
+
+    private static final int KIB = 1024;
+
+    private final Algorithm active;
+    private final Map<Algorithm, HashingParameters> configured = new EnumMap<>(Algorithm.class);
+
+    /**
+     * @param properties 演算法與參數設定。
+     * @param bcryptStrength 已解析的 BCrypt 成本因子。
+     */
+    public PasswordAlgorithms(PasswordEncoderProperties properties, int bcryptStrength) {
+        this.active = properties.getAlgorithm();
+        configured.put(Algorithm.BCRYPT, bcrypt(bcryptStrength));
+        configured.put(Algorithm.ARGON2ID, argon2(properties.getArgon2()));
+        configured.put(Algorithm.SCRYPT, scrypt(properties.getScrypt()));
+    }
+
+    /**
+     * 新密碼使用的演算法。
+     */
+    public Algorithm active() {
+        return active;
+    }
+
+    /**
+     * 目前演算法的參數組合。
+     */
+    public HashingParameters activeParameters() {
+        return configured.get(active);
+    }
+
+    /**
+     * 各演算法目前設定的參數組合，依 {@link Algorithm} 宣告順序排列。
+     */
+    public List<HashingParameters> configured() {
+        return List.copyOf(configured.values());
+    }
+
+    /**
+     * 建立以 {@code {id}} 前綴分派的加密器：以目前演算法雜湊，並能驗證任何已設定演算法與無前綴的 BCrypt 雜湊。
+     */
+    public PasswordEncoder delegatingEncoder() {
+        Map<String, PasswordEncoder> encoders = new HashMap<>();
+        configured.forEach((algorithm, parameters) -> encoders.put(algorithm.id(), parameters.encoder()));
+        DelegatingPasswordEncoder delegating = new DelegatingPasswordEncoder(active.id(), encoders);
+        delegating.setDefaultPasswordEncoderForMatches(configured.get(Algorithm.BCRYPT).encoder());
+        return delegating;
+    }
+
+    /**
+     * 供校準比較用的參考參數組合（OWASP Password Storage Cheat Sheet 的建議值）。
+     */
+    public static List<HashingParameters> referencePresets() {
+        return List.of(
+                bcrypt(10),
+                argon2(19 * KIB, 2, 1),
+                argon2(46 * KIB, 1, 1),
+                argon2(64 * KIB, 3, 4),
+                scrypt(1 << 17, 8, 1),
+                scrypt(1 << 15, 8, 3));
+    }
+
+    static HashingParameters bcrypt(int strength) {
+        return new HashingParameters(Algorithm.BCRYPT, "cost=" + strength, 4L * KIB,
+                new BCryptPasswordEncoder(strength));
+    }
+
+    static HashingParameters argon2(PasswordEncoderProperties.Argon2 settings) {
+        int memoryKib = Math.toIntExact(settings.getMemory().toKilobytes());
+        return new HashingParameters(Algorithm.ARGON2ID,
+                argon2Description(memoryKib, settings.getIterations(), settings.getParallelism()), (long) memoryKib * KIB,
+                new Argon2PasswordEncoder(settings.getSaltLength(), settings.getHashLength(), settings.getParallelism(),
+                        memoryKib, settings.getIterations()));
+    }
+
+    static HashingParameters scrypt(PasswordEncoderProperties.SCrypt settings) {
+        return new HashingParameters(Algorithm.SCRYPT,
+                scryptDescription(settings.getCpuCost(), settings.getBlockSize(), settings.getParallelism()),
+                128L * settings.getCpuCost() * settings.getBlockSize(),
+                new SCryptPasswordEncoder(settings.getCpuCost(), settings.getBlockSize(), settings.getParallelism(),
+                        settings.getKeyLength(), settings.getSaltLength()));
+    }
+
+    private static HashingParameters argon2(int memoryKib, int iterations, int parallelism) {
+        PasswordEncoderProperties.Argon2 settings = new PasswordEncoderProperties.Argon2();
+        settings.setMemory(DataSize.ofKilobytes(memoryKib));
+        settings.setIterations(iterations);
+        settings.setParallelism(parallelism);
+        return argon2(settings);
+    }
+
+    private static HashingParameters scrypt(int cpuCost, int blockSize, int parallelism) {
+        PasswordEncoderProperties.SCrypt settings = new PasswordEncoderProperties.SCrypt();
+        settings.setCpuCost(cpuCost);
+        settings.setBlockSize(blockSize);
+        settings.setParallelism(parallelism);
+        return scrypt(settings);
+    }
+
+    private static String argon2Description(int memoryKib, int iterations, int parallelism) {
+        return "m=" + memoryKib + "KiB,t=" + iterations + ",p=" + parallelism;
+    }
+
+    private static String scryptDescription(int cpuCost, int blockSize, int parallelism) {
+        return "N=" + cpuCost + ",r=" + blockSize + ",p=" + parallelism;
+    }
+
+    /**
+     * 一組演算法參數與對應的加密器。
+     *
+     * @param algorithm 演算法。
+     * @param parameters 參數的簡短描述，例如 {@code m=19456KiB,t=2,p=1}。
+     * @param memoryBytes 單次雜湊約需配置的記憶體。
+     * @param encoder 以此參數雜湊的加密器（不含前綴、未經工作池）。
+     */
+    public record HashingParameters(Algorithm algorithm, String parameters, long memoryBytes, PasswordEncoder encoder) {
+    }
+
+}
@@ -0,0 +1,115 @@
+package io.github.montytsai.authkit.crypto;
+
+import io.github.montytsai.authkit.exception.HashingCapacityExceededException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * **響應式堆疊的雜湊排程器。**
+ * 將密碼雜湊工作池包裝為 Reactor {@link Scheduler}，讓 {@code encode} 與 {@code matches} 不在 Netty 事件迴圈上執行。
+ *
+ * @apiNote 與 {@link BoundedPasswordEncoder} 共用同一個有界工作池與 {@code authkit.hashing.*} 設定：
+ *          工作池與等待佇列皆滿時，回傳的 {@link Mono} 以 {@link HashingCapacityExceededException} 結束 (HTTP 503)。
+ *          准入名額由 {@link HashingAdmission} 控管，帳號不存在時的延遲等待（{@link #pace(Duration)}）也佔用同一組名額。
+ * @implNote 響應式堆疊不使用 {@link BoundedPasswordEncoder}：任務本身已在工作池上執行，
+ *           若加密器再把雜湊送入同一個工作池並等待，工作池執行緒全數等待時會互相鎖死。
+ */
+public class ReactiveHashingScheduler {
+
+    private static final String BUSY_MESSAGE = "Server is busy. Please try again later.";
+
+    private final Scheduler scheduler;
+    private final HashingAdmission admission;
+    private final Counter rejectedCounter;
+
+    public ReactiveHashingScheduler(ThreadPoolExecutor executor, HashingAdmission admission, MeterRegistry meterRegistry) {
+        this.admission = admission;
+        this.scheduler = Schedulers.fromExecutorService(executor, "password-hashing");
+        this.rejectedCounter = Counter.builder("authkit.hashing.rejected")
+                .description("Hashing requests rejected because the hashing queue was full")
+                .register(meterRegistry);
+
+        Gauge.builder("authkit.hashing.queue.depth", executor, e -> e.getQueue().size())
+                .description("Hashing requests waiting for a worker")
+                .register(meterRegistry);
+        Gauge.builder("authkit.hashing.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Hashing workers currently computing a hash")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 取得准入名額後在雜湊工作池上執行 {@code task}；任務結束時歸還名額。
+     *
+     * @param task 含有雜湊運算的阻塞任務。
+     * @return 訂閱時才提交任務的 {@link Mono}；名額用完或工作池已滿時以 {@link HashingCapacityExceededException} 結束。
+     * @implNote 取消訂閱不會停止已開始的雜湊，因此名額由任務本身在結束時歸還；
+     *           任務開始前就被拒絕或取消時，才在 {@link Mono} 結束時歸還，{@code started} 確保只歸還一次。
+     */
+    public <T> Mono<T> submit(Callable<T> task) {
+        return Mono.defer(() -> {
+            if (!tryAcquire()) {
+                return Mono.error(new HashingCapacityExceededException(BUSY_MESSAGE));
+            }
+            AtomicBoolean started = new AtomicBoolean();
+            return Mono.fromCallable(() -> {
+                        if (!started.compareAndSet(false, true)) {
+                            // 訂閱已取消並歸還名額
+                            return null;
+                        }
+                        try {
+                            return task.call();
+                        } finally {
+                            admission.release();
+                        }
+                    })
+                    .subscribeOn(scheduler)
+                    .onErrorMap(RejectedExecutionException.class, ex -> {
+                        rejectedCounter.increment();
+                        return new HashingCapacityExceededException(BUSY_MESSAGE);
+                    })
+                    .doFinally(signal -> {
+                        if (started.compareAndSet(false, true)) {
+                            admission.release();
+                        }
+                    });
+        });
+    }
+
+    /**
+     * 佔用一個准入名額等待 {@code delay}，不佔用任何工作池執行緒。
+     * 帳號不存在時以此取代密碼比對，名額用完時與真實比對一樣回傳 503。
+     *
+     * @param delay 等待時間。
+     * @return 等待結束後完成的 {@link Mono}；名額用完時以 {@link HashingCapacityExceededException} 結束。
+     */
+    public Mono<Long> pace(Duration delay) {
+        return Mono.defer(() -> {
+            if (!tryAcquire()) {
+                return Mono.error(new HashingCapacityExceededException(BUSY_MESSAGE));
+            }
+            return Mono.delay(delay).doFinally(signal -> admission.release());
+        });
+    }
+
+    private boolean tryAcquire() {
+        try {
+            admission.acquire();
+            return true;
+        } catch (HashingCapacityExceededException ex) {
+            rejectedCounter.increment();
+            return false;
+        }
+    }
+
+}
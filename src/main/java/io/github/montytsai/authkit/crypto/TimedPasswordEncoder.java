@@ -0,0 +1,50 @@
+package io.github.montytsai.authkit.crypto;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * **計時密碼加密器裝飾器。**
+ * 以 {@code authkit.password.duration} 記錄呼叫端觀察到的 {@code encode} 與 {@code matches} 延遲。
+ *
+ * @implNote 作為最外層裝飾器：啟用雜湊工作池時，數值包含排隊等待與雜湊本身
+ *           （兩者分別見 {@code authkit.hashing.wait} 與 {@code authkit.hashing.duration}）；
+ *           停用工作池時即為 BCrypt 在請求執行緒上的執行時間。
+ */
+public class TimedPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+
+    public TimedPasswordEncoder(PasswordEncoder delegate, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.encodeTimer = timer(meterRegistry, "encode");
+        this.matchesTimer = timer(meterRegistry, "matches");
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return encodeTimer.record(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return matchesTimer.record(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    private static Timer timer(MeterRegistry registry, String operation) {
+        return Timer.builder("authkit.password.duration")
+                .description("Caller-observed password encode/verify latency, including any hashing-pool queueing")
+                .tag("operation", operation)
+                .register(registry);
+    }
+
+}
@@ -4,7 +4,7 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 
 /**
- * 用來定義登入成功後回傳的 JSON 格式。
+ * 用來定義登入成功或換發 Token 後回傳的 JSON 格式。
  */
 @Data
 @AllArgsConstructor
@@ -12,7 +12,14 @@ public class LoginResponse {
 
     private String message;
 
-    // TODO 先放一個假的 Token
+    /**
+     * 已簽章的 JWT Access Token，後續請求以 {@code Authorization: Bearer <token>} 攜帶。
+     */
     private String token;
 
+    /**
+     * 僅能使用一次的 Refresh Token，向 {@code /api/auth/refresh} 換發新的一組 Token，或向 {@code /api/auth/logout} 登出。
+     */
+    private String refreshToken;
+
 }
\ No newline at end of file
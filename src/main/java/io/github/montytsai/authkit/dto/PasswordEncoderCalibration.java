@@ -0,0 +1,48 @@
+package io.github.montytsai.authkit.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * 單一演算法與參數組合在當前機器上的驗證速度。
+ */
+@Data
+@AllArgsConstructor
+public class PasswordEncoderCalibration {
+
+    /**
+     * 演算法的 {@code {id}}，例如 {@code bcrypt}、{@code argon2}、{@code scrypt}。
+     */
+    private String algorithm;
+
+    /**
+     * 參數描述，例如 {@code m=19456KiB,t=2,p=1}。
+     */
+    private String parameters;
+
+    /**
+     * 單次雜湊約需配置的記憶體 (KiB)。
+     */
+    private long memoryKib;
+
+    /**
+     * 是否為目前用來雜湊新密碼的設定。
+     */
+    private boolean active;
+
+    /**
+     * 單次驗證 ({@code matches}) 的中位數耗時。
+     */
+    private double millisPerHash;
+
+    /**
+     * 單一執行緒每秒可完成的驗證次數。
+     */
+    private double hashesPerSecond;
+
+    /**
+     * 以雜湊工作池（不超過 CPU 核心數）全速執行時，本節點每秒可完成的驗證次數估計。
+     */
+    private double nodeHashesPerSecond;
+
+}
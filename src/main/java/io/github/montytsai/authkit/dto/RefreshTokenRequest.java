@@ -0,0 +1,15 @@
+package io.github.montytsai.authkit.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+
+/**
+ * 換發 Token 與登出時攜帶 Refresh Token 的請求格式。
+ */
+@Data
+public class RefreshTokenRequest {
+
+    @NotBlank(message = "Refresh token cannot be blank")
+    private String refreshToken;
+
+}
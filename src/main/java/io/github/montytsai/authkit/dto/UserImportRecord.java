@@ -0,0 +1,19 @@
+package io.github.montytsai.authkit.dto;
+
+import lombok.Data;
+
+/**
+ * 批次匯入的單筆使用者紀錄。
+ *
+ * @apiNote {@code password} 與 {@code passwordHash} 擇一提供；提供 {@code passwordHash} 時直接寫入，不再雜湊。
+ */
+@Data
+public class UserImportRecord {
+
+    private String email;
+
+    private String password;
+
+    private String passwordHash;
+
+}
@@ -0,0 +1,40 @@
+package io.github.montytsai.authkit.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * 批次匯入中單筆紀錄的處理結果，以 NDJSON 逐行串流回傳。
+ */
+@Data
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class UserImportResult {
+
+    /**
+     * 紀錄在請求內容中的行號（從 1 開始，CSV 包含標題列）。
+     */
+    private long line;
+
+    private String email;
+
+    private Status status;
+
+    /**
+     * 未新增時的原因。
+     */
+    private String message;
+
+    public enum Status {
+        /** 已新增。 */
+        CREATED,
+        /** email 已存在（或在本次匯入中重複），未覆寫。 */
+        EXISTS,
+        /** 紀錄格式或內容不合法。 */
+        INVALID,
+        /** 雜湊或寫入失敗，可重新匯入。 */
+        FAILED
+    }
+
+}
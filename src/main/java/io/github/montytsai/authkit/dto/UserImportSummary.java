@@ -0,0 +1,33 @@
+package io.github.montytsai.authkit.dto;
+
+import lombok.Data;
+
+/**
+ * 批次匯入的統計結果，作為結果串流的最後一行。
+ */
+@Data
+public class UserImportSummary {
+
+    private long total;
+
+    private long created;
+
+    private long exists;
+
+    private long invalid;
+
+    private long failed;
+
+    private long elapsedMillis;
+
+    public void record(UserImportResult.Status status) {
+        total++;
+        switch (status) {
+            case CREATED -> created++;
+            case EXISTS -> exists++;
+            case INVALID -> invalid++;
+            case FAILED -> failed++;
+        }
+    }
+
+}
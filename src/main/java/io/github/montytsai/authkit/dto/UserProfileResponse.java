@@ -0,0 +1,15 @@
+package io.github.montytsai.authkit.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * 用來定義目前登入使用者資訊的 JSON 格式。
+ */
+@Data
+@AllArgsConstructor
+public class UserProfileResponse {
+
+    private String email;
+
+}
@@ -0,0 +1,81 @@
+package io.github.montytsai.authkit.exception;
+
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.event.AbstractAuthenticationFailureEvent;
+import org.springframework.security.authentication.event.AuthenticationFailureBadCredentialsEvent;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.util.Map;
+
+/**
+ * **不帶堆疊的認證失敗異常。**
+ * 撞庫流量下絕大多數登入都以密碼錯誤或帳號不存在結束；這類異常的堆疊（深達上百層的過濾鏈）沒有除錯價值，
+ * 擷取它卻是失敗路徑上除了雜湊以外最昂貴的一步。此處的異常覆寫 {@link Throwable#fillInStackTrace()}，建立成本只剩一次物件配置。
+ *
+ * @implNote 每次失敗仍建立新的實例而非共用單例：{@link org.springframework.security.authentication.ProviderManager}
+ *           會把當次的 {@code Authentication}（含明文密碼）寫入異常的 {@code authenticationRequest}，共用實例會讓請求之間互相覆寫。
+ *           子類別不在 {@link org.springframework.security.authentication.DefaultAuthenticationEventPublisher} 的預設對應中，
+ *           需以 {@link #failureEventMappings()} 註冊，才會照常發佈失敗事件。
+ */
+public final class AuthFailures {
+
+    private static final String USER_NOT_FOUND = "User not found";
+
+    private AuthFailures() {
+    }
+
+    /**
+     * 建立不帶堆疊的 {@link BadCredentialsException}。
+     *
+     * @param message 異常訊息；不會回傳給客戶端。
+     */
+    public static BadCredentialsException badCredentials(String message) {
+        return new StacklessBadCredentialsException(message);
+    }
+
+    /**
+     * 建立不帶堆疊的 {@link UsernameNotFoundException}；訊息為固定字串，不含 email。
+     */
+    public static UsernameNotFoundException userNotFound() {
+        return new StacklessUsernameNotFoundException(USER_NOT_FOUND);
+    }
+
+    /**
+     * 本類別的異常型別對應的 Spring Security 失敗事件，與其父類別的預設對應相同。
+     *
+     * @return 可傳入 {@code DefaultAuthenticationEventPublisher#setAdditionalExceptionMappings} 的對應表。
+     */
+    public static Map<Class<? extends AuthenticationException>, Class<? extends AbstractAuthenticationFailureEvent>>
+            failureEventMappings() {
+        return Map.of(StacklessBadCredentialsException.class, AuthenticationFailureBadCredentialsEvent.class,
+                StacklessUsernameNotFoundException.class, AuthenticationFailureBadCredentialsEvent.class);
+    }
+
+    static final class StacklessBadCredentialsException extends BadCredentialsException {
+
+        StacklessBadCredentialsException(String message) {
+            super(message);
+        }
+
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+            return this;
+        }
+
+    }
+
+    static final class StacklessUsernameNotFoundException extends UsernameNotFoundException {
+
+        StacklessUsernameNotFoundException(String message) {
+            super(message);
+        }
+
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+            return this;
+        }
+
+    }
+
+}
@@ -1,11 +1,18 @@
 package io.github.montytsai.authkit.exception;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.validation.FieldError;
+import org.springframework.web.HttpMediaTypeNotSupportedException;
 import org.springframework.web.HttpRequestMethodNotSupportedException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -17,6 +24,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import lombok.extern.slf4j.Slf4j;
@@ -28,11 +36,25 @@ import lombok.extern.slf4j.Slf4j;
  *
  * @apiNote 所有異常響應都應提供一致的結構（例如，包含 HTTP 狀態碼、錯誤訊息和詳細資訊），
  * 以便前端能可靠地解析和顯示。
+ * @implNote 撞庫時大量出現的回應（401 認證失敗、409 註冊衝突、429 限流）不逐次建立 {@code HashMap} 並交給 Jackson 序列化，
+ *           而是回傳預先序列化、依訊息快取的 JSON 位元組；內容與其他錯誤回應相同，皆為 {@code {"error": "..."}}。
  */
 @Slf4j
 @RestControllerAdvice
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class GlobalExceptionHandler {
 
+    private static final String INVALID_CREDENTIALS = "Invalid credentials. Please check your email and password.";
+
+    /**
+     * 快取的錯誤訊息種類上限；這些異常的訊息皆為常數，超過時代表訊息含動態內容，改為不快取。
+     */
+    private static final int MAX_CACHED_BODIES = 64;
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private final Map<String, byte[]> serializedBodies = new ConcurrentHashMap<>();
+
     /**
      * **處理參數驗證錯誤 (HTTP 400 Bad Request)。**
      * 當請求數據不符合 DTO 中定義的 {@code @Valid} 驗證規則時觸發。
@@ -76,15 +98,60 @@ public class GlobalExceptionHandler {
      * @param ex {@link AuthenticationException} 實例。
      * @return 包含通用認證失敗訊息的 {@link ResponseEntity}。
      * @apiNote 出於安全考慮，不建議回傳過於詳細的錯誤訊息（如「密碼錯誤」），以避免被用於枚舉用戶名或暴力破解。
+     * @implNote 登入失敗已由 {@link io.github.montytsai.authkit.metrics.AuthEventLogger} 記錄為事件，此處僅輸出 DEBUG。
      */
     @ExceptionHandler(AuthenticationException.class)
-    public ResponseEntity<Map<String, String>> handleAuthenticationException(AuthenticationException ex) {
+    public ResponseEntity<byte[]> handleAuthenticationException(AuthenticationException ex) {
+        log.debug("Authentication failed: {}", ex.getMessage());
+        return jsonError(HttpStatus.UNAUTHORIZED, INVALID_CREDENTIALS);
+    }
+
+    /**
+     * **處理 Token 無效 (HTTP 401 Unauthorized)。**
+     * 當換發或登出時提交的 Refresh Token 無效、已過期、已使用過或工作階段已登出時觸發。
+     *
+     * @param ex {@link InvalidTokenException} 實例。
+     * @return 要求重新登入的 {@link ResponseEntity}。
+     */
+    @ExceptionHandler(InvalidTokenException.class)
+    public ResponseEntity<Map<String, String>> handleInvalidTokenException(InvalidTokenException ex) {
         Map<String, String> error = new HashMap<>();
-        error.put("error", "Invalid credentials. Please check your email and password.");
-        log.warn("Authentication failed: {}", ex.getMessage());
+        error.put("error", ex.getMessage());
+        log.warn("Invalid token: {}", ex.getMessage());
         return new ResponseEntity<>(error, HttpStatus.UNAUTHORIZED);
     }
 
+    /**
+     * **處理批次匯入內容格式錯誤 (HTTP 400 Bad Request)。**
+     * 當匯入內容無法辨識（例如 CSV 缺少標題列或必要欄位）時觸發。
+     *
+     * @param ex {@link InvalidImportFormatException} 實例。
+     * @return 包含格式錯誤說明的 {@link ResponseEntity}。
+     */
+    @ExceptionHandler(InvalidImportFormatException.class)
+    public ResponseEntity<Map<String, String>> handleInvalidImportFormatException(InvalidImportFormatException ex) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", ex.getMessage());
+        log.warn("Invalid import format: {}", ex.getMessage());
+        return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * **處理請求內容類型不支援 (HTTP 415 Unsupported Media Type)。**
+     * 當客戶端送出的 {@code Content-Type} 不在端點可接受的清單中時觸發。
+     *
+     * @param ex {@link HttpMediaTypeNotSupportedException} 實例。
+     * @return 包含說明支援內容類型的 {@link ResponseEntity}。
+     */
+    @ExceptionHandler(HttpMediaTypeNotSupportedException.class)
+    public ResponseEntity<Map<String, String>> handleHttpMediaTypeNotSupportedException(HttpMediaTypeNotSupportedException ex) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", String.format("Content type '%s' is not supported for this endpoint. Supported types are: %s",
+                ex.getContentType(), MediaType.toString(ex.getSupportedMediaTypes())));
+        log.warn("Unsupported Media Type: {}", ex.getContentType());
+        return new ResponseEntity<>(error, HttpStatus.UNSUPPORTED_MEDIA_TYPE);
+    }
+
     /**
      * **處理請求方法不支援 (HTTP 405 Method Not Allowed)。**
      * 當客戶端使用不被支援的 HTTP 方法訪問資源時觸發。
@@ -117,13 +184,44 @@ public class GlobalExceptionHandler {
      *
      * @param ex {@link UserAlreadyExistsException} 實例。
      * @return 包含業務錯誤訊息的 {@link ResponseEntity}，狀態碼為 409。
+     * @implNote 註冊衝突已由 {@link io.github.montytsai.authkit.metrics.AuthEventLogger} 記錄為事件，此處僅輸出 DEBUG。
      */
     @ExceptionHandler(UserAlreadyExistsException.class)
-    public ResponseEntity<Map<String, String>> handleUserAlreadyExistsException(UserAlreadyExistsException ex) {
+    public ResponseEntity<byte[]> handleUserAlreadyExistsException(UserAlreadyExistsException ex) {
+        log.debug("Business conflict: {}", ex.getMessage());
+        return jsonError(HttpStatus.CONFLICT, ex.getMessage());
+    }
+
+    /**
+     * **處理密碼雜湊容量已滿 (HTTP 503 Service Unavailable)。**
+     * 當雜湊工作池與等待佇列皆已飽和時觸發，提示客戶端稍後重試。
+     *
+     * @param ex {@link HashingCapacityExceededException} 實例。
+     * @return 包含重試提示的 {@link ResponseEntity}，並附帶 {@code Retry-After} 標頭。
+     */
+    @ExceptionHandler(HashingCapacityExceededException.class)
+    public ResponseEntity<Map<String, String>> handleHashingCapacityExceededException(HashingCapacityExceededException ex) {
         Map<String, String> error = new HashMap<>();
         error.put("error", ex.getMessage());
-        log.warn("Business conflict: {}", ex.getMessage());
-        return new ResponseEntity<>(error, HttpStatus.CONFLICT);
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(error);
+    }
+
+    /**
+     * **處理登入嘗試過於頻繁 (HTTP 429 Too Many Requests)。**
+     * 當 email 或來源 IP 超過登入配額，或帳號因連續密碼錯誤而鎖定時觸發。
+     *
+     * @param ex {@link TooManyLoginAttemptsException} 實例。
+     * @return 包含限流說明的 {@link ResponseEntity}，並以 {@code Retry-After} 標頭告知最早可重試的秒數。
+     */
+    @ExceptionHandler(TooManyLoginAttemptsException.class)
+    public ResponseEntity<byte[]> handleTooManyLoginAttemptsException(TooManyLoginAttemptsException ex) {
+        long retryAfterSeconds = Math.max(1, (ex.getRetryAfter().toMillis() + 999) / 1000);
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds))
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(serializedBody(ex.getMessage()));
     }
 
     /**
@@ -146,4 +244,34 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(error, HttpStatus.INTERNAL_SERVER_ERROR);
     }
 
-}
\ No newline at end of file
+    private ResponseEntity<byte[]> jsonError(HttpStatus status, String message) {
+        return ResponseEntity.status(status).contentType(MediaType.APPLICATION_JSON).body(serializedBody(message));
+    }
+
+    /**
+     * 取得 {@code {"error": message}} 的 JSON 位元組；同一訊息只序列化一次。
+     */
+    private byte[] serializedBody(String message) {
+        if (message == null) {
+            return serialize(null);
+        }
+        byte[] body = serializedBodies.get(message);
+        if (body != null) {
+            return body;
+        }
+        body = serialize(message);
+        if (serializedBodies.size() < MAX_CACHED_BODIES) {
+            serializedBodies.putIfAbsent(message, body);
+        }
+        return body;
+    }
+
+    private static byte[] serialize(String message) {
+        try {
+            return JSON.writeValueAsBytes(Collections.singletonMap("error", message));
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Cannot serialize error body", ex);
+        }
+    }
+
+}
@@ -0,0 +1,17 @@
+package io.github.montytsai.authkit.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * **自定義系統異常：密碼雜湊容量已滿。**
+ * 當專用雜湊工作池與其等待佇列皆已飽和時拋出，讓請求快速失敗，而不是佔住請求執行緒排隊。
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE) // HTTP 狀態碼 503 Service Unavailable
+public class HashingCapacityExceededException extends RuntimeException {
+
+    public HashingCapacityExceededException(String message) {
+        super(message);
+    }
+
+}
@@ -0,0 +1,17 @@
+package io.github.montytsai.authkit.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * **自定義業務異常：批次匯入內容格式錯誤。**
+ * 當匯入內容無法辨識（例如 CSV 缺少必要欄位）而無法逐筆處理時拋出。
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST) // HTTP 狀態碼 400 Bad Request
+public class InvalidImportFormatException extends RuntimeException {
+
+    public InvalidImportFormatException(String message) {
+        super(message);
+    }
+
+}
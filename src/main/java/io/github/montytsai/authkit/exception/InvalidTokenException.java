@@ -0,0 +1,17 @@
+package io.github.montytsai.authkit.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * **自定義業務異常：Token 無效。**
+ * 當 Refresh Token 簽章錯誤、已過期、已使用過，或其工作階段已登出時拋出。
+ */
+@ResponseStatus(HttpStatus.UNAUTHORIZED) // HTTP 狀態碼 401 Unauthorized
+public class InvalidTokenException extends RuntimeException {
+
+    public InvalidTokenException(String message) {
+        super(message);
+    }
+
+}
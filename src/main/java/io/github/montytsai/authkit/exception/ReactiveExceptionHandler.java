@@ -0,0 +1,161 @@
+package io.github.montytsai.authkit.exception;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.support.WebExchangeBindException;
+import org.springframework.web.server.MethodNotAllowedException;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebInputException;
+import org.springframework.web.server.UnsupportedMediaTypeStatusException;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * **全域異常處理器（響應式堆疊）。**
+ * 將 WebFlux 控制器拋出的異常轉換為與 {@link GlobalExceptionHandler} 完全相同的 HTTP 錯誤回應。
+ *
+ * @implNote 業務異常直接委派給 {@link GlobalExceptionHandler} 的對應方法，確保兩個堆疊的狀態碼、標頭與訊息一致；
+ *           此處只處理 WebFlux 特有的框架異常（參數驗證、Body 解析、內容類型與方法不支援）與最終的 fallback。
+ */
+@Slf4j
+@RestControllerAdvice
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveExceptionHandler {
+
+    private final GlobalExceptionHandler handler = new GlobalExceptionHandler();
+
+    /**
+     * **處理參數驗證錯誤 (HTTP 400 Bad Request)。**
+     *
+     * @param ex {@link WebExchangeBindException} 實例。
+     * @return 包含所有欄位錯誤訊息的 {@link ResponseEntity}。
+     */
+    @ExceptionHandler(WebExchangeBindException.class)
+    public ResponseEntity<Map<String, String>> handleValidationExceptions(WebExchangeBindException ex) {
+        Map<String, String> errors = new HashMap<>();
+        ex.getBindingResult().getFieldErrors()
+                .forEach(error -> errors.put(error.getField(), error.getDefaultMessage()));
+
+        log.warn("Request validation failed: {}", errors);
+        return new ResponseEntity<>(errors, HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * **處理請求 Body 缺失或格式錯誤 (HTTP 400 Bad Request)。**
+     *
+     * @param ex {@link ServerWebInputException} 實例。
+     * @return 包含通用錯誤訊息的 {@link ResponseEntity}。
+     */
+    @ExceptionHandler(ServerWebInputException.class)
+    public ResponseEntity<Map<String, String>> handleServerWebInputException(ServerWebInputException ex) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", "Request body is missing or malformed. Please check your JSON format.");
+        log.warn("HTTP message not readable: {}", ex.getReason());
+        return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * **處理請求內容類型不支援 (HTTP 415 Unsupported Media Type)。**
+     *
+     * @param ex {@link UnsupportedMediaTypeStatusException} 實例。
+     * @return 包含說明支援內容類型的 {@link ResponseEntity}。
+     */
+    @ExceptionHandler(UnsupportedMediaTypeStatusException.class)
+    public ResponseEntity<Map<String, String>> handleUnsupportedMediaTypeStatusException(UnsupportedMediaTypeStatusException ex) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", String.format("Content type '%s' is not supported for this endpoint. Supported types are: %s",
+                ex.getContentType(), MediaType.toString(ex.getSupportedMediaTypes())));
+        log.warn("Unsupported Media Type: {}", ex.getContentType());
+        return new ResponseEntity<>(error, HttpStatus.UNSUPPORTED_MEDIA_TYPE);
+    }
+
+    /**
+     * **處理請求方法不支援 (HTTP 405 Method Not Allowed)。**
+     *
+     * @param ex {@link MethodNotAllowedException} 實例。
+     * @return 包含說明支援方法的 {@link ResponseEntity}。
+     */
+    @ExceptionHandler(MethodNotAllowedException.class)
+    public ResponseEntity<Map<String, String>> handleMethodNotAllowedException(MethodNotAllowedException ex) {
+        String supportedMethods = ex.getSupportedMethods().stream().map(HttpMethod::name)
+                .collect(Collectors.joining(", "));
+        if (supportedMethods.isEmpty()) {
+            supportedMethods = "N/A";
+        }
+
+        Map<String, String> error = new HashMap<>();
+        error.put("error", String.format("Request method '%s' is not supported for this endpoint. Supported methods are: %s",
+                ex.getHttpMethod(), supportedMethods));
+        log.warn("Method Not Allowed: {}. Supported methods: {}", ex.getHttpMethod(), supportedMethods);
+        return new ResponseEntity<>(error, HttpStatus.METHOD_NOT_ALLOWED);
+    }
+
+    @ExceptionHandler(AuthenticationException.class)
+    public ResponseEntity<byte[]> handleAuthenticationException(AuthenticationException ex) {
+        return handler.handleAuthenticationException(ex);
+    }
+
+    @ExceptionHandler(InvalidTokenException.class)
+    public ResponseEntity<Map<String, String>> handleInvalidTokenException(InvalidTokenException ex) {
+        return handler.handleInvalidTokenException(ex);
+    }
+
+    @ExceptionHandler(UserAlreadyExistsException.class)
+    public ResponseEntity<byte[]> handleUserAlreadyExistsException(UserAlreadyExistsException ex) {
+        return handler.handleUserAlreadyExistsException(ex);
+    }
+
+    @ExceptionHandler(HashingCapacityExceededException.class)
+    public ResponseEntity<Map<String, String>> handleHashingCapacityExceededException(HashingCapacityExceededException ex) {
+        return handler.handleHashingCapacityExceededException(ex);
+    }
+
+    @ExceptionHandler(TooManyLoginAttemptsException.class)
+    public ResponseEntity<byte[]> handleTooManyLoginAttemptsException(TooManyLoginAttemptsException ex) {
+        return handler.handleTooManyLoginAttemptsException(ex);
+    }
+
+    /**
+     * **處理其他帶有 HTTP 狀態的框架異常**（例如 404 找不到路徑），保留原本的狀態碼。
+     *
+     * @param ex {@link ResponseStatusException} 實例。
+     * @return 狀態碼與框架異常相同的 {@link ResponseEntity}。
+     */
+    @ExceptionHandler(ResponseStatusException.class)
+    public ResponseEntity<Map<String, String>> handleResponseStatusException(ResponseStatusException ex) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", ex.getReason() != null ? ex.getReason() : ex.getStatusCode().toString());
+        return new ResponseEntity<>(error, ex.getStatusCode());
+    }
+
+    /**
+     * **處理所有其他未被捕獲的未知異常 (HTTP 500 Internal Server Error)。**
+     *
+     * @param ex {@link Exception} 實例。
+     * @param request 目前的請求，用於記錄 URI。
+     * @return 包含通用錯誤訊息的 {@link ResponseEntity}，狀態碼為 500。
+     * @apiNote 僅向客戶端返回通用訊息，避免洩露系統細節。
+     */
+    @ExceptionHandler(Exception.class)
+    public ResponseEntity<Map<String, String>> handleUncaughtException(Exception ex, ServerHttpRequest request) {
+        log.error("An unexpected internal server error occurred for URI: {}. Error: {}",
+                request.getPath(), ex.getMessage(), ex);
+
+        Map<String, String> error = new HashMap<>();
+        error.put("error", "An unexpected internal server error occurred. Please try again later.");
+
+        return new ResponseEntity<>(error, HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+
+}
@@ -0,0 +1,31 @@
+package io.github.montytsai.authkit.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.time.Duration;
+
+/**
+ * **自定義業務異常：登入嘗試過於頻繁。**
+ * 當 email 或來源 IP 超過登入配額，或帳號因連續密碼錯誤而暫時鎖定時拋出，在執行任何密碼比對之前即拒絕請求。
+ *
+ * @implNote 撞庫時這是最常見的回應，因此不擷取堆疊。
+ */
+@ResponseStatus(HttpStatus.TOO_MANY_REQUESTS) // HTTP 狀態碼 429 Too Many Requests
+public class TooManyLoginAttemptsException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public TooManyLoginAttemptsException(String message, Duration retryAfter) {
+        super(message, null, false, false);
+        this.retryAfter = retryAfter;
+    }
+
+    /**
+     * 客戶端最早可以重試的等待時間。
+     */
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+}
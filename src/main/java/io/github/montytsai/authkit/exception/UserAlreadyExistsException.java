@@ -6,12 +6,14 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 /**
  * **自定義業務異常：使用者已存在。**
  * 當嘗試註冊的使用者電子郵件已經存在於系統中時，會拋出此異常。
+ *
+ * @implNote 不擷取堆疊、停用 suppressed 與 cause 的變更，因此實例不可變，可以預先建立並重複拋出。
  */
 @ResponseStatus(HttpStatus.CONFLICT) // HTTP 狀態碼 409 Conflict
 public class UserAlreadyExistsException extends RuntimeException {
 
     public UserAlreadyExistsException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 
 }
\ No newline at end of file
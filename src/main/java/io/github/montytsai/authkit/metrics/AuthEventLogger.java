@@ -0,0 +1,127 @@
+package io.github.montytsai.authkit.metrics;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.github.montytsai.authkit.config.AuthEventLogProperties;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * **認證事件日誌 (Authentication Event Log)。**
+ * 每個登入或註冊請求最多輸出一行 {@code event=... user=...} 格式的事件，取代散落在 Controller 與 Service 中的多行 INFO／DEBUG 日誌。
+ *
+ * @apiNote 事件寫入獨立的 {@value #LOGGER_NAME} logger，可在 logback 設定中個別調整等級或導向；
+ *          {@code reason} 只會是 {@link AuthMetrics#failureTag} 的固定標籤值。
+ * @implNote 訊息樣板皆為常數且參數不超過兩個（不產生 varargs 陣列），等級或取樣未通過時在建立任何物件之前即返回，
+ *           因此被略過的事件不會配置記憶體；取樣使用 {@link ThreadLocalRandom}，不需共享狀態。
+ *           失敗事件以每秒一個的固定視窗限制逐筆輸出的數量（{@code max-failures-per-second}）；
+ *           超出的失敗只累加計數，由下一個視窗的第一個失敗事件輸出一行 {@code event=failures_suppressed count=N}。
+ *           視窗切換以 CAS 完成，不需鎖也不需背景執行緒；流量停止時，最後一批的彙總會延到下一次失敗才輸出。
+ */
+@Component
+public class AuthEventLogger {
+
+    /** 認證事件使用的 logger 名稱。 */
+    public static final String LOGGER_NAME = "authkit.events";
+
+    private static final Logger log = LoggerFactory.getLogger(LOGGER_NAME);
+
+    private static final long WINDOW_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final double successSampleRate;
+    private final int maxFailuresPerSecond;
+    private final Ticker ticker;
+
+    private final AtomicLong failureWindow = new AtomicLong(Long.MIN_VALUE);
+    private final AtomicInteger failuresInWindow = new AtomicInteger();
+    private final LongAdder suppressedFailures = new LongAdder();
+
+    @Autowired
+    public AuthEventLogger(AuthEventLogProperties properties) {
+        this(properties, Ticker.systemTicker());
+    }
+
+    AuthEventLogger(AuthEventLogProperties properties, Ticker ticker) {
+        this.successSampleRate = Math.max(0.0, Math.min(1.0, properties.getSuccessSampleRate()));
+        this.maxFailuresPerSecond = Math.max(0, properties.getMaxFailuresPerSecond());
+        this.ticker = ticker;
+    }
+
+    /**
+     * 記錄一次成功的登入（依設定取樣）。
+     */
+    public void loginSucceeded(String email) {
+        if (log.isInfoEnabled() && sampled()) {
+            log.info("event=login_success user={}", email);
+        }
+    }
+
+    /**
+     * 記錄一次失敗的登入。
+     * 不依 {@code success-sample-rate} 取樣，但每秒逐筆輸出的失敗事件不超過 {@code max-failures-per-second}（0 代表不設上限）；
+     * 超出的部分只計數，於下一個視窗合併為一行 {@code event=failures_suppressed count=N}。
+     *
+     * @param failure 登入失敗時拋出的異常，僅以其類型歸類為 {@code reason}。
+     */
+    public void loginFailed(String email, Throwable failure) {
+        if (log.isInfoEnabled() && failureLogged()) {
+            log.info("event=login_failure user={} reason={}", email, AuthMetrics.failureTag(failure));
+        }
+    }
+
+    /**
+     * 記錄一次成功的註冊（依設定取樣）。
+     */
+    public void registered(String email) {
+        if (log.isInfoEnabled() && sampled()) {
+            log.info("event=register_success user={}", email);
+        }
+    }
+
+    /**
+     * 記錄一次因 email 已存在而被拒絕的註冊。
+     * 與 {@link #loginFailed} 共用 {@code max-failures-per-second} 的上限，超出的部分併入 {@code event=failures_suppressed}。
+     */
+    public void registrationConflict(String email) {
+        if (log.isInfoEnabled() && failureLogged()) {
+            log.info("event=register_conflict user={}", email);
+        }
+    }
+
+    /**
+     * 判斷目前視窗是否還能逐筆記錄失敗事件；進入新視窗時先輸出前一批被略過的數量。
+     */
+    private boolean failureLogged() {
+        if (maxFailuresPerSecond == 0) {
+            return true;
+        }
+        long window = Math.floorDiv(ticker.read(), WINDOW_NANOS);
+        long current = failureWindow.get();
+        if (window != current && failureWindow.compareAndSet(current, window)) {
+            failuresInWindow.set(0);
+            long suppressed = suppressedFailures.sumThenReset();
+            if (suppressed > 0) {
+                log.info("event=failures_suppressed count={}", suppressed);
+            }
+        }
+        if (failuresInWindow.incrementAndGet() <= maxFailuresPerSecond) {
+            return true;
+        }
+        suppressedFailures.increment();
+        return false;
+    }
+
+    private boolean sampled() {
+        return successSampleRate >= 1.0
+                || successSampleRate > 0.0 && ThreadLocalRandom.current().nextDouble() < successSampleRate;
+    }
+
+}
@@ -0,0 +1,162 @@
+package io.github.montytsai.authkit.metrics;
+
+import io.github.montytsai.authkit.exception.HashingCapacityExceededException;
+import io.github.montytsai.authkit.exception.TooManyLoginAttemptsException;
+import io.github.montytsai.authkit.store.UserStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * **認證熱路徑指標 (Authentication Metrics)。**
+ * 集中註冊登入結果、端到端登入延遲、使用者查詢延遲、使用者儲存大小，以及啟動後第一次成功登入的時間等指標，
+ * 經由 Actuator 以 Prometheus 格式輸出。
+ *
+ * @apiNote 所有標籤值皆來自固定集合（例如 {@code exception} 只會是 {@link #FAILURE_TYPES} 之一或其歸類），
+ *          不會帶入 email、IP 等使用者輸入，時間序列數量有上限。
+ * @implNote 計數器與計時器在建構時預先註冊，熱路徑上只做陣列／Map 查找與原子遞增，不會查詢 {@link MeterRegistry}。
+ */
+@Slf4j
+@Component
+public class AuthMetrics {
+
+    static final String OUTCOME_SUCCESS = "success";
+    static final String OUTCOME_FAILURE = "failure";
+    static final String NO_EXCEPTION = "none";
+    static final String OTHER_AUTHENTICATION_FAILURE = "AuthenticationException";
+    static final String OTHER_FAILURE = "Exception";
+
+    /**
+     * 由 {@link io.github.montytsai.authkit.exception.GlobalExceptionHandler} 個別處理、登入時可能出現的異常類型。
+     */
+    static final List<Class<? extends RuntimeException>> FAILURE_TYPES = List.of(
+            BadCredentialsException.class,
+            TooManyLoginAttemptsException.class,
+            HashingCapacityExceededException.class);
+
+    private final Counter loginSuccessCounter;
+    private final Map<String, Counter> loginFailureCounters;
+    private final Timer loginSuccessTimer;
+    private final Timer loginFailureTimer;
+    private final Timer lookupFoundTimer;
+    private final Timer lookupMissingTimer;
+    private final AtomicLong firstLoginUptimeMillis = new AtomicLong(-1);
+
+    public AuthMetrics(MeterRegistry meterRegistry, UserStore userStore) {
+        this.loginSuccessCounter = loginCounter(meterRegistry, OUTCOME_SUCCESS, NO_EXCEPTION);
+        this.loginFailureCounters = failureTags().stream()
+                .collect(Collectors.toUnmodifiableMap(Function.identity(),
+                        type -> loginCounter(meterRegistry, OUTCOME_FAILURE, type)));
+        this.loginSuccessTimer = loginTimer(meterRegistry, OUTCOME_SUCCESS);
+        this.loginFailureTimer = loginTimer(meterRegistry, OUTCOME_FAILURE);
+        this.lookupFoundTimer = lookupTimer(meterRegistry, "found");
+        this.lookupMissingTimer = lookupTimer(meterRegistry, "missing");
+
+        Gauge.builder("authkit.users.stored", userStore, UserStore::size)
+                .description("Number of users in the user store")
+                .register(meterRegistry);
+        TimeGauge.builder("authkit.startup.first.login", firstLoginUptimeMillis, TimeUnit.MILLISECONDS,
+                        uptime -> uptime.get() < 0 ? Double.NaN : uptime.get())
+                .description("Time from JVM start to the first successful login (NaN until it happens)")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 記錄一次登入嘗試的結果與端到端延遲。
+     *
+     * @param startedAt 開始處理時的 {@link System#nanoTime()}。
+     * @param failure 登入失敗時拋出的異常；成功時為 {@code null}。
+     */
+    public void recordLogin(long startedAt, Throwable failure) {
+        long elapsed = System.nanoTime() - startedAt;
+        if (failure == null) {
+            loginSuccessCounter.increment();
+            loginSuccessTimer.record(elapsed, TimeUnit.NANOSECONDS);
+            if (firstLoginUptimeMillis.get() < 0) {
+                recordFirstLogin();
+            }
+        } else {
+            loginFailureCounters.get(failureTag(failure)).increment();
+            loginFailureTimer.record(elapsed, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void recordFirstLogin() {
+        long uptime = ManagementFactory.getRuntimeMXBean().getUptime();
+        if (firstLoginUptimeMillis.compareAndSet(-1, uptime)) {
+            log.info("First successful login {} ms after JVM start.", uptime);
+        }
+    }
+
+    /**
+     * 記錄一次依 email 查詢使用者的延遲。
+     *
+     * @param startedAt 開始查詢時的 {@link System#nanoTime()}。
+     * @param found 使用者是否存在。
+     */
+    public void recordUserLookup(long startedAt, boolean found) {
+        (found ? lookupFoundTimer : lookupMissingTimer).record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 將異常歸類為固定集合中的標籤值。
+     *
+     * @apiNote 回傳值是常數字串，指標標籤、事件日誌與稽核日誌共用同一組值。
+     */
+    public static String failureTag(Throwable failure) {
+        for (Class<? extends RuntimeException> type : FAILURE_TYPES) {
+            if (type.isInstance(failure)) {
+                return type.getSimpleName();
+            }
+        }
+        return failure instanceof AuthenticationException ? OTHER_AUTHENTICATION_FAILURE : OTHER_FAILURE;
+    }
+
+    private static List<String> failureTags() {
+        return Stream.concat(FAILURE_TYPES.stream().map(Class::getSimpleName),
+                Stream.of(OTHER_AUTHENTICATION_FAILURE, OTHER_FAILURE)).toList();
+    }
+
+    private static Counter loginCounter(MeterRegistry registry, String outcome, String exception) {
+        return Counter.builder("authkit.login.attempts")
+                .description("Login attempts by outcome and failure type")
+                .tag("outcome", outcome)
+                .tag("exception", exception)
+                .register(registry);
+    }
+
+    private static Timer loginTimer(MeterRegistry registry, String outcome) {
+        return Timer.builder("authkit.login.duration")
+                .description("End-to-end login latency, from rate-limit check to issued token")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(10))
+                .register(registry);
+    }
+
+    private static Timer lookupTimer(MeterRegistry registry, String result) {
+        return Timer.builder("authkit.user.lookup")
+                .description("Time to load a user's password hash from the user store")
+                .tag("result", result)
+                .register(registry);
+    }
+
+}
@@ -0,0 +1,341 @@
+package io.github.montytsai.authkit.security;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * **稽核檔寫入器。**
+ * 將事件編碼為 NDJSON 行，累積成一個批次後一次寫入並 fsync，並在檔案超過大小上限時輪替。
+ *
+ * <pre>
+ * {"seq":42,"ts":"2026-01-01T00:00:00.123Z","event":"login_failure","user":"a@example.com","ip":"10.0.0.1","reason":"BadCredentialsException","crc32c":"1a2b3c4d"}
+ * {"ts":"2026-01-01T00:00:01.000Z","event":"audit_dropped","count":17,"crc32c":"5e6f7a8b"}
+ * </pre>
+ *
+ * @implNote {@code crc32c} 是該行在 {@code ,"crc32c"} 之前所有 UTF-8 位元組的 CRC-32C，可逐行驗證，
+ *           寫到一半中斷的最後一行也能被辨識出來。每次啟動都從新的檔案（序號加一）開始，不接續可能不完整的舊檔。
+ *           只由稽核日誌的寫入執行緒使用，不是執行緒安全的。
+ */
+@Slf4j
+final class AuditFileWriter implements Closeable {
+
+    private static final Pattern FILE_NAME = Pattern.compile("audit-(\\d+)\\.ndjson");
+    private static final String CRC_FIELD = ",\"crc32c\":\"";
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private static final byte[] SEQ_FIELD = ascii("{\"seq\":");
+    private static final byte[] TS_FIELD = ascii(",\"ts\":");
+    private static final byte[] EVENT_FIELD = ascii(",\"event\":\"");
+    private static final byte[] USER_FIELD = ascii(",\"user\":\"");
+    private static final byte[] IP_FIELD = ascii(",\"ip\":\"");
+    private static final byte[] REASON_FIELD = ascii(",\"reason\":\"");
+    private static final byte[] DROPPED_EVENT = ascii(",\"event\":\"audit_dropped\",\"count\":");
+    private static final byte[] CRC_PREFIX = ascii(CRC_FIELD);
+    private static final byte[] LINE_END = ascii("\"}\n");
+    /** 一行中欄位名稱、數字、時間與檢查碼的位元組上限。 */
+    private static final int LINE_OVERHEAD = 256;
+    /** 每個字元編碼後的最大位元組數（{@code \\u00XX} 跳脫為 6）。 */
+    private static final int MAX_BYTES_PER_CHAR = 6;
+
+    private final Path directory;
+    private final long maxFileSize;
+    private final int maxFiles;
+    private final boolean syncOnWrite;
+
+    private final CRC32C crc = new CRC32C();
+    private ByteBuffer batch = ByteBuffer.allocate(64 * 1024);
+    private long cachedMillis = Long.MIN_VALUE;
+    private byte[] cachedTimestamp;
+
+    private FileChannel channel;
+    private long segment;
+    private long size;
+
+    /**
+     * 建立目錄並開啟下一個序號的稽核檔。
+     *
+     * @throws IOException 如果無法建立目錄或檔案。
+     */
+    AuditFileWriter(Path directory, long maxFileSize, int maxFiles, boolean syncOnWrite) throws IOException {
+        this.directory = directory.toAbsolutePath();
+        this.maxFileSize = maxFileSize;
+        this.maxFiles = maxFiles;
+        this.syncOnWrite = syncOnWrite;
+        Files.createDirectories(this.directory);
+        List<Path> existing = segments(this.directory);
+        this.segment = existing.isEmpty() ? 0 : segmentNumber(existing.get(existing.size() - 1));
+        openNext();
+    }
+
+    /**
+     * 將一個事件加入目前的批次。
+     */
+    void append(long sequence, long epochMillis, String event, String user, String ip, String reason) {
+        ensureCapacity(LINE_OVERHEAD + MAX_BYTES_PER_CHAR * (length(event) + length(user) + length(ip) + length(reason)));
+        int start = batch.position();
+        batch.put(SEQ_FIELD);
+        putLong(sequence);
+        putTimestamp(epochMillis);
+        putField(EVENT_FIELD, event);
+        putField(USER_FIELD, user);
+        putField(IP_FIELD, ip);
+        putField(REASON_FIELD, reason);
+        finishLine(start);
+    }
+
+    /**
+     * 將一行「有事件因緩衝區已滿而被丟棄」的紀錄加入目前的批次。
+     */
+    void appendDropped(long epochMillis, long count) {
+        ensureCapacity(LINE_OVERHEAD);
+        int start = batch.position();
+        // 丟棄紀錄沒有序號，"ts" 是第一個欄位
+        batch.put((byte) '{').put(TS_FIELD, 1, TS_FIELD.length - 1);
+        putTimestampValue(epochMillis);
+        batch.put(DROPPED_EVENT);
+        putLong(count);
+        finishLine(start);
+    }
+
+    /**
+     * 批次中是否有尚未寫出的資料。
+     */
+    boolean hasPending() {
+        return batch.position() > 0;
+    }
+
+    /**
+     * 寫出目前的批次（需要時先輪替檔案），並依設定 fsync 一次。
+     *
+     * @throws IOException 如果寫入或 fsync 失敗；批次內容被捨棄，下一個批次改寫入新的檔案。
+     */
+    void flush() throws IOException {
+        if (!hasPending()) {
+            return;
+        }
+        batch.flip();
+        try {
+            if (size > 0 && size + batch.remaining() > maxFileSize) {
+                roll();
+            }
+            while (batch.hasRemaining()) {
+                size += channel.write(batch);
+            }
+            if (syncOnWrite) {
+                channel.force(false);
+            }
+        } catch (IOException ex) {
+            rollQuietly();
+            throw ex;
+        } finally {
+            batch.clear();
+        }
+    }
+
+    /**
+     * 目前寫入的檔案。
+     */
+    Path currentFile() {
+        return fileFor(segment);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * 驗證一個稽核檔每一行的 CRC-32C。
+     *
+     * @return 檔案中的行數。
+     * @throws IOException 如果無法讀取檔案，或有任何一行缺少或不符合檢查碼，訊息中包含行號。
+     */
+    static long verify(Path file) throws IOException {
+        long lines = 0;
+        CRC32C checksum = new CRC32C();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String text;
+            while ((text = reader.readLine()) != null) {
+                lines++;
+                int field = text.lastIndexOf(CRC_FIELD);
+                if (field < 0 || !text.endsWith("\"}")) {
+                    throw new IOException("Audit record " + lines + " of " + file + " has no checksum");
+                }
+                checksum.reset();
+                checksum.update(text.substring(0, field).getBytes(StandardCharsets.UTF_8));
+                String expected = text.substring(field + CRC_FIELD.length(), text.length() - 2);
+                if (!expected.equals(hex((int) checksum.getValue()))) {
+                    throw new IOException("Audit record " + lines + " of " + file + " fails its checksum");
+                }
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * 目錄中的稽核檔，依序號排列。
+     */
+    static List<Path> segments(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            List<Path> segments = new ArrayList<>(files
+                    .filter(file -> FILE_NAME.matcher(String.valueOf(file.getFileName())).matches())
+                    .toList());
+            segments.sort((a, b) -> Long.compare(segmentNumber(a), segmentNumber(b)));
+            return segments;
+        }
+    }
+
+    private void putTimestamp(long epochMillis) {
+        batch.put(TS_FIELD);
+        putTimestampValue(epochMillis);
+    }
+
+    private void putTimestampValue(long epochMillis) {
+        // 同一毫秒內的事件共用格式化結果
+        if (epochMillis != cachedMillis) {
+            cachedMillis = epochMillis;
+            cachedTimestamp = Instant.ofEpochMilli(epochMillis).toString().getBytes(StandardCharsets.US_ASCII);
+        }
+        batch.put((byte) '"').put(cachedTimestamp).put((byte) '"');
+    }
+
+    private void putField(byte[] name, String value) {
+        if (value == null) {
+            return;
+        }
+        batch.put(name);
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                batch.put((byte) '\\').put((byte) c);
+            } else if (c < 0x20) {
+                batch.put((byte) '\\').put((byte) 'u').put((byte) '0').put((byte) '0')
+                        .put((byte) HEX[c >> 4]).put((byte) HEX[c & 0xF]);
+            } else if (c < 0x80) {
+                batch.put((byte) c);
+            } else if (c < 0x800) {
+                batch.put((byte) (0xC0 | c >> 6)).put((byte) (0x80 | c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                batch.put((byte) (0xF0 | codePoint >> 18)).put((byte) (0x80 | codePoint >> 12 & 0x3F))
+                        .put((byte) (0x80 | codePoint >> 6 & 0x3F)).put((byte) (0x80 | codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                // 與 String.getBytes(UTF_8) 相同，未成對的 surrogate 以 '?' 取代
+                batch.put((byte) '?');
+            } else {
+                batch.put((byte) (0xE0 | c >> 12)).put((byte) (0x80 | c >> 6 & 0x3F)).put((byte) (0x80 | c & 0x3F));
+            }
+        }
+        batch.put((byte) '"');
+    }
+
+    private void putLong(long value) {
+        if (value < 0) {
+            batch.put((byte) '-');
+            value = -value;
+        }
+        int digits = 1;
+        for (long rest = value / 10; rest > 0; rest /= 10) {
+            digits++;
+        }
+        int end = batch.position() + digits;
+        for (int i = end - 1; i >= end - digits; i--) {
+            batch.put(i, (byte) ('0' + value % 10));
+            value /= 10;
+        }
+        batch.position(end);
+    }
+
+    private void finishLine(int start) {
+        crc.reset();
+        crc.update(batch.array(), batch.arrayOffset() + start, batch.position() - start);
+        int value = (int) crc.getValue();
+        batch.put(CRC_PREFIX);
+        for (int shift = 28; shift >= 0; shift -= 4) {
+            batch.put((byte) HEX[value >>> shift & 0xF]);
+        }
+        batch.put(LINE_END);
+    }
+
+    private void ensureCapacity(int bytes) {
+        if (batch.remaining() < bytes) {
+            ByteBuffer larger = ByteBuffer.allocate(Math.max(batch.capacity() * 2, batch.position() + bytes));
+            batch.flip();
+            larger.put(batch);
+            batch = larger;
+        }
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+
+    private void roll() throws IOException {
+        channel.close();
+        openNext();
+        if (maxFiles > 0) {
+            List<Path> segments = segments(directory);
+            for (int i = 0; i < segments.size() - maxFiles; i++) {
+                Files.deleteIfExists(segments.get(i));
+            }
+        }
+    }
+
+    private void rollQuietly() {
+        try {
+            roll();
+        } catch (IOException ex) {
+            log.error("Cannot open a new audit file in {}.", directory, ex);
+        }
+    }
+
+    private void openNext() throws IOException {
+        segment++;
+        channel = FileChannel.open(fileFor(segment),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        size = 0;
+    }
+
+    private Path fileFor(long number) {
+        return directory.resolve(String.format("audit-%08d.ndjson", number));
+    }
+
+    private static long segmentNumber(Path file) {
+        Matcher matcher = FILE_NAME.matcher(String.valueOf(file.getFileName()));
+        return matcher.matches() ? Long.parseLong(matcher.group(1)) : 0;
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static String hex(int value) {
+        char[] digits = new char[8];
+        for (int i = 7; i >= 0; i--) {
+            digits[i] = HEX[value & 0xF];
+            value >>>= 4;
+        }
+        return new String(digits);
+    }
+
+}
@@ -0,0 +1,114 @@
+package io.github.montytsai.authkit.security;
+
+import io.github.montytsai.authkit.exception.AuthFailures;
+import io.github.montytsai.authkit.service.PasswordUpgradeService;
+
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.AbstractUserDetailsAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * **支援已驗證憑證快取的帳密認證提供者。**
+ * 與 {@link org.springframework.security.authentication.dao.DaoAuthenticationProvider} 相同地以 {@link UserDetailsService}
+ * 載入使用者並比對密碼，但在完整比對前先查詢 {@link VerifiedCredentialCache}；命中時直接視為驗證成功。
+ * 驗證成功後，若已儲存的雜湊已過時，交由 {@link PasswordUpgradeService} 在背景重新雜湊。
+ *
+ * @implNote 直接繼承 {@link AbstractUserDetailsAuthenticationProvider}，因為 {@code DaoAuthenticationProvider}
+ *           對不存在的帳號固定執行一次假雜湊（{@code retrieveUser} 為 final，無法覆寫）；
+ *           此處改由 {@link LoginTimingEqualizer} 以抽樣延遲等化回應時間，不再為每個不存在的帳號消耗一次雜湊。
+ *           帳號狀態檢查、{@code UsernameNotFoundException} 隱藏為 {@link BadCredentialsException} 等行為皆沿用父類別；
+ *           失敗時拋出的是 {@link AuthFailures} 的不帶堆疊異常，帳號不存在也直接在此轉為密碼錯誤，
+ *           略過父類別逐次組字串的 DEBUG 日誌與另一個帶堆疊的異常。
+ *           父類別未提供的同步升級（{@code UserDetailsPasswordService}）刻意不實作，避免在請求執行緒上多做一次雜湊。
+ */
+public class CachingDaoAuthenticationProvider extends AbstractUserDetailsAuthenticationProvider {
+
+    private final UserDetailsService userDetailsService;
+    private final PasswordEncoder passwordEncoder;
+    private final VerifiedCredentialCache credentialCache;
+    private final PasswordUpgradeService passwordUpgradeService;
+    private final LoginTimingEqualizer timingEqualizer;
+
+    public CachingDaoAuthenticationProvider(UserDetailsService userDetailsService,
+                                            PasswordEncoder passwordEncoder,
+                                            VerifiedCredentialCache credentialCache,
+                                            PasswordUpgradeService passwordUpgradeService,
+                                            LoginTimingEqualizer timingEqualizer) {
+        this.userDetailsService = userDetailsService;
+        this.passwordEncoder = passwordEncoder;
+        this.credentialCache = credentialCache;
+        this.passwordUpgradeService = passwordUpgradeService;
+        this.timingEqualizer = timingEqualizer;
+    }
+
+    @Override
+    protected UserDetails retrieveUser(String username, UsernamePasswordAuthenticationToken authentication)
+            throws AuthenticationException {
+        UserDetails user;
+        try {
+            user = userDetailsService.loadUserByUsername(username);
+        } catch (UsernameNotFoundException ex) {
+            Object credentials = authentication.getCredentials();
+            if (credentials != null) {
+                timingEqualizer.equalizeMiss(credentials.toString());
+            }
+            if (!isHideUserNotFoundExceptions()) {
+                throw ex;
+            }
+            throw badCredentials();
+        } catch (InternalAuthenticationServiceException ex) {
+            throw ex;
+        } catch (RuntimeException ex) {
+            throw new InternalAuthenticationServiceException(ex.getMessage(), ex);
+        }
+        if (user == null) {
+            throw new InternalAuthenticationServiceException(
+                    "UserDetailsService returned null, which is an interface contract violation");
+        }
+        return user;
+    }
+
+    @Override
+    protected void additionalAuthenticationChecks(UserDetails userDetails,
+                                                  UsernamePasswordAuthenticationToken authentication) throws AuthenticationException {
+        Object credentials = authentication.getCredentials();
+        if (credentials == null) {
+            throw badCredentials();
+        }
+
+        String rawPassword = credentials.toString();
+        if (credentialCache.isVerified(userDetails.getUsername(), rawPassword, userDetails.getPassword())) {
+            return;
+        }
+
+        long startedAt = System.nanoTime();
+        boolean matches = passwordEncoder.matches(rawPassword, userDetails.getPassword());
+        timingEqualizer.recordVerification(System.nanoTime() - startedAt);
+        if (!matches) {
+            throw badCredentials();
+        }
+        credentialCache.recordVerified(userDetails.getUsername(), rawPassword, userDetails.getPassword());
+    }
+
+    @Override
+    protected Authentication createSuccessAuthentication(Object principal, Authentication authentication, UserDetails user) {
+        Object credentials = authentication.getCredentials();
+        if (credentials != null) {
+            passwordUpgradeService.upgradeIfNeeded(user.getUsername(), credentials.toString(), user.getPassword());
+        }
+        return super.createSuccessAuthentication(principal, authentication, user);
+    }
+
+    private BadCredentialsException badCredentials() {
+        return AuthFailures.badCredentials(
+                messages.getMessage("AbstractUserDetailsAuthenticationProvider.badCredentials", "Bad credentials"));
+    }
+
+}
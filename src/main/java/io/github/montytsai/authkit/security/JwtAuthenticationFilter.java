@@ -0,0 +1,54 @@
+package io.github.montytsai.authkit.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Collections;
+
+/**
+ * **JWT 驗證過濾器。**
+ * 從 {@code Authorization: Bearer <token>} 標頭取出 Token，交由 {@link JwtService} 驗證，
+ * 通過後將使用者身份寫入 {@link SecurityContextHolder}。
+ *
+ * @apiNote 驗證完全依賴 Token 本身，不會呼叫 {@link io.github.montytsai.authkit.service.AuthService}。
+ *          Token 缺失或無效時不直接回應錯誤，而是以匿名身份繼續，由授權規則決定是否回傳 401。
+ */
+public class JwtAuthenticationFilter extends OncePerRequestFilter {
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final JwtService jwtService;
+
+    public JwtAuthenticationFilter(JwtService jwtService) {
+        this.jwtService = jwtService;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header != null && header.startsWith(BEARER_PREFIX)) {
+            jwtService.verify(header.substring(BEARER_PREFIX.length()).trim())
+                    .ifPresent(this::authenticate);
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private void authenticate(VerifiedToken token) {
+        UsernamePasswordAuthenticationToken authentication =
+                UsernamePasswordAuthenticationToken.authenticated(token.subject(), null, Collections.emptyList());
+        SecurityContext context = SecurityContextHolder.createEmptyContext();
+        context.setAuthentication(authentication);
+        SecurityContextHolder.setContext(context);
+    }
+
+}
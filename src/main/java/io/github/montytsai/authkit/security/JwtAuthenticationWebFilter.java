@@ -0,0 +1,47 @@
+package io.github.montytsai.authkit.security;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+
+import reactor.core.publisher.Mono;
+
+import java.util.Collections;
+import java.util.Optional;
+
+/**
+ * **JWT 驗證過濾器（響應式堆疊）。**
+ * {@link JwtAuthenticationFilter} 的 WebFlux 版本：從 {@code Authorization: Bearer <token>} 標頭取出 Token，
+ * 交由 {@link JwtService} 驗證，通過後將使用者身份寫入 Reactor Context 中的 {@link ReactiveSecurityContextHolder}。
+ *
+ * @apiNote Token 缺失或無效時以匿名身份繼續，由授權規則決定是否回傳 401。
+ * @implNote {@link JwtService#verify(String)} 只做簽章驗證、快取查詢與記憶體中的撤銷檢查，不含 I/O，可直接在事件迴圈上執行。
+ */
+public class JwtAuthenticationWebFilter implements WebFilter {
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final JwtService jwtService;
+
+    public JwtAuthenticationWebFilter(JwtService jwtService) {
+        this.jwtService = jwtService;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        String header = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        Optional<VerifiedToken> token = header != null && header.startsWith(BEARER_PREFIX)
+                ? jwtService.verify(header.substring(BEARER_PREFIX.length()).trim())
+                : Optional.empty();
+        if (token.isEmpty()) {
+            return chain.filter(exchange);
+        }
+        UsernamePasswordAuthenticationToken authentication =
+                UsernamePasswordAuthenticationToken.authenticated(token.get().subject(), null, Collections.emptyList());
+        return chain.filter(exchange).contextWrite(ReactiveSecurityContextHolder.withAuthentication(authentication));
+    }
+
+}
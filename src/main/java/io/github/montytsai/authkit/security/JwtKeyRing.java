@@ -0,0 +1,152 @@
+package io.github.montytsai.authkit.security;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSSigner;
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jose.crypto.ECDSASigner;
+import com.nimbusds.jose.crypto.ECDSAVerifier;
+import com.nimbusds.jose.crypto.MACSigner;
+import com.nimbusds.jose.crypto.MACVerifier;
+import io.github.montytsai.authkit.config.JwtProperties;
+import lombok.extern.slf4j.Slf4j;
+
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.SecureRandom;
+import java.security.interfaces.ECPrivateKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * **JWT 金鑰環 (Key Ring)。**
+ * 保存所有可用於驗證的金鑰（依 key id 索引），以及目前用於簽發的啟用金鑰。
+ *
+ * @implNote 每把金鑰固定綁定一種演算法，驗證時會比對 JWS 標頭的 {@code alg}，防止演算法混淆攻擊。
+ */
+@Slf4j
+public final class JwtKeyRing {
+
+    private static final int MIN_HMAC_SECRET_BYTES = 32;
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final JWSAlgorithm algorithm;
+    private final String activeKeyId;
+    private final JWSSigner signer;
+    private final Map<String, JWSVerifier> verifiers;
+
+    private JwtKeyRing(JWSAlgorithm algorithm, String activeKeyId, JWSSigner signer, Map<String, JWSVerifier> verifiers) {
+        this.algorithm = algorithm;
+        this.activeKeyId = activeKeyId;
+        this.signer = signer;
+        this.verifiers = Map.copyOf(verifiers);
+    }
+
+    /**
+     * 依設定建立金鑰環。
+     *
+     * @param properties {@link JwtProperties} JWT 設定。
+     * @return 已初始化的金鑰環。
+     * @throws IllegalStateException 如果金鑰格式錯誤或長度不足。
+     */
+    public static JwtKeyRing from(JwtProperties properties) {
+        try {
+            return switch (properties.getAlgorithm()) {
+                case HS256 -> hmac(properties);
+                case ES256 -> ecdsa(properties);
+            };
+        } catch (GeneralSecurityException | JOSEException ex) {
+            throw new IllegalStateException("Invalid JWT key configuration.", ex);
+        }
+    }
+
+    public JWSAlgorithm algorithm() {
+        return algorithm;
+    }
+
+    public String activeKeyId() {
+        return activeKeyId;
+    }
+
+    public JWSSigner signer() {
+        return signer;
+    }
+
+    /**
+     * 取得指定 key id 的驗證器。
+     *
+     * @param keyId JWS 標頭中的 {@code kid}。
+     * @return 驗證器；key id 未知時回傳 {@code null}。
+     */
+    public JWSVerifier verifier(String keyId) {
+        return keyId == null ? null : verifiers.get(keyId);
+    }
+
+    private static JwtKeyRing hmac(JwtProperties properties) throws JOSEException {
+        Map<String, String> secrets = new HashMap<>(properties.getHmacSecrets());
+        String activeKeyId = properties.getActiveKeyId();
+        if (secrets.isEmpty()) {
+            log.warn("No authkit.jwt.hmac-secrets configured; using an ephemeral key. Tokens will not survive a restart.");
+            byte[] secret = new byte[MIN_HMAC_SECRET_BYTES];
+            RANDOM.nextBytes(secret);
+            secrets.put(activeKeyId, Base64.getEncoder().encodeToString(secret));
+        }
+
+        Map<String, JWSVerifier> verifiers = new HashMap<>();
+        JWSSigner signer = null;
+        for (Map.Entry<String, String> entry : secrets.entrySet()) {
+            byte[] secret = Base64.getDecoder().decode(entry.getValue());
+            if (secret.length < MIN_HMAC_SECRET_BYTES) {
+                throw new JOSEException("HS256 secret '" + entry.getKey() + "' must be at least 256 bits.");
+            }
+            verifiers.put(entry.getKey(), new MACVerifier(secret));
+            if (entry.getKey().equals(activeKeyId)) {
+                signer = new MACSigner(secret);
+            }
+        }
+        return new JwtKeyRing(JWSAlgorithm.HS256, activeKeyId, requireSigner(signer, activeKeyId), verifiers);
+    }
+
+    private static JwtKeyRing ecdsa(JwtProperties properties) throws GeneralSecurityException, JOSEException {
+        String activeKeyId = properties.getActiveKeyId();
+        Map<String, JWSVerifier> verifiers = new HashMap<>();
+        JWSSigner signer = null;
+
+        if (properties.getEcKeys().isEmpty()) {
+            log.warn("No authkit.jwt.ec-keys configured; using an ephemeral key. Tokens will not survive a restart.");
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+            generator.initialize(new ECGenParameterSpec("secp256r1"));
+            KeyPair keyPair = generator.generateKeyPair();
+            verifiers.put(activeKeyId, new ECDSAVerifier((ECPublicKey) keyPair.getPublic()));
+            signer = new ECDSASigner((ECPrivateKey) keyPair.getPrivate());
+        }
+
+        KeyFactory keyFactory = KeyFactory.getInstance("EC");
+        for (Map.Entry<String, JwtProperties.EcKey> entry : properties.getEcKeys().entrySet()) {
+            JwtProperties.EcKey key = entry.getValue();
+            ECPublicKey publicKey = (ECPublicKey) keyFactory.generatePublic(
+                    new X509EncodedKeySpec(Base64.getDecoder().decode(key.getPublicKey())));
+            verifiers.put(entry.getKey(), new ECDSAVerifier(publicKey));
+            if (entry.getKey().equals(activeKeyId) && key.getPrivateKey() != null) {
+                signer = new ECDSASigner((ECPrivateKey) keyFactory.generatePrivate(
+                        new PKCS8EncodedKeySpec(Base64.getDecoder().decode(key.getPrivateKey()))));
+            }
+        }
+        return new JwtKeyRing(JWSAlgorithm.ES256, activeKeyId, requireSigner(signer, activeKeyId), verifiers);
+    }
+
+    private static JWSSigner requireSigner(JWSSigner signer, String activeKeyId) throws JOSEException {
+        if (signer == null) {
+            throw new JOSEException("No signing key configured for active key id '" + activeKeyId + "'.");
+        }
+        return signer;
+    }
+
+}
@@ -0,0 +1,203 @@
+package io.github.montytsai.authkit.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import io.github.montytsai.authkit.config.JwtProperties;
+import lombok.extern.slf4j.Slf4j;
+
+import java.text.ParseException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * **JWT 簽發與驗證服務。**
+ * 登入成功時簽發無狀態的 Access Token 與 Refresh Token，並在每個請求上驗證 Token 而不需存取使用者儲存。
+ *
+ * @implNote
+ * - **工作階段：** 同一次登入換發出的所有 Token 帶有相同的 {@code sid}；登出即撤銷整個 {@code sid}，
+ *   不需逐一追蹤已簽發的 Access Token。
+ * - **Refresh Token 輪替：** 每個 Refresh Token 只能使用一次，換發時撤銷其 {@code jti}；
+ *   已使用過的 Refresh Token 再次出現代表可能遭竊，直接撤銷整個工作階段。
+ * - **撤銷檢查：** 每次驗證都查詢 {@link TokenRevocationStore}，未撤銷時只需一次 Bloom filter 查詢。
+ * - 最近驗證通過的 Access Token 會放入有界的 {@link Cache}（以完整 Token 字串為鍵），
+ *   同一個熱門 Token 再次出現時直接回傳快取結果，省去 Base64 解析與簽章運算；
+ *   每筆快取項目在 Token 到期時自動淘汰，命中時仍會再次檢查到期時間與撤銷狀態。
+ */
+@Slf4j
+public class JwtService {
+
+    /** 區分 Access Token 與 Refresh Token 的自訂 claim，避免兩者互相冒用。 */
+    static final String TOKEN_USE_CLAIM = "token_use";
+    static final String SESSION_ID_CLAIM = "sid";
+    private static final String ACCESS = "access";
+    private static final String REFRESH = "refresh";
+
+    private final JwtKeyRing keyRing;
+    private final String issuer;
+    private final Duration accessTokenTtl;
+    private final Duration refreshTokenTtl;
+    private final TokenRevocationStore revocationStore;
+    private final Clock clock;
+    private final Cache<String, VerifiedToken> verifiedTokens;
+
+    public JwtService(JwtProperties properties, TokenRevocationStore revocationStore, Clock clock) {
+        this.keyRing = JwtKeyRing.from(properties);
+        this.issuer = properties.getIssuer();
+        this.accessTokenTtl = properties.getAccessTokenTtl();
+        this.refreshTokenTtl = properties.getRefreshTokenTtl();
+        this.revocationStore = revocationStore;
+        this.clock = clock;
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(properties.getVerifiedTokenCacheSize())
+                .expireAfter(Expiry.<String, VerifiedToken>creating((token, verified) ->
+                        Duration.between(clock.instant(), verified.expiresAt())))
+                .build();
+    }
+
+    /**
+     * 為指定使用者開啟新的工作階段，並簽發一組 Token。
+     *
+     * @param subject 使用者 email。
+     * @return 緊湊序列化 (compact serialization) 的 Access Token 與 Refresh Token。
+     */
+    public TokenPair issueTokens(String subject) {
+        return issueTokens(subject, UUID.randomUUID());
+    }
+
+    /**
+     * 驗證 Access Token 的簽章、簽發者、時效與撤銷狀態。
+     *
+     * @param token 緊湊序列化的 JWS 字串。
+     * @return 驗證通過時回傳 {@link VerifiedToken}；否則回傳 {@link Optional#empty()}。
+     */
+    public Optional<VerifiedToken> verify(String token) {
+        Instant now = clock.instant();
+        VerifiedToken cached = verifiedTokens.getIfPresent(token);
+        if (cached != null) {
+            return cached.isExpiredAt(now) || revocationStore.isRevoked(cached.sessionId())
+                    ? Optional.empty() : Optional.of(cached);
+        }
+
+        Optional<VerifiedToken> verified = parseAndVerify(token, ACCESS, now)
+                .filter(result -> !revocationStore.isRevoked(result.sessionId()));
+        verified.ifPresent(result -> verifiedTokens.put(token, result));
+        return verified;
+    }
+
+    /**
+     * 以 Refresh Token 換發一組新的 Token，並讓舊的 Refresh Token 失效。
+     *
+     * @param refreshToken 登入或上次換發取得的 Refresh Token。
+     * @return 新的一組 Token；Refresh Token 無效、已過期、已使用過或工作階段已登出時回傳 {@link Optional#empty()}。
+     */
+    public Optional<TokenPair> refresh(String refreshToken) {
+        Instant now = clock.instant();
+        Optional<VerifiedToken> verified = parseAndVerify(refreshToken, REFRESH, now);
+        if (verified.isEmpty() || revocationStore.isRevoked(verified.get().sessionId())) {
+            return Optional.empty();
+        }
+
+        VerifiedToken token = verified.get();
+        if (!revocationStore.revoke(UUID.fromString(token.tokenId()), token.expiresAt())) {
+            log.warn("Refresh token reuse detected for user {}; revoking session {}.", token.subject(), token.sessionId());
+            revocationStore.revoke(token.sessionId(), now.plus(refreshTokenTtl));
+            return Optional.empty();
+        }
+        return Optional.of(issueTokens(token.subject(), token.sessionId()));
+    }
+
+    /**
+     * 以 Refresh Token 結束其所屬的工作階段，該階段簽發的 Access Token 與 Refresh Token 立即失效。
+     *
+     * @param refreshToken 要登出的工作階段的 Refresh Token。
+     * @return Refresh Token 有效且工作階段已撤銷時回傳 {@code true}。
+     */
+    public boolean revokeSession(String refreshToken) {
+        Instant now = clock.instant();
+        Optional<VerifiedToken> verified = parseAndVerify(refreshToken, REFRESH, now);
+        verified.ifPresent(token -> revocationStore.revoke(token.sessionId(), now.plus(refreshTokenTtl)));
+        return verified.isPresent();
+    }
+
+    private TokenPair issueTokens(String subject, UUID sessionId) {
+        Instant now = clock.instant();
+        return new TokenPair(
+                sign(subject, sessionId, ACCESS, now, now.plus(accessTokenTtl)),
+                sign(subject, sessionId, REFRESH, now, now.plus(refreshTokenTtl)));
+    }
+
+    private String sign(String subject, UUID sessionId, String tokenUse, Instant issuedAt, Instant expiresAt) {
+        JWTClaimsSet claims = new JWTClaimsSet.Builder()
+                .issuer(issuer)
+                .subject(subject)
+                .issueTime(Date.from(issuedAt))
+                .expirationTime(Date.from(expiresAt))
+                .jwtID(UUID.randomUUID().toString())
+                .claim(SESSION_ID_CLAIM, sessionId.toString())
+                .claim(TOKEN_USE_CLAIM, tokenUse)
+                .build();
+        JWSHeader header = new JWSHeader.Builder(keyRing.algorithm())
+                .keyID(keyRing.activeKeyId())
+                .build();
+
+        SignedJWT jwt = new SignedJWT(header, claims);
+        try {
+            jwt.sign(keyRing.signer());
+        } catch (JOSEException ex) {
+            throw new IllegalStateException("Failed to sign JWT.", ex);
+        }
+        return jwt.serialize();
+    }
+
+    /**
+     * 驗證簽章、簽發者、時效與 Token 用途。
+     *
+     * @implNote 未帶 {@code token_use} 的 Token（此功能之前簽發）視為 Access Token；
+     *           Refresh Token 則必須帶有 {@code jti} 與 {@code sid} 才能換發或登出。
+     */
+    private Optional<VerifiedToken> parseAndVerify(String token, String expectedUse, Instant now) {
+        try {
+            SignedJWT jwt = SignedJWT.parse(token);
+            JWSHeader header = jwt.getHeader();
+            JWSVerifier verifier = keyRing.verifier(header.getKeyID());
+            if (verifier == null || !keyRing.algorithm().equals(header.getAlgorithm()) || !jwt.verify(verifier)) {
+                log.debug("Rejected JWT with invalid signature or unknown key id: {}", header.getKeyID());
+                return Optional.empty();
+            }
+
+            JWTClaimsSet claims = jwt.getJWTClaimsSet();
+            Date expiration = claims.getExpirationTime();
+            String tokenUse = claims.getStringClaim(TOKEN_USE_CLAIM);
+            if (expiration == null || !issuer.equals(claims.getIssuer()) || claims.getSubject() == null
+                    || !expectedUse.equals(tokenUse == null ? ACCESS : tokenUse)) {
+                log.debug("Rejected JWT with missing or mismatched claims.");
+                return Optional.empty();
+            }
+
+            String sessionClaim = claims.getStringClaim(SESSION_ID_CLAIM);
+            UUID sessionId = sessionClaim == null ? null : UUID.fromString(sessionClaim);
+            if (REFRESH.equals(expectedUse) && (sessionId == null || claims.getJWTID() == null)) {
+                log.debug("Rejected refresh token without session or token id.");
+                return Optional.empty();
+            }
+
+            VerifiedToken verified = new VerifiedToken(claims.getSubject(), claims.getJWTID(), sessionId,
+                    expiration.toInstant());
+            return verified.isExpiredAt(now) ? Optional.empty() : Optional.of(verified);
+        } catch (ParseException | JOSEException | IllegalArgumentException ex) {
+            log.debug("Rejected malformed JWT: {}", ex.getMessage());
+            return Optional.empty();
+        }
+    }
+
+}
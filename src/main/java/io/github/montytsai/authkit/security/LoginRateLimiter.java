@@ -0,0 +1,206 @@
+package io.github.montytsai.authkit.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.github.montytsai.authkit.config.LoginRateLimitProperties;
+import io.github.montytsai.authkit.exception.TooManyLoginAttemptsException;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
+
+/**
+ * **登入限流器 (Login Rate Limiter)。**
+ * 在 {@code AuthenticationManager#authenticate} 之前執行，以每個 email 與每個來源 IP 的 token bucket 限制嘗試頻率，
+ * 並在同一 email 連續密碼錯誤後施加指數成長的鎖定，讓暴力破解在付出 BCrypt 成本之前就被擋下。
+ *
+ * @implNote
+ * - **Token bucket：** 以 GCRA（Generic Cell Rate Algorithm）實作，每個鍵只保存一個 {@link AtomicLong}
+ *   （下一個 token 的理論到達時間），檢查時一次 CAS 完成，不需鎖也不需背景補充執行緒。
+ * - **鎖定狀態：** 不可變的 {@link Lockout} 以 {@link AtomicReference} CAS 更新，只在失敗路徑上配置物件。
+ * - **記憶體上限：** email 與 IP 各自存放在有容量上限與閒置淘汰的 Caffeine 快取中，大量相異鍵只會淘汰冷資料而不會耗盡 heap；
+ *   同一 email 的 token bucket 與鎖定狀態放在同一個項目，每次檢查只需兩次查找。
+ * - email 一律轉成小寫作為鍵，避免以大小寫變化繞過配額。
+ */
+public final class LoginRateLimiter {
+
+    private final boolean enabled;
+    private final Ticker ticker;
+
+    private final long emailInterval;
+    private final long emailTolerance;
+    private final long ipInterval;
+    private final long ipTolerance;
+
+    private final int lockoutThreshold;
+    private final long lockoutInitial;
+    private final long lockoutMax;
+
+    private final Cache<String, EmailState> emails;
+    private final Cache<String, AtomicLong> ipBuckets;
+
+    private volatile Predicate<String> exemption = email -> false;
+
+    public LoginRateLimiter(LoginRateLimitProperties properties, Ticker ticker) {
+        this.enabled = properties.isEnabled();
+        this.ticker = ticker;
+
+        this.emailInterval = properties.getEmail().getRefillPeriod().toNanos();
+        this.emailTolerance = emailInterval * Math.max(0, properties.getEmail().getCapacity() - 1);
+        this.ipInterval = properties.getIp().getRefillPeriod().toNanos();
+        this.ipTolerance = ipInterval * Math.max(0, properties.getIp().getCapacity() - 1);
+
+        this.lockoutThreshold = Math.max(1, properties.getLockout().getThreshold());
+        this.lockoutInitial = properties.getLockout().getInitial().toNanos();
+        this.lockoutMax = properties.getLockout().getMax().toNanos();
+
+        this.emails = newCache(properties, ticker);
+        this.ipBuckets = newCache(properties, ticker);
+    }
+
+    /**
+     * 檢查本次登入嘗試是否允許進行，並消耗 email 與 IP 各一個 token。
+     *
+     * @param email 登入的 email。
+     * @param clientIp 來源 IP；為 {@code null} 時略過 IP 配額。
+     * @throws TooManyLoginAttemptsException 如果帳號鎖定中，或 email／IP 配額已用盡。
+     */
+    public void checkAllowed(String email, String clientIp) {
+        if (!enabled || exemption.test(email)) {
+            return;
+        }
+        long now = ticker.read();
+        EmailState state = emails.get(normalize(email), key -> new EmailState());
+
+        Lockout lockout = state.lockout.get();
+        if (lockout.failures >= lockoutThreshold) {
+            long remaining = lockout.lockedUntil - now;
+            if (remaining > 0) {
+                throw new TooManyLoginAttemptsException("Account is temporarily locked after repeated failed logins.",
+                        Duration.ofNanos(remaining));
+            }
+        }
+
+        if (clientIp != null) {
+            long wait = tryAcquire(ipBuckets.get(clientIp, key -> new AtomicLong(Long.MIN_VALUE)),
+                    now, ipInterval, ipTolerance);
+            if (wait > 0) {
+                throw new TooManyLoginAttemptsException("Too many login attempts from this address.",
+                        Duration.ofNanos(wait));
+            }
+        }
+
+        long wait = tryAcquire(state.theoreticalArrival, now, emailInterval, emailTolerance);
+        if (wait > 0) {
+            throw new TooManyLoginAttemptsException("Too many login attempts for this account.",
+                    Duration.ofNanos(wait));
+        }
+    }
+
+    /**
+     * 記錄一次密碼錯誤；連續失敗達門檻後開始鎖定，之後每次失敗鎖定時間加倍。
+     *
+     * @param email 登入失敗的 email。
+     */
+    public void recordFailure(String email) {
+        if (!enabled || exemption.test(email)) {
+            return;
+        }
+        long now = ticker.read();
+        AtomicReference<Lockout> state = emails.get(normalize(email), key -> new EmailState()).lockout;
+        Lockout current;
+        Lockout next;
+        do {
+            current = state.get();
+            int failures = current.failures + 1;
+            long lockedUntil = current.lockedUntil;
+            if (failures >= lockoutThreshold) {
+                int doublings = Math.min(failures - lockoutThreshold, 62);
+                lockedUntil = now + (lockoutInitial > (lockoutMax >> doublings) ? lockoutMax : lockoutInitial << doublings);
+            }
+            next = new Lockout(failures, lockedUntil);
+        } while (!state.compareAndSet(current, next));
+    }
+
+    /**
+     * 登入成功時重設該 email 的連續失敗次數。
+     *
+     * @param email 登入成功的 email。
+     */
+    public void recordSuccess(String email) {
+        if (enabled) {
+            EmailState state = emails.getIfPresent(normalize(email));
+            if (state != null) {
+                state.lockout.set(Lockout.NONE);
+            }
+        }
+    }
+
+    /**
+     * 設定不受限流與鎖定影響的 email；用於啟動暖機期間的合成流量，避免它耗盡本機 IP 的配額。
+     *
+     * @param exemption 回傳 {@code true} 的 email 略過所有檢查；傳入 {@code null} 即取消豁免。
+     */
+    public void setExemption(Predicate<String> exemption) {
+        this.exemption = exemption != null ? exemption : email -> false;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * GCRA：若下一個理論到達時間超出容許的突發量則拒絕，否則以 CAS 推進。
+     *
+     * @return 0 代表允許；大於 0 代表需等待的奈秒數。
+     */
+    private static long tryAcquire(AtomicLong theoreticalArrival, long now, long interval, long tolerance) {
+        while (true) {
+            long current = theoreticalArrival.get();
+            long base = Math.max(current, now);
+            long wait = base - tolerance - now;
+            if (wait > 0) {
+                return wait;
+            }
+            if (theoreticalArrival.compareAndSet(current, base + interval)) {
+                return 0;
+            }
+        }
+    }
+
+    private static String normalize(String email) {
+        return email == null ? "" : email.toLowerCase(Locale.ROOT);
+    }
+
+    private static <V> Cache<String, V> newCache(LoginRateLimitProperties properties, Ticker ticker) {
+        return Caffeine.newBuilder()
+                .maximumSize(properties.getMaxKeys())
+                .expireAfterAccess(properties.getIdleTimeout())
+                .ticker(ticker)
+                .executor(Runnable::run)
+                .build();
+    }
+
+    /**
+     * 單一 email 的限流狀態：token bucket 的理論到達時間與鎖定狀態。
+     */
+    private static final class EmailState {
+
+        final AtomicLong theoreticalArrival = new AtomicLong(Long.MIN_VALUE);
+        final AtomicReference<Lockout> lockout = new AtomicReference<>(Lockout.NONE);
+
+    }
+
+    /**
+     * 單一 email 的連續失敗次數與鎖定截止時間（{@link Ticker} 奈秒，僅在失敗次數達門檻時有意義）。
+     */
+    private record Lockout(int failures, long lockedUntil) {
+
+        static final Lockout NONE = new Lockout(0, 0);
+
+    }
+
+}
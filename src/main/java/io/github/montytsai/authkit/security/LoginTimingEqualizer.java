@@ -0,0 +1,129 @@
+package io.github.montytsai.authkit.security;
+
+import io.github.montytsai.authkit.config.LoginTimingProperties;
+import io.github.montytsai.authkit.crypto.HashingAdmission;
+import io.github.montytsai.authkit.exception.HashingCapacityExceededException;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * **登入回應時間等化器。**
+ * 讓「帳號不存在」的登入失敗與「帳號存在但密碼錯誤」花費相同分佈的時間，使回應時間不洩露 email 是否已註冊。
+ *
+ * @implNote
+ * - **取樣而非燒 CPU：** 每次完整的密碼比對都把耗時記入一個固定大小的環狀樣本區；帳號不存在時從中隨機抽取一個樣本，
+ *   並讓請求等待同樣長的時間。等待期間不佔用 CPU，也不佔用雜湊工作池執行緒，因此以不存在帳號為主的撞庫流量幾乎沒有成本。
+ * - **相同的准入：** 等待前先取得與真實密碼比對共用的 {@link HashingAdmission} 名額，名額用完時同樣以 503 失敗；
+ *   否則攻擊者只要佔滿雜湊工作池，就能以「503 或 401」區分已註冊的 email。名額也限制了同時等待的請求執行緒數。
+ * - **分佈而非平均值：** 直接重播真實樣本，延遲自然帶有與雜湊相同的變異與負載造成的排隊時間；固定延遲反而容易以分佈形狀區分。
+ * - **暖機：** 樣本少於 {@code warm-up-samples} 時（剛啟動、尚無人登入），仍以假雜湊執行一次真正的比對並記錄其耗時。
+ */
+public final class LoginTimingEqualizer {
+
+    private static final String USER_NOT_FOUND_PASSWORD = "userNotFoundPassword";
+
+    private final PasswordEncoder passwordEncoder;
+    private final HashingAdmission admission;
+    private final boolean pacing;
+    private final int warmUpSamples;
+    private final AtomicLongArray samples;
+    private final AtomicLong recorded = new AtomicLong();
+
+    private volatile String userNotFoundEncodedPassword;
+
+    public LoginTimingEqualizer(PasswordEncoder passwordEncoder, LoginTimingProperties properties) {
+        this(passwordEncoder, properties, HashingAdmission.unlimited());
+    }
+
+    public LoginTimingEqualizer(PasswordEncoder passwordEncoder, LoginTimingProperties properties,
+                                HashingAdmission admission) {
+        if (properties.getSamples() < 1 || properties.getWarmUpSamples() < 1) {
+            throw new IllegalArgumentException("authkit.login-timing.samples and warm-up-samples must be positive");
+        }
+        this.passwordEncoder = passwordEncoder;
+        this.admission = admission;
+        this.pacing = properties.isPacing();
+        this.warmUpSamples = Math.min(properties.getWarmUpSamples(), properties.getSamples());
+        this.samples = new AtomicLongArray(properties.getSamples());
+    }
+
+    /**
+     * 記錄一次完整密碼比對的耗時（不含快取命中）。
+     *
+     * @param durationNanos 呼叫 {@link PasswordEncoder#matches} 所花費的時間（奈秒），包含雜湊工作池的排隊時間。
+     */
+    public void recordVerification(long durationNanos) {
+        long slot = recorded.getAndIncrement();
+        samples.set((int) (slot % samples.length()), durationNanos);
+    }
+
+    /**
+     * 為一次「帳號不存在」的登入抽取應等待的時間。
+     *
+     * @return 抽樣得到的延遲（奈秒）；停用延遲或樣本尚不足時回傳 {@code -1}，呼叫端應改以 {@link #verifyAgainstDummyHash} 消耗時間。
+     */
+    public long nextMissDelayNanos() {
+        long count = recorded.get();
+        if (!pacing || count < warmUpSamples) {
+            return -1;
+        }
+        int available = (int) Math.min(count, samples.length());
+        return samples.get(ThreadLocalRandom.current().nextInt(available));
+    }
+
+    /**
+     * 以預先計算的假雜湊執行一次真正的密碼比對，並記錄其耗時。
+     *
+     * @param rawPassword 本次提交的明文密碼。
+     */
+    public void verifyAgainstDummyHash(CharSequence rawPassword) {
+        String encoded = userNotFoundEncodedPassword;
+        if (encoded == null) {
+            encoded = passwordEncoder.encode(USER_NOT_FOUND_PASSWORD);
+            userNotFoundEncodedPassword = encoded;
+        }
+        long startedAt = System.nanoTime();
+        passwordEncoder.matches(rawPassword, encoded);
+        recordVerification(System.nanoTime() - startedAt);
+    }
+
+    /**
+     * 在目前執行緒上等化一次「帳號不存在」的登入（Servlet 堆疊）。
+     * 有足夠樣本時佔用一個准入名額並讓執行緒休眠抽樣得到的時間，否則執行一次假雜湊（經由加密器取得名額）。
+     *
+     * @param rawPassword 本次提交的明文密碼。
+     * @throws HashingCapacityExceededException 如果准入名額已用完，與真實密碼比對被拒絕時相同。
+     */
+    public void equalizeMiss(CharSequence rawPassword) {
+        long delayNanos = nextMissDelayNanos();
+        if (delayNanos < 0) {
+            verifyAgainstDummyHash(rawPassword);
+            return;
+        }
+        admission.acquire();
+        try {
+            sleepNanos(delayNanos);
+        } finally {
+            admission.release();
+        }
+    }
+
+    /**
+     * 休眠到指定時間之後；以 {@link LockSupport#parkNanos} 取得次毫秒精度，並處理提早喚醒。
+     * 被中斷時保留中斷旗標並立即返回。
+     */
+    static void sleepNanos(long nanos) {
+        long deadline = System.nanoTime() + nanos;
+        long remaining = nanos;
+        while (remaining > 0 && !Thread.currentThread().isInterrupted()) {
+            LockSupport.parkNanos(remaining);
+            remaining = deadline - System.nanoTime();
+        }
+    }
+
+}
@@ -0,0 +1,104 @@
+package io.github.montytsai.authkit.security;
+
+import io.github.montytsai.authkit.crypto.ReactiveHashingScheduler;
+import io.github.montytsai.authkit.exception.AuthFailures;
+import io.github.montytsai.authkit.service.PasswordUpgradeService;
+
+import org.springframework.security.authentication.AccountStatusUserDetailsChecker;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsChecker;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * **響應式帳密認證管理器。**
+ * {@link CachingDaoAuthenticationProvider} 的響應式對應：以 {@link ReactiveUserDetailsService} 載入使用者，
+ * 先查詢 {@link VerifiedCredentialCache}，未命中時才在雜湊工作池上比對密碼，成功後交由 {@link PasswordUpgradeService} 在背景升級過時雜湊。
+ *
+ * @implNote
+ * - **不阻塞事件迴圈：** 快取命中直接在呼叫端執行緒完成；密碼比對一律經由 {@link ReactiveHashingScheduler}。
+ * - **防時序攻擊：** 帳號不存在時由 {@link LoginTimingEqualizer} 抽取一段延遲，以 {@link ReactiveHashingScheduler#pace(Duration)}
+ *   計時後才回傳失敗。等待期間不佔用任何執行緒，但與密碼比對共用准入名額，工作池飽和時同樣回傳 503。
+ *   Spring Security 內建的 {@code UserDetailsRepositoryReactiveAuthenticationManager} 沒有這項保護，因此不直接使用。
+ */
+public class ReactivePasswordAuthenticationManager implements ReactiveAuthenticationManager {
+
+    private static final String BAD_CREDENTIALS = "Bad credentials";
+
+    private final ReactiveUserDetailsService userDetailsService;
+    private final PasswordEncoder passwordEncoder;
+    private final ReactiveHashingScheduler hashingScheduler;
+    private final VerifiedCredentialCache credentialCache;
+    private final PasswordUpgradeService passwordUpgradeService;
+    private final LoginTimingEqualizer timingEqualizer;
+    private final UserDetailsChecker userDetailsChecker = new AccountStatusUserDetailsChecker();
+
+    public ReactivePasswordAuthenticationManager(ReactiveUserDetailsService userDetailsService,
+                                                 PasswordEncoder passwordEncoder,
+                                                 ReactiveHashingScheduler hashingScheduler,
+                                                 VerifiedCredentialCache credentialCache,
+                                                 PasswordUpgradeService passwordUpgradeService,
+                                                 LoginTimingEqualizer timingEqualizer) {
+        this.userDetailsService = userDetailsService;
+        this.passwordEncoder = passwordEncoder;
+        this.hashingScheduler = hashingScheduler;
+        this.credentialCache = credentialCache;
+        this.passwordUpgradeService = passwordUpgradeService;
+        this.timingEqualizer = timingEqualizer;
+    }
+
+    @Override
+    public Mono<Authentication> authenticate(Authentication authentication) {
+        if (authentication.getCredentials() == null) {
+            return Mono.error(AuthFailures.badCredentials(BAD_CREDENTIALS));
+        }
+        String rawPassword = authentication.getCredentials().toString();
+        return userDetailsService.findByUsername(authentication.getName())
+                .flatMap(user -> verify(user, rawPassword))
+                .switchIfEmpty(Mono.defer(() -> equalizeMiss(rawPassword)
+                        .then(Mono.error(AuthFailures.badCredentials(BAD_CREDENTIALS)))));
+    }
+
+    private Mono<Authentication> verify(UserDetails user, String rawPassword) {
+        userDetailsChecker.check(user);
+        String username = user.getUsername();
+        String storedHash = user.getPassword();
+        Mono<Boolean> matches = credentialCache.isVerified(username, rawPassword, storedHash)
+                ? Mono.just(true)
+                : hashingScheduler.submit(() -> {
+                    long startedAt = System.nanoTime();
+                    boolean verified = passwordEncoder.matches(rawPassword, storedHash);
+                    timingEqualizer.recordVerification(System.nanoTime() - startedAt);
+                    if (verified) {
+                        credentialCache.recordVerified(username, rawPassword, storedHash);
+                    }
+                    return verified;
+                });
+        return matches.flatMap(verified -> {
+            if (!verified) {
+                return Mono.error(AuthFailures.badCredentials(BAD_CREDENTIALS));
+            }
+            passwordUpgradeService.upgradeIfNeeded(username, rawPassword, storedHash);
+            return Mono.just(UsernamePasswordAuthenticationToken.authenticated(user, null, user.getAuthorities()));
+        });
+    }
+
+    private Mono<?> equalizeMiss(String rawPassword) {
+        long delayNanos = timingEqualizer.nextMissDelayNanos();
+        if (delayNanos < 0) {
+            return hashingScheduler.submit(() -> {
+                timingEqualizer.verifyAgainstDummyHash(rawPassword);
+                return true;
+            });
+        }
+        return hashingScheduler.pace(Duration.ofNanos(delayNanos));
+    }
+
+}
@@ -0,0 +1,35 @@
+package io.github.montytsai.authkit.security;
+
+import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+/**
+ * **以 {@link UserDetailsService} 實作的 {@link ReactiveUserDetailsService}。**
+ * 讓響應式堆疊沿用 {@link io.github.montytsai.authkit.service.AuthService} 的使用者載入邏輯與查詢指標。
+ *
+ * @implNote 使用者儲存（日誌檔、JDBC）的查詢可能阻塞，因此在 {@code scheduler} 上執行而非事件迴圈；
+ *           找不到使用者時回傳空的 {@link Mono}，符合 {@link ReactiveUserDetailsService} 的約定。
+ */
+public class ReactiveUserDetailsServiceAdapter implements ReactiveUserDetailsService {
+
+    private final UserDetailsService delegate;
+    private final Scheduler scheduler;
+
+    public ReactiveUserDetailsServiceAdapter(UserDetailsService delegate, Scheduler scheduler) {
+        this.delegate = delegate;
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    public Mono<UserDetails> findByUsername(String username) {
+        return Mono.fromCallable(() -> delegate.loadUserByUsername(username))
+                .subscribeOn(scheduler)
+                .onErrorResume(UsernameNotFoundException.class, ex -> Mono.empty());
+    }
+
+}
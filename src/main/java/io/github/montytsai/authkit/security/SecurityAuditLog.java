@@ -0,0 +1,312 @@
+package io.github.montytsai.authkit.security;
+
+import io.github.montytsai.authkit.config.AuditLogProperties;
+import io.github.montytsai.authkit.metrics.AuthMetrics;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.Clock;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * **安全稽核日誌 (Security Audit Log)。**
+ * 持久記錄每一次登入成功、登入失敗與註冊，供合規稽核使用；檔案格式見 {@link AuditFileWriter}。
+ *
+ * @apiNote 與 {@link io.github.montytsai.authkit.metrics.AuthEventLogger} 不同，稽核事件不取樣也不設每秒上限；
+ *          只有緩衝區已滿（寫入速度長時間跟不上）時才會依 {@link AuditLogProperties.Backpressure} 丟棄，
+ *          丟棄的數量會以一行 {@code audit_dropped} 寫入稽核檔並累計於 {@link #droppedEvents()}，稽核紀錄的缺口因此可被察覺。
+ *          應用程式關閉的同時才發佈的事件可能不會寫入。
+ * @implNote
+ * - **發佈：** 請求執行緒以一次 CAS 在預先配置的環形緩衝區中取得序號，寫入該格的欄位（時間、事件類型與既有字串的參考），
+ *   再以 release 語意寫入該格的已發佈序號；不持有鎖、不配置物件、不做 I/O。
+ * - **寫入：** 單一背景執行緒依序號讀取已發佈的格子，編碼後立即釋放格子，再將整個批次一次寫入並 fsync（group commit），
+ *   因此 fsync 的成本由同一批次的所有事件分攤。緩衝區沒有事件時等待 {@code flush-interval}，發佈端不需喚醒它。
+ * - **失敗：** 寫入或 fsync 失敗時記錄錯誤、捨棄該批次並計入 {@link #failedEvents()}，下一個批次改寫入新的檔案。
+ */
+@Slf4j
+public final class SecurityAuditLog implements Closeable {
+
+    /**
+     * 稽核事件類型；名稱與認證事件日誌的 {@code event=} 相同。
+     */
+    public enum Event {
+        LOGIN_SUCCESS("login_success"),
+        LOGIN_FAILURE("login_failure"),
+        REGISTER_SUCCESS("register_success"),
+        REGISTER_CONFLICT("register_conflict");
+
+        private final String id;
+
+        Event(String id) {
+            this.id = id;
+        }
+
+        public String id() {
+            return id;
+        }
+    }
+
+    private static final long UNPUBLISHED = -1;
+    private static final long BLOCK_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    private static final long CLOSE_TIMEOUT_MILLIS = 5_000;
+
+    private final boolean enabled;
+    private final Clock clock;
+    private final AuditLogProperties.Backpressure backpressure;
+    private final long blockTimeoutNanos;
+    private final long flushIntervalNanos;
+    private final int batchSize;
+
+    private final int capacity;
+    private final int mask;
+    private final long[] timestamps;
+    private final Event[] events;
+    private final String[] users;
+    private final String[] ips;
+    private final String[] reasons;
+    private final AtomicLongArray published;
+
+    /** 下一個可取得的序號，由發佈端 CAS 推進。 */
+    private final AtomicLong claimed = new AtomicLong();
+    /** 寫入執行緒尚未讀取的第一個序號；之前的格子都可以重複使用。只由寫入執行緒更新。 */
+    private volatile long consumed;
+
+    private final LongAdder dropped = new LongAdder();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    private final AuditFileWriter writer;
+    private final Thread writerThread;
+    private volatile boolean closed;
+
+    /**
+     * 配置環形緩衝區、開啟新的稽核檔並啟動寫入執行緒；停用時不建立檔案或執行緒，所有記錄呼叫直接返回。
+     *
+     * @throws IOException 如果無法建立稽核目錄或檔案。
+     */
+    public SecurityAuditLog(AuditLogProperties properties, Clock clock) throws IOException {
+        this.enabled = properties.isEnabled();
+        this.clock = clock;
+        this.backpressure = properties.getBackpressure();
+        this.blockTimeoutNanos = properties.getBlockTimeout().toNanos();
+        this.flushIntervalNanos = Math.max(1, properties.getFlushInterval().toNanos());
+        this.batchSize = Math.max(1, properties.getBatchSize());
+
+        this.capacity = enabled ? ceilingPowerOfTwo(properties.getBufferSize()) : 1;
+        this.mask = capacity - 1;
+        this.timestamps = new long[capacity];
+        this.events = new Event[capacity];
+        this.users = new String[capacity];
+        this.ips = new String[capacity];
+        this.reasons = new String[capacity];
+        this.published = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            published.set(i, UNPUBLISHED);
+        }
+
+        if (!enabled) {
+            this.writer = null;
+            this.writerThread = null;
+            return;
+        }
+        this.writer = new AuditFileWriter(properties.getDirectory(), properties.getMaxFileSize().toBytes(),
+                properties.getMaxFiles(), properties.isSyncOnWrite());
+        this.writerThread = new Thread(this::writeLoop, "authkit-audit-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+        log.info("Writing security audit events to {} ({} event buffer, backpressure {}).",
+                writer.currentFile(), capacity, backpressure);
+    }
+
+    /**
+     * 記錄一次成功的登入。
+     */
+    public void loginSucceeded(String email, String clientIp) {
+        record(Event.LOGIN_SUCCESS, email, clientIp, null);
+    }
+
+    /**
+     * 記錄一次失敗的登入。
+     *
+     * @param failure 登入失敗時拋出的異常，僅以 {@link AuthMetrics#failureTag} 的固定標籤記錄為 {@code reason}。
+     */
+    public void loginFailed(String email, String clientIp, Throwable failure) {
+        record(Event.LOGIN_FAILURE, email, clientIp, AuthMetrics.failureTag(failure));
+    }
+
+    /**
+     * 記錄一次成功的註冊。
+     */
+    public void registered(String email, String clientIp) {
+        record(Event.REGISTER_SUCCESS, email, clientIp, null);
+    }
+
+    /**
+     * 記錄一次因 email 已存在而被拒絕的註冊。
+     */
+    public void registrationConflict(String email, String clientIp) {
+        record(Event.REGISTER_CONFLICT, email, clientIp, null);
+    }
+
+    /**
+     * 將事件放進環形緩衝區，由背景執行緒寫入稽核檔。
+     *
+     * @param reason 失敗原因；沒有時為 {@code null}。
+     */
+    public void record(Event event, String email, String clientIp, String reason) {
+        if (!enabled) {
+            return;
+        }
+        long sequence = claim();
+        if (sequence < 0) {
+            dropped.increment();
+            return;
+        }
+        int index = (int) sequence & mask;
+        timestamps[index] = clock.millis();
+        events[index] = event;
+        users[index] = email;
+        ips[index] = clientIp;
+        reasons[index] = reason;
+        published.lazySet(index, sequence);
+    }
+
+    /**
+     * 因緩衝區已滿或日誌已關閉而被丟棄的事件數。
+     */
+    public long droppedEvents() {
+        return dropped.sum();
+    }
+
+    /**
+     * 已寫入稽核檔的事件數（啟用 fsync 時為已落地的數量）。
+     */
+    public long writtenEvents() {
+        return written.get();
+    }
+
+    /**
+     * 因寫入或 fsync 失敗而遺失的事件數。
+     */
+    public long failedEvents() {
+        return failed.get();
+    }
+
+    /**
+     * 緩衝區中尚未被寫入執行緒讀取的事件數。
+     */
+    public long pendingEvents() {
+        return Math.max(0, claimed.get() - consumed);
+    }
+
+    /**
+     * 停止接受事件，等待寫入執行緒寫完緩衝區中已發佈的事件後關閉檔案。
+     */
+    @Override
+    public void close() throws IOException {
+        if (!enabled || closed) {
+            return;
+        }
+        closed = true;
+        LockSupport.unpark(writerThread);
+        try {
+            writerThread.join(CLOSE_TIMEOUT_MILLIS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        if (writerThread.isAlive()) {
+            log.warn("Audit writer did not finish within {} ms; {} events may be missing.",
+                    CLOSE_TIMEOUT_MILLIS, pendingEvents());
+            return;
+        }
+        writer.close();
+    }
+
+    /**
+     * 取得一個可寫入的序號；緩衝區已滿時依背壓設定丟棄或等待。
+     *
+     * @return 序號；應丟棄事件時回傳 {@code -1}。
+     */
+    private long claim() {
+        long deadline = 0;
+        boolean waiting = false;
+        while (!closed) {
+            long sequence = claimed.get();
+            if (sequence - consumed < capacity) {
+                if (claimed.compareAndSet(sequence, sequence + 1)) {
+                    return sequence;
+                }
+                continue;
+            }
+            if (backpressure == AuditLogProperties.Backpressure.DROP) {
+                return -1;
+            }
+            long now = System.nanoTime();
+            if (!waiting) {
+                waiting = true;
+                deadline = now + blockTimeoutNanos;
+            } else if (now - deadline >= 0) {
+                return -1;
+            }
+            LockSupport.parkNanos(BLOCK_PARK_NANOS);
+        }
+        return -1;
+    }
+
+    private void writeLoop() {
+        long next = 0;
+        long reportedDrops = 0;
+        while (true) {
+            boolean stopping = closed;
+            int count = 0;
+            while (count < batchSize) {
+                long sequence = next + count;
+                int index = (int) sequence & mask;
+                if (published.get(index) != sequence) {
+                    break;
+                }
+                writer.append(sequence, timestamps[index], events[index].id(), users[index], ips[index], reasons[index]);
+                // 不保留請求的字串，讓它們可以在緩衝區繞回之前被回收
+                users[index] = null;
+                ips[index] = null;
+                reasons[index] = null;
+                count++;
+            }
+            next += count;
+            consumed = next;
+
+            long drops = dropped.sum();
+            if (drops != reportedDrops) {
+                writer.appendDropped(clock.millis(), drops - reportedDrops);
+                reportedDrops = drops;
+            }
+            if (writer.hasPending()) {
+                try {
+                    writer.flush();
+                    written.addAndGet(count);
+                } catch (IOException | RuntimeException ex) {
+                    failed.addAndGet(count);
+                    log.error("Failed to write {} security audit events.", count, ex);
+                }
+            }
+
+            if (count == 0) {
+                if (stopping && claimed.get() == next) {
+                    return;
+                }
+                LockSupport.parkNanos(this, stopping ? BLOCK_PARK_NANOS : flushIntervalNanos);
+            }
+        }
+    }
+
+    private static int ceilingPowerOfTwo(int value) {
+        int bounded = Math.max(2, Math.min(value, 1 << 30));
+        return Integer.highestOneBit(bounded - 1) << 1;
+    }
+
+}
@@ -0,0 +1,10 @@
+package io.github.montytsai.authkit.security;
+
+/**
+ * **登入或換發時簽發的一組 Token。**
+ *
+ * @param accessToken 短效的 Access Token，以 {@code Authorization: Bearer} 攜帶。
+ * @param refreshToken 長效、僅能使用一次的 Refresh Token，用於換發新的一組 Token。
+ */
+public record TokenPair(String accessToken, String refreshToken) {
+}
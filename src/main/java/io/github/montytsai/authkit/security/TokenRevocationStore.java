@@ -0,0 +1,309 @@
+package io.github.montytsai.authkit.security;
+
+import io.github.montytsai.authkit.config.JwtProperties;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32C;
+
+/**
+ * **Token 撤銷名單 (Revocation Store)。**
+ * 保存被撤銷的工作階段 ({@code sid}) 與已使用過的 Refresh Token ({@code jti})，並落地於僅附加寫入的二進位檔。
+ *
+ * <pre>
+ * 檔頭:  [magic:int "AKRV"][version:int]
+ * 紀錄:  [idMostSigBits:long][idLeastSigBits:long][expiresAtEpochSecond:long][crc32c:int]   (固定 28 bytes)
+ * </pre>
+ *
+ * @implNote
+ * - **查詢：** 先查 {@link RevocationBloomFilter}，未命中（絕大多數請求）直接回傳，不做任何 I/O 或雜湊表查找；
+ *   命中時再以記憶體中的 {@link ConcurrentHashMap} 確認，排除偽陽性。
+ * - **寫入：** 撤銷以單一鎖序列化：先附加紀錄（可選 fsync），再更新 filter 與記憶體索引，
+ *   因此回報成功的撤銷在重啟後一定仍然有效。
+ * - **壓縮：** 每筆紀錄都帶有到期時間（相關 Token 的最晚到期時間），過期後即無意義；
+ *   定期將存活紀錄重寫到暫存檔、fsync 後以原子性 rename 取代原檔，並重建一個新的 filter 整個替換舊的。
+ */
+@Slf4j
+public final class TokenRevocationStore implements Closeable {
+
+    private static final int MAGIC = 0x414B5256; // "AKRV"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 8;
+    private static final int RECORD_SIZE = 28;
+    private static final int READ_CHUNK_RECORDS = 4096;
+
+    private final Path path;
+    private final Path compactionPath;
+    private final boolean syncOnWrite;
+    private final long expectedRevocations;
+    private final double falsePositiveRate;
+    private final Clock clock;
+
+    /** 撤銷的 id → 到期時間（epoch 秒）。 */
+    private final Map<UUID, Long> revoked = new ConcurrentHashMap<>();
+    private final Object writeLock = new Object();
+    private final ScheduledExecutorService compactor;
+
+    private volatile RevocationBloomFilter filter;
+    private FileChannel channel;
+    private long writePosition;
+
+    public TokenRevocationStore(JwtProperties.Revocation properties, Clock clock) throws IOException {
+        this.path = properties.getPath().toAbsolutePath();
+        this.compactionPath = path.resolveSibling(path.getFileName() + ".compact");
+        this.syncOnWrite = properties.isSyncOnWrite();
+        this.expectedRevocations = properties.getExpectedRevocations();
+        this.falsePositiveRate = properties.getFalsePositiveRate();
+        this.clock = clock;
+
+        open();
+        this.compactor = scheduleCompaction(properties.getCompactionInterval());
+    }
+
+    /**
+     * 判斷 id 是否已被撤銷。
+     *
+     * @param id 工作階段或 Token 的 id；{@code null} 視為未撤銷。
+     * @return 已撤銷時回傳 {@code true}。
+     */
+    public boolean isRevoked(UUID id) {
+        return id != null && filter.mightContain(id) && revoked.containsKey(id);
+    }
+
+    /**
+     * 撤銷 id，直到 {@code expiresAt} 之後紀錄才可被清除。
+     *
+     * @param id 工作階段或 Token 的 id。
+     * @param expiresAt 受影響 Token 的最晚到期時間。
+     * @return 本次呼叫新增了撤銷時回傳 {@code true}；已在名單中時回傳 {@code false}。
+     * @implNote 檢查與寫入在同一把鎖內完成，同一個 id 並行撤銷時只有一個呼叫端會得到 {@code true}，
+     *           Refresh Token 的單次使用即依賴這個保證。
+     */
+    public boolean revoke(UUID id, Instant expiresAt) {
+        synchronized (writeLock) {
+            if (revoked.containsKey(id)) {
+                return false;
+            }
+            long expiresAtSecond = expiresAt.getEpochSecond();
+            ByteBuffer record = encode(id, expiresAtSecond);
+            try {
+                long written = writeFully(channel, record, writePosition);
+                if (syncOnWrite) {
+                    channel.force(false);
+                }
+                writePosition += written;
+            } catch (IOException ex) {
+                truncateQuietly(writePosition);
+                throw new UncheckedIOException("Failed to append revocation to " + path, ex);
+            }
+            filter.put(id);
+            revoked.put(id, expiresAtSecond);
+            return true;
+        }
+    }
+
+    /**
+     * 目前名單中的筆數（含尚未清除的過期紀錄）。
+     */
+    public int size() {
+        return revoked.size();
+    }
+
+    /**
+     * 清除已過期的紀錄、重寫檔案並重建 Bloom filter。
+     */
+    public void compact() {
+        synchronized (writeLock) {
+            long now = clock.instant().getEpochSecond();
+            int before = revoked.size();
+            revoked.values().removeIf(expiresAt -> expiresAt <= now);
+
+            try (FileChannel out = FileChannel.open(compactionPath,
+                    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                long position = writeFully(out, header(), 0);
+                for (Map.Entry<UUID, Long> entry : revoked.entrySet()) {
+                    position += writeFully(out, encode(entry.getKey(), entry.getValue()), position);
+                }
+                out.force(true);
+
+                channel.close();
+                try {
+                    Files.move(compactionPath, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                } finally {
+                    channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                }
+                writePosition = position;
+            } catch (IOException ex) {
+                throw new UncheckedIOException("Failed to compact revocation list " + path, ex);
+            }
+
+            filter = buildFilter();
+            log.info("Compacted revocation list {}: {} -> {} entries.", path, before, revoked.size());
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (compactor != null) {
+            compactor.shutdownNow();
+        }
+        synchronized (writeLock) {
+            channel.close();
+        }
+    }
+
+    private void open() throws IOException {
+        Path parent = path.getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Files.deleteIfExists(compactionPath);
+
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (channel.size() == 0) {
+            writeFully(channel, header(), 0);
+            channel.force(true);
+        } else {
+            verifyHeader();
+        }
+        recover();
+        filter = buildFilter();
+        log.info("Loaded {} revoked token ids from {}.", revoked.size(), path);
+    }
+
+    private void verifyHeader() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        channel.read(header, 0);
+        header.flip();
+        if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC || header.getInt() != VERSION) {
+            throw new IOException("Not an auth-kit revocation list: " + path);
+        }
+    }
+
+    /**
+     * 循序讀取所有紀錄；略過已過期者，遇到不完整或 CRC 錯誤的尾端紀錄即截斷檔案。
+     */
+    private void recover() throws IOException {
+        long size = channel.size();
+        long position = HEADER_SIZE;
+        long now = clock.instant().getEpochSecond();
+        ByteBuffer chunk = ByteBuffer.allocate(RECORD_SIZE * READ_CHUNK_RECORDS);
+        CRC32C crc = new CRC32C();
+
+        scan:
+        while (position + RECORD_SIZE <= size) {
+            chunk.clear();
+            chunk.limit((int) Math.min(chunk.capacity(), (size - position) / RECORD_SIZE * RECORD_SIZE));
+            while (chunk.hasRemaining()) {
+                if (channel.read(chunk, position + chunk.position()) < 0) {
+                    break;
+                }
+            }
+            chunk.flip();
+            if (chunk.remaining() < RECORD_SIZE) {
+                break;
+            }
+            while (chunk.remaining() >= RECORD_SIZE) {
+                int start = chunk.position();
+                crc.reset();
+                crc.update(chunk.array(), start, RECORD_SIZE - 4);
+                long mostSigBits = chunk.getLong();
+                long leastSigBits = chunk.getLong();
+                long expiresAt = chunk.getLong();
+                if ((int) crc.getValue() != chunk.getInt()) {
+                    break scan;
+                }
+                if (expiresAt > now) {
+                    revoked.put(new UUID(mostSigBits, leastSigBits), expiresAt);
+                }
+                position += RECORD_SIZE;
+            }
+        }
+
+        if (position < size) {
+            log.warn("Revocation list {} has a torn or corrupt tail at offset {}; truncating {} bytes.",
+                    path, position, size - position);
+            channel.truncate(position);
+            channel.force(true);
+        }
+        writePosition = position;
+    }
+
+    /**
+     * 依目前筆數建立新的 filter；容量至少為設定值，且保留一倍空間給後續的撤銷。
+     */
+    private RevocationBloomFilter buildFilter() {
+        RevocationBloomFilter rebuilt = RevocationBloomFilter.create(
+                Math.max(expectedRevocations, 2L * revoked.size()), falsePositiveRate);
+        revoked.keySet().forEach(rebuilt::put);
+        return rebuilt;
+    }
+
+    private ScheduledExecutorService scheduleCompaction(Duration interval) {
+        if (interval == null || interval.isZero() || interval.isNegative()) {
+            return null;
+        }
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "revocation-compactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long millis = interval.toMillis();
+        executor.scheduleWithFixedDelay(() -> {
+            try {
+                compact();
+            } catch (RuntimeException ex) {
+                log.error("Scheduled compaction of revocation list {} failed.", path, ex);
+            }
+        }, millis, millis, TimeUnit.MILLISECONDS);
+        return executor;
+    }
+
+    private void truncateQuietly(long position) {
+        try {
+            channel.truncate(position);
+        } catch (IOException ex) {
+            log.error("Failed to roll back partial write in revocation list {}.", path, ex);
+        }
+    }
+
+    private static ByteBuffer encode(UUID id, long expiresAtSecond) {
+        ByteBuffer buffer = ByteBuffer.allocate(RECORD_SIZE)
+                .putLong(id.getMostSignificantBits())
+                .putLong(id.getLeastSignificantBits())
+                .putLong(expiresAtSecond);
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.array(), 0, RECORD_SIZE - 4);
+        return buffer.putInt((int) crc.getValue()).flip();
+    }
+
+    private static ByteBuffer header() {
+        return ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(VERSION).flip();
+    }
+
+    private static long writeFully(FileChannel target, ByteBuffer buffer, long position) throws IOException {
+        long written = 0;
+        while (buffer.hasRemaining()) {
+            written += target.write(buffer, position + written);
+        }
+        return written;
+    }
+
+}
@@ -0,0 +1,113 @@
+package io.github.montytsai.authkit.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.montytsai.authkit.config.CredentialCacheProperties;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+
+/**
+ * **已驗證憑證快取 (Verified-Credential Cache)。**
+ * 記錄「某個 email 曾以某組密碼通過某個已儲存雜湊的驗證」，讓重複登入時可跳過完整的 BCrypt 比對。
+ *
+ * @implNote 快取值為 {@code HMAC-SHA256(processKey, password || 0x00 || storedHash)}，
+ *           明文密碼本身從不被保存；HMAC 金鑰於每次啟動時隨機產生，不會落地。
+ *           由於已儲存雜湊也參與計算，使用者雜湊一旦改變，舊指紋自然失效；
+ *           {@link #invalidate(String)} 則讓 {@code AuthService} 能主動清除。
+ */
+public final class VerifiedCredentialCache {
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final boolean enabled;
+    private final Cache<String, byte[]> fingerprints;
+    private final Mac prototype;
+
+    public VerifiedCredentialCache(CredentialCacheProperties properties) {
+        this.enabled = properties.isEnabled();
+        this.fingerprints = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxSize())
+                .expireAfterWrite(properties.getTtl())
+                .build();
+
+        byte[] secret = new byte[32];
+        RANDOM.nextBytes(secret);
+        this.prototype = newMac(new SecretKeySpec(secret, HMAC_ALGORITHM));
+    }
+
+    /**
+     * 判斷該組憑證是否在存活時間內已通過驗證。
+     *
+     * @param email 使用者 email。
+     * @param rawPassword 本次提交的明文密碼。
+     * @param storedHash 目前儲存的密碼雜湊。
+     * @return 若快取命中且指紋一致則回傳 {@code true}。
+     */
+    public boolean isVerified(String email, CharSequence rawPassword, String storedHash) {
+        if (!enabled) {
+            return false;
+        }
+        byte[] cached = fingerprints.getIfPresent(email);
+        return cached != null && MessageDigest.isEqual(cached, fingerprint(rawPassword, storedHash));
+    }
+
+    /**
+     * 記錄一次成功的完整密碼驗證。
+     */
+    public void recordVerified(String email, CharSequence rawPassword, String storedHash) {
+        if (enabled) {
+            fingerprints.put(email, fingerprint(rawPassword, storedHash));
+        }
+    }
+
+    /**
+     * 移除指定使用者的驗證紀錄；在使用者雜湊變更時呼叫。
+     */
+    public void invalidate(String email) {
+        if (enabled) {
+            fingerprints.invalidate(email);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 計算憑證指紋。
+     *
+     * @implNote 複製已初始化的 {@link Mac} 原型而非使用 {@link ThreadLocal}：
+     *           在虛擬執行緒模式下每個請求都是新的執行緒，執行緒區域快取無法被重複使用。
+     */
+    private byte[] fingerprint(CharSequence rawPassword, String storedHash) {
+        Mac mac = cloneMac();
+        mac.update(rawPassword.toString().getBytes(StandardCharsets.UTF_8));
+        mac.update((byte) 0);
+        return mac.doFinal(storedHash.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Mac cloneMac() {
+        try {
+            return (Mac) prototype.clone();
+        } catch (CloneNotSupportedException ex) {
+            throw new IllegalStateException("HmacSHA256 implementation does not support cloning.", ex);
+        }
+    }
+
+    private static Mac newMac(SecretKeySpec key) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException("HmacSHA256 is not available.", ex);
+        }
+    }
+
+}
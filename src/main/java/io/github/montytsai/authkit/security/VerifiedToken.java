@@ -0,0 +1,23 @@
+package io.github.montytsai.authkit.security;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * **已通過簽章與時效驗證的 Token 內容。**
+ *
+ * @param subject Token 主體（使用者 email）。
+ * @param tokenId Token 唯一識別碼 ({@code jti})。
+ * @param sessionId 登入工作階段識別碼 ({@code sid})，同一次登入換發出的所有 Token 共用；舊版 Token 可能為 {@code null}。
+ * @param expiresAt 到期時間 ({@code exp})。
+ */
+public record VerifiedToken(String subject, String tokenId, UUID sessionId, Instant expiresAt) {
+
+    /**
+     * 判斷 Token 在指定時間點是否已過期。
+     */
+    public boolean isExpiredAt(Instant now) {
+        return !now.isBefore(expiresAt);
+    }
+
+}
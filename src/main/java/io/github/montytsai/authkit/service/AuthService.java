@@ -1,7 +1,12 @@
 package io.github.montytsai.authkit.service;
 
+import io.github.montytsai.authkit.config.UserImportProperties;
 import io.github.montytsai.authkit.dto.RegisterRequest;
+import io.github.montytsai.authkit.exception.AuthFailures;
 import io.github.montytsai.authkit.exception.UserAlreadyExistsException;
+import io.github.montytsai.authkit.metrics.AuthMetrics;
+import io.github.montytsai.authkit.security.VerifiedCredentialCache;
+import io.github.montytsai.authkit.store.UserStore;
 import lombok.extern.slf4j.Slf4j;
 
 import org.springframework.security.core.userdetails.User;
@@ -12,62 +17,119 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.util.Collections;
-import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 認證服務 (Authentication Service)。
  * 此服務承擔兩個核心職責：使用者註冊，以及作為 Spring Security 的 UserDetailsService 載入使用者詳細資訊。
  *
- * @implNote 目前使用 {@link ConcurrentHashMap} 作為臨時的記憶體儲存來模擬資料庫，
- *           以便快速啟動和測試。在生產環境中，這應替換為持久化的資料儲存層
+ * @implNote 使用者資料的持久化委派給 {@link UserStore} SPI，實際引擎由 {@code authkit.store.type} 決定
+ *           （預設為落地於磁碟的 append-only 日誌引擎）。
+ *           註冊與登入的結果由 Controller 經 {@link io.github.montytsai.authkit.metrics.AuthEventLogger} 各記錄一行事件，
+ *           此處的熱路徑不再輸出逐步的日誌。
  */
 @Service
 @Slf4j
 public class AuthService implements UserDetailsService {
 
     /**
-     * 臨時的記憶體使用者儲存。
-     * @apiNote 此 Map 僅用於開發和演示目的。它會在應用程式重啟後丟失所有資料。
-     * 對於實際應用，請導入資料庫持久化機制。
+     * 重複註冊時拋出的預先建立、不帶堆疊的異常；訊息不回顯 email。
      */
-    private final Map<String, String> userStore = new ConcurrentHashMap<>();
+    private static final UserAlreadyExistsException USER_ALREADY_EXISTS =
+            new UserAlreadyExistsException("A user with this email already exists.");
+
+    /**
+     * 使用者儲存引擎。
+     * @apiNote 以 email 為鍵、已雜湊的密碼為值。
+     */
+    private final UserStore userStore;
 
     private final PasswordEncoder passwordEncoder;
+    private final VerifiedCredentialCache credentialCache;
+    private final AuthMetrics authMetrics;
+
+    /**
+     * 管理帳號的 email；不能經由公開註冊建立，只能由 {@code authkit.import.admin-password-hashes} 或管理員匯入建立。
+     */
+    private final Set<String> adminEmails;
 
-    public AuthService(PasswordEncoder passwordEncoder) {
+    /**
+     * 本節點正在註冊（已保留、尚未寫入）的 email。
+     */
+    private final Set<String> pendingRegistrations = ConcurrentHashMap.newKeySet();
+
+    public AuthService(UserStore userStore, PasswordEncoder passwordEncoder, VerifiedCredentialCache credentialCache,
+                       AuthMetrics authMetrics, UserImportProperties importProperties) {
+        this.userStore = userStore;
         this.passwordEncoder = passwordEncoder;
+        this.credentialCache = credentialCache;
+        this.authMetrics = authMetrics;
+        this.adminEmails = Set.copyOf(importProperties.getAdmins());
     }
 
     /**
      * 註冊新使用者
      * - 此方法負責接收使用者的註冊請求，進行業務邏輯驗證（Email 唯一性），
-     * - 加密密碼，並將新使用者資訊儲存到記憶體模擬的資料庫中。
+     * - 加密密碼，並將新使用者資訊儲存到 {@link UserStore}。
      *
      * @param registerRequest 包含新使用者電子郵件和密碼的註冊請求資料傳輸物件 (DTO)。
      *                        輸入參數的格式驗證（如非空、長度）在 Controller 層使用 {@code @Valid} 處理。
-     * @throws UserAlreadyExistsException 如果嘗試註冊的電子郵件已經存在，則拋出此業務異常。
-     * @apiNote Email 被選為唯一的用戶識別符。任何嘗試使用現有 Email 註冊的請求將會被拒絕。
+     * @throws UserAlreadyExistsException 如果嘗試註冊的電子郵件已經存在，或屬於 {@code authkit.import.admins}，則拋出此業務異常。
+     * @apiNote Email 被選為唯一的用戶識別符。任何嘗試使用現有 Email 註冊的請求將會被拒絕，
+     *          包括同一 email 仍在進行中的註冊：重試風暴中只有第一個請求會計算雜湊，其餘立即回傳衝突。
+     * @implNote 先保留再提交 (reserve-then-commit)：
+     * - **保留：** 以 {@link #pendingRegistrations} 的 {@code add} 原子地標記 email 為註冊中，失敗者不計算雜湊、直接拋出異常。
+     * - **提交：** 雜湊完成後以 {@link UserStore#saveIfAbsent(String, String)} 寫入，絕不覆寫既有帳號；
+     *   保留只在本節點有效，多節點共用儲存時由這一步擋下其他節點搶先完成的註冊。
+     * - 無論成功與否都會移除保留；雜湊或寫入失敗時，後續的重試可以重新註冊。
+     * - **管理帳號：** 管理權限以 JWT 的 subject 比對 {@code authkit.import.admins}，若允許公開註冊這些 email，
+     *   任何人都能搶先註冊尚未建立的管理帳號並取得 {@code /api/admin/**}；因此一律視為已存在，回應與重複註冊無法區分。
      */
     public void register(RegisterRequest registerRequest) {
-        log.info("Attempting to register new user with email: {}", registerRequest.getEmail());
-
-        // 檢查使用者 email 是否已存在。
-        if (userStore.containsKey(registerRequest.getEmail())) {
-            log.warn("Registration failed: Email {} already exists.", registerRequest.getEmail());
-            throw new UserAlreadyExistsException("User with email " + registerRequest.getEmail() + " already exists.");
+        String email = registerRequest.getEmail();
+        // 檢查使用者 email 是否已存在，並保留 email 以擋下同時進行的重複請求。
+        if (adminEmails.contains(email) || userStore.exists(email) || !pendingRegistrations.add(email)) {
+            throw USER_ALREADY_EXISTS;
         }
+        try {
+            // 保留前可能有另一個請求剛完成提交，再確認一次以免白算雜湊。
+            if (userStore.exists(email)) {
+                throw USER_ALREADY_EXISTS;
+            }
+
+            // 對用戶提供的明文密碼進行雜湊處理。
+            String hashedPassword = passwordEncoder.encode(registerRequest.getPassword());
+
+            // 資料持久化：僅在 email 仍不存在時寫入用戶儲存區。
+            if (!userStore.saveIfAbsent(email, hashedPassword)) {
+                throw USER_ALREADY_EXISTS;
+            }
+            credentialCache.invalidate(email);
+        } finally {
+            pendingRegistrations.remove(email);
+        }
+    }
 
-        // 對用戶提供的明文密碼進行雜湊處理。
-        String hashedPassword = passwordEncoder.encode(registerRequest.getPassword());
-        log.debug("Password successfully hashed for email: {}", registerRequest.getEmail());
-
-        // 資料持久化：將新用戶的 email 和加密後的密碼存入用戶儲存區。
-        // FIXME: 在生產環境中，這裡需要替換為對資料庫操作的呼叫，以實現資料持久化。
-        userStore.put(registerRequest.getEmail(), hashedPassword);
-        log.trace("Current user store state: {}", userStore);
-
-        log.info("User {} registered successfully.", registerRequest.getEmail());
+    /**
+     * 以新的雜湊替換使用者目前的密碼雜湊。
+     * 用於登入成功後的背景雜湊升級：只有在雜湊仍為 {@code currentHash} 時才會寫入，避免覆蓋期間發生的其他變更。
+     *
+     * @param email 使用者 email。
+     * @param currentHash 登入時驗證通過的雜湊。
+     * @param newHash 以目前設定重新計算的雜湊。
+     * @return 寫入成功時回傳 {@code true}。
+     */
+    public boolean upgradePasswordHash(String email, String currentHash, String newHash) {
+        boolean replaced = userStore.replacePasswordHash(email, currentHash, newHash);
+        if (replaced) {
+            credentialCache.invalidate(email);
+            log.info("Password hash upgraded for user {}.", email);
+        } else {
+            log.debug("Skipped password hash upgrade for user {}: hash changed concurrently.", email);
+        }
+        return replaced;
     }
 
     /**
@@ -80,22 +142,17 @@ public class AuthService implements UserDetailsService {
      */
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        log.info("Attempting to load user by email: {}", email);
-
-        // 檢查使用者是否存在
-        if (!userStore.containsKey(email)) {
-            log.warn("User details not found for email: {}", email);
-            throw new UsernameNotFoundException("User not found with email: " + email);
+        // 取得已加密的使用者密碼；單次查詢同時判斷使用者是否存在
+        long startedAt = System.nanoTime();
+        Optional<String> storedHash = userStore.findPasswordHash(email);
+        authMetrics.recordUserLookup(startedAt, storedHash.isPresent());
+        if (storedHash.isEmpty()) {
+            throw AuthFailures.userNotFound();
         }
 
-        // 取得已加密的使用者密碼
-        String hashedPassword = userStore.get(email);
-        log.debug("Successfully retrieved user details for email: {}", email);
-
         // 返回 Spring Security 需要的 UserDetails 物件。
-        log.debug("User details loaded for email: {}", email);
         // TODO: 加入使用者權限
-        return new User(email, hashedPassword, Collections.emptyList());
+        return new User(email, storedHash.get(), Collections.emptyList());
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,89 @@
+package io.github.montytsai.authkit.service;
+
+import io.github.montytsai.authkit.config.PasswordHashingProperties;
+import io.github.montytsai.authkit.crypto.PasswordAlgorithms;
+import io.github.montytsai.authkit.crypto.PasswordAlgorithms.HashingParameters;
+import io.github.montytsai.authkit.dto.PasswordEncoderCalibration;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * **密碼雜湊校準服務。**
+ * 在當前機器上量測各演算法與參數組合的驗證速度，作為調整 {@code authkit.password.*} 的依據。
+ *
+ * @apiNote 量測的是 {@link PasswordEncoder#matches}（登入時付出的成本），直接呼叫未經工作池的加密器，
+ *          會佔用呼叫端執行緒與一個 CPU 核心數秒；同一時間只允許一次校準，應在離峰時段執行。
+ * @implNote 每組參數先雜湊一次（兼作暖機），再至少量測 {@value #MIN_SAMPLES} 次、直到累計超過
+ *           {@value #SAMPLE_BUDGET_MILLIS} ms 或達 {@value #MAX_SAMPLES} 次，取中位數。
+ */
+@Service
+public class PasswordEncoderCalibrationService {
+
+    private static final String PROBE_PASSWORD = "calibration-probe";
+    private static final int MIN_SAMPLES = 3;
+    private static final int MAX_SAMPLES = 20;
+    private static final long SAMPLE_BUDGET_MILLIS = 250;
+
+    private final PasswordAlgorithms passwordAlgorithms;
+    private final int workers;
+
+    public PasswordEncoderCalibrationService(PasswordAlgorithms passwordAlgorithms,
+                                             PasswordHashingProperties hashingProperties) {
+        this.passwordAlgorithms = passwordAlgorithms;
+        this.workers = Math.min(hashingProperties.resolvePoolSize(), Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * 量測目前設定的各演算法參數，以及（可選）OWASP 建議的參考參數。
+     *
+     * @param includePresets 是否一併量測 {@link PasswordAlgorithms#referencePresets()}。
+     * @return 依「目前設定、參考參數」順序排列的量測結果，重複的參數組合只量測一次。
+     */
+    public synchronized List<PasswordEncoderCalibration> calibrate(boolean includePresets) {
+        Map<String, HashingParameters> candidates = new LinkedHashMap<>();
+        passwordAlgorithms.configured().forEach(parameters -> candidates.putIfAbsent(key(parameters), parameters));
+        if (includePresets) {
+            PasswordAlgorithms.referencePresets().forEach(parameters -> candidates.putIfAbsent(key(parameters), parameters));
+        }
+
+        String activeKey = key(passwordAlgorithms.activeParameters());
+        List<PasswordEncoderCalibration> results = new ArrayList<>(candidates.size());
+        candidates.forEach((key, parameters) -> results.add(measure(parameters, key.equals(activeKey))));
+        return results;
+    }
+
+    private PasswordEncoderCalibration measure(HashingParameters parameters, boolean active) {
+        PasswordEncoder encoder = parameters.encoder();
+        String hash = encoder.encode(PROBE_PASSWORD);
+
+        long[] samples = new long[MAX_SAMPLES];
+        int count = 0;
+        long elapsed = 0;
+        while (count < MIN_SAMPLES || (count < MAX_SAMPLES && elapsed < TimeUnit.MILLISECONDS.toNanos(SAMPLE_BUDGET_MILLIS))) {
+            long started = System.nanoTime();
+            encoder.matches(PROBE_PASSWORD, hash);
+            samples[count] = System.nanoTime() - started;
+            elapsed += samples[count++];
+        }
+        Arrays.sort(samples, 0, count);
+        double medianNanos = Math.max(1, samples[count / 2]);
+
+        double hashesPerSecond = TimeUnit.SECONDS.toNanos(1) / medianNanos;
+        return new PasswordEncoderCalibration(parameters.algorithm().id(), parameters.parameters(),
+                parameters.memoryBytes() / 1024, active, medianNanos / TimeUnit.MILLISECONDS.toNanos(1),
+                hashesPerSecond, hashesPerSecond * workers);
+    }
+
+    private static String key(HashingParameters parameters) {
+        return parameters.algorithm().id() + ':' + parameters.parameters();
+    }
+
+}
@@ -0,0 +1,88 @@
+package io.github.montytsai.authkit.service;
+
+import io.github.montytsai.authkit.config.PasswordEncoderProperties;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * **密碼雜湊背景升級服務 (Rehash-on-Login)。**
+ * 登入成功且 {@link PasswordEncoder#upgradeEncoding(String)} 判定雜湊過時（例如成本因子低於目前設定）時，
+ * 在背景以明文密碼重新雜湊並寫回儲存層，讓雜湊成本隨硬體演進而不需停機或批次遷移。
+ *
+ * @implNote 升級任務在單一背景執行緒上排隊（佇列有上限，滿了就丟棄，下次登入會再嘗試）；同一帳號同時只會有一個升級任務。
+ *           實際的雜湊運算在哪裡執行取決於注入的 {@link PasswordEncoder}：
+ * - **Servlet 堆疊：** {@code passwordEncoder} 以 {@link io.github.montytsai.authkit.crypto.BoundedPasswordEncoder} 包裝，
+ *   重新雜湊與登入一樣經由有界工作池並佔用准入名額，工作池飽和時該次升級失敗並記錄警告。
+ * - **響應式堆疊：** {@code reactivePasswordEncoder} 未包裝，重新雜湊直接在這條背景執行緒上執行，
+ *   不經過工作池也不佔用准入名額；因為只有一條執行緒，最多比 {@code authkit.hashing.pool-size} 多出一個同時進行的雜湊。
+ */
+@Slf4j
+@Service
+public class PasswordUpgradeService {
+
+    private static final int QUEUE_CAPACITY = 1_000;
+
+    private final AuthService authService;
+    private final PasswordEncoder passwordEncoder;
+    private final boolean enabled;
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+    private final ThreadPoolExecutor executor;
+
+    public PasswordUpgradeService(AuthService authService, PasswordEncoder passwordEncoder,
+                                  PasswordEncoderProperties properties) {
+        this.authService = authService;
+        this.passwordEncoder = passwordEncoder;
+        this.enabled = properties.isRehashOnLogin();
+        this.executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY), runnable -> {
+                    Thread thread = new Thread(runnable, "password-upgrade");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * 若雜湊需要升級，排入背景重新雜湊。
+     *
+     * @param email 剛登入成功的使用者 email。
+     * @param rawPassword 本次驗證通過的明文密碼。
+     * @param currentHash 本次驗證所使用的已儲存雜湊。
+     */
+    public void upgradeIfNeeded(String email, String rawPassword, String currentHash) {
+        if (!enabled || !passwordEncoder.upgradeEncoding(currentHash) || !pending.add(email)) {
+            return;
+        }
+        try {
+            executor.execute(() -> upgrade(email, rawPassword, currentHash));
+        } catch (RejectedExecutionException ex) {
+            pending.remove(email);
+            log.debug("Password upgrade queue is full; skipped user {}.", email);
+        }
+    }
+
+    private void upgrade(String email, String rawPassword, String currentHash) {
+        try {
+            authService.upgradePasswordHash(email, currentHash, passwordEncoder.encode(rawPassword));
+        } catch (RuntimeException ex) {
+            log.warn("Password hash upgrade failed for user {}: {}", email, ex.getMessage());
+        } finally {
+            pending.remove(email);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+
+}
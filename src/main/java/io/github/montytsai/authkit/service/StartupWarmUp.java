@@ -0,0 +1,245 @@
+package io.github.montytsai.authkit.service;
+
+import io.github.montytsai.authkit.config.WarmUpProperties;
+import io.github.montytsai.authkit.security.LoginRateLimiter;
+import io.github.montytsai.authkit.store.UserStore;
+import io.github.montytsai.authkit.store.WarmUpUserStore;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.env.Environment;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * **啟動暖機 (Startup Warm-up)。**
+ * 在新節點接受流量前，經由本機 HTTP 對自己發送合成的註冊、登入成功、密碼錯誤、格式錯誤與帳號不存在的請求，
+ * 讓 BCrypt、Jackson 綁定、Bean Validation、過濾鏈與例外處理的熱路徑先被 JIT 編譯，直到循環延遲穩定為止。
+ *
+ * @apiNote 以 {@link ApplicationRunner} 同步執行：Spring Boot 在所有 runner 完成後才把就緒狀態切為 {@code ACCEPTING_TRAFFIC}，
+ *          因此暖機期間 {@code /actuator/health/readiness} 回傳 503；{@code warmUp} 健康指標另外提供進度與結果。
+ *          暖機失敗或逾時不會阻止節點就緒，只記錄警告。
+ * @implNote
+ * - **完整路徑：** 請求經過 Tomcat（或 Netty）、Spring Security 過濾鏈與控制器，與真實流量走相同的程式碼。
+ * - **拋棄式儲存：** 合成帳號使用 {@value WarmUpUserStore#SYNTHETIC_DOMAIN} 網域，由 {@link WarmUpUserStore} 分流到記憶體，
+ *   暖機結束即丟棄；同樣的 email 在暖機期間也豁免登入限流，避免耗盡本機 IP 的配額或留下鎖定狀態。
+ * - **穩定判斷：** 每 {@code window-cycles} 個循環取一次延遲中位數，與前一個視窗相差在 {@code tolerance} 內即為穩定；
+ *   連續 {@code stable-windows} 個穩定視窗且已執行 {@code min-cycles} 個循環後結束。
+ *   帳號不存在的請求延遲抽樣自真實驗證耗時（見 {@link io.github.montytsai.authkit.security.LoginTimingEqualizer}），不計入循環延遲。
+ * - 合成請求同樣計入登入指標、事件日誌與稽核日誌，可由 email 網域辨識。
+ */
+@Slf4j
+public final class StartupWarmUp implements ApplicationRunner {
+
+    /**
+     * 暖機狀態。
+     */
+    public enum Phase {
+        /** 未啟用暖機。 */
+        DISABLED,
+        /** 等待 Web 伺服器啟動。 */
+        PENDING,
+        /** 暖機進行中。 */
+        RUNNING,
+        /** 延遲已穩定。 */
+        COMPLETED,
+        /** 達到循環數或時間上限，延遲尚未穩定。 */
+        LIMIT_REACHED,
+        /** 暖機請求失敗，已略過。 */
+        FAILED
+    }
+
+    private static final String PASSWORD = "warm-up-password";
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final WarmUpProperties properties;
+    private final WarmUpUserStore throwawayStore;
+    private final LoginRateLimiter loginRateLimiter;
+    private final Environment environment;
+
+    private volatile Phase phase;
+    private volatile int cycles;
+    private volatile double medianCycleMillis = Double.NaN;
+
+    /**
+     * @param properties 暖機設定。
+     * @param userStore 使用者儲存；啟用暖機時必須是 {@link WarmUpUserStore}。
+     * @param loginRateLimiter 暖機期間豁免合成帳號的登入限流器。
+     * @param environment 用於取得實際的伺服器埠號與路徑前綴。
+     * @throws IllegalStateException 如果啟用暖機但使用者儲存未經 {@link WarmUpUserStore} 包裝。
+     */
+    public StartupWarmUp(WarmUpProperties properties, UserStore userStore, LoginRateLimiter loginRateLimiter,
+                         Environment environment) {
+        this.properties = properties;
+        this.loginRateLimiter = loginRateLimiter;
+        this.environment = environment;
+        if (!properties.isEnabled()) {
+            this.throwawayStore = null;
+            this.phase = Phase.DISABLED;
+        } else if (userStore instanceof WarmUpUserStore store) {
+            this.throwawayStore = store;
+            this.phase = Phase.PENDING;
+        } else {
+            throw new IllegalStateException("authkit.warm-up.enabled=true requires the UserStore to be wrapped in "
+                    + "WarmUpUserStore (see UserStoreConfig)");
+        }
+    }
+
+    public Phase getPhase() {
+        return phase;
+    }
+
+    public int getCycles() {
+        return cycles;
+    }
+
+    /**
+     * @return 最近一個量測視窗的循環延遲中位數（毫秒）；尚未量測時為 {@code NaN}。
+     */
+    public double getMedianCycleMillis() {
+        return medianCycleMillis;
+    }
+
+    /**
+     * 暖機是否已結束（或未啟用），節點可以接受流量。
+     */
+    public boolean isFinished() {
+        Phase current = phase;
+        return current != Phase.PENDING && current != Phase.RUNNING;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (phase != Phase.PENDING) {
+            return;
+        }
+        Integer port = environment.getProperty("local.server.port", Integer.class);
+        if (port == null) {
+            log.warn("Skipping warm-up: no embedded web server is running.");
+            finish(Phase.FAILED);
+            return;
+        }
+
+        phase = Phase.RUNNING;
+        loginRateLimiter.setExemption(throwawayStore::isSynthetic);
+        long startedAt = System.nanoTime();
+        Phase result = Phase.FAILED;
+        try {
+            result = warmUp("http://127.0.0.1:" + port + contextPath(), startedAt);
+            log.info("Warm-up {} after {} cycles in {} ms; median cycle latency {} ms.",
+                    result == Phase.COMPLETED ? "completed" : "stopped at its limit", cycles,
+                    Duration.ofNanos(System.nanoTime() - startedAt).toMillis(), Math.round(medianCycleMillis));
+        } catch (IOException | RuntimeException ex) {
+            log.warn("Warm-up failed after {} cycles; accepting traffic without it.", cycles, ex);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            log.warn("Warm-up interrupted after {} cycles.", cycles);
+        } finally {
+            finish(result);
+        }
+    }
+
+    private Phase warmUp(String baseUri, long startedAt) throws IOException, InterruptedException {
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(REQUEST_TIMEOUT)
+                .build();
+        long deadline = startedAt + properties.getTimeout().toNanos();
+        long[] window = new long[Math.max(1, properties.getWindowCycles())];
+        double previousMedian = Double.NaN;
+        int stableWindows = 0;
+
+        for (int cycle = 0; cycle < properties.getMaxCycles(); cycle++) {
+            if (System.nanoTime() - deadline > 0) {
+                return Phase.LIMIT_REACHED;
+            }
+            window[cycle % window.length] = runCycle(client, baseUri, cycle);
+            cycles = cycle + 1;
+            if (cycles % window.length == 0) {
+                double median = median(window);
+                medianCycleMillis = median / 1_000_000.0;
+                stableWindows = isStable(previousMedian, median, properties.getTolerance()) ? stableWindows + 1 : 0;
+                previousMedian = median;
+                if (stableWindows >= properties.getStableWindows() && cycles >= properties.getMinCycles()) {
+                    return Phase.COMPLETED;
+                }
+            }
+        }
+        return Phase.LIMIT_REACHED;
+    }
+
+    /**
+     * 執行一個暖機循環。
+     *
+     * @return 註冊、登入成功、密碼錯誤與格式錯誤四個請求的總延遲（奈秒）。
+     */
+    private long runCycle(HttpClient client, String baseUri, int cycle) throws IOException, InterruptedException {
+        String email = "user-" + cycle + "@" + WarmUpUserStore.SYNTHETIC_DOMAIN;
+        long startedAt = System.nanoTime();
+        post(client, baseUri, "/api/auth/register", credentials(email, PASSWORD), 201);
+        post(client, baseUri, "/api/auth/login", credentials(email, PASSWORD), 200);
+        post(client, baseUri, "/api/auth/login", credentials(email, "wrong-" + PASSWORD), 401);
+        post(client, baseUri, "/api/auth/login", credentials("not-an-email", ""), 400);
+        long elapsed = System.nanoTime() - startedAt;
+
+        String absent = "absent-" + cycle + "@" + WarmUpUserStore.SYNTHETIC_DOMAIN;
+        post(client, baseUri, "/api/auth/login", credentials(absent, PASSWORD), 401);
+        return elapsed;
+    }
+
+    private static void post(HttpClient client, String baseUri, String path, String body, int expectedStatus)
+            throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUri + path))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        if (status != expectedStatus) {
+            throw new IllegalStateException("POST " + path + " returned " + status + ", expected " + expectedStatus);
+        }
+    }
+
+    private static String credentials(String email, String password) {
+        return "{\"email\":\"" + email + "\",\"password\":\"" + password + "\"}";
+    }
+
+    private String contextPath() {
+        String path = environment.getProperty("server.servlet.context-path",
+                environment.getProperty("spring.webflux.base-path", ""));
+        return path.endsWith("/") ? path.substring(0, path.length() - 1) : path;
+    }
+
+    private void finish(Phase result) {
+        loginRateLimiter.setExemption(null);
+        throwawayStore.finish();
+        phase = result;
+    }
+
+    /**
+     * 判斷相鄰兩個視窗的延遲中位數是否在容許的相對變化內。
+     *
+     * @param previous 前一個視窗的中位數；第一個視窗為 {@code NaN}。
+     * @param current 目前視窗的中位數。
+     * @param tolerance 最大相對變化。
+     * @return 穩定時回傳 {@code true}。
+     */
+    static boolean isStable(double previous, double current, double tolerance) {
+        return !Double.isNaN(previous) && previous > 0 && Math.abs(current - previous) / previous <= tolerance;
+    }
+
+    private static double median(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        int middle = sorted.length / 2;
+        return sorted.length % 2 == 1 ? sorted[middle] : (sorted[middle - 1] + sorted[middle]) / 2.0;
+    }
+
+}
@@ -0,0 +1,33 @@
+package io.github.montytsai.authkit.service;
+
+import org.springframework.http.MediaType;
+
+/**
+ * **批次匯入支援的內容格式。**
+ */
+public enum UserImportFormat {
+
+    /**
+     * 每行一個 JSON 物件：{@code {"email":"...","password":"..."}} 或 {@code {"email":"...","passwordHash":"..."}}。
+     */
+    NDJSON,
+
+    /**
+     * 第一行為標題列，欄位為 {@code email} 加上 {@code password} 或 {@code passwordHash}（亦接受 {@code password_hash}）。
+     */
+    CSV;
+
+    public static final String NDJSON_VALUE = MediaType.APPLICATION_NDJSON_VALUE;
+    public static final String CSV_VALUE = "text/csv";
+
+    /**
+     * 依請求的 {@code Content-Type} 決定格式。
+     *
+     * @param contentType 請求的 {@link MediaType}。
+     * @return 對應的格式；非 CSV 時一律視為 NDJSON。
+     */
+    public static UserImportFormat from(MediaType contentType) {
+        return contentType != null && contentType.isCompatibleWith(MediaType.parseMediaType(CSV_VALUE)) ? CSV : NDJSON;
+    }
+
+}
@@ -0,0 +1,423 @@
+package io.github.montytsai.authkit.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.montytsai.authkit.config.PasswordHashingProperties;
+import io.github.montytsai.authkit.config.UserImportProperties;
+import io.github.montytsai.authkit.dto.RegisterRequest;
+import io.github.montytsai.authkit.dto.UserImportRecord;
+import io.github.montytsai.authkit.dto.UserImportResult;
+import io.github.montytsai.authkit.dto.UserImportResult.Status;
+import io.github.montytsai.authkit.dto.UserImportSummary;
+import io.github.montytsai.authkit.exception.HashingCapacityExceededException;
+import io.github.montytsai.authkit.exception.InvalidImportFormatException;
+import io.github.montytsai.authkit.security.VerifiedCredentialCache;
+import io.github.montytsai.authkit.store.UserStore;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * **批次匯入使用者服務 (Bulk User Import)。**
+ * 以串流方式逐行讀取 NDJSON 或 CSV，每 {@code authkit.import.batch-size} 筆為一批：
+ * 驗證、略過已存在的帳號、平行雜湊明文密碼，再以 {@link UserStore#saveAllIfAbsent(Map)} 一次寫入。
+ *
+ * @apiNote 每筆紀錄都會產生一個 {@link UserImportResult}；已存在的 email 不會被覆寫，
+ *          因此中斷後可直接重新匯入同一份檔案。
+ * @implNote
+ * - **明文密碼：** 在專用的匯入執行緒上呼叫 {@link PasswordEncoder}，並行度預設為雜湊工作池的一半，
+ *   設定值也不超過工作池大小減一，因此匯入期間至少保留一個雜湊執行緒給線上登入；
+ *   工作池暫時飽和時短暫退避重試。工作池只有一個執行緒時，匯入與登入輪流使用它。
+ * - **預先雜湊：** 接受 {@link PasswordEncoder} 能驗證的格式，直接寫入、完全不雜湊：
+ *   BCrypt（可帶 {@code {bcrypt}} 前綴）、Argon2id（可帶 {@code {argon2}} 前綴，沒有前綴時補上）
+ *   與帶 {@code {scrypt}} 前綴的 scrypt；其他格式會被標記為 {@link Status#INVALID}。
+ * - 整次匯入只記錄一行摘要日誌，不逐筆記錄。
+ * - **管理帳號：** 建構時依 {@code authkit.import.admin-password-hashes} 建立尚不存在的管理帳號；
+ *   管理 email 不開放公開註冊（見 {@link AuthService#register(RegisterRequest)}），這是建立第一個管理帳號的途徑。
+ */
+@Slf4j
+@Service
+public class UserImportService {
+
+    private static final Pattern BCRYPT_PATTERN =
+            Pattern.compile("\\A(\\{bcrypt})?\\$2([ayb])?\\$(\\d\\d)\\$[./0-9A-Za-z]{53}\\z");
+    private static final Pattern ARGON2_PATTERN = Pattern.compile(
+            "\\A(\\{argon2})?\\$argon2id\\$v=19\\$m=\\d{1,9},t=\\d{1,9},p=\\d{1,4}\\$[A-Za-z0-9+/]+={0,2}\\$[A-Za-z0-9+/]+={0,2}\\z");
+    private static final Pattern SCRYPT_PATTERN =
+            Pattern.compile("\\A\\{scrypt}\\$[0-9a-f]{1,16}\\$[A-Za-z0-9+/]+={0,2}\\$[A-Za-z0-9+/]+={0,2}\\z");
+    private static final String ARGON2_PREFIX = "{argon2}";
+    private static final int HASHING_RETRIES = 50;
+    private static final long HASHING_RETRY_BACKOFF_MILLIS = 20;
+
+    private final UserStore userStore;
+    private final PasswordEncoder passwordEncoder;
+    private final VerifiedCredentialCache credentialCache;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+    private final ExecutorService hashingExecutor;
+
+    public UserImportService(UserStore userStore, PasswordEncoder passwordEncoder,
+                             VerifiedCredentialCache credentialCache, Validator validator, ObjectMapper objectMapper,
+                             UserImportProperties properties, PasswordHashingProperties hashingProperties) {
+        this.userStore = userStore;
+        this.passwordEncoder = passwordEncoder;
+        this.credentialCache = credentialCache;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.batchSize = Math.max(1, properties.getBatchSize());
+        provisionAdmins(properties);
+
+        int poolSize = hashingProperties.resolvePoolSize();
+        int parallelism = properties.getParallelism() > 0
+                ? Math.min(properties.getParallelism(), Math.max(1, poolSize - 1)) : Math.max(1, poolSize / 2);
+        AtomicInteger counter = new AtomicInteger();
+        this.hashingExecutor = new ThreadPoolExecutor(parallelism, parallelism, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "user-import-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * 匯入一份使用者清單。
+     *
+     * @param body 請求內容，以 UTF-8 逐行讀取。
+     * @param format 內容格式。
+     * @param sink 每批處理完成後收到該批的結果（依輸入順序）。
+     * @return 整次匯入的統計結果。
+     * @throws IOException 如果讀取請求內容失敗。
+     * @throws InvalidImportFormatException 如果 CSV 缺少標題列或必要欄位。
+     */
+    public UserImportSummary importUsers(InputStream body, UserImportFormat format,
+                                         Consumer<List<UserImportResult>> sink) throws IOException {
+        long started = System.nanoTime();
+        UserImportSummary summary = new UserImportSummary();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+
+        long lineNumber = 0;
+        CsvColumns columns = null;
+        if (format == UserImportFormat.CSV) {
+            columns = CsvColumns.fromHeader(reader.readLine());
+            lineNumber++;
+        }
+
+        List<Entry> batch = new ArrayList<>(batchSize);
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            batch.add(columns != null ? columns.parse(lineNumber, line) : parseJson(lineNumber, line));
+            if (batch.size() == batchSize) {
+                sink.accept(process(batch, summary));
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            sink.accept(process(batch, summary));
+        }
+
+        summary.setElapsedMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        log.info("User import finished: {} records, {} created, {} existing, {} invalid, {} failed in {} ms.",
+                summary.getTotal(), summary.getCreated(), summary.getExists(), summary.getInvalid(),
+                summary.getFailed(), summary.getElapsedMillis());
+        return summary;
+    }
+
+    private List<UserImportResult> process(List<Entry> batch, UserImportSummary summary) {
+        // 1. 驗證並略過重複或已存在的帳號，只為真正要新增的紀錄付出雜湊成本
+        Set<String> seen = new HashSet<>();
+        for (Entry entry : batch) {
+            if (entry.result != null) {
+                continue;
+            }
+            String problem = validate(entry);
+            if (problem != null) {
+                entry.reject(Status.INVALID, problem);
+            } else if (!seen.add(entry.email)) {
+                entry.reject(Status.EXISTS, "Duplicate email in this import.");
+            } else if (userStore.exists(entry.email)) {
+                entry.reject(Status.EXISTS, "User already exists.");
+            } else if (entry.passwordHash == null) {
+                String password = entry.password;
+                entry.hashing = CompletableFuture.supplyAsync(() -> encode(password), hashingExecutor);
+            }
+        }
+
+        // 2. 等待平行雜湊完成
+        Map<String, String> pending = new LinkedHashMap<>();
+        for (Entry entry : batch) {
+            if (entry.result != null) {
+                continue;
+            }
+            if (entry.hashing != null) {
+                try {
+                    entry.passwordHash = entry.hashing.join();
+                } catch (CompletionException ex) {
+                    entry.reject(Status.FAILED, "Password hashing failed.");
+                    continue;
+                }
+            }
+            pending.put(entry.email, entry.passwordHash);
+        }
+
+        // 3. 整批寫入；寫入前一刻才被其他請求註冊的帳號會被略過
+        Set<String> inserted = Set.of();
+        boolean writeFailed = false;
+        if (!pending.isEmpty()) {
+            try {
+                inserted = userStore.saveAllIfAbsent(pending);
+            } catch (RuntimeException ex) {
+                log.error("User import batch of {} records failed to write: {}", pending.size(), ex.getMessage(), ex);
+                writeFailed = true;
+            }
+        }
+
+        List<UserImportResult> results = new ArrayList<>(batch.size());
+        for (Entry entry : batch) {
+            if (entry.result == null) {
+                if (writeFailed) {
+                    entry.reject(Status.FAILED, "User store write failed.");
+                } else if (inserted.contains(entry.email)) {
+                    credentialCache.invalidate(entry.email);
+                    entry.result = new UserImportResult(entry.line, entry.email, Status.CREATED, null);
+                } else {
+                    entry.reject(Status.EXISTS, "User already exists.");
+                }
+            }
+            summary.record(entry.result.getStatus());
+            results.add(entry.result);
+        }
+        return results;
+    }
+
+    /**
+     * 沿用 {@link RegisterRequest} 的驗證規則；預先雜湊的紀錄只驗證 email 與雜湊格式。
+     *
+     * @return 不合法時回傳原因，合法時回傳 {@code null}。
+     */
+    private String validate(Entry entry) {
+        String problem = firstViolation(validator.validateValue(RegisterRequest.class, "email", entry.email));
+        if (problem != null) {
+            return problem;
+        }
+        if (entry.passwordHash != null) {
+            String normalized = normalizeHash(entry.passwordHash);
+            if (normalized == null) {
+                return "Unsupported password hash format; expected BCrypt, Argon2id or {scrypt}.";
+            }
+            entry.passwordHash = normalized;
+            return null;
+        }
+        return firstViolation(validator.validateValue(RegisterRequest.class, "password", entry.password));
+    }
+
+    /**
+     * 建立 {@code authkit.import.admin-password-hashes} 中尚不存在的管理帳號。
+     *
+     * @throws IllegalStateException 如果 email 不在 {@code authkit.import.admins} 中，或雜湊格式不受支援。
+     */
+    private void provisionAdmins(UserImportProperties properties) {
+        for (Map.Entry<String, String> admin : properties.getAdminPasswordHashes().entrySet()) {
+            String email = admin.getKey();
+            if (!properties.getAdmins().contains(email)) {
+                throw new IllegalStateException(
+                        "authkit.import.admin-password-hashes entry " + email + " is not listed in authkit.import.admins");
+            }
+            String passwordHash = normalizeHash(admin.getValue());
+            if (passwordHash == null) {
+                throw new IllegalStateException("Unsupported password hash format for admin " + email
+                        + "; expected BCrypt, Argon2id or {scrypt}.");
+            }
+            if (userStore.saveIfAbsent(email, passwordHash)) {
+                log.info("Created admin account {}", email);
+            } else if (!userStore.findPasswordHash(email).map(passwordHash::equals).orElse(false)) {
+                log.warn("Admin account {} already exists with a different password hash; leaving it unchanged", email);
+            }
+        }
+    }
+
+    /**
+     * 確認雜湊為 {@link PasswordEncoder} 能驗證的格式；沒有前綴的 Argon2id 補上 {@code {argon2}}，
+     * 沒有前綴的 BCrypt 維持原樣（預設以 BCrypt 驗證）。
+     *
+     * @return 要寫入儲存層的雜湊；不支援的格式回傳 {@code null}。
+     */
+    static String normalizeHash(String passwordHash) {
+        if (BCRYPT_PATTERN.matcher(passwordHash).matches() || SCRYPT_PATTERN.matcher(passwordHash).matches()) {
+            return passwordHash;
+        }
+        if (ARGON2_PATTERN.matcher(passwordHash).matches()) {
+            return passwordHash.startsWith(ARGON2_PREFIX) ? passwordHash : ARGON2_PREFIX + passwordHash;
+        }
+        return null;
+    }
+
+    private String encode(String password) {
+        for (int attempt = 0; ; attempt++) {
+            try {
+                return passwordEncoder.encode(password);
+            } catch (HashingCapacityExceededException ex) {
+                if (attempt >= HASHING_RETRIES) {
+                    throw ex;
+                }
+                try {
+                    Thread.sleep(HASHING_RETRY_BACKOFF_MILLIS);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw ex;
+                }
+            }
+        }
+    }
+
+    private Entry parseJson(long lineNumber, String line) {
+        try {
+            UserImportRecord record = objectMapper.readValue(line, UserImportRecord.class);
+            return new Entry(lineNumber, record.getEmail(), record.getPassword(), record.getPasswordHash());
+        } catch (JsonProcessingException ex) {
+            Entry entry = new Entry(lineNumber, null, null, null);
+            entry.reject(Status.INVALID, "Malformed JSON record.");
+            return entry;
+        }
+    }
+
+    private static String firstViolation(Set<ConstraintViolation<RegisterRequest>> violations) {
+        return violations.isEmpty() ? null : violations.iterator().next().getMessage();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        hashingExecutor.shutdown();
+    }
+
+    /**
+     * 處理中的單筆紀錄。
+     */
+    private static final class Entry {
+
+        private final long line;
+        private final String email;
+        private final String password;
+        private String passwordHash;
+        private CompletableFuture<String> hashing;
+        private UserImportResult result;
+
+        private Entry(long line, String email, String password, String passwordHash) {
+            this.line = line;
+            this.email = email;
+            this.password = password;
+            this.passwordHash = passwordHash;
+        }
+
+        private void reject(Status status, String message) {
+            this.result = new UserImportResult(line, email, status, message);
+        }
+
+    }
+
+    /**
+     * 由 CSV 標題列決定的欄位位置。
+     *
+     * @implNote 支援 RFC 4180 的雙引號欄位與 {@code ""} 跳脫，但不支援跨行欄位。
+     */
+    private record CsvColumns(int email, int password, int passwordHash) {
+
+        static CsvColumns fromHeader(String header) {
+            if (header == null) {
+                throw new InvalidImportFormatException("CSV import requires a header row.");
+            }
+            List<String> names = split(header.startsWith("\uFEFF") ? header.substring(1) : header);
+            int email = -1;
+            int password = -1;
+            int passwordHash = -1;
+            for (int i = 0; i < names.size(); i++) {
+                switch (names.get(i).trim().toLowerCase(Locale.ROOT)) {
+                    case "email" -> email = i;
+                    case "password" -> password = i;
+                    case "passwordhash", "password_hash" -> passwordHash = i;
+                    default -> {
+                        // 其他欄位忽略
+                    }
+                }
+            }
+            if (email < 0 || (password < 0 && passwordHash < 0)) {
+                throw new InvalidImportFormatException(
+                        "CSV header must contain 'email' and 'password' or 'passwordHash' columns.");
+            }
+            return new CsvColumns(email, password, passwordHash);
+        }
+
+        Entry parse(long lineNumber, String line) {
+            List<String> fields = split(line);
+            return new Entry(lineNumber, field(fields, email), field(fields, password), field(fields, passwordHash));
+        }
+
+        private static String field(List<String> fields, int index) {
+            if (index < 0 || index >= fields.size()) {
+                return null;
+            }
+            String value = fields.get(index);
+            return value.isEmpty() ? null : value;
+        }
+
+        private static List<String> split(String line) {
+            List<String> fields = new ArrayList<>();
+            StringBuilder current = new StringBuilder();
+            boolean quoted = false;
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (quoted) {
+                    if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        current.append('"');
+                        i++;
+                    } else if (c == '"') {
+                        quoted = false;
+                    } else {
+                        current.append(c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(current.toString());
+                    current.setLength(0);
+                } else {
+                    current.append(c);
+                }
+            }
+            fields.add(current.toString());
+            return fields;
+        }
+
+    }
+
+}
@@ -0,0 +1,222 @@
+package io.github.montytsai.authkit.store;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.github.montytsai.authkit.config.UserStoreProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.springframework.cache.Cache;
+import org.springframework.lang.Nullable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiConsumer;
+
+/**
+ * **兩層快取的使用者儲存裝飾器。**
+ * 在任一 {@link UserStore}（通常是 {@link JdbcUserStore}）前加上本地快取與可選的第二層快取，讓重複登入不必每次往返資料庫。
+ *
+ * @implNote
+ * - **第一層：** Caffeine（W-TinyLFU 准入與淘汰），依 {@code max-size} 與 TTL 限制；查無使用者的結果也會以較短的
+ *   {@code negative-ttl} 快取，避免同一個不存在的 email 反覆打到資料庫。
+ * - **第二層（可選）：** 任一 Spring {@link Cache}（例如 Redis、Hazelcast 的 {@code CacheManager} 所提供），只保存存在的使用者，
+ *   讓多個節點共用暖快取；第一層未命中時先查第二層，再查儲存。
+ * - **請求合併：** 第一層保存的是 {@link CompletableFuture}；同一 email 的並行查詢共用同一個載入，
+ *   例如 500 個同時登入同一帳號只會讀取儲存一次。載入在第一個呼叫者的執行緒上執行，不另開執行緒。
+ * - **寫入即失效：** 所有寫入操作先寫入儲存，再從兩層快取移除對應的 email（註冊、雜湊升級、匯入與刪除皆經過此處）。
+ *   寫入期間仍在進行中的載入不會把舊值留在快取中：載入完成時若其 future 已被移除，會一併清除它寫入第二層的值。
+ *   其他節點的第一層仍可能保留舊值直到 TTL 到期，因此 TTL 應設為可接受的跨節點不一致時間。
+ */
+public final class CachingUserStore implements UserStore, Closeable {
+
+    private final UserStore delegate;
+    private final AsyncCache<String, Optional<String>> local;
+    private final ConcurrentMap<String, CompletableFuture<Optional<String>>> entries;
+    @Nullable
+    private final Cache remote;
+
+    private final Counter localHits;
+    private final Counter localMisses;
+    private final Counter remoteHits;
+    private final Counter remoteMisses;
+    private final Counter coalesced;
+
+    /**
+     * @param delegate 實際的使用者儲存。
+     * @param properties 快取大小與存活時間設定。
+     * @param remote 第二層快取；{@code null} 代表只使用本地快取。
+     * @param meterRegistry 用於輸出命中率指標。
+     */
+    public CachingUserStore(UserStore delegate, UserStoreProperties.Cache properties, @Nullable Cache remote,
+                            MeterRegistry meterRegistry) {
+        if (properties.getTtl().isNegative() || properties.getTtl().isZero()
+                || properties.getNegativeTtl().isNegative() || properties.getNegativeTtl().isZero()) {
+            throw new IllegalArgumentException("authkit.store.cache.ttl and negative-ttl must be positive");
+        }
+        this.delegate = delegate;
+        this.remote = remote;
+        this.local = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxSize())
+                .expireAfter(Expiry.<String, Optional<String>>creating(
+                        (email, hash) -> hash.isPresent() ? properties.getTtl() : properties.getNegativeTtl()))
+                .buildAsync();
+        this.entries = local.asMap();
+
+        this.localHits = cacheCounter(meterRegistry, "l1", "hit");
+        this.localMisses = cacheCounter(meterRegistry, "l1", "miss");
+        this.remoteHits = cacheCounter(meterRegistry, "l2", "hit");
+        this.remoteMisses = cacheCounter(meterRegistry, "l2", "miss");
+        this.coalesced = Counter.builder("authkit.user.cache.coalesced")
+                .description("User lookups that joined another request's in-flight load instead of reading the store")
+                .register(meterRegistry);
+        Gauge.builder("authkit.user.cache.size", local, cache -> cache.synchronous().estimatedSize())
+                .description("Estimated number of entries in the local user cache")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Optional<String> findPasswordHash(String email) {
+        CompletableFuture<Optional<String>> cached = entries.get(email);
+        if (cached != null) {
+            if (cached.isDone()) {
+                localHits.increment();
+            } else {
+                coalesced.increment();
+            }
+            return join(cached);
+        }
+
+        CompletableFuture<Optional<String>> loading = new CompletableFuture<>();
+        CompletableFuture<Optional<String>> existing = entries.putIfAbsent(email, loading);
+        if (existing != null) {
+            coalesced.increment();
+            return join(existing);
+        }
+
+        localMisses.increment();
+        try {
+            Optional<String> hash = load(email, loading);
+            loading.complete(hash);
+            return hash;
+        } catch (RuntimeException ex) {
+            entries.remove(email, loading);
+            loading.completeExceptionally(ex);
+            throw ex;
+        }
+    }
+
+    @Override
+    public boolean exists(String email) {
+        return findPasswordHash(email).isPresent();
+    }
+
+    @Override
+    public void save(String email, String passwordHash) {
+        delegate.save(email, passwordHash);
+        invalidate(email);
+    }
+
+    @Override
+    public boolean saveIfAbsent(String email, String passwordHash) {
+        boolean inserted = delegate.saveIfAbsent(email, passwordHash);
+        if (inserted) {
+            invalidate(email);
+        }
+        return inserted;
+    }
+
+    @Override
+    public Set<String> saveAllIfAbsent(Map<String, String> passwordHashes) {
+        Set<String> inserted = delegate.saveAllIfAbsent(passwordHashes);
+        inserted.forEach(this::invalidate);
+        return inserted;
+    }
+
+    @Override
+    public boolean replacePasswordHash(String email, String expectedHash, String newHash) {
+        boolean replaced = delegate.replacePasswordHash(email, expectedHash, newHash);
+        invalidate(email);
+        return replaced;
+    }
+
+    @Override
+    public boolean delete(String email) {
+        boolean deleted = delegate.delete(email);
+        invalidate(email);
+        return deleted;
+    }
+
+    @Override
+    public void forEachUser(BiConsumer<String, String> action) {
+        delegate.forEachUser(action);
+    }
+
+    @Override
+    public long size() {
+        return delegate.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (delegate instanceof Closeable closeable) {
+            closeable.close();
+        }
+    }
+
+    private Optional<String> load(String email, CompletableFuture<Optional<String>> loading) {
+        if (remote != null) {
+            String hash = remote.get(email, String.class);
+            if (hash != null) {
+                remoteHits.increment();
+                return Optional.of(hash);
+            }
+            remoteMisses.increment();
+        }
+
+        Optional<String> hash = delegate.findPasswordHash(email);
+        if (remote != null && hash.isPresent()) {
+            remote.put(email, hash.get());
+            if (entries.get(email) != loading) {
+                // 載入期間發生寫入：舊值可能已覆蓋寫入端的失效，再清除一次
+                remote.evict(email);
+            }
+        }
+        return hash;
+    }
+
+    private void invalidate(String email) {
+        entries.remove(email);
+        if (remote != null) {
+            remote.evict(email);
+        }
+    }
+
+    private static Optional<String> join(CompletableFuture<Optional<String>> future) {
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    private static Counter cacheCounter(MeterRegistry registry, String level, String result) {
+        return Counter.builder("authkit.user.cache.requests")
+                .description("User cache lookups by cache level and result")
+                .tag("level", level)
+                .tag("result", result)
+                .register(registry);
+    }
+
+}
@@ -0,0 +1,273 @@
+package io.github.montytsai.authkit.store;
+
+import io.github.montytsai.authkit.store.ClusterProtocol.Frame;
+import io.github.montytsai.authkit.store.ClusterProtocol.PayloadReader;
+import io.github.montytsai.authkit.store.ClusterProtocol.PayloadWriter;
+
+import javax.net.ssl.SSLContext;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * **連向單一遠端節點的叢集客戶端。**
+ * 以 {@link UserStore} 的形式，經 {@link ClusterProtocol} 對遠端節點的本機儲存執行操作，並保留少量閒置連線重複使用。
+ *
+ * @implNote 每個連線一次只處理一個請求；同時有多個請求時各自借用或建立連線，用完歸還，閒置連線超過上限即關閉。
+ *           任何 I/O 錯誤都會關閉該連線並以 {@link UncheckedIOException} 通知呼叫端，由呼叫端決定是否改用其他擁有者；
+ *           遠端節點可達但拒絕請求（密鑰錯誤、儲存拋出異常）時則拋出 {@link IllegalStateException}，不視為節點失效。
+ *           新連線先以挑戰-回應確認遠端節點也知道叢集密鑰，才送出任何請求；提供 {@link SSLContext} 時連線改用 TLS。
+ */
+final class ClusterPeer implements UserStore, Closeable {
+
+    private final String id;
+    private final InetSocketAddress address;
+    private final byte[] secret;
+    private final SSLContext sslContext;
+    private final int connectTimeoutMillis;
+    private final int requestTimeoutMillis;
+    private final int maxIdleConnections;
+
+    private final ConcurrentLinkedDeque<Connection> idle = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger idleCount = new AtomicInteger();
+    private volatile boolean closed;
+
+    ClusterPeer(String id, String secret, Duration connectTimeout, Duration requestTimeout, int maxIdleConnections,
+                SSLContext sslContext) {
+        InetSocketAddress unresolved = ClusterProtocol.address(id);
+        this.id = id;
+        this.address = new InetSocketAddress(unresolved.getHostString(), unresolved.getPort());
+        this.secret = secret.getBytes(StandardCharsets.UTF_8);
+        this.sslContext = sslContext;
+        this.connectTimeoutMillis = Math.toIntExact(connectTimeout.toMillis());
+        this.requestTimeoutMillis = Math.toIntExact(requestTimeout.toMillis());
+        this.maxIdleConnections = maxIdleConnections;
+    }
+
+    String id() {
+        return id;
+    }
+
+    /**
+     * @return 遠端節點的啟動識別 (incarnation)；節點重新啟動後會改變。
+     * @throws UncheckedIOException 如果遠端節點無法連線或未回應。
+     */
+    long ping() {
+        return call(ClusterProtocol.OP_PING, out -> {
+        }, DataInputStream::readLong);
+    }
+
+    @Override
+    public Optional<String> findPasswordHash(String email) {
+        return call(ClusterProtocol.OP_FIND, out -> out.writeUTF(email),
+                in -> in.readBoolean() ? Optional.of(in.readUTF()) : Optional.empty());
+    }
+
+    @Override
+    public boolean exists(String email) {
+        return findPasswordHash(email).isPresent();
+    }
+
+    @Override
+    public void save(String email, String passwordHash) {
+        saveAll(Map.of(email, passwordHash));
+    }
+
+    /**
+     * 新增或覆寫多位使用者的密碼雜湊；用於將主要擁有者的寫入複製到其他擁有者。
+     */
+    void saveAll(Map<String, String> passwordHashes) {
+        call(ClusterProtocol.OP_PUT_ALL, out -> ClusterProtocol.writeEntries(out, passwordHashes), in -> null);
+    }
+
+    @Override
+    public Set<String> saveAllIfAbsent(Map<String, String> passwordHashes) {
+        List<String> emails = new ArrayList<>(passwordHashes.keySet());
+        return call(ClusterProtocol.OP_PUT_ALL_IF_ABSENT, out -> ClusterProtocol.writeEntries(out, passwordHashes),
+                in -> {
+                    int count = in.readInt();
+                    if (count != emails.size()) {
+                        throw new IOException("Cluster peer " + id + " answered " + count + " of " + emails.size()
+                                + " entries");
+                    }
+                    Set<String> inserted = new LinkedHashSet<>();
+                    for (String email : emails) {
+                        if (in.readBoolean()) {
+                            inserted.add(email);
+                        }
+                    }
+                    return inserted;
+                });
+    }
+
+    @Override
+    public boolean replacePasswordHash(String email, String expectedHash, String newHash) {
+        return call(ClusterProtocol.OP_REPLACE, out -> {
+            out.writeUTF(email);
+            out.writeUTF(expectedHash);
+            out.writeUTF(newHash);
+        }, DataInputStream::readBoolean);
+    }
+
+    @Override
+    public boolean delete(String email) {
+        return call(ClusterProtocol.OP_DELETE, out -> out.writeUTF(email), DataInputStream::readBoolean);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @return 遠端節點本機儲存的使用者數量，包含它作為副本保存的使用者。
+     */
+    @Override
+    public long size() {
+        return call(ClusterProtocol.OP_SIZE, out -> {
+        }, DataInputStream::readLong);
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        Connection connection;
+        while ((connection = idle.poll()) != null) {
+            connection.closeQuietly();
+        }
+    }
+
+    private <T> T call(byte op, PayloadWriter request, PayloadReader<T> response) {
+        Connection connection;
+        try {
+            connection = borrow();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot reach cluster peer " + id, ex);
+        }
+        try {
+            T result = connection.exchange(op, request, response);
+            release(connection);
+            return result;
+        } catch (IOException ex) {
+            connection.closeQuietly();
+            throw new UncheckedIOException("Cluster peer " + id + " failed to answer", ex);
+        } catch (RuntimeException ex) {
+            connection.closeQuietly();
+            throw ex;
+        }
+    }
+
+    private Connection borrow() throws IOException {
+        if (closed) {
+            throw new IOException("Cluster peer " + id + " is closed");
+        }
+        Connection connection = idle.poll();
+        if (connection != null) {
+            idleCount.decrementAndGet();
+            return connection;
+        }
+        connection = new Connection(connect());
+        try {
+            handshake(connection);
+            return connection;
+        } catch (IOException | RuntimeException ex) {
+            connection.closeQuietly();
+            throw ex;
+        }
+    }
+
+    /**
+     * 以挑戰-回應互相證明知道叢集密鑰；遠端節點的證明不正確時不送出任何請求。
+     */
+    private void handshake(Connection connection) throws IOException {
+        byte[] clientNonce = ClusterProtocol.nonce();
+        byte[] serverNonce = connection.exchange(ClusterProtocol.OP_HELLO, out -> {
+            out.writeInt(ClusterProtocol.MAGIC);
+            out.writeByte(ClusterProtocol.VERSION);
+            out.write(clientNonce);
+        }, in -> {
+            byte[] nonce = ClusterProtocol.readBytes(in, ClusterProtocol.NONCE_BYTES);
+            byte[] proof = ClusterProtocol.readBytes(in, ClusterProtocol.PROOF_BYTES);
+            if (!MessageDigest.isEqual(proof,
+                    ClusterProtocol.proof(secret, ClusterProtocol.ROLE_SERVER, clientNonce, nonce))) {
+                throw new IllegalStateException("Cluster peer " + id + " failed to prove the cluster secret");
+            }
+            return nonce;
+        });
+        connection.exchange(ClusterProtocol.OP_AUTH,
+                out -> out.write(ClusterProtocol.proof(secret, ClusterProtocol.ROLE_CLIENT, clientNonce, serverNonce)),
+                in -> null);
+    }
+
+    private void release(Connection connection) {
+        if (!closed && idleCount.incrementAndGet() <= maxIdleConnections) {
+            idle.push(connection);
+        } else {
+            idleCount.decrementAndGet();
+            connection.closeQuietly();
+        }
+    }
+
+    private Socket connect() throws IOException {
+        Socket socket = sslContext == null ? new Socket() : sslContext.getSocketFactory().createSocket();
+        try {
+            socket.setTcpNoDelay(true);
+            socket.setSoTimeout(requestTimeoutMillis);
+            socket.connect(address, connectTimeoutMillis);
+            return socket;
+        } catch (IOException ex) {
+            socket.close();
+            throw ex;
+        }
+    }
+
+    /**
+     * 一條已完成握手的連線。
+     */
+    private final class Connection {
+
+        private final Socket socket;
+        private final DataInputStream in;
+        private final DataOutputStream out;
+
+        Connection(Socket socket) throws IOException {
+            this.socket = socket;
+            this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        }
+
+        <T> T exchange(byte op, PayloadWriter request, PayloadReader<T> response) throws IOException {
+            ClusterProtocol.writeFrame(out, op, request);
+            Frame frame = ClusterProtocol.readFrame(in);
+            if (frame.code() != ClusterProtocol.STATUS_OK) {
+                throw new IllegalStateException("Cluster peer " + id + " rejected the request: "
+                        + frame.payload().readUTF());
+            }
+            return response.read(frame.payload());
+        }
+
+        void closeQuietly() {
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+                // 連線已失效，關閉失敗不影響呼叫端
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,207 @@
+package io.github.montytsai.authkit.store;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * **叢集節點間的二進位協定。**
+ * 每個 TCP 連線上依序交換請求與回應訊框，一個請求對應一個回應：
+ *
+ * <pre>
+ * 請求:  [length:int][op:byte][payload]
+ * 回應:  [length:int][status:byte][payload]
+ * 字串:  [byteLength:unsigned short][modified UTF-8]（{@link DataOutputStream#writeUTF(String)}）
+ * </pre>
+ *
+ * 連線以 {@link #OP_HELLO} 與 {@link #OP_AUTH} 雙向挑戰-回應開始，密鑰本身不會出現在線路上：
+ * 客戶端送出隨機數，伺服端回傳自己的隨機數與證明，客戶端驗證後再送出自己的證明；
+ * 證明為 {@code HMAC-SHA256(secret, role || clientNonce || serverNonce)}，兩方的 role 不同，無法把對方的證明反射回去。
+ * 任一方驗證失敗即回傳錯誤並關閉連線。
+ *
+ * <pre>
+ * HELLO              [magic:int][version:byte][clientNonce:16]     → OK [serverNonce:16][serverProof:32]
+ * AUTH               [clientProof:32]                              → OK
+ * PING               -                                             → OK [incarnation:long]
+ * FIND               [email]                                       → OK [found:boolean][hash]?
+ * PUT_ALL            [count:int]([email][hash])*                   → OK
+ * PUT_ALL_IF_ABSENT  [count:int]([email][hash])*                   → OK [count:int]([inserted:boolean])*
+ * REPLACE            [email][expectedHash][newHash]                → OK [replaced:boolean]
+ * DELETE             [email]                                       → OK [deleted:boolean]
+ * SIZE               -                                             → OK [size:long]
+ * 任何請求                                                         → ERROR [message]
+ * </pre>
+ *
+ * @implNote 每個訊框先在記憶體中組好再以一次寫入送出，長度前綴讓接收端一次讀完整個訊框。
+ *           伺服端只對本機儲存執行請求，不會再轉送，因此節點對環的看法暫時不一致時也不會形成轉送迴圈。
+ */
+final class ClusterProtocol {
+
+    static final int MAGIC = 0x414B434C; // "AKCL"
+    static final byte VERSION = 2;
+
+    static final byte OP_HELLO = 1;
+    static final byte OP_PING = 2;
+    static final byte OP_FIND = 3;
+    static final byte OP_PUT_ALL = 4;
+    static final byte OP_PUT_ALL_IF_ABSENT = 5;
+    static final byte OP_REPLACE = 6;
+    static final byte OP_DELETE = 7;
+    static final byte OP_SIZE = 8;
+    static final byte OP_AUTH = 9;
+
+    static final byte STATUS_OK = 0;
+    static final byte STATUS_ERROR = 1;
+
+    /** 單一訊框的上限，防止損毀或惡意的長度欄位讓接收端配置過大的緩衝區。 */
+    static final int MAX_FRAME_BYTES = 16 * 1024 * 1024;
+
+    /** 通過密鑰驗證前（{@link #OP_HELLO}、{@link #OP_AUTH}）可接受的訊框上限；未驗證的連線不能讓伺服端配置大緩衝區。 */
+    static final int MAX_HELLO_FRAME_BYTES = 512;
+
+    static final int NONCE_BYTES = 16;
+    static final int PROOF_BYTES = 32;
+    static final byte ROLE_SERVER = 1;
+    static final byte ROLE_CLIENT = 2;
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private ClusterProtocol() {
+    }
+
+    /**
+     * 寫入訊框內容的回呼。
+     */
+    @FunctionalInterface
+    interface PayloadWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    /**
+     * 讀取訊框內容的回呼。
+     */
+    @FunctionalInterface
+    interface PayloadReader<T> {
+        T read(DataInputStream in) throws IOException;
+    }
+
+    /**
+     * 已讀取的訊框：代碼（請求的 op 或回應的 status）與內容。
+     */
+    record Frame(byte code, DataInputStream payload) {
+    }
+
+    static void writeFrame(DataOutputStream out, byte code, PayloadWriter payload) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(64);
+        DataOutputStream body = new DataOutputStream(buffer);
+        body.writeInt(0);
+        body.writeByte(code);
+        payload.write(body);
+        body.flush();
+        byte[] frame = buffer.toByteArray();
+        int length = frame.length - Integer.BYTES;
+        if (length > MAX_FRAME_BYTES) {
+            throw new IOException("Cluster frame of " + length + " bytes exceeds the limit");
+        }
+        frame[0] = (byte) (length >>> 24);
+        frame[1] = (byte) (length >>> 16);
+        frame[2] = (byte) (length >>> 8);
+        frame[3] = (byte) length;
+        out.write(frame);
+        out.flush();
+    }
+
+    static Frame readFrame(DataInputStream in) throws IOException {
+        return readFrame(in, MAX_FRAME_BYTES);
+    }
+
+    /**
+     * 讀取一個訊框，長度超過 {@code maxBytes} 時不配置緩衝區直接失敗。
+     */
+    static Frame readFrame(DataInputStream in, int maxBytes) throws IOException {
+        int length = in.readInt();
+        if (length < 1 || length > maxBytes) {
+            throw new IOException("Invalid cluster frame length " + length);
+        }
+        byte[] frame = new byte[length];
+        in.readFully(frame);
+        return new Frame(frame[0], new DataInputStream(new ByteArrayInputStream(frame, 1, length - 1)));
+    }
+
+    static void writeEntries(DataOutputStream out, Map<String, String> entries) throws IOException {
+        out.writeInt(entries.size());
+        for (Map.Entry<String, String> entry : entries.entrySet()) {
+            out.writeUTF(entry.getKey());
+            out.writeUTF(entry.getValue());
+        }
+    }
+
+    static Map<String, String> readEntries(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        if (count < 0) {
+            throw new IOException("Invalid cluster entry count " + count);
+        }
+        Map<String, String> entries = new LinkedHashMap<>(Math.min(count, 1024) * 2);
+        for (int i = 0; i < count; i++) {
+            entries.put(in.readUTF(), in.readUTF());
+        }
+        return entries;
+    }
+
+    static byte[] nonce() {
+        byte[] nonce = new byte[NONCE_BYTES];
+        RANDOM.nextBytes(nonce);
+        return nonce;
+    }
+
+    /**
+     * 計算握手證明 {@code HMAC-SHA256(secret, role || clientNonce || serverNonce)}。
+     */
+    static byte[] proof(byte[] secret, byte role, byte[] clientNonce, byte[] serverNonce) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(new SecretKeySpec(secret, HMAC_ALGORITHM));
+            mac.update(role);
+            mac.update(clientNonce);
+            mac.update(serverNonce);
+            return mac.doFinal();
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException("HmacSHA256 is not available", ex);
+        }
+    }
+
+    static byte[] readBytes(DataInputStream in, int length) throws IOException {
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+    /**
+     * 解析 {@code host:port} 形式的成員識別。
+     *
+     * @throws IllegalArgumentException 如果格式不正確。
+     */
+    static InetSocketAddress address(String member) {
+        int separator = member.lastIndexOf(':');
+        if (separator <= 0 || separator == member.length() - 1) {
+            throw new IllegalArgumentException("Cluster member must be host:port, got '" + member + "'");
+        }
+        try {
+            return InetSocketAddress.createUnresolved(member.substring(0, separator),
+                    Integer.parseInt(member.substring(separator + 1)));
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Cluster member must be host:port, got '" + member + "'", ex);
+        }
+    }
+
+}
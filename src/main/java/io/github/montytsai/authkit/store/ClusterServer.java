@@ -0,0 +1,254 @@
+package io.github.montytsai.authkit.store;
+
+import io.github.montytsai.authkit.store.ClusterProtocol.Frame;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLServerSocket;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * **叢集節點的伺服端。**
+ * 接受其他節點的 {@link ClusterProtocol} 連線，並對本機儲存執行請求。
+ *
+ * @apiNote 連線在通過 {@link ClusterProtocol#OP_HELLO}、{@link ClusterProtocol#OP_AUTH} 的挑戰-回應前不會處理任何其他請求。
+ *          挑戰-回應只證明對方知道密鑰，不保護之後的內容：提供 {@link SSLContext} 時叢集埠改用 TLS 並要求用戶端憑證 (mTLS)，
+ *          請求與其中的密碼雜湊才會加密且無法被竄改；未提供時只能在可信任的網路中使用。
+ * @implNote 每條連線由一個常駐的背景執行緒處理，執行緒數（即同時連線數）上限為 {@code maxConnections}，超過時直接關閉新連線。
+ *           驗證前的連線只有 {@code handshakeTimeout} 可以完成 TLS 與挑戰-回應，且訊框不得超過
+ *           {@link ClusterProtocol#MAX_HELLO_FRAME_BYTES}；不知道密鑰的客戶端因此無法長期佔用執行緒或讓伺服端配置大緩衝區。
+ *           通過驗證後取消讀取逾時，讓對方的閒置連線保持開啟。
+ */
+@Slf4j
+final class ClusterServer implements Closeable {
+
+    private final ServerSocket serverSocket;
+    private final UserStore local;
+    private final byte[] secret;
+    private final long incarnation;
+    private final int handshakeTimeoutMillis;
+    private final ThreadPoolExecutor workers;
+    private final Set<Socket> connections = ConcurrentHashMap.newKeySet();
+    private volatile boolean closed;
+
+    /**
+     * 綁定埠號並開始接受連線。
+     *
+     * @param bindAddress 監聽位址；埠號為 {@code 0} 時由作業系統指派。
+     * @param local 本機儲存。
+     * @param secret 叢集共用密鑰。
+     * @param incarnation 本節點的啟動識別，由 {@code PING} 回傳。
+     * @param handshakeTimeout 新連線完成握手的期限。
+     * @param maxConnections 同時服務的連線數上限。
+     * @param sslContext 叢集埠的 TLS 設定；{@code null} 代表明文。
+     * @throws IOException 如果無法綁定埠號。
+     * @throws IllegalArgumentException 如果 {@code maxConnections} 不是正數。
+     */
+    ClusterServer(InetSocketAddress bindAddress, UserStore local, String secret, long incarnation,
+                  Duration handshakeTimeout, int maxConnections, SSLContext sslContext) throws IOException {
+        this.local = local;
+        this.secret = secret.getBytes(StandardCharsets.UTF_8);
+        if (maxConnections < 1) {
+            throw new IllegalArgumentException("authkit.store.cluster.max-connections must be positive");
+        }
+        this.incarnation = incarnation;
+        this.handshakeTimeoutMillis = Math.toIntExact(handshakeTimeout.toMillis());
+        this.serverSocket = sslContext == null
+                ? new ServerSocket() : sslContext.getServerSocketFactory().createServerSocket();
+        if (serverSocket instanceof SSLServerSocket tls) {
+            tls.setNeedClientAuth(true);
+        }
+        serverSocket.setReuseAddress(true);
+        serverSocket.bind(bindAddress);
+
+        AtomicInteger threads = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(0, maxConnections, 60L, TimeUnit.SECONDS, new SynchronousQueue<>(),
+                task -> {
+                    Thread thread = new Thread(task, "authkit-cluster-" + threads.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        Thread acceptor = new Thread(this::acceptLoop, "authkit-cluster-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    /**
+     * 實際監聽的埠號。
+     */
+    int port() {
+        return serverSocket.getLocalPort();
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        serverSocket.close();
+        for (Socket connection : connections) {
+            connection.close();
+        }
+        workers.shutdownNow();
+    }
+
+    private void acceptLoop() {
+        while (!closed) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                socket.setSoTimeout(handshakeTimeoutMillis);
+                connections.add(socket);
+                try {
+                    workers.execute(() -> serve(socket));
+                } catch (RejectedExecutionException ex) {
+                    connections.remove(socket);
+                    socket.close();
+                    log.debug("Cluster server rejected a connection from {}: {} connections already open.",
+                            socket.getRemoteSocketAddress(), workers.getMaximumPoolSize());
+                }
+            } catch (IOException ex) {
+                if (!closed) {
+                    log.warn("Cluster server failed to accept a connection.", ex);
+                }
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (socket;
+             DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()))) {
+            if (!handshake(in, out)) {
+                return;
+            }
+            socket.setSoTimeout(0);
+            while (!closed) {
+                Frame request = ClusterProtocol.readFrame(in);
+                try {
+                    handle(request, out);
+                } catch (RuntimeException ex) {
+                    log.warn("Cluster request {} from {} failed.", request.code(), socket.getRemoteSocketAddress(), ex);
+                    error(out, ex.getClass().getSimpleName() + ": " + ex.getMessage());
+                }
+            }
+        } catch (SocketTimeoutException ex) {
+            log.debug("Cluster connection from {} did not complete the handshake in time.",
+                    socket.getRemoteSocketAddress());
+        } catch (EOFException | SocketException ex) {
+            // 對方關閉連線或伺服端正在關閉
+        } catch (IOException ex) {
+            log.debug("Cluster connection from {} closed: {}", socket.getRemoteSocketAddress(), ex.getMessage());
+        } finally {
+            connections.remove(socket);
+        }
+    }
+
+    /**
+     * 以挑戰-回應驗證對方知道叢集密鑰，並以自己的證明讓對方驗證本節點。
+     */
+    private boolean handshake(DataInputStream connection, DataOutputStream out) throws IOException {
+        Frame hello = ClusterProtocol.readFrame(connection, ClusterProtocol.MAX_HELLO_FRAME_BYTES);
+        DataInputStream in = hello.payload();
+        if (hello.code() != ClusterProtocol.OP_HELLO || in.readInt() != ClusterProtocol.MAGIC) {
+            error(out, "Expected a HELLO frame");
+            return false;
+        }
+        if (in.readByte() != ClusterProtocol.VERSION) {
+            error(out, "Unsupported protocol version");
+            return false;
+        }
+        byte[] clientNonce = ClusterProtocol.readBytes(in, ClusterProtocol.NONCE_BYTES);
+        byte[] serverNonce = ClusterProtocol.nonce();
+        ok(out, body -> {
+            body.write(serverNonce);
+            body.write(ClusterProtocol.proof(secret, ClusterProtocol.ROLE_SERVER, clientNonce, serverNonce));
+        });
+
+        Frame auth = ClusterProtocol.readFrame(connection, ClusterProtocol.MAX_HELLO_FRAME_BYTES);
+        byte[] expected = ClusterProtocol.proof(secret, ClusterProtocol.ROLE_CLIENT, clientNonce, serverNonce);
+        if (auth.code() != ClusterProtocol.OP_AUTH || !MessageDigest.isEqual(expected,
+                ClusterProtocol.readBytes(auth.payload(), ClusterProtocol.PROOF_BYTES))) {
+            error(out, "Invalid cluster secret");
+            return false;
+        }
+        ok(out, body -> {
+        });
+        return true;
+    }
+
+    private void handle(Frame request, DataOutputStream out) throws IOException {
+        DataInputStream in = request.payload();
+        switch (request.code()) {
+            case ClusterProtocol.OP_PING -> ok(out, body -> body.writeLong(incarnation));
+            case ClusterProtocol.OP_FIND -> {
+                Optional<String> hash = local.findPasswordHash(in.readUTF());
+                ok(out, body -> {
+                    body.writeBoolean(hash.isPresent());
+                    if (hash.isPresent()) {
+                        body.writeUTF(hash.get());
+                    }
+                });
+            }
+            case ClusterProtocol.OP_PUT_ALL -> {
+                ClusterProtocol.readEntries(in).forEach(local::save);
+                ok(out, body -> {
+                });
+            }
+            case ClusterProtocol.OP_PUT_ALL_IF_ABSENT -> {
+                Map<String, String> entries = ClusterProtocol.readEntries(in);
+                Set<String> inserted = local.saveAllIfAbsent(entries);
+                ok(out, body -> {
+                    body.writeInt(entries.size());
+                    for (String email : entries.keySet()) {
+                        body.writeBoolean(inserted.contains(email));
+                    }
+                });
+            }
+            case ClusterProtocol.OP_REPLACE -> {
+                boolean replaced = local.replacePasswordHash(in.readUTF(), in.readUTF(), in.readUTF());
+                ok(out, body -> body.writeBoolean(replaced));
+            }
+            case ClusterProtocol.OP_DELETE -> {
+                boolean deleted = local.delete(in.readUTF());
+                ok(out, body -> body.writeBoolean(deleted));
+            }
+            case ClusterProtocol.OP_SIZE -> {
+                long size = local.size();
+                ok(out, body -> body.writeLong(size));
+            }
+            default -> error(out, "Unknown operation " + request.code());
+        }
+    }
+
+    private static void ok(DataOutputStream out, ClusterProtocol.PayloadWriter body) throws IOException {
+        ClusterProtocol.writeFrame(out, ClusterProtocol.STATUS_OK, body);
+    }
+
+    private static void error(DataOutputStream out, String message) throws IOException {
+        ClusterProtocol.writeFrame(out, ClusterProtocol.STATUS_ERROR, body -> body.writeUTF(String.valueOf(message)));
+    }
+
+}
@@ -0,0 +1,525 @@
+package io.github.montytsai.authkit.store;
+
+import io.github.montytsai.authkit.config.UserStoreProperties;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.net.ssl.SSLContext;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * **分區並複製的叢集使用者儲存。**
+ * 以 {@link ConsistentHashRing} 依 email 將使用者分散到多個 auth-kit 節點，每位使用者保存在環上順時針的前
+ * {@code replication} 個節點；本節點負責的使用者存放在包裝的本機引擎中，其餘經 {@link ClusterProtocol} 轉送給擁有者。
+ *
+ * @apiNote 登入時只有雜湊查詢 ({@code loadUserByUsername}) 被轉送，密碼驗證仍在收到請求的節點上執行，
+ *          因此每個節點的雜湊算力都能用上，吞吐量隨節點數近乎線性成長。
+ *          成員清單是靜態的 ({@code members})：列出的節點回應心跳即加入雜湊環，無回應即離開，重新啟動的節點會被視為重新加入。
+ *          {@code replication=1} 時節點離線即無法查到其使用者；記憶體引擎的節點重新啟動後，資料由其他副本補回。
+ *          節點間的請求攜帶密碼雜湊並能覆寫任何帳號，因此叢集埠預設必須使用 TLS 並互相驗證憑證 (mTLS)，
+ *          只有明確設定 {@code allow-plaintext=true} 時才允許明文；密鑰以挑戰-回應驗證，不會在線路上傳送。
+ * @implNote
+ * - **讀取：** 依序詢問擁有者（本節點若是擁有者則先查本機），取第一個找到的結果；
+ *   擁有者在重新平衡期間可能尚未收到資料，因此主要擁有者查無時會再詢問其他副本。
+ * - **寫入：** 條件式寫入（{@code saveIfAbsent}、{@code replacePasswordHash}）只由本節點雜湊環上的主要擁有者決定結果，
+ *   成功後再覆寫到其餘擁有者；主要擁有者無法連線時直接失敗，不改由其他副本決定。無條件寫入與刪除送到所有擁有者。
+ * - **失效偵測：** 只有心跳能改變雜湊環：心跳每 {@code heartbeat-interval} 檢查一次所有成員，連續 {@code failure-threshold}
+ *   次無回應才移出，並以啟動識別 (incarnation) 辨認重新啟動的節點。請求路徑上的 I/O 錯誤（例如對忙碌節點的單次逾時）
+ *   只改用下一個擁有者讀取，並在該節點下次回應心跳時重新推送它應有的資料，補上可能漏掉的副本寫入。
+ * - **不一致的時間窗：** 各節點獨立觀察成員，對雜湊環的看法可能短暫不同：節點加入後約一個心跳週期內，
+ *   以及節點未停止但與部分成員斷線（網路分割）超過 {@code failure-threshold} 個心跳週期時。
+ *   此時兩個節點可能各自以不同的主要擁有者決定條件式寫入，同一 email 可能在兩處各以不同雜湊建立成功；
+ *   重新平衡以不覆寫的方式推送，保留新擁有者已有的雜湊。
+ * - **重新平衡：** 成員變動後，各節點走訪本機資料，把擁有者新增（或重新啟動）的使用者以不覆寫的批次寫入推送過去，
+ *   並在推送全部成功後刪除本節點已不再負責的使用者。重新平衡在單一背景執行緒上依序執行。
+ * - {@link #size()} 為各節點本機數量總和除以實際副本數，重新平衡期間為近似值。
+ */
+@Slf4j
+public final class ClusteredUserStore implements UserStore, Closeable {
+
+    private static final int REBALANCE_BATCH = 512;
+    /** 挑戰-回應的證明可被離線猜測，密鑰至少需要這麼長。 */
+    private static final int MIN_SECRET_BYTES = 16;
+
+    private final UserStore local;
+    private final String self;
+    private final int replication;
+    private final int virtualNodes;
+    private final long incarnation;
+    private final int failureThreshold;
+    private final Map<String, ClusterPeer> peers;
+    private final ClusterServer server;
+    private final ScheduledExecutorService membership;
+
+    private final Object membershipLock = new Object();
+    /** 連續未回應心跳的次數；只在心跳執行緒上存取。 */
+    private final Map<String, Integer> missedHeartbeats = new HashMap<>();
+    /** 請求路徑上發生 I/O 錯誤、回應心跳後需重新推送資料的成員。 */
+    private final Set<String> resync = ConcurrentHashMap.newKeySet();
+    /** 存活成員 → 啟動識別；只在持有 {@link #membershipLock} 時替換。 */
+    private volatile Map<String, Long> liveMembers;
+    private volatile ConsistentHashRing ring;
+
+    /**
+     * 以明文叢集埠啟動；僅限設定 {@code allow-plaintext=true} 時使用。
+     *
+     * @see #ClusteredUserStore(UserStore, UserStoreProperties.Cluster, SSLContext)
+     */
+    public ClusteredUserStore(UserStore local, UserStoreProperties.Cluster properties) throws IOException {
+        this(local, properties, null);
+    }
+
+    /**
+     * 啟動叢集埠、探測其他成員並開始心跳。
+     *
+     * @param local 本節點負責的使用者所在的本機引擎；必須支援 {@link UserStore#forEachUser}。
+     * @param properties 叢集設定。
+     * @param sslContext 叢集埠與對外連線使用的 TLS 設定（伺服端要求用戶端憑證）；{@code null} 代表明文。
+     * @throws IOException 如果無法綁定叢集埠。
+     * @throws IllegalArgumentException 如果設定不完整、密鑰過短、{@code self} 不在 {@code members} 中，
+     *                                  或未提供 TLS 設定且未允許明文。
+     */
+    public ClusteredUserStore(UserStore local, UserStoreProperties.Cluster properties, SSLContext sslContext)
+            throws IOException {
+        if (properties.getSecret().getBytes(StandardCharsets.UTF_8).length < MIN_SECRET_BYTES) {
+            throw new IllegalArgumentException("authkit.store.cluster.secret must be at least " + MIN_SECRET_BYTES
+                    + " bytes when the cluster is enabled");
+        }
+        if (sslContext == null && !properties.isAllowPlaintext()) {
+            throw new IllegalArgumentException("authkit.store.cluster.ssl-bundle must name a TLS bundle for the "
+                    + "cluster port; set authkit.store.cluster.allow-plaintext=true only on a trusted network");
+        }
+        if (!properties.getMembers().contains(properties.getSelf())) {
+            throw new IllegalArgumentException("authkit.store.cluster.self=" + properties.getSelf()
+                    + " must be one of authkit.store.cluster.members");
+        }
+        if (properties.getReplication() < 1 || properties.getVirtualNodes() < 1 || properties.getFailureThreshold() < 1) {
+            throw new IllegalArgumentException(
+                    "authkit.store.cluster.replication, virtual-nodes and failure-threshold must be positive");
+        }
+        this.local = local;
+        this.self = properties.getSelf();
+        this.replication = properties.getReplication();
+        this.virtualNodes = properties.getVirtualNodes();
+        this.failureThreshold = properties.getFailureThreshold();
+        this.incarnation = ThreadLocalRandom.current().nextLong();
+
+        Map<String, ClusterPeer> clients = new LinkedHashMap<>();
+        for (String member : new LinkedHashSet<>(properties.getMembers())) {
+            if (!member.equals(self)) {
+                clients.put(member, new ClusterPeer(member, properties.getSecret(), properties.getConnectTimeout(),
+                        properties.getRequestTimeout(), properties.getMaxIdleConnections(), sslContext));
+            }
+        }
+        this.peers = Map.copyOf(clients);
+        this.liveMembers = Map.of(self, incarnation);
+        this.ring = new ConsistentHashRing(Set.of(self), virtualNodes);
+
+        InetSocketAddress bind = new InetSocketAddress(properties.getBindAddress(),
+                ClusterProtocol.address(self).getPort());
+        this.server = new ClusterServer(bind, local, properties.getSecret(), incarnation,
+                properties.getHandshakeTimeout(), properties.getMaxConnections(), sslContext);
+        this.membership = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "authkit-cluster-membership");
+            thread.setDaemon(true);
+            return thread;
+        });
+        heartbeat();
+        long interval = properties.getHeartbeatInterval().toMillis();
+        membership.scheduleWithFixedDelay(this::heartbeat, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 目前雜湊環上的成員（本節點看到的存活成員），依字典序排列。
+     */
+    public List<String> getLiveMembers() {
+        return ring.members();
+    }
+
+    /**
+     * 負責 email 的節點，依優先順序排列。
+     */
+    public List<String> ownersOf(String email) {
+        return ring.owners(email, replication);
+    }
+
+    @Override
+    public Optional<String> findPasswordHash(String email) {
+        boolean answered = false;
+        for (String owner : readOrder(email)) {
+            try {
+                Optional<String> hash = storeOf(owner).findPasswordHash(email);
+                if (hash.isPresent()) {
+                    return hash;
+                }
+                answered = true;
+            } catch (UncheckedIOException ex) {
+                suspect(owner, ex);
+            }
+        }
+        if (!answered) {
+            throw new UncheckedIOException("No owner of the user is reachable", new IOException(email));
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public boolean exists(String email) {
+        return findPasswordHash(email).isPresent();
+    }
+
+    @Override
+    public void save(String email, String passwordHash) {
+        List<String> owners = ownersOf(email);
+        if (replicate(owners, Map.of(email, passwordHash)) == 0) {
+            throw unreachable(owners);
+        }
+    }
+
+    @Override
+    public boolean saveIfAbsent(String email, String passwordHash) {
+        return decide(email, store -> store.saveIfAbsent(email, passwordHash), Map.of(email, passwordHash));
+    }
+
+    @Override
+    public Set<String> saveAllIfAbsent(Map<String, String> passwordHashes) {
+        Map<String, Map<String, String>> byPrimary = new HashMap<>();
+        passwordHashes.forEach((email, hash) ->
+                byPrimary.computeIfAbsent(ownersOf(email).get(0), owner -> new LinkedHashMap<>()).put(email, hash));
+
+        Set<String> inserted = new HashSet<>();
+        for (Map.Entry<String, Map<String, String>> group : byPrimary.entrySet()) {
+            Set<String> groupInserted;
+            try {
+                groupInserted = storeOf(group.getKey()).saveAllIfAbsent(group.getValue());
+            } catch (UncheckedIOException ex) {
+                suspect(group.getKey(), ex);
+                throw ex;
+            }
+            Map<String, Map<String, String>> byReplica = new HashMap<>();
+            for (String email : groupInserted) {
+                for (String owner : ownersOf(email)) {
+                    if (!owner.equals(group.getKey())) {
+                        byReplica.computeIfAbsent(owner, key -> new LinkedHashMap<>())
+                                .put(email, group.getValue().get(email));
+                    }
+                }
+            }
+            byReplica.forEach((owner, entries) -> replicate(List.of(owner), entries));
+            inserted.addAll(groupInserted);
+        }
+
+        Set<String> ordered = new LinkedHashSet<>();
+        for (String email : passwordHashes.keySet()) {
+            if (inserted.contains(email)) {
+                ordered.add(email);
+            }
+        }
+        return ordered;
+    }
+
+    @Override
+    public boolean replacePasswordHash(String email, String expectedHash, String newHash) {
+        return decide(email, store -> store.replacePasswordHash(email, expectedHash, newHash), Map.of(email, newHash));
+    }
+
+    @Override
+    public boolean delete(String email) {
+        List<String> owners = ownersOf(email);
+        boolean deleted = false;
+        int reached = 0;
+        for (String owner : owners) {
+            try {
+                deleted |= storeOf(owner).delete(email);
+                reached++;
+            } catch (UncheckedIOException ex) {
+                suspect(owner, ex);
+            }
+        }
+        if (reached == 0) {
+            throw unreachable(owners);
+        }
+        return deleted;
+    }
+
+    @Override
+    public long size() {
+        long total = 0;
+        int members = 0;
+        for (String member : ring.members()) {
+            try {
+                total += storeOf(member).size();
+                members++;
+            } catch (UncheckedIOException ex) {
+                log.debug("Cluster member {} did not report its size: {}", member, ex.getMessage());
+            }
+        }
+        return members == 0 ? 0 : total / Math.min(replication, members);
+    }
+
+    @Override
+    public void close() throws IOException {
+        membership.shutdownNow();
+        server.close();
+        peers.values().forEach(ClusterPeer::close);
+        if (local instanceof Closeable closeable) {
+            closeable.close();
+        }
+    }
+
+    /**
+     * 由主要擁有者執行條件式寫入；成功時將 {@code replicated} 覆寫到其餘擁有者。
+     *
+     * @throws UncheckedIOException 如果主要擁有者無法連線；不改由其他副本決定，避免兩個節點各自判定成功。
+     */
+    private boolean decide(String email, Function<UserStore, Boolean> operation, Map<String, String> replicated) {
+        List<String> owners = ownersOf(email);
+        String primary = owners.get(0);
+        boolean applied;
+        try {
+            applied = operation.apply(storeOf(primary));
+        } catch (UncheckedIOException ex) {
+            suspect(primary, ex);
+            throw ex;
+        }
+        if (applied) {
+            replicate(owners.subList(1, owners.size()), replicated);
+        }
+        return applied;
+    }
+
+    /**
+     * 將資料覆寫到指定的擁有者，略過無法連線的節點。
+     *
+     * @return 成功寫入的節點數。
+     */
+    private int replicate(List<String> owners, Map<String, String> entries) {
+        int written = 0;
+        for (String owner : owners) {
+            try {
+                UserStore store = storeOf(owner);
+                if (store instanceof ClusterPeer peer) {
+                    peer.saveAll(entries);
+                } else {
+                    entries.forEach(store::save);
+                }
+                written++;
+            } catch (UncheckedIOException ex) {
+                suspect(owner, ex);
+            }
+        }
+        return written;
+    }
+
+    /**
+     * 讀取時詢問擁有者的順序：本節點若是擁有者則排在最前面，省去一次網路往返。
+     */
+    private List<String> readOrder(String email) {
+        List<String> owners = ownersOf(email);
+        int index = owners.indexOf(self);
+        if (index <= 0) {
+            return owners;
+        }
+        List<String> ordered = new ArrayList<>(owners.size());
+        ordered.add(self);
+        for (String owner : owners) {
+            if (!owner.equals(self)) {
+                ordered.add(owner);
+            }
+        }
+        return ordered;
+    }
+
+    private UserStore storeOf(String member) {
+        return member.equals(self) ? local : peers.get(member);
+    }
+
+    private static UncheckedIOException unreachable(List<String> owners) {
+        return new UncheckedIOException("No owner of the user is reachable", new IOException(String.join(",", owners)));
+    }
+
+    // ---- 成員管理與重新平衡 ----
+
+    private void heartbeat() {
+        try {
+            Map<String, Long> known = liveMembers;
+            Map<String, Long> observed = new HashMap<>();
+            Set<String> answered = new HashSet<>();
+            observed.put(self, incarnation);
+            for (ClusterPeer peer : peers.values()) {
+                try {
+                    observed.put(peer.id(), peer.ping());
+                    answered.add(peer.id());
+                    missedHeartbeats.remove(peer.id());
+                } catch (RuntimeException ex) {
+                    int missed = missedHeartbeats.merge(peer.id(), 1, Integer::sum);
+                    log.debug("Cluster member {} did not answer the heartbeat ({} in a row): {}", peer.id(), missed,
+                            ex.getMessage());
+                    Long knownIncarnation = known.get(peer.id());
+                    if (knownIncarnation != null && missed < failureThreshold) {
+                        observed.put(peer.id(), knownIncarnation);
+                    }
+                }
+            }
+            updateMembership(observed);
+            resyncAnswered(answered);
+        } catch (RuntimeException ex) {
+            log.warn("Cluster heartbeat failed.", ex);
+        }
+    }
+
+    /**
+     * 請求路徑上遇到 I/O 錯誤時，只記錄該節點需要重新推送資料；是否移出雜湊環完全由心跳決定。
+     */
+    private void suspect(String member, UncheckedIOException cause) {
+        log.warn("Cluster request to {} failed: {}", member, cause.getMessage());
+        if (!member.equals(self)) {
+            resync.add(member);
+        }
+    }
+
+    /**
+     * 對回應了心跳、但先前請求失敗的成員重新推送它應有的資料，補上失敗時可能漏掉的副本寫入。
+     */
+    private void resyncAnswered(Set<String> answered) {
+        Set<String> due = new HashSet<>();
+        for (String member : answered) {
+            if (resync.remove(member)) {
+                due.add(member);
+            }
+        }
+        if (due.isEmpty() || membership.isShutdown()) {
+            return;
+        }
+        ConsistentHashRing current = ring;
+        Set<String> unchanged = new HashSet<>(liveMembers.keySet());
+        unchanged.removeAll(due);
+        membership.execute(() -> rebalance(current, current, unchanged));
+    }
+
+    private void updateMembership(Map<String, Long> observed) {
+        synchronized (membershipLock) {
+            Map<String, Long> previous = liveMembers;
+            if (previous.equals(observed)) {
+                return;
+            }
+            ConsistentHashRing previousRing = ring;
+            ConsistentHashRing nextRing = new ConsistentHashRing(observed.keySet(), virtualNodes);
+            liveMembers = Map.copyOf(observed);
+            ring = nextRing;
+            log.info("Cluster membership changed: {} -> {}", previousRing.members(), nextRing.members());
+
+            Set<String> unchanged = new HashSet<>();
+            observed.forEach((member, memberIncarnation) -> {
+                if (memberIncarnation.equals(previous.get(member))) {
+                    unchanged.add(member);
+                }
+            });
+            if (!membership.isShutdown()) {
+                membership.execute(() -> rebalance(previousRing, nextRing, unchanged));
+            }
+        }
+    }
+
+    /**
+     * 把本機資料推送給新的擁有者，並在成功後刪除本節點已不再負責的使用者。
+     *
+     * @param previousRing 變動前的雜湊環。
+     * @param nextRing 變動後的雜湊環。
+     * @param unchanged 變動前後都存活且未重新啟動的成員；它們在變動前已擁有的資料不需再推送。
+     */
+    private void rebalance(ConsistentHashRing previousRing, ConsistentHashRing nextRing, Set<String> unchanged) {
+        if (ring != nextRing) {
+            return; // 已有更新的變動排在後面，由它一併處理
+        }
+        Rebalance pass = new Rebalance();
+        try {
+            local.forEachUser((email, hash) -> {
+                List<String> owners = nextRing.owners(email, replication);
+                List<String> before = previousRing.owners(email, replication);
+                for (String owner : owners) {
+                    if (!owner.equals(self) && !(before.contains(owner) && unchanged.contains(owner))) {
+                        pass.push(owner, email, hash);
+                    }
+                }
+                if (!owners.contains(self)) {
+                    pass.disowned.add(email);
+                }
+            });
+            pass.flushAll();
+        } catch (RuntimeException ex) {
+            log.warn("Cluster rebalance failed; it will be retried on the next membership change.", ex);
+            return;
+        }
+        if (pass.failed || ring != nextRing) {
+            log.info("Cluster rebalance pushed {} entries; keeping {} entries no longer owned by this node.",
+                    pass.pushed, pass.disowned.size());
+            return;
+        }
+        pass.disowned.forEach(local::delete);
+        log.info("Cluster rebalance pushed {} entries and handed off {} entries.", pass.pushed, pass.disowned.size());
+    }
+
+    /**
+     * 一次重新平衡的狀態：每個目標節點的待推送批次、已推送的筆數與本節點不再負責的 email。
+     */
+    private final class Rebalance {
+
+        private final Map<String, Map<String, String>> batches = new HashMap<>();
+        private final List<String> disowned = new ArrayList<>();
+        private final Set<String> unreachable = new HashSet<>();
+        private long pushed;
+        private boolean failed;
+
+        void push(String owner, String email, String hash) {
+            Map<String, String> batch = batches.computeIfAbsent(owner, key -> new LinkedHashMap<>());
+            batch.put(email, hash);
+            if (batch.size() >= REBALANCE_BATCH) {
+                flush(owner, batch);
+            }
+        }
+
+        void flushAll() {
+            batches.forEach(this::flush);
+        }
+
+        private void flush(String owner, Map<String, String> batch) {
+            if (batch.isEmpty()) {
+                return;
+            }
+            if (unreachable.contains(owner)) {
+                batch.clear();
+                return;
+            }
+            try {
+                peers.get(owner).saveAllIfAbsent(batch);
+                pushed += batch.size();
+            } catch (UncheckedIOException ex) {
+                failed = true;
+                unreachable.add(owner);
+                suspect(owner, ex);
+            }
+            batch.clear();
+        }
+
+    }
+
+}
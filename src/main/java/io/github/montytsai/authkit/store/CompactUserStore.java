@@ -0,0 +1,671 @@
+package io.github.montytsai.authkit.store;
+
+import io.github.montytsai.authkit.config.UserStoreProperties;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+/**
+ * **緊湊記憶體使用者儲存 (Compact In-Memory User Store)。**
+ * 將 email 與密碼雜湊以 UTF-8／二進位形式附加在大型 {@code byte[]} slab 中，並以存放基本型別位址的
+ * 開放定址 (open addressing) 雜湊表索引，每位使用者不再需要 {@link String} 與 map entry 物件。
+ *
+ * <pre>
+ * 紀錄:   [tag:byte][emailLen:short][email:UTF-8][payload]
+ * TEXT:   [hashLen:short][hash:UTF-8]
+ * BCRYPT: [minor:byte][cost:byte][salt+hash: 53 個 6-bit 字元壓縮為 40 bytes]   (tag 0x80 位元代表帶 {bcrypt} 前綴)
+ * 槽位:   [email 雜湊:32][紀錄位址 + 1:32]   0 = 空槽, -1 = 墓碑
+ * </pre>
+ *
+ * @apiNote 與 {@link InMemoryUserStore} 相同，資料在應用程式重啟後即遺失；適合需要在單一 JVM 中保存大量帳號的情境。
+ *          標準 BCrypt 雜湊（{@code $2a$}、{@code $2b$}、{@code $2x$}、{@code $2y$}）以 42 bytes 儲存，其餘格式原樣以 UTF-8 儲存。
+ * @implNote
+ * - **分片：** 以 email 雜湊的高位選擇分片，寫入只鎖定單一分片；讀取完全不加鎖，透過槽位的 release/acquire
+ *   語意看到完整寫入的紀錄。
+ * - **查詢：** 以 {@link String#hashCode()} 定位槽位，再直接以字串的字元與 slab 中的 UTF-8 位元組比對，不建立中介的
+ *   email 位元組或字串；比對前先以槽位中的 32 位元雜湊過濾，通常一次探測即命中。只有回傳的密碼雜湊會配置新的 {@link String}。
+ * - **更新與刪除：** 紀錄只附加不修改，舊紀錄成為失效資料；槽位（含墓碑）超過 3/4 時重建雜湊表，
+ *   失效資料超過分片資料量一半時一併將存活紀錄複製到新的 slab。重建期間讀取仍使用舊的表與 slab。
+ */
+public final class CompactUserStore implements UserStore {
+
+    private static final VarHandle SLOTS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private static final long EMPTY = 0L;
+    private static final long TOMBSTONE = -1L;
+    private static final int MIN_TABLE_SIZE = 16;
+    private static final int MAX_TABLE_SIZE = 1 << 30;
+
+    private static final int TAG_TEXT = 1;
+    private static final int TAG_BCRYPT = 2;
+    private static final int TAG_BCRYPT_PREFIXED = TAG_BCRYPT | 0x80;
+    /** tag(1) + emailLen(2)。 */
+    private static final int RECORD_HEADER = 3;
+    private static final int MAX_FIELD_BYTES = 0xFFFF;
+    /** 足以容納 email 與雜湊皆達上限的紀錄。 */
+    private static final int MIN_SLAB_SIZE = 1 << 18;
+
+    private static final String BCRYPT_PREFIX = "{bcrypt}";
+    private static final String BCRYPT_ALPHABET = "./ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789";
+    private static final byte[] BCRYPT_ENCODE = BCRYPT_ALPHABET.getBytes(StandardCharsets.ISO_8859_1);
+    private static final byte[] BCRYPT_DECODE = new byte[128];
+    private static final int BCRYPT_LENGTH = 60;
+    /** {@code $2a$10$} 之後的 22 字元鹽值加 31 字元雜湊。 */
+    private static final int BCRYPT_CHARS = 53;
+    private static final int BCRYPT_PACKED = (BCRYPT_CHARS * 6 + 7) / 8;
+    /** minor(1) + cost(1) + packed(40)。 */
+    private static final int BCRYPT_PAYLOAD = 2 + BCRYPT_PACKED;
+
+    static {
+        Arrays.fill(BCRYPT_DECODE, (byte) -1);
+        for (int i = 0; i < BCRYPT_ALPHABET.length(); i++) {
+            BCRYPT_DECODE[BCRYPT_ALPHABET.charAt(i)] = (byte) i;
+        }
+    }
+
+    private final Shard[] shards;
+    private final int shardShift;
+
+    public CompactUserStore(UserStoreProperties.Compact properties) {
+        this(properties.getShards(), Math.toIntExact(properties.getSlabSize().toBytes()));
+    }
+
+    /**
+     * @param shards 分片數，向上取整為 2 的冪次。
+     * @param slabSize 每個 slab 的大小（bytes），向上取整為 2 的冪次，至少 256 KiB 以容納最大的紀錄。
+     */
+    public CompactUserStore(int shards, int slabSize) {
+        if (shards < 1 || shards > 1 << 16) {
+            throw new IllegalArgumentException("Shard count must be between 1 and 65536: " + shards);
+        }
+        if (slabSize < 1 || slabSize > 1 << 30) {
+            throw new IllegalArgumentException("Slab size must be between 1 byte and 1 GiB: " + slabSize);
+        }
+        int shardCount = ceilingPowerOfTwo(shards);
+        int slabShift = Integer.numberOfTrailingZeros(ceilingPowerOfTwo(Math.max(slabSize, MIN_SLAB_SIZE)));
+        this.shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            this.shards[i] = new Shard(slabShift);
+        }
+        this.shardShift = 32 - Integer.numberOfTrailingZeros(shardCount);
+    }
+
+    @Override
+    public Optional<String> findPasswordHash(String email) {
+        int hash = hash(email);
+        return Optional.ofNullable(shardFor(hash).find(email, hash));
+    }
+
+    @Override
+    public boolean exists(String email) {
+        int hash = hash(email);
+        return shardFor(hash).contains(email, hash);
+    }
+
+    @Override
+    public void save(String email, String passwordHash) {
+        int hash = hash(email);
+        shardFor(hash).put(email, hash, passwordHash, true);
+    }
+
+    @Override
+    public boolean saveIfAbsent(String email, String passwordHash) {
+        int hash = hash(email);
+        return shardFor(hash).put(email, hash, passwordHash, false);
+    }
+
+    @Override
+    public Set<String> saveAllIfAbsent(Map<String, String> passwordHashes) {
+        Set<String> inserted = new LinkedHashSet<>();
+        passwordHashes.forEach((email, passwordHash) -> {
+            int hash = hash(email);
+            if (shardFor(hash).put(email, hash, passwordHash, false)) {
+                inserted.add(email);
+            }
+        });
+        return inserted;
+    }
+
+    @Override
+    public boolean replacePasswordHash(String email, String expectedHash, String newHash) {
+        int hash = hash(email);
+        return shardFor(hash).replace(email, hash, expectedHash, newHash);
+    }
+
+    @Override
+    public boolean delete(String email) {
+        int hash = hash(email);
+        return shardFor(hash).remove(email, hash);
+    }
+
+    @Override
+    public void forEachUser(BiConsumer<String, String> action) {
+        for (Shard shard : shards) {
+            shard.forEach(action);
+        }
+    }
+
+    @Override
+    public long size() {
+        long size = 0;
+        for (Shard shard : shards) {
+            size += shard.live.get();
+        }
+        return size;
+    }
+
+    private Shard shardFor(int hash) {
+        return shards[(int) (Integer.toUnsignedLong(hash) >>> shardShift)];
+    }
+
+    /**
+     * 單一分片：一張開放定址表與其 slab，寫入以分片物件本身為鎖。
+     */
+    private static final class Shard {
+
+        private final int slabShift;
+        private final int slabSize;
+        private final int maxSlabs;
+
+        private volatile Generation generation;
+        /** 存活紀錄數；只在持有分片鎖時修改，供 {@link CompactUserStore#size()} 無鎖讀取。 */
+        private final AtomicInteger live = new AtomicInteger();
+
+        // 以下欄位只在持有分片鎖時存取
+        private int used;
+        private int writeSlab;
+        private int writePosition;
+        private long liveBytes;
+        private long garbageBytes;
+
+        Shard(int slabShift) {
+            this.slabShift = slabShift;
+            this.slabSize = 1 << slabShift;
+            this.maxSlabs = 1 << (31 - slabShift);
+            this.generation = new Generation(MIN_TABLE_SIZE, new byte[1][]);
+        }
+
+        String find(String email, int hash) {
+            Generation current = generation;
+            long slot = lookup(current, email, hash);
+            if (slot == EMPTY) {
+                return null;
+            }
+            int address = address(slot);
+            return decodeHash(current.slabs[address >>> slabShift], address & (slabSize - 1));
+        }
+
+        boolean contains(String email, int hash) {
+            return lookup(generation, email, hash) != EMPTY;
+        }
+
+        /**
+         * 無鎖走訪目前這一代的表；走訪期間的重建不影響已取得的舊表與 slab。
+         */
+        void forEach(BiConsumer<String, String> action) {
+            Generation current = generation;
+            long[] slots = current.slots;
+            for (int index = 0; index < slots.length; index++) {
+                long slot = (long) SLOTS.getAcquire(slots, index);
+                if (slot == EMPTY || slot == TOMBSTONE) {
+                    continue;
+                }
+                int address = address(slot);
+                byte[] slab = current.slabs[address >>> slabShift];
+                int offset = address & (slabSize - 1);
+                action.accept(decodeEmail(slab, offset), decodeHash(slab, offset));
+            }
+        }
+
+        synchronized boolean put(String email, int hash, String passwordHash, boolean overwrite) {
+            Generation current = generation;
+            int index = indexOf(current, email, hash);
+            if (index >= 0 && !overwrite) {
+                return false;
+            }
+            byte[] record = encode(email, passwordHash);
+            if (index >= 0) {
+                discard(current, current.slots[index]);
+                SLOTS.setRelease(current.slots, index, slot(hash, append(current, record)));
+                compactIfWasteful();
+                return false;
+            }
+            if (used + 1 > current.threshold) {
+                current = rebuild(live.get() + 1);
+            }
+            int address = append(current, record);
+            insert(current, hash, address, true);
+            live.incrementAndGet();
+            return true;
+        }
+
+        synchronized boolean replace(String email, int hash, String expectedHash, String newHash) {
+            Generation current = generation;
+            int index = indexOf(current, email, hash);
+            if (index < 0) {
+                return false;
+            }
+            long slot = current.slots[index];
+            int address = address(slot);
+            if (!expectedHash.equals(decodeHash(current.slabs[address >>> slabShift], address & (slabSize - 1)))) {
+                return false;
+            }
+            byte[] record = encode(email, newHash);
+            discard(current, slot);
+            SLOTS.setRelease(current.slots, index, slot(hash, append(current, record)));
+            compactIfWasteful();
+            return true;
+        }
+
+        synchronized boolean remove(String email, int hash) {
+            Generation current = generation;
+            int index = indexOf(current, email, hash);
+            if (index < 0) {
+                return false;
+            }
+            discard(current, current.slots[index]);
+            SLOTS.setRelease(current.slots, index, TOMBSTONE);
+            live.decrementAndGet();
+            compactIfWasteful();
+            return true;
+        }
+
+        /**
+         * 無鎖查詢，回傳命中的槽位值；未命中時回傳 {@link #EMPTY}。
+         * 每個槽位只讀取一次，因此同時發生的刪除不會讓呼叫端拿到墓碑。
+         */
+        private long lookup(Generation current, String email, int hash) {
+            long[] slots = current.slots;
+            int mask = slots.length - 1;
+            for (int index = hash & mask; ; index = (index + 1) & mask) {
+                long slot = (long) SLOTS.getAcquire(slots, index);
+                if (slot == EMPTY || matches(current, slot, email, hash)) {
+                    return slot;
+                }
+            }
+        }
+
+        /**
+         * 持有分片鎖時查詢 email 所在的槽位索引；未命中時回傳 {@code -1}。
+         */
+        private int indexOf(Generation current, String email, int hash) {
+            long[] slots = current.slots;
+            int mask = slots.length - 1;
+            for (int index = hash & mask; ; index = (index + 1) & mask) {
+                long slot = slots[index];
+                if (slot == EMPTY) {
+                    return -1;
+                }
+                if (matches(current, slot, email, hash)) {
+                    return index;
+                }
+            }
+        }
+
+        private boolean matches(Generation current, long slot, String email, int hash) {
+            if (slot == TOMBSTONE || (int) (slot >>> 32) != hash) {
+                return false;
+            }
+            int address = address(slot);
+            return emailEquals(current.slabs[address >>> slabShift], address & (slabSize - 1), email);
+        }
+
+        private void insert(Generation target, int hash, int address, boolean published) {
+            long[] slots = target.slots;
+            int mask = slots.length - 1;
+            int index = hash & mask;
+            while (true) {
+                long slot = slots[index];
+                if (slot == EMPTY || slot == TOMBSTONE) {
+                    if (slot == EMPTY) {
+                        used++;
+                    }
+                    break;
+                }
+                index = (index + 1) & mask;
+            }
+            if (published) {
+                SLOTS.setRelease(slots, index, slot(hash, address));
+            } else {
+                slots[index] = slot(hash, address);
+            }
+        }
+
+        /**
+         * 將紀錄附加到目前的 slab，必要時開新的 slab。
+         *
+         * @return 紀錄在分片中的位址 (slab 編號 &lt;&lt; slabShift | 位移)。
+         */
+        private int append(Generation target, byte[] record) {
+            if (writePosition + record.length > slabSize) {
+                writeSlab++;
+                writePosition = 0;
+            }
+            if (writeSlab >= maxSlabs) {
+                throw new IllegalStateException("Compact user store shard is full (" + maxSlabs + " slabs)");
+            }
+            byte[][] slabs = target.slabs;
+            if (writeSlab >= slabs.length) {
+                slabs = Arrays.copyOf(slabs, Math.min(maxSlabs, slabs.length * 2));
+                target.slabs = slabs;
+            }
+            if (slabs[writeSlab] == null) {
+                // 新 slab 在之後的 setRelease 前寫入，讀取端經由槽位 acquire 必然看到它
+                slabs[writeSlab] = new byte[slabSize];
+            }
+            System.arraycopy(record, 0, slabs[writeSlab], writePosition, record.length);
+            int address = (writeSlab << slabShift) | writePosition;
+            writePosition += record.length;
+            liveBytes += record.length;
+            return address;
+        }
+
+        private void discard(Generation current, long slot) {
+            int address = address(slot);
+            int length = recordLength(current.slabs[address >>> slabShift], address & (slabSize - 1));
+            liveBytes -= length;
+            garbageBytes += length;
+        }
+
+        private void compactIfWasteful() {
+            if (garbageBytes > slabSize && garbageBytes > liveBytes) {
+                rebuild(live.get());
+            }
+        }
+
+        /**
+         * 以足以容納 {@code expectedLive} 筆紀錄的新表取代目前的表；失效資料過多時同時將存活紀錄複製到新的 slab。
+         * 新表在完全建好後才發布，期間讀取仍看到舊的表與 slab。
+         */
+        private Generation rebuild(int expectedLive) {
+            Generation old = generation;
+            boolean compact = garbageBytes > liveBytes;
+            Generation next = new Generation(tableSize(expectedLive), compact ? new byte[1][] : old.slabs);
+            if (compact) {
+                writeSlab = 0;
+                writePosition = 0;
+                liveBytes = 0;
+                garbageBytes = 0;
+            }
+            used = 0;
+            for (long slot : old.slots) {
+                if (slot == EMPTY || slot == TOMBSTONE) {
+                    continue;
+                }
+                int address = address(slot);
+                if (compact) {
+                    byte[] slab = old.slabs[address >>> slabShift];
+                    int offset = address & (slabSize - 1);
+                    address = append(next, Arrays.copyOfRange(slab, offset, offset + recordLength(slab, offset)));
+                }
+                insert(next, (int) (slot >>> 32), address, false);
+            }
+            generation = next;
+            return next;
+        }
+
+        private static int tableSize(int expectedLive) {
+            long wanted = Math.max(MIN_TABLE_SIZE, (long) expectedLive * 2);
+            if (wanted > MAX_TABLE_SIZE) {
+                throw new IllegalStateException("Compact user store shard cannot hold " + expectedLive + " users");
+            }
+            return ceilingPowerOfTwo((int) wanted);
+        }
+
+        private static long slot(int hash, int address) {
+            return ((long) hash << 32) | Integer.toUnsignedLong(address + 1);
+        }
+
+        private static int address(long slot) {
+            return (int) slot - 1;
+        }
+
+    }
+
+    /**
+     * 一代雜湊表與其 slab；重建時整代替換，讀取端只需讀一次 {@code volatile} 欄位即可取得一致的組合。
+     */
+    private static final class Generation {
+
+        final long[] slots;
+        final int threshold;
+        volatile byte[][] slabs;
+
+        Generation(int tableSize, byte[][] slabs) {
+            this.slots = new long[tableSize];
+            this.threshold = tableSize / 4 * 3;
+            this.slabs = slabs;
+        }
+
+    }
+
+    // ---- 紀錄編碼 ----
+
+    static byte[] encode(String email, String passwordHash) {
+        int emailLength = utf8Length(email);
+        if (emailLength > MAX_FIELD_BYTES) {
+            throw new IllegalArgumentException("Email is longer than " + MAX_FIELD_BYTES + " UTF-8 bytes");
+        }
+        int tag = bcryptTag(passwordHash);
+        byte[] hashBytes = tag == TAG_TEXT ? passwordHash.getBytes(StandardCharsets.UTF_8) : null;
+        if (hashBytes != null && hashBytes.length > MAX_FIELD_BYTES) {
+            throw new IllegalArgumentException("Password hash is longer than " + MAX_FIELD_BYTES + " UTF-8 bytes");
+        }
+        int payload = hashBytes == null ? BCRYPT_PAYLOAD : 2 + hashBytes.length;
+        byte[] record = new byte[RECORD_HEADER + emailLength + payload];
+        record[0] = (byte) tag;
+        putShort(record, 1, emailLength);
+        int position = encodeUtf8(email, record, RECORD_HEADER);
+        if (hashBytes != null) {
+            putShort(record, position, hashBytes.length);
+            System.arraycopy(hashBytes, 0, record, position + 2, hashBytes.length);
+        } else {
+            packBcrypt(passwordHash, tag == TAG_BCRYPT_PREFIXED ? BCRYPT_PREFIX.length() : 0, record, position);
+        }
+        return record;
+    }
+
+    static String decodeEmail(byte[] slab, int offset) {
+        return new String(slab, offset + RECORD_HEADER, getShort(slab, offset + 1), StandardCharsets.UTF_8);
+    }
+
+    static String decodeHash(byte[] slab, int offset) {
+        int tag = slab[offset] & 0xFF;
+        int position = offset + RECORD_HEADER + getShort(slab, offset + 1);
+        if (tag == TAG_TEXT) {
+            return new String(slab, position + 2, getShort(slab, position), StandardCharsets.UTF_8);
+        }
+        return unpackBcrypt(slab, position, tag == TAG_BCRYPT_PREFIXED);
+    }
+
+    static int recordLength(byte[] slab, int offset) {
+        int position = offset + RECORD_HEADER + getShort(slab, offset + 1);
+        return position - offset + (slab[offset] == TAG_TEXT ? 2 + getShort(slab, position) : BCRYPT_PAYLOAD);
+    }
+
+    /**
+     * 判斷雜湊是否為可壓縮的標準 BCrypt 格式，回傳對應的 tag；否則回傳 {@link #TAG_TEXT}。
+     */
+    private static int bcryptTag(String passwordHash) {
+        boolean prefixed = passwordHash.startsWith(BCRYPT_PREFIX);
+        int start = prefixed ? BCRYPT_PREFIX.length() : 0;
+        if (passwordHash.length() - start != BCRYPT_LENGTH
+                || passwordHash.charAt(start) != '$' || passwordHash.charAt(start + 1) != '2'
+                || "abxy".indexOf(passwordHash.charAt(start + 2)) < 0 || passwordHash.charAt(start + 3) != '$'
+                || !isDigit(passwordHash.charAt(start + 4)) || !isDigit(passwordHash.charAt(start + 5))
+                || passwordHash.charAt(start + 6) != '$') {
+            return TAG_TEXT;
+        }
+        for (int i = start + 7; i < passwordHash.length(); i++) {
+            char c = passwordHash.charAt(i);
+            if (c >= BCRYPT_DECODE.length || BCRYPT_DECODE[c] < 0) {
+                return TAG_TEXT;
+            }
+        }
+        return prefixed ? TAG_BCRYPT_PREFIXED : TAG_BCRYPT;
+    }
+
+    private static void packBcrypt(String passwordHash, int start, byte[] target, int position) {
+        target[position] = (byte) passwordHash.charAt(start + 2);
+        target[position + 1] = (byte) ((passwordHash.charAt(start + 4) - '0') * 10 + passwordHash.charAt(start + 5) - '0');
+        int packed = position + 2;
+        int buffer = 0;
+        int bits = 0;
+        for (int i = start + 7; i < start + BCRYPT_LENGTH; i++) {
+            buffer = (buffer << 6) | BCRYPT_DECODE[passwordHash.charAt(i)];
+            bits += 6;
+            if (bits >= 8) {
+                bits -= 8;
+                target[packed++] = (byte) (buffer >> bits);
+            }
+        }
+        if (bits > 0) {
+            target[packed] = (byte) (buffer << (8 - bits));
+        }
+    }
+
+    private static String unpackBcrypt(byte[] slab, int position, boolean prefixed) {
+        byte[] text = new byte[(prefixed ? BCRYPT_PREFIX.length() : 0) + BCRYPT_LENGTH];
+        int out = 0;
+        if (prefixed) {
+            for (int i = 0; i < BCRYPT_PREFIX.length(); i++) {
+                text[out++] = (byte) BCRYPT_PREFIX.charAt(i);
+            }
+        }
+        int cost = slab[position + 1];
+        text[out++] = '$';
+        text[out++] = '2';
+        text[out++] = slab[position];
+        text[out++] = '$';
+        text[out++] = (byte) ('0' + cost / 10);
+        text[out++] = (byte) ('0' + cost % 10);
+        text[out++] = '$';
+        int packed = position + 2;
+        // 每 3 bytes 還原 4 個字元，最後一個字元位於第 40 byte 的高 6 位
+        for (int group = 0; group < BCRYPT_CHARS / 4; group++, packed += 3) {
+            int bits = ((slab[packed] & 0xFF) << 16) | ((slab[packed + 1] & 0xFF) << 8) | (slab[packed + 2] & 0xFF);
+            text[out++] = BCRYPT_ENCODE[bits >>> 18];
+            text[out++] = BCRYPT_ENCODE[(bits >>> 12) & 0x3F];
+            text[out++] = BCRYPT_ENCODE[(bits >>> 6) & 0x3F];
+            text[out++] = BCRYPT_ENCODE[bits & 0x3F];
+        }
+        text[out] = BCRYPT_ENCODE[(slab[packed] & 0xFF) >>> 2];
+        return new String(text, StandardCharsets.ISO_8859_1);
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static void putShort(byte[] target, int position, int value) {
+        target[position] = (byte) (value >>> 8);
+        target[position + 1] = (byte) value;
+    }
+
+    private static int getShort(byte[] source, int position) {
+        return ((source[position] & 0xFF) << 8) | (source[position + 1] & 0xFF);
+    }
+
+    // ---- 不經中介位元組陣列的 UTF-8 運算（與 String#getBytes(UTF_8) 的編碼結果一致） ----
+
+    /**
+     * email 的雜湊：以 murmur3 fmix32 打散 {@link String#hashCode()}，使高位可用於選擇分片。
+     * 字串已快取自身的雜湊碼，重複查詢同一個 {@link String} 時不必再掃描字元。
+     */
+    static int hash(String email) {
+        int hash = email.hashCode();
+        hash ^= hash >>> 16;
+        hash *= 0x85EBCA6B;
+        hash ^= hash >>> 13;
+        hash *= 0xC2B2AE35;
+        return hash ^ (hash >>> 16);
+    }
+
+    private static boolean emailEquals(byte[] slab, int offset, String email) {
+        int position = offset + RECORD_HEADER;
+        int end = position + getShort(slab, offset + 1);
+        for (int i = 0, n = email.length(); i < n; ) {
+            char c = email.charAt(i);
+            if (c < 0x80) {
+                if (position == end || slab[position++] != c) {
+                    return false;
+                }
+                i++;
+                continue;
+            }
+            int codePoint = codePointAt(email, i);
+            i += Character.charCount(codePoint);
+            int length = utf8Length(codePoint);
+            if (position + length > end) {
+                return false;
+            }
+            for (int k = 0; k < length; k++) {
+                if ((slab[position++] & 0xFF) != utf8Byte(codePoint, length, k)) {
+                    return false;
+                }
+            }
+        }
+        return position == end;
+    }
+
+    private static int utf8Length(String value) {
+        int length = 0;
+        for (int i = 0, n = value.length(); i < n; ) {
+            int codePoint = codePointAt(value, i);
+            i += Character.charCount(codePoint);
+            length += utf8Length(codePoint);
+        }
+        return length;
+    }
+
+    private static int encodeUtf8(String value, byte[] target, int position) {
+        for (int i = 0, n = value.length(); i < n; ) {
+            int codePoint = codePointAt(value, i);
+            i += Character.charCount(codePoint);
+            int length = utf8Length(codePoint);
+            for (int k = 0; k < length; k++) {
+                target[position++] = (byte) utf8Byte(codePoint, length, k);
+            }
+        }
+        return position;
+    }
+
+    /**
+     * 讀取 code point；不成對的代理字元與 {@link String#getBytes} 一樣視為 {@code '?'}。
+     */
+    private static int codePointAt(String value, int index) {
+        char c = value.charAt(index);
+        if (!Character.isSurrogate(c)) {
+            return c;
+        }
+        if (Character.isHighSurrogate(c) && index + 1 < value.length() && Character.isLowSurrogate(value.charAt(index + 1))) {
+            return Character.toCodePoint(c, value.charAt(index + 1));
+        }
+        return '?';
+    }
+
+    private static int utf8Length(int codePoint) {
+        return codePoint < 0x80 ? 1 : codePoint < 0x800 ? 2 : codePoint < 0x10000 ? 3 : 4;
+    }
+
+    private static int utf8Byte(int codePoint, int length, int k) {
+        if (length == 1) {
+            return codePoint;
+        }
+        int shift = 6 * (length - 1 - k);
+        return k == 0 ? ((0xF00 >>> length) & 0xFF) | (codePoint >>> shift) : 0x80 | ((codePoint >>> shift) & 0x3F);
+    }
+
+    private static int ceilingPowerOfTwo(int value) {
+        return value <= 1 ? 1 : Integer.highestOneBit(value - 1) << 1;
+    }
+
+}
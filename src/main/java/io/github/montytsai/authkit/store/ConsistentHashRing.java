@@ -0,0 +1,106 @@
+package io.github.montytsai.authkit.store;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * **一致性雜湊環 (Consistent Hash Ring)。**
+ * 將 email 對應到叢集中負責它的節點：每個節點在環上放置 {@code virtualNodes} 個虛擬節點，
+ * email 的雜湊值順時針遇到的前 {@code replicas} 個不同節點即為其擁有者，第一個為主要擁有者。
+ *
+ * @apiNote 不可變物件；成員變動時建立新的環。新增或移除一個節點只會改變約 {@code 1/n} 的 email 的擁有者。
+ * @implNote 虛擬節點以排序後的 {@code long[]} 保存並以二分搜尋查找，查詢不配置雜湊表節點或裝箱的 {@code Long}。
+ *           雜湊為 UTF-8 位元組的 FNV-1a 64 位元，再經 MurmurHash3 的 {@code fmix64} 打散，相近的 email 也能均勻分布。
+ */
+final class ConsistentHashRing {
+
+    private final List<String> members;
+    private final long[] points;
+    private final String[] owners;
+
+    /**
+     * @param members 成員識別（{@code host:port}）；順序不影響結果。
+     * @param virtualNodes 每個成員的虛擬節點數。
+     * @throws IllegalArgumentException 如果沒有成員或虛擬節點數小於 1。
+     */
+    ConsistentHashRing(Collection<String> members, int virtualNodes) {
+        if (members.isEmpty() || virtualNodes < 1) {
+            throw new IllegalArgumentException("A hash ring needs at least one member and one virtual node each");
+        }
+        Set<String> sorted = new TreeSet<>(members);
+        this.members = List.copyOf(sorted);
+
+        long[][] entries = new long[sorted.size() * virtualNodes][];
+        int next = 0;
+        int memberIndex = 0;
+        for (String member : this.members) {
+            for (int replica = 0; replica < virtualNodes; replica++) {
+                entries[next++] = new long[]{hash(member + "#" + replica), memberIndex};
+            }
+            memberIndex++;
+        }
+        Arrays.sort(entries, (a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0]) : Long.compare(a[1], b[1]));
+
+        this.points = new long[entries.length];
+        this.owners = new String[entries.length];
+        for (int i = 0; i < entries.length; i++) {
+            points[i] = entries[i][0];
+            owners[i] = this.members.get((int) entries[i][1]);
+        }
+    }
+
+    /**
+     * 環上的成員，依字典序排列。
+     */
+    List<String> members() {
+        return members;
+    }
+
+    /**
+     * 負責 email 的擁有者，依優先順序排列。
+     *
+     * @param email 使用者 email。
+     * @param replicas 擁有者數量；大於成員數時回傳所有成員。
+     * @return 不重複的成員清單，第一個為主要擁有者。
+     */
+    List<String> owners(String email, int replicas) {
+        int wanted = Math.min(Math.max(1, replicas), members.size());
+        List<String> result = new ArrayList<>(wanted);
+        int index = indexOf(hash(email));
+        for (int step = 0; step < owners.length && result.size() < wanted; step++) {
+            String owner = owners[(index + step) % owners.length];
+            if (!result.contains(owner)) {
+                result.add(owner);
+            }
+        }
+        return result;
+    }
+
+    private int indexOf(long hash) {
+        int index = Arrays.binarySearch(points, hash);
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return index == points.length ? 0 : index;
+    }
+
+    static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xFF;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+}
@@ -0,0 +1,71 @@
+package io.github.montytsai.authkit.store;
+
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+
+/**
+ * **記憶體使用者儲存。**
+ * 以 {@link ConcurrentHashMap} 實作的 {@link UserStore}，資料在應用程式重啟後即遺失。
+ *
+ * @apiNote 適用於開發、測試與基準測試；生產環境請使用持久化引擎。
+ */
+public class InMemoryUserStore implements UserStore {
+
+    private final Map<String, String> users = new ConcurrentHashMap<>();
+
+    @Override
+    public Optional<String> findPasswordHash(String email) {
+        return Optional.ofNullable(users.get(email));
+    }
+
+    @Override
+    public boolean exists(String email) {
+        return users.containsKey(email);
+    }
+
+    @Override
+    public void save(String email, String passwordHash) {
+        users.put(email, passwordHash);
+    }
+
+    @Override
+    public boolean saveIfAbsent(String email, String passwordHash) {
+        return users.putIfAbsent(email, passwordHash) == null;
+    }
+
+    @Override
+    public Set<String> saveAllIfAbsent(Map<String, String> passwordHashes) {
+        Set<String> inserted = new LinkedHashSet<>();
+        passwordHashes.forEach((email, passwordHash) -> {
+            if (users.putIfAbsent(email, passwordHash) == null) {
+                inserted.add(email);
+            }
+        });
+        return inserted;
+    }
+
+    @Override
+    public boolean replacePasswordHash(String email, String expectedHash, String newHash) {
+        return users.replace(email, expectedHash, newHash);
+    }
+
+    @Override
+    public boolean delete(String email) {
+        return users.remove(email) != null;
+    }
+
+    @Override
+    public void forEachUser(BiConsumer<String, String> action) {
+        users.forEach(action);
+    }
+
+    @Override
+    public long size() {
+        return users.size();
+    }
+
+}
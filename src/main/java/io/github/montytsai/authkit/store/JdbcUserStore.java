@@ -0,0 +1,134 @@
+package io.github.montytsai.authkit.store;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * **JDBC 使用者儲存引擎。**
+ * 透過 {@link JdbcTemplate} 將使用者存放於 {@code auth_users} 資料表，預設搭配嵌入式 H2。
+ *
+ * @implNote 資料表於建構時以 {@code CREATE TABLE IF NOT EXISTS} 建立；
+ *           {@link #save(String, String)} 使用 H2 的 {@code MERGE ... KEY} 語法實現 upsert；
+ *           {@link #saveAllIfAbsent(Map)} 在單一交易中以一次 JDBC batch 執行條件式 {@code INSERT}。
+ */
+public final class JdbcUserStore implements UserStore {
+
+    private static final String CREATE_TABLE = """
+            CREATE TABLE IF NOT EXISTS auth_users (
+                email VARCHAR(320) PRIMARY KEY,
+                password_hash VARCHAR(255) NOT NULL
+            )""";
+
+    private static final String INSERT_IF_ABSENT = """
+            INSERT INTO auth_users (email, password_hash)
+            SELECT ?, ? WHERE NOT EXISTS (SELECT 1 FROM auth_users WHERE email = ?)""";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public JdbcUserStore(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        jdbcTemplate.execute(CREATE_TABLE);
+    }
+
+    @Override
+    public Optional<String> findPasswordHash(String email) {
+        List<String> hashes = jdbcTemplate.queryForList(
+                "SELECT password_hash FROM auth_users WHERE email = ?", String.class, email);
+        return hashes.stream().findFirst();
+    }
+
+    @Override
+    public boolean exists(String email) {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM auth_users WHERE email = ?", Integer.class, email);
+        return count != null && count > 0;
+    }
+
+    @Override
+    public void save(String email, String passwordHash) {
+        jdbcTemplate.update("MERGE INTO auth_users (email, password_hash) KEY (email) VALUES (?, ?)", email, passwordHash);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @implNote 整批在同一個交易中執行：若其他交易在檢查與寫入之間搶先新增了其中一個 email，
+     *           整批回滾後再逐筆寫入，回傳的集合因此只包含這次真正新增的 email。
+     *           若在 auto-commit 下執行，失敗前已寫入的列會被逐筆重試誤判為已存在，呼叫端也不會讓它們的快取失效。
+     */
+    @Override
+    public Set<String> saveAllIfAbsent(Map<String, String> passwordHashes) {
+        List<String> emails = new ArrayList<>(passwordHashes.keySet());
+        List<Object[]> rows = new ArrayList<>(emails.size());
+        for (String email : emails) {
+            rows.add(new Object[]{email, passwordHashes.get(email), email});
+        }
+
+        int[] counts;
+        try {
+            counts = transactionTemplate.execute(status -> jdbcTemplate.batchUpdate(INSERT_IF_ABSENT, rows));
+        } catch (DuplicateKeyException ex) {
+            // 其他交易搶先新增了同一個 email；整批已回滾，改為逐筆寫入以保留其餘紀錄。
+            return insertEachIfAbsent(rows);
+        }
+
+        Set<String> inserted = new LinkedHashSet<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                inserted.add(emails.get(i));
+            }
+        }
+        return inserted;
+    }
+
+    @Override
+    public boolean replacePasswordHash(String email, String expectedHash, String newHash) {
+        return jdbcTemplate.update("UPDATE auth_users SET password_hash = ? WHERE email = ? AND password_hash = ?",
+                newHash, email, expectedHash) > 0;
+    }
+
+    @Override
+    public boolean delete(String email) {
+        return jdbcTemplate.update("DELETE FROM auth_users WHERE email = ?", email) > 0;
+    }
+
+    @Override
+    public void forEachUser(BiConsumer<String, String> action) {
+        jdbcTemplate.query("SELECT email, password_hash FROM auth_users",
+                (RowCallbackHandler) row -> action.accept(row.getString(1), row.getString(2)));
+    }
+
+    @Override
+    public long size() {
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM auth_users", Long.class);
+        return count == null ? 0 : count;
+    }
+
+    private Set<String> insertEachIfAbsent(List<Object[]> rows) {
+        Set<String> inserted = new LinkedHashSet<>();
+        for (Object[] row : rows) {
+            try {
+                if (jdbcTemplate.update(INSERT_IF_ABSENT, row) > 0) {
+                    inserted.add((String) row[0]);
+                }
+            } catch (DuplicateKeyException ex) {
+                // 已被其他交易新增，視為已存在。
+            }
+        }
+        return inserted;
+    }
+
+}
@@ -0,0 +1,567 @@
+package io.github.montytsai.authkit.store;
+
+import io.github.montytsai.authkit.config.UserStoreProperties;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+import java.util.zip.CRC32C;
+
+/**
+ * **Append-only 日誌使用者儲存引擎。**
+ * 所有寫入（新增、覆寫、刪除）皆以紀錄形式附加到單一日誌檔尾端，記憶體中僅保留 email → 檔案位移的索引。
+ *
+ * <pre>
+ * 檔頭:  [magic:int "AKUL"][version:int]
+ * 紀錄:  [length:int][type:byte][emailLen:short][email:UTF-8][hashLen:short][hash:UTF-8][crc32c:int]
+ * </pre>
+ *
+ * @implNote
+ * - **查詢：** 一次索引查找加一次 {@link FileChannel} 定位讀取，O(1) 且只配置讀取緩衝區與回傳的 {@link String}。
+ * - **寫入：** 所有寫入以專用的附加鎖排隊，在鎖內寫入、fsync，完成後才把新位移發布到索引；
+ *   查詢只持有讀鎖，不會等待其他請求的 fsync，也不會讀到尚未落盤的紀錄。
+ * - **啟動復原：** 以 {@link MappedByteBuffer} 循序掃描整個檔案重建索引；遇到長度或 CRC 不合法的尾端紀錄
+ *   （寫到一半時當機）即截斷檔案，確保重啟後狀態一致。
+ * - **壓縮：** 失效資料比例超過門檻時，將存活紀錄寫入暫存檔、fsync 後以原子性 rename 取代原檔。
+ *   重寫期間持有附加鎖，寫入會等待；查詢照常讀取原檔，只有替換檔案與索引的瞬間持有寫鎖。
+ */
+@Slf4j
+public final class LogStructuredUserStore implements UserStore, Closeable {
+
+    private static final int MAGIC = 0x414B554C; // "AKUL"
+    private static final int VERSION = 1;
+    static final int HEADER_SIZE = 8;
+
+    private static final byte TYPE_PUT = 1;
+    private static final byte TYPE_DELETE = 2;
+
+    private static final int MAX_EMAIL_BYTES = 1024;
+    private static final int MAX_HASH_BYTES = 1024;
+    /** length(4) + type(1) + emailLen(2) + hashLen(2) + crc(4)。 */
+    private static final int RECORD_OVERHEAD = 13;
+    private static final int MAX_RECORD_SIZE = RECORD_OVERHEAD + MAX_EMAIL_BYTES + MAX_HASH_BYTES;
+    private static final long SCAN_WINDOW = 256L * 1024 * 1024;
+    private static final byte[] EMPTY = new byte[0];
+
+    private final Path path;
+    private final Path compactionPath;
+    private final boolean syncOnWrite;
+    private final double compactionGarbageRatio;
+    private final long compactionMinBytes;
+
+    /** email → (雜湊在檔案中的位移 &lt;&lt; 16 | 雜湊長度)。 */
+    private final Map<String, Long> index = new ConcurrentHashMap<>();
+    /** 保護 {@link #channel} 的替換：查詢持有讀鎖，壓縮替換檔案時持有寫鎖。 */
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    /** 讓寫入與壓縮排隊；保護 {@link #writePosition} 與 {@link #garbageBytes}。 */
+    private final Lock appendLock = new ReentrantLock();
+    private final ScheduledExecutorService compactor;
+
+    private FileChannel channel;
+    private long writePosition;
+    private long garbageBytes;
+
+    public LogStructuredUserStore(UserStoreProperties.Log properties) throws IOException {
+        this.path = properties.getPath().toAbsolutePath();
+        this.compactionPath = path.resolveSibling(path.getFileName() + ".compact");
+        this.syncOnWrite = properties.isSyncOnWrite();
+        this.compactionGarbageRatio = properties.getCompactionGarbageRatio();
+        this.compactionMinBytes = properties.getCompactionMinSize().toBytes();
+
+        open();
+        this.compactor = scheduleCompaction(properties.getCompactionInterval());
+    }
+
+    @Override
+    public Optional<String> findPasswordHash(String email) {
+        lock.readLock().lock();
+        try {
+            Long entry = index.get(email);
+            return entry == null ? Optional.empty() : Optional.of(readHash(channel, entry));
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to read user record from " + path, ex);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean exists(String email) {
+        return index.containsKey(email);
+    }
+
+    @Override
+    public void save(String email, String passwordHash) {
+        appendLock.lock();
+        try {
+            append(TYPE_PUT, email, passwordHash);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @implNote 整批新紀錄編碼進同一個緩衝區後以一次寫入附加；{@code syncOnWrite} 時整批只 fsync 一次。
+     */
+    @Override
+    public Set<String> saveAllIfAbsent(Map<String, String> passwordHashes) {
+        appendLock.lock();
+        try {
+            List<String> emails = new ArrayList<>(passwordHashes.size());
+            List<ByteBuffer> records = new ArrayList<>(passwordHashes.size());
+            int batchSize = 0;
+            for (Map.Entry<String, String> entry : passwordHashes.entrySet()) {
+                if (index.containsKey(entry.getKey())) {
+                    continue;
+                }
+                byte[] emailBytes = entry.getKey().getBytes(StandardCharsets.UTF_8);
+                byte[] hashBytes = entry.getValue().getBytes(StandardCharsets.UTF_8);
+                if (emailBytes.length > MAX_EMAIL_BYTES || hashBytes.length > MAX_HASH_BYTES) {
+                    throw new IllegalArgumentException("Email or password hash exceeds the user log record limit.");
+                }
+                ByteBuffer record = encode(TYPE_PUT, emailBytes, hashBytes);
+                emails.add(entry.getKey());
+                records.add(record);
+                batchSize += record.remaining();
+            }
+            if (emails.isEmpty()) {
+                return Set.of();
+            }
+
+            ByteBuffer batch = ByteBuffer.allocate(batchSize);
+            long batchStart = writePosition;
+            long[] entries = new long[emails.size()];
+            for (int i = 0; i < records.size(); i++) {
+                ByteBuffer record = records.get(i);
+                int emailLength = record.getShort(5) & 0xFFFF;
+                int hashLength = record.remaining() - RECORD_OVERHEAD - emailLength;
+                entries[i] = pack(hashPosition(batchStart + batch.position(), emailLength), hashLength);
+                batch.put(record);
+            }
+            batch.flip();
+
+            try {
+                long written = writeFully(channel, batch, batchStart);
+                if (syncOnWrite) {
+                    channel.force(false);
+                }
+                writePosition = batchStart + written;
+            } catch (IOException ex) {
+                truncateQuietly(batchStart);
+                throw new UncheckedIOException("Failed to append user records to " + path, ex);
+            }
+
+            Set<String> inserted = new LinkedHashSet<>();
+            for (int i = 0; i < entries.length; i++) {
+                index.put(emails.get(i), entries[i]);
+                inserted.add(emails.get(i));
+            }
+            return inserted;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    @Override
+    public boolean replacePasswordHash(String email, String expectedHash, String newHash) {
+        appendLock.lock();
+        try {
+            Long entry = index.get(email);
+            if (entry == null || !readHash(channel, entry).equals(expectedHash)) {
+                return false;
+            }
+            append(TYPE_PUT, email, newHash);
+            return true;
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to read user record from " + path, ex);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    @Override
+    public boolean delete(String email) {
+        appendLock.lock();
+        try {
+            if (!index.containsKey(email)) {
+                return false;
+            }
+            append(TYPE_DELETE, email, null);
+            return true;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @implNote 依索引逐筆讀取雜湊，每筆只短暫持有讀鎖，不阻擋走訪期間的寫入與壓縮。
+     */
+    @Override
+    public void forEachUser(BiConsumer<String, String> action) {
+        for (String email : index.keySet()) {
+            findPasswordHash(email).ifPresent(hash -> action.accept(email, hash));
+        }
+    }
+
+    @Override
+    public long size() {
+        return index.size();
+    }
+
+    /**
+     * 失效資料比例超過門檻時執行壓縮。
+     *
+     * @return 實際執行了壓縮時回傳 {@code true}。
+     */
+    public boolean compactIfNeeded() {
+        appendLock.lock();
+        try {
+            if (writePosition < compactionMinBytes || garbageBytes < compactionGarbageRatio * writePosition) {
+                return false;
+            }
+            compact();
+            return true;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * 將所有存活紀錄重寫到新檔案，並以原子性 rename 取代原日誌檔；新檔與所在目錄都寫入磁碟後才回傳。
+     *
+     * @implNote 重寫期間只持有附加鎖，索引在此期間不會變動；查詢仍讀取原檔，
+     *           直到替換檔案與發布新索引時才短暫持有寫鎖。
+     */
+    public void compact() {
+        appendLock.lock();
+        try {
+            long started = System.nanoTime();
+            long before = writePosition;
+            Map<String, Long> compactedIndex = new HashMap<>(index.size() * 4 / 3 + 1);
+            long position;
+
+            try (FileChannel out = FileChannel.open(compactionPath,
+                    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                writeFully(out, header(), 0);
+                position = HEADER_SIZE;
+                for (Map.Entry<String, Long> entry : index.entrySet()) {
+                    byte[] email = entry.getKey().getBytes(StandardCharsets.UTF_8);
+                    byte[] hash = readHash(channel, entry.getValue()).getBytes(StandardCharsets.UTF_8);
+                    ByteBuffer record = encode(TYPE_PUT, email, hash);
+                    compactedIndex.put(entry.getKey(), pack(hashPosition(position, email.length), hash.length));
+                    position += writeFully(out, record, position);
+                }
+                out.force(true);
+            }
+
+            lock.writeLock().lock();
+            try {
+                channel.close();
+                try {
+                    Files.move(compactionPath, path, StandardCopyOption.ATOMIC_MOVE,
+                            StandardCopyOption.REPLACE_EXISTING);
+                } finally {
+                    channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                }
+                index.putAll(compactedIndex);
+            } finally {
+                lock.writeLock().unlock();
+            }
+            // 仍持有附加鎖：目錄項目落盤前不接受新的寫入，否則當機後舊檔回來，寫入新檔的紀錄會一起遺失
+            syncDirectory();
+            writePosition = position;
+            garbageBytes = 0;
+            log.info("Compacted user log {}: {} -> {} bytes in {} ms.", path, before, position,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to compact user log " + path, ex);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (compactor != null) {
+            compactor.shutdownNow();
+        }
+        appendLock.lock();
+        lock.writeLock().lock();
+        try {
+            channel.close();
+        } finally {
+            lock.writeLock().unlock();
+            appendLock.unlock();
+        }
+    }
+
+    private void open() throws IOException {
+        Path parent = path.getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        // 上次壓縮未完成 rename 就中止時遺留的暫存檔，原日誌檔仍完整，直接捨棄。
+        Files.deleteIfExists(compactionPath);
+
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (channel.size() == 0) {
+            writeFully(channel, header(), 0);
+            channel.force(true);
+        } else {
+            verifyHeader();
+        }
+
+        long started = System.nanoTime();
+        recover();
+        log.info("Loaded {} users from {} in {} ms.", index.size(), path,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+    }
+
+    private void verifyHeader() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        readFully(channel, header, 0);
+        header.flip();
+        int magic = header.getInt();
+        int version = header.getInt();
+        if (magic != MAGIC || version != VERSION) {
+            throw new IOException("Not an auth-kit user log (magic=" + Integer.toHexString(magic)
+                    + ", version=" + version + "): " + path);
+        }
+    }
+
+    /**
+     * 循序掃描日誌重建索引；遇到第一筆不完整或 CRC 錯誤的紀錄即截斷檔案。
+     */
+    private void recover() throws IOException {
+        long size = channel.size();
+        long position = HEADER_SIZE;
+        long garbage = 0;
+        CRC32C crc = new CRC32C();
+
+        MappedByteBuffer window = null;
+        long windowStart = 0;
+        long windowEnd = 0;
+
+        while (position < size) {
+            if (window == null || (windowEnd - position < MAX_RECORD_SIZE && windowEnd < size)) {
+                windowStart = position;
+                windowEnd = Math.min(size, position + SCAN_WINDOW);
+                window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, windowEnd - windowStart);
+            }
+
+            int offset = (int) (position - windowStart);
+            int available = (int) (windowEnd - position);
+            if (available < RECORD_OVERHEAD) {
+                break;
+            }
+
+            int length = window.getInt(offset);
+            if (length < RECORD_OVERHEAD - 4 || length > MAX_RECORD_SIZE - 4 || length + 4 > available) {
+                break;
+            }
+            byte type = window.get(offset + 4);
+            int emailLength = window.getShort(offset + 5) & 0xFFFF;
+            if (emailLength > MAX_EMAIL_BYTES || RECORD_OVERHEAD - 4 + emailLength > length) {
+                break;
+            }
+            int hashLength = window.getShort(offset + 7 + emailLength) & 0xFFFF;
+            if (RECORD_OVERHEAD - 4 + emailLength + hashLength != length) {
+                break;
+            }
+            int crcOffset = offset + 4 + length - 4;
+            crc.reset();
+            crc.update(window.slice(offset + 4, length - 4));
+            if ((int) crc.getValue() != window.getInt(crcOffset) || (type != TYPE_PUT && type != TYPE_DELETE)) {
+                break;
+            }
+
+            byte[] emailBytes = new byte[emailLength];
+            window.get(offset + 7, emailBytes);
+            String email = new String(emailBytes, StandardCharsets.UTF_8);
+
+            Long previous;
+            if (type == TYPE_PUT) {
+                previous = index.put(email, pack(hashPosition(position, emailLength), hashLength));
+            } else {
+                previous = index.remove(email);
+                garbage += 4 + length;
+            }
+            if (previous != null) {
+                garbage += RECORD_OVERHEAD + emailLength + hashLength(previous);
+            }
+            position += 4 + length;
+        }
+
+        if (position < size) {
+            log.warn("User log {} has a torn or corrupt tail at offset {}; truncating {} bytes.",
+                    path, position, size - position);
+            channel.truncate(position);
+            channel.force(true);
+        }
+        writePosition = position;
+        garbageBytes = garbage;
+    }
+
+    /**
+     * 附加一筆紀錄，寫入（與 fsync）完成後才更新索引。呼叫端必須持有附加鎖。
+     */
+    private void append(byte type, String email, String passwordHash) {
+        byte[] emailBytes = email.getBytes(StandardCharsets.UTF_8);
+        byte[] hashBytes = passwordHash == null ? EMPTY : passwordHash.getBytes(StandardCharsets.UTF_8);
+        if (emailBytes.length > MAX_EMAIL_BYTES || hashBytes.length > MAX_HASH_BYTES) {
+            throw new IllegalArgumentException("Email or password hash exceeds the user log record limit.");
+        }
+
+        ByteBuffer record = encode(type, emailBytes, hashBytes);
+        long recordStart = writePosition;
+        try {
+            long written = writeFully(channel, record, recordStart);
+            if (syncOnWrite) {
+                channel.force(false);
+            }
+            writePosition = recordStart + written;
+        } catch (IOException ex) {
+            truncateQuietly(recordStart);
+            throw new UncheckedIOException("Failed to append user record to " + path, ex);
+        }
+
+        Long previous = type == TYPE_PUT
+                ? index.put(email, pack(hashPosition(recordStart, emailBytes.length), hashBytes.length))
+                : index.remove(email);
+        if (previous != null) {
+            garbageBytes += RECORD_OVERHEAD + emailBytes.length + hashLength(previous);
+        }
+        if (type == TYPE_DELETE) {
+            garbageBytes += record.capacity();
+        }
+    }
+
+    /**
+     * 讀取索引項目指向的雜湊。
+     *
+     * @implNote 每次查詢只配置一個與雜湊等長的緩衝區；刻意不使用 {@link ThreadLocal} 快取，
+     *           因為在虛擬執行緒模式下每個請求都是新的執行緒，執行緒區域快取反而會在每次請求重新配置。
+     */
+    private String readHash(FileChannel source, long entry) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(hashLength(entry));
+        readFully(source, buffer, entry >>> 16);
+        return new String(buffer.array(), StandardCharsets.UTF_8);
+    }
+
+    private ScheduledExecutorService scheduleCompaction(Duration interval) {
+        if (interval == null || interval.isZero() || interval.isNegative()) {
+            return null;
+        }
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "user-log-compactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long millis = interval.toMillis();
+        executor.scheduleWithFixedDelay(() -> {
+            try {
+                compactIfNeeded();
+            } catch (RuntimeException ex) {
+                log.error("Scheduled compaction of user log {} failed.", path, ex);
+            }
+        }, millis, millis, TimeUnit.MILLISECONDS);
+        return executor;
+    }
+
+    /**
+     * 將日誌所在目錄的項目寫入磁碟，讓 rename 本身也能在當機後保留；{@link FileChannel#force} 只涵蓋檔案內容。
+     */
+    private void syncDirectory() throws IOException {
+        try (FileChannel directory = FileChannel.open(path.toAbsolutePath().getParent(), StandardOpenOption.READ)) {
+            directory.force(true);
+        }
+    }
+
+    private void truncateQuietly(long position) {
+        try {
+            channel.truncate(position);
+        } catch (IOException ex) {
+            log.error("Failed to roll back partial write in user log {}.", path, ex);
+        }
+    }
+
+    private static ByteBuffer encode(byte type, byte[] email, byte[] hash) {
+        int length = RECORD_OVERHEAD - 4 + email.length + hash.length;
+        ByteBuffer buffer = ByteBuffer.allocate(4 + length);
+        buffer.putInt(length)
+                .put(type)
+                .putShort((short) email.length).put(email)
+                .putShort((short) hash.length).put(hash);
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.array(), 4, length - 4);
+        buffer.putInt((int) crc.getValue());
+        return buffer.flip();
+    }
+
+    private static ByteBuffer header() {
+        return ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(VERSION).flip();
+    }
+
+    private static long hashPosition(long recordStart, int emailLength) {
+        return recordStart + 4 + 1 + 2 + emailLength + 2;
+    }
+
+    private static long pack(long hashPosition, int hashLength) {
+        return (hashPosition << 16) | hashLength;
+    }
+
+    private static int hashLength(long entry) {
+        return (int) (entry & 0xFFFF);
+    }
+
+    private static long writeFully(FileChannel target, ByteBuffer buffer, long position) throws IOException {
+        long written = 0;
+        while (buffer.hasRemaining()) {
+            written += target.write(buffer, position + written);
+        }
+        return written;
+    }
+
+    private static void readFully(FileChannel source, ByteBuffer buffer, long position) throws IOException {
+        long read = 0;
+        while (buffer.hasRemaining()) {
+            int n = source.read(buffer, position + read);
+            if (n < 0) {
+                throw new EOFException("Unexpected end of user log at offset " + (position + read));
+            }
+            read += n;
+        }
+    }
+
+}
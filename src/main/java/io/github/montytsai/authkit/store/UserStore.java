@@ -0,0 +1,114 @@
+package io.github.montytsai.authkit.store;
+
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * **使用者儲存 SPI (User Store Service Provider Interface)。**
+ * 定義 {@link io.github.montytsai.authkit.service.AuthService} 所需的最小持久化操作：
+ * 以 email 為鍵，保存已雜湊的密碼。
+ *
+ * @apiNote 實作必須是執行緒安全的；email 在此層視為已正規化的唯一識別符。
+ * @see InMemoryUserStore
+ * @see CompactUserStore
+ * @see LogStructuredUserStore
+ * @see JdbcUserStore
+ */
+public interface UserStore {
+
+    /**
+     * 依 email 查詢已雜湊的密碼。
+     *
+     * @param email 使用者 email。
+     * @return 已雜湊的密碼；使用者不存在時回傳 {@link Optional#empty()}。
+     */
+    Optional<String> findPasswordHash(String email);
+
+    /**
+     * 判斷使用者是否存在。
+     *
+     * @param email 使用者 email。
+     * @return 存在時回傳 {@code true}。
+     */
+    boolean exists(String email);
+
+    /**
+     * 新增或覆寫使用者的密碼雜湊。
+     *
+     * @param email 使用者 email。
+     * @param passwordHash 已雜湊的密碼。
+     */
+    void save(String email, String passwordHash);
+
+    /**
+     * 僅在 email 尚未存在時新增使用者（insert-if-absent），檢查與寫入為單一原子操作。
+     *
+     * @param email 使用者 email。
+     * @param passwordHash 已雜湊的密碼。
+     * @return 實際新增時回傳 {@code true}；email 已存在時回傳 {@code false}，既有的雜湊不會被覆寫。
+     * @implNote 預設實作委派給 {@link #saveAllIfAbsent(Map)}，其原子性與該方法相同。
+     */
+    default boolean saveIfAbsent(String email, String passwordHash) {
+        return saveAllIfAbsent(Map.of(email, passwordHash)).contains(email);
+    }
+
+    /**
+     * 批次新增使用者；已存在的 email 會被略過，不會覆寫既有的雜湊。
+     *
+     * @param passwordHashes email → 已雜湊的密碼，依迭代順序寫入。
+     * @return 實際新增的 email。
+     * @implNote 預設實作逐筆呼叫 {@link #exists(String)} 與 {@link #save(String, String)}，不具原子性；
+     *           內建引擎皆以單次批次寫入覆寫此方法。
+     */
+    default Set<String> saveAllIfAbsent(Map<String, String> passwordHashes) {
+        Set<String> inserted = new LinkedHashSet<>();
+        passwordHashes.forEach((email, passwordHash) -> {
+            if (!exists(email)) {
+                save(email, passwordHash);
+                inserted.add(email);
+            }
+        });
+        return inserted;
+    }
+
+    /**
+     * 僅在使用者目前的雜湊等於 {@code expectedHash} 時，將其替換為 {@code newHash}（compare-and-set）。
+     *
+     * @param email 使用者 email。
+     * @param expectedHash 預期的目前雜湊。
+     * @param newHash 新的雜湊。
+     * @return 替換成功時回傳 {@code true}；使用者不存在或雜湊已被其他操作變更時回傳 {@code false}。
+     */
+    boolean replacePasswordHash(String email, String expectedHash, String newHash);
+
+    /**
+     * 刪除使用者。
+     *
+     * @param email 使用者 email。
+     * @return 使用者原本存在並已刪除時回傳 {@code true}。
+     */
+    boolean delete(String email);
+
+    /**
+     * 逐一走訪所有使用者。
+     *
+     * @param action 以 email 與已雜湊的密碼呼叫。
+     * @throws UnsupportedOperationException 如果引擎不支援走訪。
+     * @implNote 走訪為弱一致性 (weakly consistent)：不鎖定整個儲存，期間發生的寫入可能看得到也可能看不到，但每位使用者最多出現一次。
+     *           供叢集重新平衡等背景工作使用，不應出現在請求路徑上。
+     */
+    default void forEachUser(BiConsumer<String, String> action) {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " does not support iteration");
+    }
+
+    /**
+     * 目前儲存的使用者數量。
+     *
+     * @return 使用者總數。
+     */
+    long size();
+
+}
@@ -0,0 +1,122 @@
+package io.github.montytsai.authkit.store;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * **暖機期間的拋棄式使用者儲存裝飾器。**
+ * 啟動暖機進行中時，保留網域 {@value #SYNTHETIC_DOMAIN} 的 email 改存入一個記憶體儲存，
+ * 讓合成的註冊與登入走完整的請求路徑，卻不寫入實際的儲存引擎；暖機結束後丟棄這些資料並停止分流。
+ *
+ * @apiNote {@code .invalid} 為保留的頂級網域（RFC 2606），不會是真實使用者的 email。
+ *          暖機結束後，所有 email（包含此網域）都直接交由實際的儲存引擎處理。
+ * @implNote 未分流時每次操作只多一次 volatile 讀取。{@link #size()} 只計算實際儲存中的使用者，合成帳號不影響使用者數量指標。
+ */
+public final class WarmUpUserStore implements UserStore, Closeable {
+
+    /**
+     * 合成流量使用的 email 網域。
+     */
+    public static final String SYNTHETIC_DOMAIN = "warm-up.invalid";
+
+    private static final String SYNTHETIC_SUFFIX = "@" + SYNTHETIC_DOMAIN;
+
+    private final UserStore delegate;
+    private volatile InMemoryUserStore throwaway = new InMemoryUserStore();
+
+    public WarmUpUserStore(UserStore delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * 判斷 email 目前是否會被分流到拋棄式儲存。
+     *
+     * @param email 使用者 email。
+     * @return 暖機進行中且 email 屬於 {@value #SYNTHETIC_DOMAIN} 時回傳 {@code true}。
+     */
+    public boolean isSynthetic(String email) {
+        return throwaway != null && email != null
+                && email.regionMatches(true, email.length() - SYNTHETIC_SUFFIX.length(), SYNTHETIC_SUFFIX, 0,
+                SYNTHETIC_SUFFIX.length());
+    }
+
+    /**
+     * 結束暖機：丟棄所有合成帳號，之後不再分流。
+     */
+    public void finish() {
+        throwaway = null;
+    }
+
+    @Override
+    public Optional<String> findPasswordHash(String email) {
+        return route(email).findPasswordHash(email);
+    }
+
+    @Override
+    public boolean exists(String email) {
+        return route(email).exists(email);
+    }
+
+    @Override
+    public void save(String email, String passwordHash) {
+        route(email).save(email, passwordHash);
+    }
+
+    @Override
+    public boolean saveIfAbsent(String email, String passwordHash) {
+        return route(email).saveIfAbsent(email, passwordHash);
+    }
+
+    @Override
+    public Set<String> saveAllIfAbsent(Map<String, String> passwordHashes) {
+        InMemoryUserStore synthetic = throwaway;
+        if (synthetic == null) {
+            return delegate.saveAllIfAbsent(passwordHashes);
+        }
+        Map<String, String> real = new LinkedHashMap<>();
+        Map<String, String> discarded = new LinkedHashMap<>();
+        passwordHashes.forEach((email, hash) -> (isSynthetic(email) ? discarded : real).put(email, hash));
+        Set<String> inserted = new LinkedHashSet<>(delegate.saveAllIfAbsent(real));
+        inserted.addAll(synthetic.saveAllIfAbsent(discarded));
+        return inserted;
+    }
+
+    @Override
+    public boolean replacePasswordHash(String email, String expectedHash, String newHash) {
+        return route(email).replacePasswordHash(email, expectedHash, newHash);
+    }
+
+    @Override
+    public boolean delete(String email) {
+        return route(email).delete(email);
+    }
+
+    @Override
+    public void forEachUser(BiConsumer<String, String> action) {
+        delegate.forEachUser(action);
+    }
+
+    @Override
+    public long size() {
+        return delegate.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (delegate instanceof Closeable closeable) {
+            closeable.close();
+        }
+    }
+
+    private UserStore route(String email) {
+        InMemoryUserStore synthetic = throwaway;
+        return synthetic != null && isSynthetic(email) ? synthetic : delegate;
+    }
+
+}
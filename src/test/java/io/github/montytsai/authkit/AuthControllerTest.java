@@ -1,23 +1,37 @@
 package io.github.montytsai.authkit;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import io.github.montytsai.authkit.dto.LoginRequest;
+import io.github.montytsai.authkit.dto.RefreshTokenRequest;
 import io.github.montytsai.authkit.dto.RegisterRequest;
+import io.github.montytsai.authkit.store.UserStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 
 import org.junit.jupiter.api.*;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 
-import static org.hamcrest.Matchers.containsString;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.matchesPattern;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @SpringBootTest
+@ActiveProfiles("test")
 @AutoConfigureMockMvc
+@AutoConfigureObservability(tracing = false)
 @TestMethodOrder(MethodOrderer.OrderAnnotation.class)
 class AuthControllerTest {
 
@@ -27,6 +41,15 @@ class AuthControllerTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private UserStore userStore;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
     @Test
     @Order(1)
     @DisplayName("成功註冊應回傳 201 Created")
@@ -53,7 +76,9 @@ class AuthControllerTest {
         mockMvc.perform(post("/api/auth/register")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(request)))
-                .andExpect(status().isConflict());
+                .andExpect(status().isConflict())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.error").value("A user with this email already exists."));
     }
 
     @Test
@@ -82,7 +107,7 @@ class AuthControllerTest {
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(loginRequest)))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.token").value(containsString("dummy-jwt-token")));
+                .andExpect(jsonPath("$.token").value(matchesPattern("[\\w-]+\\.[\\w-]+\\.[\\w-]+")));
     }
 
     @Test
@@ -96,7 +121,179 @@ class AuthControllerTest {
         mockMvc.perform(post("/api/auth/login")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(loginRequest)))
+                .andExpect(status().isUnauthorized())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.error").value("Invalid credentials. Please check your email and password."));
+    }
+
+    @Test
+    @Order(6)
+    @DisplayName("攜帶登入取得的 JWT 存取受保護端點應回傳 200 OK")
+    void whenAccessProtectedEndpointWithToken_thenReturns200() throws Exception {
+        LoginRequest loginRequest = new LoginRequest();
+        loginRequest.setEmail("newuser@example.com");
+        loginRequest.setPassword("password123");
+
+        String response = mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(loginRequest)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        String token = objectMapper.readTree(response).get("token").asText();
+
+        mockMvc.perform(get("/api/users/me")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.email").value("newuser@example.com"));
+    }
+
+    @Test
+    @Order(7)
+    @DisplayName("未攜帶或攜帶無效 JWT 存取受保護端點應回傳 401 Unauthorized")
+    void whenAccessProtectedEndpointWithoutValidToken_thenReturns401() throws Exception {
+        mockMvc.perform(get("/api/users/me"))
                 .andExpect(status().isUnauthorized());
+
+        mockMvc.perform(get("/api/users/me")
+                        .header("Authorization", "Bearer not.a.jwt"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    @Order(8)
+    @DisplayName("連續密碼錯誤達門檻後應回傳 429 Too Many Requests 並附帶 Retry-After")
+    void whenRepeatedWrongPasswords_thenReturns429WithRetryAfter() throws Exception {
+        LoginRequest loginRequest = new LoginRequest();
+        loginRequest.setEmail("bruteforce@example.com");
+        loginRequest.setPassword("wrongpassword");
+        String body = objectMapper.writeValueAsString(loginRequest);
+
+        for (int i = 0; i < 5; i++) {
+            mockMvc.perform(post("/api/auth/login").contentType(MediaType.APPLICATION_JSON).content(body))
+                    .andExpect(status().isUnauthorized());
+        }
+
+        mockMvc.perform(post("/api/auth/login").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "30"));
+    }
+
+    @Test
+    @Order(9)
+    @DisplayName("登入結果應依異常類型計數，並記錄端到端延遲與使用者查詢延遲")
+    void whenLoginsAttempted_thenMetricsRecorded() {
+        assertThat(loginAttempts("success", "none")).isPositive();
+        assertThat(loginAttempts("failure", "BadCredentialsException")).isGreaterThanOrEqualTo(6);
+        assertThat(loginAttempts("failure", "TooManyLoginAttemptsException")).isGreaterThanOrEqualTo(1);
+
+        assertThat(meterRegistry.get("authkit.login.duration").tag("outcome", "success").timer().count()).isPositive();
+        assertThat(meterRegistry.get("authkit.user.lookup").tag("result", "found").timer().count()).isPositive();
+        assertThat(meterRegistry.get("authkit.password.duration").tag("operation", "matches").timer().count()).isPositive();
+        assertThat(meterRegistry.get("authkit.users.stored").gauge().value()).isPositive();
+    }
+
+    @Test
+    @Order(10)
+    @DisplayName("Refresh Token 應可換發新 Token；登出後該工作階段的 Token 皆回傳 401")
+    void whenRefreshThenLogout_thenSessionTokensRejected() throws Exception {
+        LoginRequest loginRequest = new LoginRequest();
+        loginRequest.setEmail("newuser@example.com");
+        loginRequest.setPassword("password123");
+        JsonNode login = objectMapper.readTree(mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(loginRequest)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+
+        JsonNode refreshed = objectMapper.readTree(mockMvc.perform(post("/api/auth/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(refreshBody(login.get("refreshToken").asText())))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+        String accessToken = refreshed.get("token").asText();
+        String refreshToken = refreshed.get("refreshToken").asText();
+
+        mockMvc.perform(get("/api/users/me").header("Authorization", "Bearer " + accessToken))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(post("/api/auth/logout")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(refreshBody(refreshToken)))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/api/users/me").header("Authorization", "Bearer " + accessToken))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(post("/api/auth/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(refreshBody(refreshToken)))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    @Order(11)
+    @DisplayName("每次登入嘗試與註冊結果都應非同步寫入稽核日誌，且不應丟棄")
+    void whenAuthEventsOccur_thenAuditLogWritesEveryOne() throws Exception {
+        double loginAttempts = meterRegistry.get("authkit.login.attempts").counters().stream()
+                .mapToDouble(Counter::count)
+                .sum();
+        // 一次成功註冊與一次註冊衝突（Order 1、2），加上每一次登入嘗試
+        double expected = loginAttempts + 2;
+
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (auditEvents("written") < expected && System.nanoTime() - deadline < 0) {
+            Thread.sleep(20);
+        }
+        assertThat(auditEvents("written")).isGreaterThanOrEqualTo(expected);
+        assertThat(auditEvents("dropped")).isZero();
+        assertThat(auditEvents("failed")).isZero();
+    }
+
+    @Test
+    @Order(12)
+    @DisplayName("Prometheus 指標僅限管理帳號抓取：未認證回傳 401，一般使用者回傳 403")
+    void whenScrapingMetrics_thenOnlyAdminsAllowed() throws Exception {
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isUnauthorized());
+
+        mockMvc.perform(get("/actuator/prometheus")
+                        .header("Authorization", "Bearer " + token("newuser@example.com")))
+                .andExpect(status().isForbidden());
+
+        // 管理 email 不開放公開註冊，直接寫入儲存層，相當於 authkit.import.admin-password-hashes
+        userStore.saveIfAbsent("admin@example.com", passwordEncoder.encode("password123"));
+        mockMvc.perform(get("/actuator/prometheus")
+                        .header("Authorization", "Bearer " + token("admin@example.com")))
+                .andExpect(status().isOk());
+    }
+
+    private String token(String email) throws Exception {
+        LoginRequest loginRequest = new LoginRequest();
+        loginRequest.setEmail(email);
+        loginRequest.setPassword("password123");
+        String response = mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(loginRequest)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(response).get("token").asText();
+    }
+
+    private String refreshBody(String refreshToken) throws Exception {
+        RefreshTokenRequest request = new RefreshTokenRequest();
+        request.setRefreshToken(refreshToken);
+        return objectMapper.writeValueAsString(request);
+    }
+
+    private double auditEvents(String outcome) {
+        return meterRegistry.get("authkit.audit.events").tag("outcome", outcome).functionCounter().count();
+    }
+
+    private double loginAttempts(String outcome, String exception) {
+        return meterRegistry.get("authkit.login.attempts")
+                .tag("outcome", outcome)
+                .tag("exception", exception)
+                .counter()
+                .count();
     }
 
-}
\ No newline at end of file
+}
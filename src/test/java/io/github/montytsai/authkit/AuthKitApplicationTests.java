@@ -1,13 +1,31 @@
 package io.github.montytsai.authkit;
 
+import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
 
 @SpringBootTest
+@ActiveProfiles("test")
 class AuthKitApplicationTests {
 
+	@Autowired
+	private ApplicationContext context;
+
 	@Test
 	void contextLoads() {
 	}
 
+	@Test
+	@DisplayName("未使用 jdbc 儲存時不應建立資料來源")
+	void whenStoreIsNotJdbc_thenNoDataSource() {
+		assertThat(context.getBeanNamesForType(DataSource.class)).isEmpty();
+	}
+
 }
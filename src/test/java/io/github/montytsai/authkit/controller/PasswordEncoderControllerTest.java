@@ -0,0 +1,98 @@
+package io.github.montytsai.authkit.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.montytsai.authkit.dto.LoginRequest;
+import io.github.montytsai.authkit.dto.RegisterRequest;
+import io.github.montytsai.authkit.store.UserStore;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import static org.hamcrest.Matchers.greaterThan;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+class PasswordEncoderControllerTest {
+
+    private static final String PASSWORD = "password123";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserStore userStore;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Test
+    @DisplayName("管理員可取得各演算法的每秒雜湊次數，目前設定標記為 active；非管理員應回傳 403")
+    void whenAdminRequestsCalibration_thenReportsHashesPerSecond() throws Exception {
+        String adminToken = adminToken();
+
+        mockMvc.perform(get("/api/admin/password-encoders/calibration")
+                        .param("presets", "false")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3))
+                .andExpect(jsonPath("$[0].algorithm").value("bcrypt"))
+                .andExpect(jsonPath("$[0].parameters").value("cost=4"))
+                .andExpect(jsonPath("$[0].active").value(true))
+                .andExpect(jsonPath("$[0].hashesPerSecond").value(greaterThan(0.0)))
+                .andExpect(jsonPath("$[1].algorithm").value("argon2"))
+                .andExpect(jsonPath("$[1].memoryKib").value(19 * 1024))
+                .andExpect(jsonPath("$[2].algorithm").value("scrypt"));
+
+        String userToken = registerAndLogin("calibration-user@example.com");
+        mockMvc.perform(get("/api/admin/password-encoders/calibration")
+                        .header("Authorization", "Bearer " + userToken))
+                .andExpect(status().isForbidden());
+    }
+
+    private String adminToken() throws Exception {
+        // 管理 email 不開放公開註冊，直接寫入儲存層，相當於 authkit.import.admin-password-hashes
+        userStore.saveIfAbsent("admin@example.com", passwordEncoder.encode(PASSWORD));
+        return token("admin@example.com");
+    }
+
+    private String registerAndLogin(String email) throws Exception {
+        RegisterRequest request = new RegisterRequest();
+        request.setEmail(email);
+        request.setPassword(PASSWORD);
+        mockMvc.perform(post("/api/auth/register")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)));
+
+        return token(email);
+    }
+
+    private String token(String email) throws Exception {
+        String response = login(email).andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(response).get("token").asText();
+    }
+
+    private ResultActions login(String email) throws Exception {
+        LoginRequest loginRequest = new LoginRequest();
+        loginRequest.setEmail(email);
+        loginRequest.setPassword(PASSWORD);
+        return mockMvc.perform(post("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(loginRequest)));
+    }
+
+}
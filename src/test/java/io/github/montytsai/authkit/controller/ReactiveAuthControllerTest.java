@@ -0,0 +1,92 @@
+package io.github.montytsai.authkit.controller;
+
+import io.github.montytsai.authkit.dto.LoginRequest;
+import io.github.montytsai.authkit.dto.LoginResponse;
+import io.github.montytsai.authkit.dto.RegisterRequest;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles({"test", "reactive"})
+@AutoConfigureWebTestClient
+class ReactiveAuthControllerTest {
+
+    private static final String PASSWORD = "password123";
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Test
+    @DisplayName("響應式堆疊：註冊、登入後攜帶 JWT 存取受保護端點應回傳 200 OK")
+    void whenRegisterAndLogin_thenTokenGrantsAccess() {
+        register("reactive-user@example.com").expectStatus().isCreated();
+        register("reactive-user@example.com").expectStatus().isEqualTo(409);
+
+        LoginResponse response = login("reactive-user@example.com", PASSWORD)
+                .expectStatus().isOk()
+                .expectBody(LoginResponse.class).returnResult().getResponseBody();
+        assertThat(response).isNotNull();
+        assertThat(response.getToken()).isNotBlank();
+        assertThat(response.getRefreshToken()).isNotBlank();
+
+        webTestClient.get().uri("/api/users/me")
+                .header("Authorization", "Bearer " + response.getToken())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.email").isEqualTo("reactive-user@example.com");
+    }
+
+    @Test
+    @DisplayName("響應式堆疊：密碼錯誤、帳號不存在或未攜帶 JWT 應回傳 401；參數不合法應回傳 400")
+    void whenCredentialsOrTokenInvalid_thenReturnsSameErrorsAsServletStack() {
+        register("reactive-wrong@example.com").expectStatus().isCreated();
+
+        login("reactive-wrong@example.com", "wrong-password").expectStatus().isUnauthorized();
+        login("reactive-missing@example.com", PASSWORD).expectStatus().isUnauthorized();
+        webTestClient.get().uri("/api/users/me").exchange().expectStatus().isUnauthorized();
+        webTestClient.get().uri("/api/users/me")
+                .header("Authorization", "Bearer invalid.token.value")
+                .exchange()
+                .expectStatus().isUnauthorized();
+
+        RegisterRequest invalid = new RegisterRequest();
+        invalid.setEmail("not-an-email");
+        invalid.setPassword("short");
+        webTestClient.post().uri("/api/auth/register")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(invalid)
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.email").exists().jsonPath("$.password").exists();
+    }
+
+    private WebTestClient.ResponseSpec register(String email) {
+        RegisterRequest request = new RegisterRequest();
+        request.setEmail(email);
+        request.setPassword(PASSWORD);
+        return webTestClient.post().uri("/api/auth/register")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(request)
+                .exchange();
+    }
+
+    private WebTestClient.ResponseSpec login(String email, String password) {
+        LoginRequest request = new LoginRequest();
+        request.setEmail(email);
+        request.setPassword(password);
+        return webTestClient.post().uri("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(request)
+                .exchange();
+    }
+
+}
@@ -0,0 +1,128 @@
+package io.github.montytsai.authkit.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.montytsai.authkit.dto.LoginRequest;
+import io.github.montytsai.authkit.dto.RegisterRequest;
+import io.github.montytsai.authkit.store.UserStore;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+class UserImportControllerTest {
+
+    private static final String PASSWORD = "password123";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserStore userStore;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Test
+    @DisplayName("管理員匯入 CSV 應串流回傳逐筆結果與統計，匯入的帳號可立即登入")
+    void whenAdminImportsCsv_thenStreamsResultsAndUsersCanLogin() throws Exception {
+        String token = adminToken();
+
+        mockMvc.perform(post("/api/admin/users/import")
+                        .header("Authorization", "Bearer " + token)
+                        .contentType("text/csv")
+                        .content("email,password\nimported1@example.com,password123\nimported2@example.com,123\n"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(containsString("\"email\":\"imported1@example.com\",\"status\":\"CREATED\"")))
+                .andExpect(content().string(containsString("\"status\":\"INVALID\"")))
+                .andExpect(content().string(containsString("\"total\":2,\"created\":1")));
+
+        login("imported1@example.com").andExpect(status().isOk());
+    }
+
+    @Test
+    @DisplayName("非管理員呼叫匯入端點應回傳 403，未登入應回傳 401")
+    void whenCallerIsNotAdmin_thenRejected() throws Exception {
+        String token = registerAndLogin("regular@example.com");
+
+        mockMvc.perform(post("/api/admin/users/import")
+                        .header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{\"email\":\"x@example.com\",\"password\":\"password123\"}\n"))
+                .andExpect(status().isForbidden());
+
+        mockMvc.perform(post("/api/admin/users/import")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{\"email\":\"x@example.com\",\"password\":\"password123\"}\n"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    @DisplayName("列於 authkit.import.admins 的 email 不能公開註冊，應與重複註冊一樣回傳 409")
+    void whenAdminEmailRegisteredPublicly_thenConflict() throws Exception {
+        RegisterRequest request = new RegisterRequest();
+        request.setEmail("admin@example.com");
+        request.setPassword("attacker-password");
+        mockMvc.perform(post("/api/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isConflict());
+
+        LoginRequest loginRequest = new LoginRequest();
+        loginRequest.setEmail("admin@example.com");
+        loginRequest.setPassword("attacker-password");
+        mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(loginRequest)))
+                .andExpect(status().isUnauthorized());
+    }
+
+    private String adminToken() throws Exception {
+        // 管理 email 不開放公開註冊，直接寫入儲存層，相當於 authkit.import.admin-password-hashes
+        userStore.saveIfAbsent("admin@example.com", passwordEncoder.encode(PASSWORD));
+        return token("admin@example.com");
+    }
+
+    private String registerAndLogin(String email) throws Exception {
+        RegisterRequest request = new RegisterRequest();
+        request.setEmail(email);
+        request.setPassword(PASSWORD);
+        mockMvc.perform(post("/api/auth/register")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)));
+
+        return token(email);
+    }
+
+    private String token(String email) throws Exception {
+        String response = login(email).andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(response).get("token").asText();
+    }
+
+    private ResultActions login(String email) throws Exception {
+        LoginRequest loginRequest = new LoginRequest();
+        loginRequest.setEmail(email);
+        loginRequest.setPassword(PASSWORD);
+        return mockMvc.perform(post("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(loginRequest)));
+    }
+
+}
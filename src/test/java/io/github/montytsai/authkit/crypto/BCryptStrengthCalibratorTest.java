@@ -0,0 +1,30 @@
+package io.github.montytsai.authkit.crypto;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BCryptStrengthCalibratorTest {
+
+    private static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    @DisplayName("應選出推算延遲最接近目標的成本因子")
+    void whenBaseIsFasterThanTarget_thenPicksClosestStrength() {
+        // 成本 10 = 5 ms → 11 = 10 ms → ... → 14 = 80 ms
+        assertThat(BCryptStrengthCalibrator.selectStrength(5 * MILLIS, 80 * MILLIS, 10, 16)).isEqualTo(14);
+        // 成本 10 = 30 ms → 11 = 60 ms（較 120 ms 更接近 80 ms）
+        assertThat(BCryptStrengthCalibrator.selectStrength(30 * MILLIS, 80 * MILLIS, 10, 16)).isEqualTo(11);
+    }
+
+    @Test
+    @DisplayName("結果不得低於下限或高於上限")
+    void whenOutOfBounds_thenClamped() {
+        assertThat(BCryptStrengthCalibrator.selectStrength(500 * MILLIS, 80 * MILLIS, 10, 16)).isEqualTo(10);
+        assertThat(BCryptStrengthCalibrator.selectStrength(MILLIS / 100, 80 * MILLIS, 10, 16)).isEqualTo(16);
+    }
+
+}
@@ -0,0 +1,137 @@
+package io.github.montytsai.authkit.crypto;
+
+import io.github.montytsai.authkit.exception.HashingCapacityExceededException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BoundedPasswordEncoderTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final ThreadPoolExecutor executor = new ThreadPoolExecutor(
+            1, 1, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(1));
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("雜湊結果應與原始加密器一致並記錄雜湊時間")
+    void whenPoolHasCapacity_thenDelegatesAndRecordsMetrics() {
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(new ReversingEncoder(), executor, registry);
+
+        assertThat(encoder.encode("secret")).isEqualTo("terces");
+        assertThat(encoder.matches("secret", "terces")).isTrue();
+        assertThat(registry.get("authkit.hashing.duration").tag("operation", "matches").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("工作池與佇列皆滿時應立即拒絕")
+    void whenPoolAndQueueAreFull_thenRejectsFast() throws Exception {
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(new ReversingEncoder(), executor, registry);
+        executor.execute(this::awaitRelease);
+        executor.execute(this::awaitRelease);
+
+        assertThatThrownBy(() -> encoder.encode("secret"))
+                .isInstanceOf(HashingCapacityExceededException.class);
+        assertThat(registry.get("authkit.hashing.rejected").counter().count()).isEqualTo(1);
+        assertThat(registry.get("authkit.hashing.queue.depth").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("等待中的呼叫端被中斷時，名額應保留到工作執行緒上的雜湊真正結束才歸還")
+    void whenCallerInterrupted_thenSlotHeldUntilHashFinishes() throws Exception {
+        HashingAdmission admission = new HashingAdmission(1);
+        CountDownLatch hashing = new CountDownLatch(1);
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(new ReversingEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                hashing.countDown();
+                awaitReleaseUninterruptibly();
+                return super.encode(rawPassword);
+            }
+        }, executor, admission, registry);
+
+        AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        Thread caller = new Thread(() -> {
+            try {
+                encoder.encode("secret");
+            } catch (RuntimeException ex) {
+                failure.set(ex);
+            }
+        });
+        caller.start();
+        assertThat(hashing.await(5, TimeUnit.SECONDS)).isTrue();
+        caller.interrupt();
+        caller.join(5_000);
+
+        assertThat(failure.get()).isInstanceOf(IllegalStateException.class);
+        assertThat(admission.inUse()).isEqualTo(1);
+        assertThatThrownBy(() -> encoder.matches("secret", "terces"))
+                .isInstanceOf(HashingCapacityExceededException.class);
+
+        release.countDown();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (admission.inUse() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(admission.inUse()).isZero();
+        assertThat(encoder.matches("secret", "terces")).isTrue();
+    }
+
+    /**
+     * 模擬 BCrypt：不回應中斷，一定算完才返回。
+     */
+    private void awaitReleaseUninterruptibly() {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                release.await();
+                break;
+            } catch (InterruptedException ex) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void awaitRelease() {
+        try {
+            release.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static class ReversingEncoder implements PasswordEncoder {
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            return new StringBuilder(rawPassword).reverse().toString();
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return encode(rawPassword).equals(encodedPassword);
+        }
+
+    }
+
+}
@@ -0,0 +1,60 @@
+package io.github.montytsai.authkit.crypto;
+
+import io.github.montytsai.authkit.config.PasswordEncoderProperties;
+import io.github.montytsai.authkit.config.PasswordEncoderProperties.Algorithm;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.util.unit.DataSize;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PasswordAlgorithmsTest {
+
+    private static final String PASSWORD = "password123";
+
+    @Test
+    @DisplayName("切換為 Argon2id 後新雜湊帶前綴，既有無前綴的 BCrypt 與其他演算法的雜湊仍可驗證並標記為需升級")
+    void whenArgon2idActive_thenLegacyHashesStillVerify() {
+        PasswordEncoder encoder = new PasswordAlgorithms(properties(Algorithm.ARGON2ID, 1), 4).delegatingEncoder();
+        PasswordEncoder scrypt = new PasswordAlgorithms(properties(Algorithm.SCRYPT, 1), 4).delegatingEncoder();
+
+        String argon2Hash = encoder.encode(PASSWORD);
+        String legacyHash = new BCryptPasswordEncoder(4).encode(PASSWORD);
+        String scryptHash = scrypt.encode(PASSWORD);
+
+        assertThat(argon2Hash).startsWith("{argon2}$argon2id$v=19$m=1024,t=1,p=1$");
+        assertThat(scryptHash).startsWith("{scrypt}$");
+        assertThat(encoder.matches(PASSWORD, argon2Hash)).isTrue();
+        assertThat(encoder.matches(PASSWORD, legacyHash)).isTrue();
+        assertThat(encoder.matches(PASSWORD, scryptHash)).isTrue();
+        assertThat(encoder.matches("wrong-password", legacyHash)).isFalse();
+
+        assertThat(encoder.upgradeEncoding(argon2Hash)).isFalse();
+        assertThat(encoder.upgradeEncoding(legacyHash)).isTrue();
+        assertThat(encoder.upgradeEncoding(scryptHash)).isTrue();
+    }
+
+    @Test
+    @DisplayName("提高 Argon2id 的記憶體成本後，舊參數的雜湊應標記為需升級")
+    void whenArgon2MemoryRaised_thenOldHashesNeedUpgrade() {
+        String weakHash = new PasswordAlgorithms(properties(Algorithm.ARGON2ID, 1), 4).delegatingEncoder().encode(PASSWORD);
+        PasswordEncoder stronger = new PasswordAlgorithms(properties(Algorithm.ARGON2ID, 2), 4).delegatingEncoder();
+
+        assertThat(stronger.matches(PASSWORD, weakHash)).isTrue();
+        assertThat(stronger.upgradeEncoding(weakHash)).isTrue();
+    }
+
+    private static PasswordEncoderProperties properties(Algorithm algorithm, int argon2MemoryMegabytes) {
+        PasswordEncoderProperties properties = new PasswordEncoderProperties();
+        properties.setAlgorithm(algorithm);
+        properties.getArgon2().setMemory(DataSize.ofMegabytes(argon2MemoryMegabytes));
+        properties.getArgon2().setIterations(1);
+        properties.getScrypt().setCpuCost(1 << 10);
+        properties.getScrypt().setParallelism(1);
+        return properties;
+    }
+
+}
@@ -0,0 +1,104 @@
+package io.github.montytsai.authkit.crypto;
+
+import io.github.montytsai.authkit.exception.HashingCapacityExceededException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ReactiveHashingSchedulerTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final ThreadPoolExecutor executor = new ThreadPoolExecutor(
+            1, 1, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>());
+    private final HashingAdmission admission = new HashingAdmission(1);
+    private final ReactiveHashingScheduler scheduler =
+            new ReactiveHashingScheduler(executor, admission, new SimpleMeterRegistry());
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("取消訂閱時，名額應保留到工作執行緒上的雜湊真正結束才歸還")
+    void whenSubscriptionCancelled_thenSlotHeldUntilHashFinishes() throws Exception {
+        CountDownLatch hashing = new CountDownLatch(1);
+        Disposable subscription = scheduler.submit(() -> {
+            hashing.countDown();
+            awaitReleaseUninterruptibly();
+            return "hash";
+        }).subscribe();
+        assertThat(hashing.await(5, TimeUnit.SECONDS)).isTrue();
+
+        subscription.dispose();
+        assertThat(admission.inUse()).isEqualTo(1);
+        assertThatThrownBy(() -> scheduler.submit(() -> "other").block(Duration.ofSeconds(5)))
+                .isInstanceOf(HashingCapacityExceededException.class);
+
+        release.countDown();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (admission.inUse() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(admission.inUse()).isZero();
+        assertThat(scheduler.submit(() -> "other").block(Duration.ofSeconds(5))).isEqualTo("other");
+    }
+
+    @Test
+    @DisplayName("尚未開始就取消的任務應立即歸還名額，且之後不再執行")
+    void whenCancelledBeforeStart_thenSlotReleasedAndTaskSkipped() throws Exception {
+        HashingAdmission shared = new HashingAdmission(2);
+        ReactiveHashingScheduler twoSlots = new ReactiveHashingScheduler(executor, shared, new SimpleMeterRegistry());
+        CountDownLatch hashing = new CountDownLatch(1);
+        twoSlots.submit(() -> {
+            hashing.countDown();
+            awaitReleaseUninterruptibly();
+            return "first";
+        }).subscribe();
+        assertThat(hashing.await(5, TimeUnit.SECONDS)).isTrue();
+
+        CountDownLatch queuedRan = new CountDownLatch(1);
+        Disposable queued = twoSlots.submit(() -> {
+            queuedRan.countDown();
+            return "queued";
+        }).subscribe();
+        assertThat(shared.inUse()).isEqualTo(2);
+
+        queued.dispose();
+        assertThat(shared.inUse()).isEqualTo(1);
+        release.countDown();
+        assertThat(queuedRan.await(200, TimeUnit.MILLISECONDS)).isFalse();
+    }
+
+    /**
+     * 模擬 BCrypt：不回應中斷，一定算完才返回。
+     */
+    private void awaitReleaseUninterruptibly() {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                release.await();
+                break;
+            } catch (InterruptedException ex) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
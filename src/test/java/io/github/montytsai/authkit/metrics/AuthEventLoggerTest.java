@@ -0,0 +1,101 @@
+package io.github.montytsai.authkit.metrics;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.github.montytsai.authkit.config.AuthEventLogProperties;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.authentication.BadCredentialsException;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AuthEventLoggerTest {
+
+    private final Logger logger = (Logger) LoggerFactory.getLogger(AuthEventLogger.LOGGER_NAME);
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+    private Level originalLevel;
+
+    @BeforeEach
+    void attachAppender() {
+        originalLevel = logger.getLevel();
+        logger.setLevel(Level.INFO);
+        appender.start();
+        logger.addAppender(appender);
+    }
+
+    @AfterEach
+    void detachAppender() {
+        logger.detachAppender(appender);
+        logger.setLevel(originalLevel);
+    }
+
+    @Test
+    @DisplayName("取樣比例為 0 時不記錄成功事件，但失敗與註冊衝突仍一律記錄")
+    void whenSuccessSampledOut_thenOnlyFailuresLogged() {
+        AuthEventLogger events = events(0.0);
+
+        for (int i = 0; i < 100; i++) {
+            events.loginSucceeded("user@example.com");
+            events.registered("user@example.com");
+        }
+        events.loginFailed("user@example.com", new BadCredentialsException("bad"));
+        events.registrationConflict("user@example.com");
+
+        assertThat(appender.list).extracting(ILoggingEvent::getFormattedMessage).containsExactly(
+                "event=login_failure user=user@example.com reason=BadCredentialsException",
+                "event=register_conflict user=user@example.com");
+    }
+
+    @Test
+    @DisplayName("取樣比例為 1 時每個成功事件各記錄一行")
+    void whenFullSampling_thenEverySuccessLogged() {
+        AuthEventLogger events = events(1.0);
+
+        events.loginSucceeded("user@example.com");
+        events.registered("new@example.com");
+
+        assertThat(appender.list).extracting(ILoggingEvent::getFormattedMessage).containsExactly(
+                "event=login_success user=user@example.com",
+                "event=register_success user=new@example.com");
+    }
+
+    @Test
+    @DisplayName("每秒失敗事件超過上限時只記錄上限內的事件，其餘在下一秒彙總為一行計數")
+    void whenFailuresExceedLimit_thenExcessSummarisedInNextWindow() {
+        AuthEventLogProperties properties = new AuthEventLogProperties();
+        properties.setMaxFailuresPerSecond(2);
+        AtomicLong nanos = new AtomicLong();
+        Ticker ticker = nanos::get;
+        AuthEventLogger events = new AuthEventLogger(properties, ticker);
+
+        for (int i = 0; i < 5; i++) {
+            events.loginFailed("user" + i + "@example.com", new BadCredentialsException("bad"));
+        }
+        events.registrationConflict("taken@example.com");
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        events.loginFailed("late@example.com", new BadCredentialsException("bad"));
+
+        assertThat(appender.list).extracting(ILoggingEvent::getFormattedMessage).containsExactly(
+                "event=login_failure user=user0@example.com reason=BadCredentialsException",
+                "event=login_failure user=user1@example.com reason=BadCredentialsException",
+                "event=failures_suppressed count=4",
+                "event=login_failure user=late@example.com reason=BadCredentialsException");
+    }
+
+    private static AuthEventLogger events(double successSampleRate) {
+        AuthEventLogProperties properties = new AuthEventLogProperties();
+        properties.setSuccessSampleRate(successSampleRate);
+        return new AuthEventLogger(properties);
+    }
+
+}
@@ -0,0 +1,64 @@
+package io.github.montytsai.authkit.metrics;
+
+import io.github.montytsai.authkit.exception.TooManyLoginAttemptsException;
+import io.github.montytsai.authkit.store.InMemoryUserStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.LockedException;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AuthMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final AuthMetrics metrics = new AuthMetrics(registry, new InMemoryUserStore());
+
+    @Test
+    @DisplayName("未列舉的異常應歸類為固定標籤，避免時間序列無限增長")
+    void whenUnknownException_thenTaggedWithFallback() {
+        assertThat(AuthMetrics.failureTag(new BadCredentialsException("bad"))).isEqualTo("BadCredentialsException");
+        assertThat(AuthMetrics.failureTag(new TooManyLoginAttemptsException("slow down", Duration.ofSeconds(1))))
+                .isEqualTo("TooManyLoginAttemptsException");
+        assertThat(AuthMetrics.failureTag(new LockedException("locked"))).isEqualTo("AuthenticationException");
+        assertThat(AuthMetrics.failureTag(new IllegalStateException("boom"))).isEqualTo("Exception");
+    }
+
+    @Test
+    @DisplayName("所有標籤組合應在啟動時預先註冊，且登入計數依結果累加")
+    void whenLoginRecorded_thenCountedUnderFixedTags() {
+        assertThat(registry.find("authkit.login.attempts").counters()).hasSize(1 + AuthMetrics.FAILURE_TYPES.size() + 2);
+
+        metrics.recordLogin(System.nanoTime(), null);
+        metrics.recordLogin(System.nanoTime(), new BadCredentialsException("bad"));
+
+        assertThat(registry.get("authkit.login.attempts").tag("outcome", "success").counter().count()).isEqualTo(1);
+        assertThat(registry.get("authkit.login.attempts").tag("exception", "BadCredentialsException").counter().count())
+                .isEqualTo(1);
+        assertThat(registry.get("authkit.login.duration").tag("outcome", "failure").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("第一次成功登入時應記錄自 JVM 啟動起算的時間，之後不再變動")
+    void whenFirstLoginSucceeds_thenTimeToFirstLoginRecordedOnce() throws InterruptedException {
+        assertThat(registry.get("authkit.startup.first.login").timeGauge().value()).isNaN();
+
+        metrics.recordLogin(System.nanoTime(), new BadCredentialsException("bad"));
+        assertThat(registry.get("authkit.startup.first.login").timeGauge().value()).isNaN();
+
+        metrics.recordLogin(System.nanoTime(), null);
+        double firstLogin = registry.get("authkit.startup.first.login").timeGauge().value(TimeUnit.MILLISECONDS);
+        assertThat(firstLogin).isPositive();
+
+        Thread.sleep(20);
+        metrics.recordLogin(System.nanoTime(), null);
+        assertThat(registry.get("authkit.startup.first.login").timeGauge().value(TimeUnit.MILLISECONDS))
+                .isEqualTo(firstLogin);
+    }
+
+}
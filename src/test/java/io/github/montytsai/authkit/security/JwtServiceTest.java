@@ -0,0 +1,130 @@
+package io.github.montytsai.authkit.security;
+
+import io.github.montytsai.authkit.config.JwtProperties;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JwtServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2026-01-01T00:00:00Z"), ZoneOffset.UTC);
+    private static final String SECRET_1 = Base64.getEncoder().encodeToString("0123456789abcdef0123456789abcdef".getBytes());
+    private static final String SECRET_2 = Base64.getEncoder().encodeToString("fedcba9876543210fedcba9876543210".getBytes());
+
+    @Test
+    @DisplayName("HS256 簽發的 Token 應可驗證並還原主體")
+    void whenHs256TokenIssued_thenVerifies() {
+        JwtService service = service(hmacProperties("k1"), CLOCK);
+
+        String token = service.issueTokens("user@example.com").accessToken();
+
+        assertThat(service.verify(token)).hasValueSatisfying(verified -> {
+            assertThat(verified.subject()).isEqualTo("user@example.com");
+            assertThat(verified.expiresAt()).isEqualTo(CLOCK.instant().plus(Duration.ofMinutes(15)));
+        });
+    }
+
+    @Test
+    @DisplayName("ES256 簽發的 Token 應可驗證")
+    void whenEs256TokenIssued_thenVerifies() {
+        JwtProperties properties = new JwtProperties();
+        properties.setAlgorithm(JwtProperties.Algorithm.ES256);
+        JwtService service = service(properties, CLOCK);
+
+        assertThat(service.verify(service.issueTokens("user@example.com").accessToken())).isPresent();
+    }
+
+    @Test
+    @DisplayName("金鑰輪替後，舊金鑰簽發的 Token 仍可驗證；移除舊金鑰後即失效")
+    void whenKeyRotated_thenOldTokensVerifyUntilKeyRemoved() {
+        String oldToken = service(hmacProperties("k1"), CLOCK).issueTokens("user@example.com").accessToken();
+
+        JwtService rotated = service(hmacProperties("k2"), CLOCK);
+        assertThat(rotated.verify(oldToken)).isPresent();
+
+        JwtProperties withoutOldKey = hmacProperties("k2");
+        withoutOldKey.getHmacSecrets().remove("k1");
+        assertThat(service(withoutOldKey, CLOCK).verify(oldToken)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("遭竄改或已過期的 Token 應驗證失敗")
+    void whenTamperedOrExpired_thenRejected() {
+        JwtService service = service(hmacProperties("k1"), CLOCK);
+        String token = service.issueTokens("user@example.com").accessToken();
+        String[] parts = token.split("\\.");
+        String forgedPayload = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("{\"sub\":\"admin@example.com\",\"iss\":\"auth-kit\",\"exp\":9999999999}".getBytes());
+
+        assertThat(service.verify(parts[0] + "." + forgedPayload + "." + parts[2])).isEmpty();
+
+        Clock later = Clock.offset(CLOCK, Duration.ofMinutes(16));
+        assertThat(service(hmacProperties("k1"), later).verify(token)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Refresh Token 換發後舊的即失效；重複使用已換發的 Refresh Token 會撤銷整個工作階段")
+    void whenRefreshTokenReused_thenSessionRevoked() {
+        JwtService service = service(hmacProperties("k1"), CLOCK);
+        TokenPair login = service.issueTokens("user@example.com");
+
+        TokenPair rotated = service.refresh(login.refreshToken()).orElseThrow();
+        assertThat(service.verify(rotated.accessToken())).isPresent();
+
+        assertThat(service.refresh(login.refreshToken())).isEmpty();
+        assertThat(service.verify(rotated.accessToken())).isEmpty();
+        assertThat(service.refresh(rotated.refreshToken())).isEmpty();
+    }
+
+    @Test
+    @DisplayName("登出後該工作階段的 Token 皆失效，且 Access Token 不能當作 Refresh Token 使用")
+    void whenSessionRevoked_thenTokensRejected() {
+        JwtService service = service(hmacProperties("k1"), CLOCK);
+        TokenPair login = service.issueTokens("user@example.com");
+        TokenPair otherSession = service.issueTokens("user@example.com");
+
+        assertThat(service.refresh(login.accessToken())).isEmpty();
+        assertThat(service.verify(login.refreshToken())).isEmpty();
+
+        assertThat(service.verify(login.accessToken())).isPresent();
+        assertThat(service.revokeSession(login.refreshToken())).isTrue();
+        assertThat(service.verify(login.accessToken())).isEmpty();
+        assertThat(service.refresh(login.refreshToken())).isEmpty();
+        assertThat(service.verify(otherSession.accessToken())).isPresent();
+    }
+
+    private JwtService service(JwtProperties properties, Clock clock) {
+        try {
+            properties.getRevocation().setPath(tempDir.resolve("revoked-" + UUID.randomUUID() + ".bin"));
+            properties.getRevocation().setCompactionInterval(Duration.ZERO);
+            return new JwtService(properties, new TokenRevocationStore(properties.getRevocation(), clock), clock);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static JwtProperties hmacProperties(String activeKeyId) {
+        JwtProperties properties = new JwtProperties();
+        properties.getHmacSecrets().put("k1", SECRET_1);
+        properties.getHmacSecrets().put("k2", SECRET_2);
+        properties.setActiveKeyId(activeKeyId);
+        return properties;
+    }
+
+}
@@ -0,0 +1,108 @@
+package io.github.montytsai.authkit.security;
+
+import io.github.montytsai.authkit.config.LoginRateLimitProperties;
+import io.github.montytsai.authkit.exception.TooManyLoginAttemptsException;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LoginRateLimiterTest {
+
+    private static final String EMAIL = "user@example.com";
+    private static final String IP = "203.0.113.7";
+
+    private final AtomicLong nanos = new AtomicLong(1_000_000_000L);
+    private final LoginRateLimitProperties properties = new LoginRateLimitProperties();
+
+    @Test
+    @DisplayName("同一 email 超過突發容量後應拒絕，並在補充時間後恢復")
+    void whenEmailBucketIsEmpty_thenRejectedUntilRefill() {
+        LoginRateLimiter limiter = newLimiter();
+
+        for (int i = 0; i < 10; i++) {
+            limiter.checkAllowed("User@Example.com", "198.51.100." + i);
+        }
+        assertThatThrownBy(() -> limiter.checkAllowed(EMAIL, IP))
+                .isInstanceOfSatisfying(TooManyLoginAttemptsException.class,
+                        ex -> assertThat(ex.getRetryAfter()).isEqualTo(Duration.ofSeconds(6)));
+
+        advance(Duration.ofSeconds(6));
+        assertThatCode(() -> limiter.checkAllowed(EMAIL, IP)).doesNotThrowAnyException();
+    }
+
+    @Test
+    @DisplayName("同一 IP 對不同 email 的嘗試應共用 IP 配額")
+    void whenIpBucketIsEmpty_thenRejectedAcrossEmails() {
+        LoginRateLimiter limiter = newLimiter();
+
+        for (int i = 0; i < 100; i++) {
+            limiter.checkAllowed("user" + i + "@example.com", IP);
+        }
+        assertThatThrownBy(() -> limiter.checkAllowed("other@example.com", IP))
+                .isInstanceOf(TooManyLoginAttemptsException.class);
+        assertThatCode(() -> limiter.checkAllowed("other@example.com", "198.51.100.1")).doesNotThrowAnyException();
+    }
+
+    @Test
+    @DisplayName("連續密碼錯誤達門檻後應鎖定，且每次再失敗鎖定時間加倍；成功登入後重設")
+    void whenFailuresReachThreshold_thenLockoutGrowsExponentially() {
+        LoginRateLimiter limiter = newLimiter();
+
+        for (int i = 0; i < 4; i++) {
+            limiter.recordFailure(EMAIL);
+        }
+        assertThatCode(() -> limiter.checkAllowed(EMAIL, IP)).doesNotThrowAnyException();
+
+        limiter.recordFailure(EMAIL);
+        assertThat(retryAfter(limiter)).isEqualTo(Duration.ofSeconds(30));
+
+        advance(Duration.ofSeconds(30));
+        limiter.recordFailure(EMAIL);
+        assertThat(retryAfter(limiter)).isEqualTo(Duration.ofSeconds(60));
+
+        for (int i = 0; i < 20; i++) {
+            limiter.recordFailure(EMAIL);
+        }
+        assertThat(retryAfter(limiter)).isEqualTo(Duration.ofMinutes(15));
+
+        limiter.recordSuccess(EMAIL);
+        assertThatCode(() -> limiter.checkAllowed(EMAIL, IP)).doesNotThrowAnyException();
+    }
+
+    @Test
+    @DisplayName("停用時不應限制任何嘗試")
+    void whenDisabled_thenNeverRejects() {
+        properties.setEnabled(false);
+        LoginRateLimiter limiter = newLimiter();
+
+        for (int i = 0; i < 1_000; i++) {
+            limiter.recordFailure(EMAIL);
+            limiter.checkAllowed(EMAIL, IP);
+        }
+    }
+
+    private LoginRateLimiter newLimiter() {
+        return new LoginRateLimiter(properties, nanos::get);
+    }
+
+    private Duration retryAfter(LoginRateLimiter limiter) {
+        try {
+            limiter.checkAllowed(EMAIL, IP);
+        } catch (TooManyLoginAttemptsException ex) {
+            return ex.getRetryAfter();
+        }
+        throw new AssertionError("Expected the account to be locked.");
+    }
+
+    private void advance(Duration duration) {
+        nanos.addAndGet(duration.toNanos());
+    }
+
+}
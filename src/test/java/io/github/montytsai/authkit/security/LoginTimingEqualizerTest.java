@@ -0,0 +1,187 @@
+package io.github.montytsai.authkit.security;
+
+import io.github.montytsai.authkit.config.CredentialCacheProperties;
+import io.github.montytsai.authkit.config.LoginTimingProperties;
+import io.github.montytsai.authkit.config.PasswordEncoderProperties;
+import io.github.montytsai.authkit.config.UserImportProperties;
+import io.github.montytsai.authkit.crypto.BoundedPasswordEncoder;
+import io.github.montytsai.authkit.crypto.HashingAdmission;
+import io.github.montytsai.authkit.exception.HashingCapacityExceededException;
+import io.github.montytsai.authkit.metrics.AuthMetrics;
+import io.github.montytsai.authkit.service.AuthService;
+import io.github.montytsai.authkit.service.PasswordUpgradeService;
+import io.github.montytsai.authkit.store.InMemoryUserStore;
+import io.github.montytsai.authkit.store.UserStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LoginTimingEqualizerTest {
+
+    private static final String EMAIL = "user@example.com";
+    private static final String PASSWORD = "password123";
+    /** 環狀樣本區大小；暖機登入次數大於它，讓測試 JVM 中其他測試殘留的背景工作所影響的早期樣本被淘汰。 */
+    private static final int RING_SAMPLES = 32;
+    private static final int WARM_UP_LOGINS = 2 * RING_SAMPLES;
+    private static final int SAMPLES_PER_GROUP = 60;
+    /** 雙樣本 Kolmogorov–Smirnov 檢定在 α = 0.001 時的係數 c(α)。 */
+    private static final double KS_COEFFICIENT = 1.949;
+
+    private final UserStore store = new InMemoryUserStore();
+    private final AtomicInteger matchesCalls = new AtomicInteger();
+    private final PasswordEncoder encoder = new CountingPasswordEncoder(new BCryptPasswordEncoder(7), matchesCalls);
+    private final VerifiedCredentialCache credentialCache = new VerifiedCredentialCache(new CredentialCacheProperties());
+    private final AuthService authService = new AuthService(store, encoder, credentialCache,
+            new AuthMetrics(new SimpleMeterRegistry(), store), new UserImportProperties());
+    private final PasswordUpgradeService upgradeService =
+            new PasswordUpgradeService(authService, encoder, new PasswordEncoderProperties());
+    private final LoginTimingEqualizer equalizer = new LoginTimingEqualizer(encoder, timingProperties());
+    private final CachingDaoAuthenticationProvider provider =
+            new CachingDaoAuthenticationProvider(authService, encoder, credentialCache, upgradeService, equalizer);
+
+    @Test
+    @DisplayName("不存在帳號與密碼錯誤的回應時間分佈應無法以 KS 檢定區分 (α = 0.001)")
+    void whenAccountMissing_thenTimingMatchesWrongPassword() {
+        store.save(EMAIL, encoder.encode(PASSWORD));
+        for (int i = 0; i < WARM_UP_LOGINS; i++) {
+            timeFailedLogin(EMAIL);
+            timeFailedLogin("missing-" + i + "@example.com");
+        }
+
+        long[] wrongPassword = new long[SAMPLES_PER_GROUP];
+        long[] missingAccount = new long[SAMPLES_PER_GROUP];
+        for (int i = 0; i < SAMPLES_PER_GROUP; i++) {
+            wrongPassword[i] = timeFailedLogin(EMAIL);
+            missingAccount[i] = timeFailedLogin("nobody-" + i + "@example.com");
+        }
+
+        double critical = KS_COEFFICIENT * Math.sqrt(2.0 / SAMPLES_PER_GROUP);
+        assertThat(ksStatistic(wrongPassword, missingAccount))
+                .as("KS statistic (critical value %.3f)", critical)
+                .isLessThan(critical);
+    }
+
+    @Test
+    @DisplayName("暖機完成後，不存在的帳號不應再執行任何密碼雜湊")
+    void whenWarmedUp_thenMissesDoNotHash() {
+        assertThat(equalizer.nextMissDelayNanos()).isEqualTo(-1);
+        timeFailedLogin("cold@example.com");
+        assertThat(matchesCalls.get()).isEqualTo(1);
+
+        store.save(EMAIL, encoder.encode(PASSWORD));
+        for (int i = 0; i < new LoginTimingProperties().getWarmUpSamples(); i++) {
+            timeFailedLogin(EMAIL);
+        }
+        assertThat(equalizer.nextMissDelayNanos()).isPositive();
+
+        int before = matchesCalls.get();
+        for (int i = 0; i < 20; i++) {
+            timeFailedLogin("warm-" + i + "@example.com");
+        }
+        assertThat(matchesCalls.get()).isEqualTo(before);
+    }
+
+    @Test
+    @DisplayName("雜湊容量飽和時，不存在的帳號應與已註冊帳號一樣回傳 503")
+    void whenHashingSaturated_thenMissesAreRejectedLikeRealChecks() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(1));
+        try {
+            HashingAdmission admission = HashingAdmission.forPool(1, 1);
+            PasswordEncoder bounded = new BoundedPasswordEncoder(encoder, executor, admission, new SimpleMeterRegistry());
+            LoginTimingEqualizer admitted = new LoginTimingEqualizer(bounded, timingProperties(), admission);
+            CachingDaoAuthenticationProvider admittedProvider =
+                    new CachingDaoAuthenticationProvider(authService, bounded, credentialCache, upgradeService, admitted);
+            store.save(EMAIL, encoder.encode(PASSWORD));
+            for (int i = 0; i < new LoginTimingProperties().getWarmUpSamples(); i++) {
+                assertThatThrownBy(() -> admittedProvider.authenticate(wrongPassword(EMAIL)))
+                        .isInstanceOf(BadCredentialsException.class);
+            }
+            assertThat(admitted.nextMissDelayNanos()).isPositive();
+
+            admission.acquire();
+            admission.acquire();
+            assertThatThrownBy(() -> admittedProvider.authenticate(wrongPassword(EMAIL)))
+                    .isInstanceOf(HashingCapacityExceededException.class);
+            assertThatThrownBy(() -> admittedProvider.authenticate(wrongPassword("nobody@example.com")))
+                    .isInstanceOf(HashingCapacityExceededException.class);
+
+            admission.release();
+            assertThatThrownBy(() -> admittedProvider.authenticate(wrongPassword("nobody@example.com")))
+                    .isInstanceOf(BadCredentialsException.class);
+            assertThat(admission.inUse()).isEqualTo(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static LoginTimingProperties timingProperties() {
+        LoginTimingProperties properties = new LoginTimingProperties();
+        properties.setSamples(RING_SAMPLES);
+        return properties;
+    }
+
+    private static UsernamePasswordAuthenticationToken wrongPassword(String email) {
+        return UsernamePasswordAuthenticationToken.unauthenticated(email, "wrong-password");
+    }
+
+    private long timeFailedLogin(String email) {
+        UsernamePasswordAuthenticationToken token = wrongPassword(email);
+        long startedAt = System.nanoTime();
+        assertThatThrownBy(() -> provider.authenticate(token)).isInstanceOf(BadCredentialsException.class);
+        return System.nanoTime() - startedAt;
+    }
+
+    /**
+     * 雙樣本 KS 統計量：兩個經驗累積分佈函數之間的最大距離。
+     */
+    private static double ksStatistic(long[] first, long[] second) {
+        long[] a = first.clone();
+        long[] b = second.clone();
+        Arrays.sort(a);
+        Arrays.sort(b);
+        int i = 0;
+        int j = 0;
+        double max = 0;
+        while (i < a.length && j < b.length) {
+            long value = Math.min(a[i], b[j]);
+            while (i < a.length && a[i] == value) {
+                i++;
+            }
+            while (j < b.length && b[j] == value) {
+                j++;
+            }
+            max = Math.max(max, Math.abs((double) i / a.length - (double) j / b.length));
+        }
+        return max;
+    }
+
+    private record CountingPasswordEncoder(PasswordEncoder delegate, AtomicInteger matchesCalls) implements PasswordEncoder {
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            return delegate.encode(rawPassword);
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            matchesCalls.incrementAndGet();
+            return delegate.matches(rawPassword, encodedPassword);
+        }
+
+    }
+
+}
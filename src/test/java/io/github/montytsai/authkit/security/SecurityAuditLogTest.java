@@ -0,0 +1,145 @@
+package io.github.montytsai.authkit.security;
+
+import io.github.montytsai.authkit.config.AuditLogProperties;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SecurityAuditLogTest {
+
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2026-01-01T00:00:00Z"), ZoneOffset.UTC);
+    private static final Pattern SEQUENCE = Pattern.compile("\"seq\":(\\d+)");
+    private static final Pattern DROPPED = Pattern.compile("\"event\":\"audit_dropped\",\"count\":(\\d+)");
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("BLOCK 模式下多執行緒並行發佈的事件應全部依序寫入，並在超過大小上限時輪替檔案")
+    void whenPublishersBlock_thenEveryEventIsWrittenInOrder() throws Exception {
+        AuditLogProperties properties = properties();
+        properties.setBufferSize(64);
+        properties.setBatchSize(32);
+        properties.setMaxFileSize(DataSize.ofKilobytes(32));
+        properties.setBackpressure(AuditLogProperties.Backpressure.BLOCK);
+        properties.setBlockTimeout(Duration.ofSeconds(10));
+        int threads = 8;
+        int perThread = 1_000;
+
+        SecurityAuditLog auditLog = new SecurityAuditLog(properties, CLOCK);
+        List<Thread> publishers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            publishers.add(new Thread(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    auditLog.loginFailed("user" + thread + "-" + i + "@example.com", "10.0.0." + thread,
+                            new BadCredentialsException("bad"));
+                }
+            }));
+        }
+        publishers.forEach(Thread::start);
+        for (Thread publisher : publishers) {
+            publisher.join();
+        }
+        auditLog.close();
+
+        assertThat(auditLog.droppedEvents()).isZero();
+        assertThat(auditLog.writtenEvents()).isEqualTo(threads * perThread);
+        List<Path> files = AuditFileWriter.segments(tempDir);
+        assertThat(files).hasSizeGreaterThan(1);
+        long expectedSequence = 0;
+        for (Path file : files) {
+            assertThat(Files.size(file)).isLessThanOrEqualTo(DataSize.ofKilobytes(32).toBytes());
+            AuditFileWriter.verify(file);
+            for (String line : Files.readAllLines(file)) {
+                assertThat(line).contains("\"event\":\"login_failure\"", "\"reason\":\"BadCredentialsException\"");
+                Matcher sequence = SEQUENCE.matcher(line);
+                assertThat(sequence.find()).isTrue();
+                assertThat(Long.parseLong(sequence.group(1))).isEqualTo(expectedSequence++);
+            }
+        }
+        assertThat(expectedSequence).isEqualTo(threads * perThread);
+    }
+
+    @Test
+    @DisplayName("DROP 模式下緩衝區已滿時應立即丟棄並計數，丟棄的數量也寫入稽核檔")
+    void whenBufferIsFull_thenEventsAreDroppedAndCounted() throws Exception {
+        AuditLogProperties properties = properties();
+        properties.setBufferSize(4);
+        // 寫入執行緒在空閒時等待很久，讓發佈端必然填滿緩衝區
+        properties.setFlushInterval(Duration.ofSeconds(30));
+        int events = 10_000;
+
+        SecurityAuditLog auditLog = new SecurityAuditLog(properties, CLOCK);
+        for (int i = 0; i < events; i++) {
+            auditLog.loginSucceeded("user" + i + "@example.com", "10.0.0.1");
+        }
+        auditLog.close();
+
+        assertThat(auditLog.droppedEvents()).isPositive();
+        assertThat(auditLog.writtenEvents() + auditLog.droppedEvents()).isEqualTo(events);
+        long droppedInFile = 0;
+        for (Path file : AuditFileWriter.segments(tempDir)) {
+            for (String line : Files.readAllLines(file)) {
+                Matcher dropped = DROPPED.matcher(line);
+                if (dropped.find()) {
+                    droppedInFile += Long.parseLong(dropped.group(1));
+                }
+            }
+        }
+        assertThat(droppedInFile).isEqualTo(auditLog.droppedEvents());
+    }
+
+    @Test
+    @DisplayName("每次啟動寫入新的檔案，欄位經過 JSON 跳脫，被竄改的紀錄無法通過檢查碼驗證")
+    void whenRecordIsTampered_thenChecksumFails() throws Exception {
+        try (SecurityAuditLog auditLog = new SecurityAuditLog(properties(), CLOCK)) {
+            auditLog.registered("first@example.com", "10.0.0.1");
+        }
+        try (SecurityAuditLog auditLog = new SecurityAuditLog(properties(), CLOCK)) {
+            auditLog.registrationConflict("quote\"back\\slash\t用戶😀@example.com", null);
+        }
+
+        List<Path> files = AuditFileWriter.segments(tempDir);
+        assertThat(files).extracting(file -> file.getFileName().toString())
+                .containsExactly("audit-00000001.ndjson", "audit-00000002.ndjson");
+        assertThat(AuditFileWriter.verify(files.get(1))).isEqualTo(1);
+        String line = Files.readString(files.get(1), StandardCharsets.UTF_8);
+        assertThat(line).startsWith("{\"seq\":0,\"ts\":\"2026-01-01T00:00:00Z\",\"event\":\"register_conflict\"")
+                .contains("\"user\":\"quote\\\"back\\\\slash\\u0009用戶😀@example.com\"")
+                .doesNotContain("\"ip\"");
+
+        Path first = files.get(0);
+        Files.writeString(first, Files.readString(first).replace("first@", "forged@"), StandardCharsets.UTF_8);
+        assertThatThrownBy(() -> AuditFileWriter.verify(first))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("fails its checksum");
+    }
+
+    private AuditLogProperties properties() {
+        AuditLogProperties properties = new AuditLogProperties();
+        properties.setDirectory(tempDir);
+        properties.setFlushInterval(Duration.ofMillis(5));
+        return properties;
+    }
+
+}
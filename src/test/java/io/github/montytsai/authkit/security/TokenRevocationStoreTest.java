@@ -0,0 +1,118 @@
+package io.github.montytsai.authkit.security;
+
+import io.github.montytsai.authkit.config.JwtProperties;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenRevocationStoreTest {
+
+    private static final Instant NOW = Instant.parse("2026-01-01T00:00:00Z");
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("撤銷應落地於磁碟，重新開啟後仍然有效；同一 id 只有第一次撤銷回傳 true")
+    void whenReopened_thenRevocationsSurvive() throws IOException {
+        UUID revokedId = UUID.randomUUID();
+        try (TokenRevocationStore store = open(NOW)) {
+            assertThat(store.revoke(revokedId, NOW.plusSeconds(60))).isTrue();
+            assertThat(store.revoke(revokedId, NOW.plusSeconds(60))).isFalse();
+        }
+
+        try (TokenRevocationStore store = open(NOW)) {
+            assertThat(store.isRevoked(revokedId)).isTrue();
+            assertThat(store.isRevoked(UUID.randomUUID())).isFalse();
+            assertThat(store.isRevoked(null)).isFalse();
+        }
+    }
+
+    @Test
+    @DisplayName("壓縮應清除已過期的紀錄並縮小檔案")
+    void whenCompacted_thenExpiredEntriesDropped() throws IOException {
+        UUID shortLived = UUID.randomUUID();
+        UUID longLived = UUID.randomUUID();
+        try (TokenRevocationStore store = open(NOW)) {
+            store.revoke(shortLived, NOW.plusSeconds(60));
+            store.revoke(longLived, NOW.plus(Duration.ofDays(1)));
+        }
+
+        try (TokenRevocationStore store = open(NOW.plusSeconds(120))) {
+            long before = Files.size(path());
+            store.compact();
+
+            assertThat(Files.size(path())).isLessThan(before);
+            assertThat(store.size()).isEqualTo(1);
+            assertThat(store.isRevoked(shortLived)).isFalse();
+            assertThat(store.isRevoked(longLived)).isTrue();
+        }
+    }
+
+    @Test
+    @DisplayName("寫到一半的尾端紀錄應在開啟時截斷，先前的撤銷不受影響")
+    void whenTailIsTorn_thenTruncatedOnOpen() throws IOException {
+        UUID revokedId = UUID.randomUUID();
+        try (TokenRevocationStore store = open(NOW)) {
+            store.revoke(revokedId, NOW.plusSeconds(60));
+        }
+        long intactSize = Files.size(path());
+        try (FileChannel channel = FileChannel.open(path(), StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.wrap(new byte[]{1, 2, 3, 4, 5}));
+        }
+
+        try (TokenRevocationStore store = open(NOW)) {
+            assertThat(store.isRevoked(revokedId)).isTrue();
+            assertThat(Files.size(path())).isEqualTo(intactSize);
+        }
+    }
+
+    @Test
+    @DisplayName("Bloom filter 不應有偽陰性，偽陽性率應接近設定值")
+    void whenFilterPopulated_thenNoFalseNegatives() {
+        RevocationBloomFilter filter = RevocationBloomFilter.create(10_000, 0.01);
+        UUID[] inserted = new UUID[10_000];
+        for (int i = 0; i < inserted.length; i++) {
+            inserted[i] = UUID.randomUUID();
+            filter.put(inserted[i]);
+        }
+
+        for (UUID id : inserted) {
+            assertThat(filter.mightContain(id)).isTrue();
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain(UUID.randomUUID())) {
+                falsePositives++;
+            }
+        }
+        assertThat(falsePositives).isLessThan(2_000);
+    }
+
+    private TokenRevocationStore open(Instant now) throws IOException {
+        JwtProperties.Revocation properties = new JwtProperties.Revocation();
+        properties.setPath(path());
+        properties.setCompactionInterval(Duration.ZERO);
+        return new TokenRevocationStore(properties, Clock.fixed(now, ZoneOffset.UTC));
+    }
+
+    private Path path() {
+        return tempDir.resolve("revoked-tokens.bin");
+    }
+
+}
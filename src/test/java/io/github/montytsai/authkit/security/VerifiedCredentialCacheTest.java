@@ -0,0 +1,59 @@
+package io.github.montytsai.authkit.security;
+
+import io.github.montytsai.authkit.config.CredentialCacheProperties;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VerifiedCredentialCacheTest {
+
+    private static final String EMAIL = "user@example.com";
+    private static final String HASH = "$2a$10$abcdefghijklmnopqrstuuJ6w5Yg0I8wVv5VbG4pW4JkC7aH0k6S.";
+
+    @Test
+    @DisplayName("相同帳號、密碼與雜湊應命中快取")
+    void whenSameCredentials_thenHit() {
+        VerifiedCredentialCache cache = newCache(true);
+        cache.recordVerified(EMAIL, "password123", HASH);
+
+        assertThat(cache.isVerified(EMAIL, "password123", HASH)).isTrue();
+    }
+
+    @Test
+    @DisplayName("密碼或已儲存雜湊不同時不應命中")
+    void whenPasswordOrHashDiffers_thenMiss() {
+        VerifiedCredentialCache cache = newCache(true);
+        cache.recordVerified(EMAIL, "password123", HASH);
+
+        assertThat(cache.isVerified(EMAIL, "wrongpassword", HASH)).isFalse();
+        assertThat(cache.isVerified(EMAIL, "password123", HASH.replace('a', 'b'))).isFalse();
+    }
+
+    @Test
+    @DisplayName("失效後不應命中")
+    void whenInvalidated_thenMiss() {
+        VerifiedCredentialCache cache = newCache(true);
+        cache.recordVerified(EMAIL, "password123", HASH);
+        cache.invalidate(EMAIL);
+
+        assertThat(cache.isVerified(EMAIL, "password123", HASH)).isFalse();
+    }
+
+    @Test
+    @DisplayName("關閉時一律不命中")
+    void whenDisabled_thenAlwaysMiss() {
+        VerifiedCredentialCache cache = newCache(false);
+        cache.recordVerified(EMAIL, "password123", HASH);
+
+        assertThat(cache.isVerified(EMAIL, "password123", HASH)).isFalse();
+    }
+
+    private static VerifiedCredentialCache newCache(boolean enabled) {
+        CredentialCacheProperties properties = new CredentialCacheProperties();
+        properties.setEnabled(enabled);
+        return new VerifiedCredentialCache(properties);
+    }
+
+}
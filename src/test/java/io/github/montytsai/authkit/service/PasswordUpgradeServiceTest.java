@@ -0,0 +1,83 @@
+package io.github.montytsai.authkit.service;
+
+import io.github.montytsai.authkit.config.CredentialCacheProperties;
+import io.github.montytsai.authkit.config.PasswordEncoderProperties;
+import io.github.montytsai.authkit.config.UserImportProperties;
+import io.github.montytsai.authkit.metrics.AuthMetrics;
+import io.github.montytsai.authkit.security.VerifiedCredentialCache;
+import io.github.montytsai.authkit.store.InMemoryUserStore;
+import io.github.montytsai.authkit.store.UserStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PasswordUpgradeServiceTest {
+
+    private static final String EMAIL = "user@example.com";
+    private static final String PASSWORD = "password123";
+
+    private final UserStore store = new InMemoryUserStore();
+    private final BCryptPasswordEncoder currentEncoder = new BCryptPasswordEncoder(5);
+    private final AuthService authService = new AuthService(store, currentEncoder,
+            new VerifiedCredentialCache(new CredentialCacheProperties()), new AuthMetrics(new SimpleMeterRegistry(), store),
+            new UserImportProperties());
+    private final PasswordUpgradeService upgradeService =
+            new PasswordUpgradeService(authService, currentEncoder, new PasswordEncoderProperties());
+
+    @AfterEach
+    void tearDown() {
+        upgradeService.shutdown();
+    }
+
+    @Test
+    @DisplayName("成本因子過時的雜湊應於背景升級為目前設定")
+    void whenStoredHashIsWeaker_thenRehashedInBackground() throws InterruptedException {
+        String weakHash = new BCryptPasswordEncoder(4).encode(PASSWORD);
+        store.save(EMAIL, weakHash);
+
+        upgradeService.upgradeIfNeeded(EMAIL, PASSWORD, weakHash);
+
+        String upgraded = awaitHashChange(weakHash);
+        assertThat(upgraded).startsWith("$2a$05$");
+        assertThat(currentEncoder.matches(PASSWORD, upgraded)).isTrue();
+    }
+
+    @Test
+    @DisplayName("雜湊已符合目前設定時不應重新雜湊")
+    void whenStoredHashIsCurrent_thenNotRehashed() throws InterruptedException {
+        String currentHash = currentEncoder.encode(PASSWORD);
+        store.save(EMAIL, currentHash);
+
+        upgradeService.upgradeIfNeeded(EMAIL, PASSWORD, currentHash);
+        Thread.sleep(200);
+
+        assertThat(store.findPasswordHash(EMAIL)).contains(currentHash);
+    }
+
+    @Test
+    @DisplayName("雜湊在升級前已被變更時不應覆蓋")
+    void whenHashChangedConcurrently_thenUpgradeIsSkipped() {
+        String weakHash = new BCryptPasswordEncoder(4).encode(PASSWORD);
+        store.save(EMAIL, "changed-by-someone-else");
+
+        assertThat(authService.upgradePasswordHash(EMAIL, weakHash, currentEncoder.encode(PASSWORD))).isFalse();
+        assertThat(store.findPasswordHash(EMAIL)).contains("changed-by-someone-else");
+    }
+
+    private String awaitHashChange(String original) throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            String hash = store.findPasswordHash(EMAIL).orElseThrow();
+            if (!hash.equals(original)) {
+                return hash;
+            }
+            Thread.sleep(20);
+        }
+        throw new AssertionError("Password hash was not upgraded in time.");
+    }
+
+}
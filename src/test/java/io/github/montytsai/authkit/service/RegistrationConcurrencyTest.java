@@ -0,0 +1,148 @@
+package io.github.montytsai.authkit.service;
+
+import io.github.montytsai.authkit.config.CredentialCacheProperties;
+import io.github.montytsai.authkit.config.UserImportProperties;
+import io.github.montytsai.authkit.dto.RegisterRequest;
+import io.github.montytsai.authkit.exception.UserAlreadyExistsException;
+import io.github.montytsai.authkit.metrics.AuthMetrics;
+import io.github.montytsai.authkit.security.VerifiedCredentialCache;
+import io.github.montytsai.authkit.store.InMemoryUserStore;
+import io.github.montytsai.authkit.store.UserStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RegistrationConcurrencyTest {
+
+    private static final int THREADS = 16;
+    private static final int EMAILS = 50;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("同一 email 的並行註冊只應計算一次雜湊、成功一次，其餘皆回傳已存在且不覆寫帳號")
+    void whenSameEmailRegisteredConcurrently_thenSingleHashAndNoOverwrite() throws Exception {
+        UserStore store = new InMemoryUserStore();
+        CountingPasswordEncoder encoder = new CountingPasswordEncoder();
+        AuthService authService = authService(store, encoder);
+
+        for (int i = 0; i < EMAILS; i++) {
+            String email = "user" + i + "@example.com";
+            List<Outcome> outcomes = registerConcurrently(email, (thread) -> authService);
+
+            List<Outcome> winners = outcomes.stream().filter(outcome -> outcome.registered).toList();
+            assertThat(winners).hasSize(1);
+            assertThat(outcomes).filteredOn(outcome -> !outcome.registered)
+                    .allMatch(outcome -> outcome.failure instanceof UserAlreadyExistsException);
+            assertThat(encoder.matches(winners.get(0).password, store.findPasswordHash(email).orElseThrow())).isTrue();
+        }
+        assertThat(encoder.encodes.get()).isEqualTo(EMAILS);
+        assertThat(store.size()).isEqualTo(EMAILS);
+    }
+
+    @Test
+    @DisplayName("多個節點共用儲存時，各自的保留無法互相阻擋，但只有一個註冊能寫入且不會被覆寫")
+    void whenNodesShareStore_thenOnlyOneRegistrationCommits() throws Exception {
+        UserStore store = new InMemoryUserStore();
+        PasswordEncoder encoder = new CountingPasswordEncoder();
+        List<AuthService> nodes = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            nodes.add(authService(store, encoder));
+        }
+
+        for (int i = 0; i < EMAILS; i++) {
+            String email = "node-user" + i + "@example.com";
+            List<Outcome> outcomes = registerConcurrently(email, nodes::get);
+
+            List<Outcome> winners = outcomes.stream().filter(outcome -> outcome.registered).toList();
+            assertThat(winners).hasSize(1);
+            assertThat(encoder.matches(winners.get(0).password, store.findPasswordHash(email).orElseThrow())).isTrue();
+        }
+    }
+
+    private List<Outcome> registerConcurrently(String email, NodeSelector nodes) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Outcome>> futures = new ArrayList<>();
+        for (int thread = 0; thread < THREADS; thread++) {
+            AuthService node = nodes.node(thread);
+            String password = "password-" + thread;
+            Callable<Outcome> task = () -> {
+                start.await();
+                try {
+                    node.register(request(email, password));
+                    return new Outcome(password, true, null);
+                } catch (RuntimeException ex) {
+                    return new Outcome(password, false, ex);
+                }
+            };
+            futures.add(executor.submit(task));
+        }
+        start.countDown();
+
+        List<Outcome> outcomes = new ArrayList<>();
+        for (Future<Outcome> future : futures) {
+            outcomes.add(future.get(30, TimeUnit.SECONDS));
+        }
+        return outcomes;
+    }
+
+    private static AuthService authService(UserStore store, PasswordEncoder encoder) {
+        return new AuthService(store, encoder, new VerifiedCredentialCache(new CredentialCacheProperties()),
+                new AuthMetrics(new SimpleMeterRegistry(), store), new UserImportProperties());
+    }
+
+    private static RegisterRequest request(String email, String password) {
+        RegisterRequest request = new RegisterRequest();
+        request.setEmail(email);
+        request.setPassword(password);
+        return request;
+    }
+
+    private record Outcome(String password, boolean registered, RuntimeException failure) {
+    }
+
+    @FunctionalInterface
+    private interface NodeSelector {
+        AuthService node(int thread);
+    }
+
+    private static final class CountingPasswordEncoder implements PasswordEncoder {
+
+        private final PasswordEncoder delegate = new BCryptPasswordEncoder(4);
+        private final AtomicInteger encodes = new AtomicInteger();
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            encodes.incrementAndGet();
+            return delegate.encode(rawPassword);
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return delegate.matches(rawPassword, encodedPassword);
+        }
+
+    }
+
+}
@@ -0,0 +1,68 @@
+package io.github.montytsai.authkit.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.github.montytsai.authkit.store.UserStore;
+import io.github.montytsai.authkit.store.WarmUpUserStore;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "authkit.warm-up.enabled=true",
+        "authkit.warm-up.min-cycles=6",
+        "authkit.warm-up.window-cycles=2",
+        "authkit.warm-up.stable-windows=1",
+        "authkit.warm-up.tolerance=10",
+        "authkit.warm-up.max-cycles=50"
+})
+@ActiveProfiles("test")
+class StartupWarmUpTest {
+
+    @Autowired
+    private StartupWarmUp warmUp;
+
+    @Autowired
+    private UserStore userStore;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Test
+    @DisplayName("暖機完成後 readiness 群組應為 UP，並回報暖機階段與循環數")
+    void whenWarmUpFinished_thenReadinessGroupUp() {
+        assertThat(warmUp.getPhase()).isEqualTo(StartupWarmUp.Phase.COMPLETED);
+        assertThat(warmUp.getCycles()).isGreaterThanOrEqualTo(6);
+
+        ResponseEntity<JsonNode> readiness = restTemplate.getForEntity("/actuator/health/readiness", JsonNode.class);
+        assertThat(readiness.getStatusCode()).isEqualTo(HttpStatus.OK);
+        JsonNode details = readiness.getBody().path("components").path("warmUp").path("details");
+        assertThat(details.path("phase").asText()).isEqualTo("COMPLETED");
+        assertThat(details.path("cycles").asInt()).isEqualTo(warmUp.getCycles());
+    }
+
+    @Test
+    @DisplayName("合成帳號不應留在實際儲存中，暖機結束後也不應再被分流或限流")
+    void whenWarmUpFinished_thenSyntheticAccountsDiscarded() {
+        String email = "user-0@" + WarmUpUserStore.SYNTHETIC_DOMAIN;
+        assertThat(userStore.size()).isZero();
+        assertThat(userStore.exists(email)).isFalse();
+
+        Map<String, String> credentials = Map.of("email", email, "password", "password123");
+        assertThat(restTemplate.postForEntity("/api/auth/register", credentials, String.class).getStatusCode())
+                .isEqualTo(HttpStatus.CREATED);
+        assertThat(restTemplate.postForEntity("/api/auth/login", credentials, String.class).getStatusCode())
+                .isEqualTo(HttpStatus.OK);
+        assertThat(userStore.exists(email)).isTrue();
+    }
+
+}
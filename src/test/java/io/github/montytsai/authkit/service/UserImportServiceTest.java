@@ -0,0 +1,209 @@
+package io.github.montytsai.authkit.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.montytsai.authkit.config.CredentialCacheProperties;
+import io.github.montytsai.authkit.config.PasswordHashingProperties;
+import io.github.montytsai.authkit.config.UserImportProperties;
+import io.github.montytsai.authkit.crypto.BoundedPasswordEncoder;
+import io.github.montytsai.authkit.crypto.HashingAdmission;
+import io.github.montytsai.authkit.dto.UserImportResult;
+import io.github.montytsai.authkit.dto.UserImportResult.Status;
+import io.github.montytsai.authkit.dto.UserImportSummary;
+import io.github.montytsai.authkit.exception.InvalidImportFormatException;
+import io.github.montytsai.authkit.security.VerifiedCredentialCache;
+import io.github.montytsai.authkit.store.InMemoryUserStore;
+import io.github.montytsai.authkit.store.UserStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class UserImportServiceTest {
+
+    private static final String PASSWORD = "password123";
+
+    private final UserStore store = new InMemoryUserStore();
+    private final BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(4);
+    private final UserImportService importService = newImportService(2);
+    private final List<List<UserImportResult>> batches = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        importService.shutdown();
+    }
+
+    @Test
+    @DisplayName("NDJSON 明文與預先雜湊的紀錄都應寫入，且結果依輸入順序分批回傳")
+    void whenNdjsonImported_thenUsersCreatedInOrder() throws IOException {
+        String preHashed = encoder.encode(PASSWORD);
+        String body = """
+                {"email":"a@example.com","password":"password123"}
+                {"email":"b@example.com","passwordHash":"%s"}
+
+                {"email":"c@example.com","password":"password123"}
+                """.formatted(preHashed);
+
+        UserImportSummary summary = importUsers(body, UserImportFormat.NDJSON);
+
+        assertThat(summary.getCreated()).isEqualTo(3);
+        assertThat(batches).hasSize(2);
+        assertThat(batches.stream().flatMap(List::stream).map(UserImportResult::getLine)).containsExactly(1L, 2L, 4L);
+        assertThat(store.findPasswordHash("b@example.com")).contains(preHashed);
+        assertThat(encoder.matches(PASSWORD, store.findPasswordHash("a@example.com").orElseThrow())).isTrue();
+    }
+
+    @Test
+    @DisplayName("已存在、重複、格式錯誤與不支援的雜湊應逐筆回報而不中止匯入")
+    void whenRecordsAreInvalidOrExisting_thenReportedPerRecord() throws IOException {
+        store.save("taken@example.com", "existing-hash");
+        String body = """
+                email,password,note
+                taken@example.com,password123,
+                new@example.com,"pass,word""123",quoted
+                new@example.com,password123,
+                not-an-email,password123,
+                short@example.com,123,
+                """;
+
+        importUsers(body, UserImportFormat.CSV);
+
+        assertThat(batches.stream().flatMap(List::stream).map(UserImportResult::getStatus))
+                .containsExactly(Status.EXISTS, Status.CREATED, Status.EXISTS, Status.INVALID, Status.INVALID);
+        assertThat(store.findPasswordHash("taken@example.com")).contains("existing-hash");
+        assertThat(encoder.matches("pass,word\"123", store.findPasswordHash("new@example.com").orElseThrow())).isTrue();
+
+        batches.clear();
+        importUsers("""
+                {"email":"argon@example.com","passwordHash":"$argon2id$v=19$m=16384,t=2,p=1$c2FsdA$aGFzaA"}
+                {"email":"md5@example.com","passwordHash":"$1$salt$hash"}
+                {oops
+                """, UserImportFormat.NDJSON);
+        assertThat(batches.stream().flatMap(List::stream).map(UserImportResult::getStatus))
+                .containsExactly(Status.CREATED, Status.INVALID, Status.INVALID);
+        assertThat(store.findPasswordHash("argon@example.com"))
+                .contains("{argon2}$argon2id$v=19$m=16384,t=2,p=1$c2FsdA$aGFzaA");
+    }
+
+    @Test
+    @DisplayName("啟動時應建立設定的管理帳號且不覆寫既有帳號；未列於 admins 的 email 應拒絕啟動")
+    void whenAdminPasswordHashesConfigured_thenAdminsProvisionedOnce() {
+        String adminHash = encoder.encode(PASSWORD);
+        UserImportProperties properties = new UserImportProperties();
+        properties.getAdmins().add("root@example.com");
+        properties.getAdminPasswordHashes().put("root@example.com", adminHash);
+        newImportService(properties).shutdown();
+        assertThat(store.findPasswordHash("root@example.com")).contains(adminHash);
+
+        properties.getAdminPasswordHashes().put("root@example.com", encoder.encode("another-password"));
+        newImportService(properties).shutdown();
+        assertThat(store.findPasswordHash("root@example.com")).contains(adminHash);
+
+        properties.getAdminPasswordHashes().put("stranger@example.com", adminHash);
+        assertThatThrownBy(() -> newImportService(properties)).isInstanceOf(IllegalStateException.class);
+        assertThat(store.exists("stranger@example.com")).isFalse();
+    }
+
+    @Test
+    @DisplayName("CSV 缺少必要欄位時應拒絕整份匯入")
+    void whenCsvHeaderIsMissingColumns_thenRejected() {
+        assertThatThrownBy(() -> importUsers("email,name\na@example.com,A\n", UserImportFormat.CSV))
+                .isInstanceOf(InvalidImportFormatException.class);
+        assertThat(store.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("預設並行度只使用一半的雜湊工作池，匯入進行中的登入比對仍能取得名額")
+    void whenImportRunning_thenLoginStillGetsHashingSlot() throws Exception {
+        CountDownLatch hashing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder slowEncode = new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                hashing.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                return encoder.encode(rawPassword);
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                return encoder.matches(rawPassword, encodedPassword);
+            }
+        };
+        PasswordHashingProperties hashingProperties = new PasswordHashingProperties();
+        hashingProperties.setPoolSize(2);
+        hashingProperties.setQueueCapacity(0);
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(2, 2, 0L, TimeUnit.MILLISECONDS, new SynchronousQueue<>());
+        BoundedPasswordEncoder bounded = new BoundedPasswordEncoder(slowEncode, pool, HashingAdmission.forPool(2, 0),
+                new SimpleMeterRegistry());
+        UserImportService slowImport = newImportService(new UserImportProperties(), bounded, hashingProperties);
+        String loginHash = encoder.encode(PASSWORD);
+        try {
+            CompletableFuture<UserImportSummary> running = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return slowImport.importUsers(new ByteArrayInputStream("""
+                            {"email":"a@example.com","password":"password123"}
+                            {"email":"b@example.com","password":"password123"}
+                            {"email":"c@example.com","password":"password123"}
+                            """.getBytes(StandardCharsets.UTF_8)), UserImportFormat.NDJSON, batches::add);
+                } catch (IOException ex) {
+                    throw new IllegalStateException(ex);
+                }
+            });
+            assertThat(hashing.await(5, TimeUnit.SECONDS)).isTrue();
+
+            assertThat(bounded.matches(PASSWORD, loginHash)).isTrue();
+
+            release.countDown();
+            assertThat(running.get(10, TimeUnit.SECONDS).getCreated()).isEqualTo(3);
+        } finally {
+            release.countDown();
+            slowImport.shutdown();
+            pool.shutdownNow();
+        }
+    }
+
+    private UserImportSummary importUsers(String body, UserImportFormat format) throws IOException {
+        return importService.importUsers(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), format,
+                batches::add);
+    }
+
+    private UserImportService newImportService(int batchSize) {
+        UserImportProperties properties = new UserImportProperties();
+        properties.setBatchSize(batchSize);
+        return newImportService(properties);
+    }
+
+    private UserImportService newImportService(UserImportProperties properties) {
+        return newImportService(properties, encoder, new PasswordHashingProperties());
+    }
+
+    private UserImportService newImportService(UserImportProperties properties, PasswordEncoder passwordEncoder,
+                                               PasswordHashingProperties hashingProperties) {
+        return new UserImportService(store, passwordEncoder, new VerifiedCredentialCache(new CredentialCacheProperties()),
+                Validation.buildDefaultValidatorFactory().getValidator(), new ObjectMapper(),
+                properties, hashingProperties);
+    }
+
+}
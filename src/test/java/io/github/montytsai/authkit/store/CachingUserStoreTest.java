@@ -0,0 +1,156 @@
+package io.github.montytsai.authkit.store;
+
+import io.github.montytsai.authkit.config.UserStoreProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CachingUserStoreTest {
+
+    private static final String EMAIL = "user@example.com";
+
+    private final CountingUserStore backing = new CountingUserStore();
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    @DisplayName("同一帳號的 500 個並行查詢應只讀取儲存一次")
+    void whenConcurrentLookupsForSameEmail_thenStoreReadOnce() throws Exception {
+        backing.save(EMAIL, "hash-1");
+        backing.blockReads();
+        CachingUserStore store = new CachingUserStore(backing, new UserStoreProperties.Cache(), null, meterRegistry);
+
+        ExecutorService executor = Executors.newFixedThreadPool(32);
+        try {
+            List<Future<Optional<String>>> results = new ArrayList<>();
+            for (int i = 0; i < 500; i++) {
+                results.add(executor.submit(() -> store.findPasswordHash(EMAIL)));
+            }
+            Thread.sleep(200);
+            backing.releaseReads();
+            for (Future<Optional<String>> result : results) {
+                assertThat(result.get(10, TimeUnit.SECONDS)).contains("hash-1");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(backing.reads.get()).isEqualTo(1);
+        assertThat(count("authkit.user.cache.requests", "l1", "miss")).isEqualTo(1);
+        assertThat(count("authkit.user.cache.requests", "l1", "hit")
+                + meterRegistry.get("authkit.user.cache.coalesced").counter().count()).isEqualTo(499);
+    }
+
+    @Test
+    @DisplayName("註冊、雜湊變更與刪除後應立即讀到新值，不受快取（含查無使用者的結果）影響")
+    void whenWritten_thenCachedEntryInvalidated() {
+        CachingUserStore store = new CachingUserStore(backing, new UserStoreProperties.Cache(), null, meterRegistry);
+
+        assertThat(store.exists(EMAIL)).isFalse();
+        assertThat(store.findPasswordHash(EMAIL)).isEmpty();
+        assertThat(backing.reads.get()).isEqualTo(1);
+
+        store.save(EMAIL, "hash-1");
+        assertThat(store.findPasswordHash(EMAIL)).contains("hash-1");
+        assertThat(store.findPasswordHash(EMAIL)).contains("hash-1");
+        assertThat(backing.reads.get()).isEqualTo(2);
+
+        assertThat(store.replacePasswordHash(EMAIL, "hash-1", "hash-2")).isTrue();
+        assertThat(store.findPasswordHash(EMAIL)).contains("hash-2");
+
+        assertThat(store.delete(EMAIL)).isTrue();
+        assertThat(store.findPasswordHash(EMAIL)).isEmpty();
+        assertThat(backing.reads.get()).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("第一層未命中時應先查第二層；寫入應同時清除第二層")
+    void whenRemoteCacheConfigured_thenSharedBetweenNodes() {
+        ConcurrentMapCache remote = new ConcurrentMapCache("authkit-users");
+        CachingUserStore nodeA = new CachingUserStore(backing, new UserStoreProperties.Cache(), remote, meterRegistry);
+        CachingUserStore nodeB = new CachingUserStore(backing, new UserStoreProperties.Cache(), remote,
+                new SimpleMeterRegistry());
+        backing.save(EMAIL, "hash-1");
+
+        assertThat(nodeA.findPasswordHash(EMAIL)).contains("hash-1");
+        assertThat(nodeB.findPasswordHash(EMAIL)).contains("hash-1");
+        assertThat(backing.reads.get()).isEqualTo(1);
+        assertThat(count("authkit.user.cache.requests", "l2", "miss")).isEqualTo(1);
+
+        nodeA.replacePasswordHash(EMAIL, "hash-1", "hash-2");
+        assertThat(remote.get(EMAIL)).isNull();
+        assertThat(nodeA.findPasswordHash(EMAIL)).contains("hash-2");
+        assertThat(remote.get(EMAIL, String.class)).isEqualTo("hash-2");
+    }
+
+    private double count(String name, String level, String result) {
+        return meterRegistry.get(name).tag("level", level).tag("result", result).counter().count();
+    }
+
+    private static final class CountingUserStore implements UserStore {
+
+        private final InMemoryUserStore delegate = new InMemoryUserStore();
+        private final AtomicInteger reads = new AtomicInteger();
+        private volatile CountDownLatch gate = new CountDownLatch(0);
+
+        void blockReads() {
+            gate = new CountDownLatch(1);
+        }
+
+        void releaseReads() {
+            gate.countDown();
+        }
+
+        @Override
+        public Optional<String> findPasswordHash(String email) {
+            reads.incrementAndGet();
+            try {
+                gate.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            return delegate.findPasswordHash(email);
+        }
+
+        @Override
+        public boolean exists(String email) {
+            return findPasswordHash(email).isPresent();
+        }
+
+        @Override
+        public void save(String email, String passwordHash) {
+            delegate.save(email, passwordHash);
+        }
+
+        @Override
+        public boolean replacePasswordHash(String email, String expectedHash, String newHash) {
+            return delegate.replacePasswordHash(email, expectedHash, newHash);
+        }
+
+        @Override
+        public boolean delete(String email) {
+            return delegate.delete(email);
+        }
+
+        @Override
+        public long size() {
+            return delegate.size();
+        }
+
+    }
+
+}
@@ -0,0 +1,387 @@
+package io.github.montytsai.authkit.store;
+
+import io.github.montytsai.authkit.config.UserStoreProperties;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.TrustManagerFactory;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ClusteredUserStoreTest {
+
+    private static final String SECRET = "test-cluster-secret";
+    private static final int USERS = 300;
+    private static final char[] TLS_PASSWORD = "changeit".toCharArray();
+
+    private final List<ClusteredUserStore> nodes = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() throws IOException {
+        for (ClusteredUserStore node : nodes) {
+            node.close();
+        }
+    }
+
+    @Test
+    @DisplayName("寫入任一節點後，所有節點都查得到，且每位使用者只保存在其擁有者的本機儲存中")
+    void whenWrittenThroughOneNode_thenReadableEverywhereAndStoredOnOwnersOnly() throws Exception {
+        List<String> members = freeMembers(3);
+        Map<String, InMemoryUserStore> locals = new HashMap<>();
+        for (String member : members) {
+            locals.put(member, new InMemoryUserStore());
+            start(member, members, locals.get(member), SECRET);
+        }
+        awaitUntil(() -> nodes.stream().allMatch(node -> node.getLiveMembers().size() == 3));
+
+        for (int i = 0; i < USERS; i++) {
+            nodes.get(i % 3).save(email(i), "hash-" + i);
+        }
+
+        for (ClusteredUserStore node : nodes) {
+            for (int i = 0; i < USERS; i++) {
+                assertThat(node.findPasswordHash(email(i))).contains("hash-" + i);
+            }
+        }
+        for (int i = 0; i < USERS; i++) {
+            List<String> owners = nodes.get(0).ownersOf(email(i));
+            assertThat(owners).hasSize(2);
+            for (String member : members) {
+                assertThat(locals.get(member).exists(email(i))).isEqualTo(owners.contains(member));
+            }
+        }
+        assertThat(nodes.get(1).size()).isEqualTo(USERS);
+        assertThat(locals.values()).allMatch(local -> local.size() > USERS / 3);
+    }
+
+    @Test
+    @DisplayName("不同節點對同一 email 的條件式寫入只有一個成功，替換與刪除也會同步到所有副本")
+    void whenConditionalWritesRace_thenPrimaryDecides() throws Exception {
+        List<String> members = freeMembers(3);
+        for (String member : members) {
+            start(member, members, new InMemoryUserStore(), SECRET);
+        }
+        awaitUntil(() -> nodes.stream().allMatch(node -> node.getLiveMembers().size() == 3));
+
+        assertThat(nodes.get(0).saveIfAbsent("race@example.com", "first")).isTrue();
+        assertThat(nodes.get(1).saveIfAbsent("race@example.com", "second")).isFalse();
+        assertThat(nodes.get(2).replacePasswordHash("race@example.com", "second", "third")).isFalse();
+        assertThat(nodes.get(2).replacePasswordHash("race@example.com", "first", "third")).isTrue();
+        assertThat(nodes.get(1).findPasswordHash("race@example.com")).contains("third");
+
+        Map<String, String> batch = new LinkedHashMap<>();
+        batch.put("race@example.com", "ignored");
+        for (int i = 0; i < 50; i++) {
+            batch.put(email(i), "hash-" + i);
+        }
+        assertThat(nodes.get(1).saveAllIfAbsent(batch)).hasSize(50).doesNotContain("race@example.com");
+        assertThat(nodes.get(0).delete("race@example.com")).isTrue();
+        for (ClusteredUserStore node : nodes) {
+            assertThat(node.exists("race@example.com")).isFalse();
+            assertThat(node.findPasswordHash(email(7))).contains("hash-7");
+        }
+    }
+
+    @Test
+    @DisplayName("節點加入後應取得自己負責的使用者，離開後其餘節點應補足副本且資料不遺失")
+    void whenNodesJoinAndLeave_thenOwnershipRebalances() throws Exception {
+        List<String> members = freeMembers(3);
+        Map<String, InMemoryUserStore> locals = new HashMap<>();
+        for (String member : members.subList(0, 2)) {
+            locals.put(member, new InMemoryUserStore());
+            start(member, members, locals.get(member), SECRET);
+        }
+        awaitUntil(() -> nodes.stream().allMatch(node -> node.getLiveMembers().size() == 2));
+        for (int i = 0; i < USERS; i++) {
+            nodes.get(0).save(email(i), "hash-" + i);
+        }
+
+        // 第三個節點加入：其他節點把它負責的使用者推送過去，並交出不再負責的資料
+        String joined = members.get(2);
+        locals.put(joined, new InMemoryUserStore());
+        start(joined, members, locals.get(joined), SECRET);
+        awaitUntil(() -> nodes.stream().allMatch(node -> node.getLiveMembers().size() == 3));
+        awaitUntil(() -> storedOnOwnersOnly(locals, nodes.get(2)));
+        assertThat(locals.get(joined).size()).isGreaterThan(USERS / 3);
+
+        // 第一個節點離開：副本仍可查詢，剩下的兩個節點補足兩份副本
+        String left = members.get(0);
+        nodes.remove(0).close();
+        locals.remove(left);
+        awaitUntil(() -> nodes.stream().allMatch(node -> node.getLiveMembers().size() == 2));
+        for (int i = 0; i < USERS; i++) {
+            assertThat(nodes.get(0).findPasswordHash(email(i))).contains("hash-" + i);
+        }
+        awaitUntil(() -> locals.values().stream().allMatch(local -> local.size() == USERS));
+    }
+
+    @Test
+    @DisplayName("對主要擁有者的單次請求逾時應改由副本回應，但不應將它移出雜湊環")
+    void whenOneRequestTimesOut_thenMemberStaysOnTheRing() throws Exception {
+        List<String> members = freeMembers(3);
+        start(members.get(0), members, new SlowLookupStore(), SECRET);
+        for (String member : members.subList(1, 3)) {
+            start(member, members, new InMemoryUserStore(), SECRET);
+        }
+        awaitUntil(() -> nodes.stream().allMatch(node -> node.getLiveMembers().size() == 3));
+
+        String email = null;
+        ClusteredUserStore caller = null;
+        for (int i = 0; email == null; i++) {
+            List<String> owners = nodes.get(0).ownersOf("slow-" + i + "@example.com");
+            if (owners.get(0).equals(members.get(0))) {
+                email = "slow-" + i + "@example.com";
+                caller = nodes.get(members.indexOf(owners.contains(members.get(1)) ? members.get(2) : members.get(1)));
+            }
+        }
+        caller.save(email, "hash");
+
+        assertThat(caller.findPasswordHash(email)).contains("hash");
+        Thread.sleep(300);
+        assertThat(nodes).allMatch(node -> node.getLiveMembers().size() == 3);
+        assertThat(caller.saveIfAbsent(email, "other")).isFalse();
+    }
+
+    @Test
+    @DisplayName("密鑰不同的節點不應加入叢集")
+    void whenSecretDiffers_thenNodeIsNotAdmitted() throws Exception {
+        List<String> members = freeMembers(2);
+        start(members.get(0), members, new InMemoryUserStore(), SECRET);
+        start(members.get(1), members, new InMemoryUserStore(), "another-cluster-secret");
+
+        Thread.sleep(300);
+        assertThat(nodes).allMatch(node -> node.getLiveMembers().size() == 1);
+    }
+
+    @Test
+    @DisplayName("雜湊環應平均分配使用者，新增一個節點只移動約 1/n 的使用者")
+    void whenMemberAdded_thenOnlyAFractionOfUsersMove() {
+        ConsistentHashRing four = new ConsistentHashRing(List.of("a:1", "b:1", "c:1", "d:1"), 128);
+        ConsistentHashRing five = new ConsistentHashRing(List.of("a:1", "b:1", "c:1", "d:1", "e:1"), 128);
+        int emails = 20_000;
+        Map<String, Integer> load = new HashMap<>();
+        int moved = 0;
+        for (int i = 0; i < emails; i++) {
+            String primary = four.owners(email(i), 1).get(0);
+            load.merge(primary, 1, Integer::sum);
+            if (!primary.equals(five.owners(email(i), 1).get(0))) {
+                moved++;
+            }
+        }
+        assertThat(load.values()).allMatch(count -> Math.abs(count - emails / 4) < emails / 4 * 0.2);
+        assertThat(moved).isBetween((int) (emails / 5 * 0.7), (int) (emails / 5 * 1.3));
+    }
+
+    @Test
+    @DisplayName("未出示密鑰的連線送出過大的訊框或逾時未送 HELLO 時，伺服端應立即關閉連線")
+    void whenUnauthenticatedClientMisbehaves_thenConnectionIsClosed() throws Exception {
+        List<String> members = freeMembers(1);
+        start(members.get(0), members, new InMemoryUserStore(), SECRET);
+        int port = ClusterProtocol.address(members.get(0)).getPort();
+
+        try (Socket oversized = new Socket("127.0.0.1", port)) {
+            oversized.setSoTimeout(5_000);
+            DataOutputStream out = new DataOutputStream(oversized.getOutputStream());
+            out.writeInt(ClusterProtocol.MAX_FRAME_BYTES);
+            out.flush();
+            assertThat(oversized.getInputStream().read()).isEqualTo(-1);
+        }
+
+        try (Socket silent = new Socket("127.0.0.1", port)) {
+            silent.setSoTimeout(5_000);
+            long startedAt = System.nanoTime();
+            assertThat(silent.getInputStream().read()).isEqualTo(-1);
+            assertThat(Duration.ofNanos(System.nanoTime() - startedAt)).isLessThan(Duration.ofSeconds(2));
+        }
+    }
+
+    @Test
+    @DisplayName("不知道密鑰的客戶端即使完成 HELLO，偽造的 AUTH 證明也應被拒絕並關閉連線，無法送出任何寫入")
+    void whenClientForgesProof_thenConnectionIsClosed() throws Exception {
+        List<String> members = freeMembers(1);
+        ClusteredUserStore node = start(members.get(0), members, new InMemoryUserStore(), SECRET);
+        node.save("victim@example.com", "hash");
+        int port = ClusterProtocol.address(members.get(0)).getPort();
+
+        try (Socket socket = new Socket("127.0.0.1", port)) {
+            socket.setSoTimeout(5_000);
+            DataInputStream in = new DataInputStream(socket.getInputStream());
+            DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+            ClusterProtocol.writeFrame(out, ClusterProtocol.OP_HELLO, body -> {
+                body.writeInt(ClusterProtocol.MAGIC);
+                body.writeByte(ClusterProtocol.VERSION);
+                body.write(ClusterProtocol.nonce());
+            });
+            assertThat(ClusterProtocol.readFrame(in).code()).isEqualTo(ClusterProtocol.STATUS_OK);
+
+            ClusterProtocol.writeFrame(out, ClusterProtocol.OP_AUTH,
+                    body -> body.write(new byte[ClusterProtocol.PROOF_BYTES]));
+            assertThat(ClusterProtocol.readFrame(in).code()).isEqualTo(ClusterProtocol.STATUS_ERROR);
+            assertThat(in.read()).isEqualTo(-1);
+        }
+        assertThat(node.findPasswordHash("victim@example.com")).contains("hash");
+    }
+
+    @Test
+    @DisplayName("叢集埠使用 TLS 時，節點之間以 mTLS 連線並正常複寫，明文節點則無法加入")
+    void whenTlsConfigured_thenOnlyTlsPeersAreAdmitted() throws Exception {
+        List<String> members = freeMembers(3);
+        SSLContext tls = tlsContext();
+        start(members.get(0), members, new InMemoryUserStore(), SECRET, tls);
+        start(members.get(1), members, new InMemoryUserStore(), SECRET, tls);
+        ClusteredUserStore plaintext = start(members.get(2), members, new InMemoryUserStore(), SECRET);
+        awaitUntil(() -> nodes.get(0).getLiveMembers().size() == 2 && nodes.get(1).getLiveMembers().size() == 2);
+
+        for (int i = 0; i < 50; i++) {
+            nodes.get(i % 2).save(email(i), "hash-" + i);
+        }
+        for (int i = 0; i < 50; i++) {
+            assertThat(nodes.get(0).findPasswordHash(email(i))).contains("hash-" + i);
+            assertThat(nodes.get(1).findPasswordHash(email(i))).contains("hash-" + i);
+        }
+        assertThat(plaintext.getLiveMembers()).containsExactly(members.get(2));
+        assertThat(nodes.get(0).getLiveMembers()).doesNotContain(members.get(2));
+    }
+
+    @Test
+    @DisplayName("未設定 TLS 且未明確允許明文，或密鑰短於 16 bytes 時，節點應拒絕啟動")
+    void whenTransportIsUnprotected_thenStartupFails() throws Exception {
+        List<String> members = freeMembers(1);
+        UserStoreProperties.Cluster properties = new UserStoreProperties.Cluster();
+        properties.setEnabled(true);
+        properties.setSelf(members.get(0));
+        properties.setMembers(members);
+        properties.setSecret(SECRET);
+        assertThatThrownBy(() -> new ClusteredUserStore(new InMemoryUserStore(), properties))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("ssl-bundle");
+
+        properties.setAllowPlaintext(true);
+        properties.setSecret("short-secret");
+        assertThatThrownBy(() -> new ClusteredUserStore(new InMemoryUserStore(), properties))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("at least 16 bytes");
+    }
+
+    private boolean storedOnOwnersOnly(Map<String, InMemoryUserStore> locals, ClusteredUserStore node) {
+        for (int i = 0; i < USERS; i++) {
+            List<String> owners = node.ownersOf(email(i));
+            for (Map.Entry<String, InMemoryUserStore> local : locals.entrySet()) {
+                if (local.getValue().exists(email(i)) != owners.contains(local.getKey())) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private ClusteredUserStore start(String self, List<String> members, UserStore local, String secret)
+            throws IOException {
+        return start(self, members, local, secret, null);
+    }
+
+    private ClusteredUserStore start(String self, List<String> members, UserStore local, String secret,
+                                     SSLContext sslContext) throws IOException {
+        UserStoreProperties.Cluster properties = new UserStoreProperties.Cluster();
+        properties.setEnabled(true);
+        properties.setSelf(self);
+        properties.setMembers(members);
+        properties.setBindAddress("127.0.0.1");
+        properties.setSecret(secret);
+        properties.setHeartbeatInterval(Duration.ofMillis(50));
+        properties.setConnectTimeout(Duration.ofMillis(200));
+        properties.setRequestTimeout(Duration.ofMillis(500));
+        properties.setHandshakeTimeout(Duration.ofMillis(200));
+        properties.setAllowPlaintext(sslContext == null);
+        ClusteredUserStore node = new ClusteredUserStore(local, properties, sslContext);
+        nodes.add(node);
+        return node;
+    }
+
+    /**
+     * 以測試用的自簽憑證 {@code cluster-tls.p12} 同時作為金鑰庫與信任庫，模擬所有節點共用同一張叢集憑證。
+     */
+    private static SSLContext tlsContext() throws IOException, GeneralSecurityException {
+        KeyStore keyStore = KeyStore.getInstance("PKCS12");
+        try (InputStream in = ClusteredUserStoreTest.class.getResourceAsStream("/cluster-tls.p12")) {
+            keyStore.load(in, TLS_PASSWORD);
+        }
+        KeyManagerFactory keys = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+        keys.init(keyStore, TLS_PASSWORD);
+        TrustManagerFactory trust = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+        trust.init(keyStore);
+        SSLContext context = SSLContext.getInstance("TLS");
+        context.init(keys.getKeyManagers(), trust.getTrustManagers(), null);
+        return context;
+    }
+
+    private static List<String> freeMembers(int count) throws IOException {
+        List<String> members = new ArrayList<>();
+        List<ServerSocket> sockets = new ArrayList<>();
+        try {
+            for (int i = 0; i < count; i++) {
+                ServerSocket socket = new ServerSocket(0);
+                sockets.add(socket);
+                members.add("127.0.0.1:" + socket.getLocalPort());
+            }
+        } finally {
+            for (ServerSocket socket : sockets) {
+                socket.close();
+            }
+        }
+        return members;
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime() - deadline).as("condition not met within 10s").isNegative();
+            Thread.sleep(20);
+        }
+    }
+
+    private static String email(int i) {
+        return "user" + i + "@example.com";
+    }
+
+    /**
+     * 查詢 {@code slow-} 開頭的 email 時超過請求逾時才回應的本機儲存，模擬忙碌但仍存活的節點。
+     */
+    private static final class SlowLookupStore extends InMemoryUserStore {
+
+        @Override
+        public Optional<String> findPasswordHash(String email) {
+            if (email.startsWith("slow-")) {
+                try {
+                    Thread.sleep(800);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return super.findPasswordHash(email);
+        }
+
+    }
+
+}
@@ -0,0 +1,105 @@
+package io.github.montytsai.authkit.store;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CompactUserStoreTest {
+
+    @Test
+    @DisplayName("寫入、覆寫、比對替換與刪除後查詢結果應正確")
+    void whenSaveOverwriteReplaceAndDelete_thenLookupsReflectLatestState() {
+        CompactUserStore store = new CompactUserStore(4, 1);
+
+        store.save("a@example.com", "hash-a1");
+        store.save("b@example.com", "hash-b");
+        store.save("a@example.com", "hash-a2");
+
+        assertThat(store.findPasswordHash("a@example.com")).contains("hash-a2");
+        assertThat(store.replacePasswordHash("a@example.com", "hash-a1", "hash-a3")).isFalse();
+        assertThat(store.replacePasswordHash("a@example.com", "hash-a2", "hash-a3")).isTrue();
+        assertThat(store.findPasswordHash("a@example.com")).contains("hash-a3");
+        assertThat(store.delete("b@example.com")).isTrue();
+        assertThat(store.delete("b@example.com")).isFalse();
+        assertThat(store.findPasswordHash("b@example.com")).isEmpty();
+        assertThat(store.exists("b@example.com")).isFalse();
+        assertThat(store.size()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("BCrypt 雜湊壓縮儲存後應原樣還原，非 ASCII 的 email 與其他格式的雜湊亦同")
+    void whenHashesArePacked_thenTheyRoundTripExactly() {
+        CompactUserStore store = new CompactUserStore(1, 1);
+        String bcrypt = new BCryptPasswordEncoder(4).encode("password");
+        String prefixed = "{bcrypt}" + bcrypt.replace("$2a$", "$2y$");
+        String argon2 = "{argon2}$argon2id$v=19$m=19456,t=2,p=1$c2FsdHNhbHQ$aGFzaGhhc2hoYXNo";
+
+        store.save("plain@example.com", bcrypt);
+        store.save("prefixed@example.com", prefixed);
+        store.save("使用者😀@例子.台灣", argon2);
+
+        assertThat(store.findPasswordHash("plain@example.com")).contains(bcrypt);
+        assertThat(store.findPasswordHash("prefixed@example.com")).contains(prefixed);
+        assertThat(store.findPasswordHash("使用者😀@例子.台灣")).contains(argon2);
+        assertThat(store.exists("使用者😀@例子.台")).isFalse();
+        assertThat(CompactUserStore.encode("plain@example.com", bcrypt)).hasSize(3 + 17 + 42);
+    }
+
+    @Test
+    @DisplayName("大量寫入與反覆覆寫觸發重建與壓縮後，資料應完整")
+    void whenTablesGrowAndSlabsCompact_thenAllUsersRemainReadable() {
+        CompactUserStore store = new CompactUserStore(2, 1);
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 20_000; i++) {
+                store.save("user" + i + "@example.com", "hash-" + round + "-" + i);
+            }
+        }
+        for (int i = 0; i < 20_000; i += 2) {
+            store.delete("user" + i + "@example.com");
+        }
+
+        assertThat(store.size()).isEqualTo(10_000);
+        for (int i = 0; i < 20_000; i++) {
+            assertThat(store.findPasswordHash("user" + i + "@example.com"))
+                    .isEqualTo(i % 2 == 0 ? Optional.empty() : Optional.of("hash-4-" + i));
+        }
+    }
+
+    @Test
+    @DisplayName("批次新增應略過已存在的 email")
+    void whenSaveAllIfAbsent_thenExistingUsersAreSkipped() {
+        CompactUserStore store = new CompactUserStore(4, 1);
+        store.save("a@example.com", "hash-a");
+
+        Map<String, String> batch = new LinkedHashMap<>();
+        batch.put("a@example.com", "other");
+        batch.put("b@example.com", "hash-b");
+
+        assertThat(store.saveAllIfAbsent(batch)).containsExactly("b@example.com");
+        assertThat(store.findPasswordHash("a@example.com")).contains("hash-a");
+        assertThat(store.size()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("走訪應回傳每位存活使用者一次，不含已刪除的 email")
+    void whenForEachUser_thenVisitsLiveUsersOnce() {
+        CompactUserStore store = new CompactUserStore(4, 1);
+        String bcrypt = new BCryptPasswordEncoder(4).encode("password");
+        store.save("a@example.com", bcrypt);
+        store.save("b@example.com", "hash-b");
+        store.save("ü@example.com", "hash-ü");
+        store.delete("b@example.com");
+
+        Map<String, String> visited = new LinkedHashMap<>();
+        store.forEachUser((email, hash) -> assertThat(visited.put(email, hash)).isNull());
+
+        assertThat(visited).containsOnly(Map.entry("a@example.com", bcrypt), Map.entry("ü@example.com", "hash-ü"));
+    }
+
+}
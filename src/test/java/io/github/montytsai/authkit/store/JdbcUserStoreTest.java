@@ -0,0 +1,76 @@
+package io.github.montytsai.authkit.store;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JdbcUserStoreTest {
+
+    private final DriverManagerDataSource dataSource =
+            new DriverManagerDataSource("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+    private final DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+
+    @Test
+    @DisplayName("批次新增應略過已存在的 email，並只回傳實際新增的 email")
+    void whenSavedAllIfAbsent_thenExistingKept() {
+        JdbcUserStore store = new JdbcUserStore(new JdbcTemplate(dataSource), transactionManager);
+        store.save("taken@example.com", "existing-hash");
+
+        Map<String, String> batch = new LinkedHashMap<>();
+        batch.put("taken@example.com", "ignored");
+        batch.put("a@example.com", "hash-a");
+        batch.put("b@example.com", "hash-b");
+
+        assertThat(store.saveAllIfAbsent(batch)).containsExactly("a@example.com", "b@example.com");
+        assertThat(store.findPasswordHash("taken@example.com")).contains("existing-hash");
+        assertThat(store.size()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("批次寫入中途撞到唯一鍵時應整批回滾，逐筆重試後回傳的集合仍包含本次新增的每一個 email")
+    void whenBatchHitsDuplicateKey_thenRolledBackAndRetriedPerRow() {
+        JdbcUserStore store = new JdbcUserStore(new FailingBatchJdbcTemplate(dataSource), transactionManager);
+
+        Map<String, String> batch = new LinkedHashMap<>();
+        batch.put("a@example.com", "hash-a");
+        batch.put("b@example.com", "hash-b");
+
+        assertThat(store.saveAllIfAbsent(batch)).containsExactly("a@example.com", "b@example.com");
+        assertThat(store.findPasswordHash("b@example.com")).contains("hash-b");
+    }
+
+    /**
+     * 第一次 batch 寫入所有列後才拋出 {@link DuplicateKeyException}，模擬其他交易在檢查與寫入之間搶先新增。
+     */
+    private static final class FailingBatchJdbcTemplate extends JdbcTemplate {
+
+        private final AtomicBoolean failed = new AtomicBoolean();
+
+        FailingBatchJdbcTemplate(DataSource dataSource) {
+            super(dataSource);
+        }
+
+        @Override
+        public int[] batchUpdate(String sql, List<Object[]> batchArgs) {
+            int[] counts = super.batchUpdate(sql, batchArgs);
+            if (failed.compareAndSet(false, true)) {
+                throw new DuplicateKeyException("simulated concurrent insert");
+            }
+            return counts;
+        }
+
+    }
+
+}
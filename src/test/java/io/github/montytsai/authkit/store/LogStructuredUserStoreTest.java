@@ -0,0 +1,185 @@
+package io.github.montytsai.authkit.store;
+
+import io.github.montytsai.authkit.config.UserStoreProperties;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LogStructuredUserStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("寫入、覆寫與刪除後查詢結果應正確")
+    void whenSaveOverwriteAndDelete_thenLookupsReflectLatestState() throws IOException {
+        try (LogStructuredUserStore store = open()) {
+            store.save("a@example.com", "hash-a1");
+            store.save("b@example.com", "hash-b");
+            store.save("a@example.com", "hash-a2");
+
+            assertThat(store.findPasswordHash("a@example.com")).contains("hash-a2");
+            assertThat(store.delete("b@example.com")).isTrue();
+            assertThat(store.delete("b@example.com")).isFalse();
+            assertThat(store.findPasswordHash("b@example.com")).isEmpty();
+            assertThat(store.size()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    @DisplayName("重新開啟時應由日誌重建索引")
+    void whenReopened_thenIndexIsRebuilt() throws IOException {
+        try (LogStructuredUserStore store = open()) {
+            for (int i = 0; i < 1_000; i++) {
+                store.save("user" + i + "@example.com", "hash-" + i);
+            }
+            store.delete("user7@example.com");
+        }
+
+        try (LogStructuredUserStore store = open()) {
+            assertThat(store.size()).isEqualTo(999);
+            assertThat(store.findPasswordHash("user999@example.com")).contains("hash-999");
+            assertThat(store.exists("user7@example.com")).isFalse();
+        }
+    }
+
+    @Test
+    @DisplayName("尾端紀錄寫到一半時，重啟應截斷並保留先前資料")
+    void whenTailIsTorn_thenRecoveryTruncatesIt() throws IOException {
+        try (LogStructuredUserStore store = open()) {
+            store.save("a@example.com", "hash-a");
+        }
+        Path log = logPath();
+        long validSize = Files.size(log);
+        try (FileChannel channel = FileChannel.open(log, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.wrap(new byte[]{0, 0, 0, 40, 1, 0, 13, 'b'}));
+        }
+
+        try (LogStructuredUserStore store = open()) {
+            assertThat(store.findPasswordHash("a@example.com")).contains("hash-a");
+            assertThat(store.size()).isEqualTo(1);
+        }
+        assertThat(Files.size(log)).isEqualTo(validSize);
+    }
+
+    @Test
+    @DisplayName("批次新增應略過已存在的 email，且重啟後資料完整")
+    void whenSavedAllIfAbsent_thenExistingKeptAndBatchPersisted() throws IOException {
+        try (LogStructuredUserStore store = open()) {
+            store.save("a@example.com", "hash-a");
+            Map<String, String> batch = new LinkedHashMap<>();
+            batch.put("a@example.com", "hash-a2");
+            batch.put("b@example.com", "hash-b");
+            batch.put("c@example.com", "hash-c");
+
+            assertThat(store.saveAllIfAbsent(batch)).containsExactly("b@example.com", "c@example.com");
+            assertThat(store.findPasswordHash("c@example.com")).contains("hash-c");
+        }
+
+        try (LogStructuredUserStore store = open()) {
+            assertThat(store.size()).isEqualTo(3);
+            assertThat(store.findPasswordHash("a@example.com")).contains("hash-a");
+            assertThat(store.findPasswordHash("b@example.com")).contains("hash-b");
+        }
+    }
+
+    @Test
+    @DisplayName("壓縮後應只保留存活紀錄且資料不變")
+    void whenCompacted_thenOnlyLiveRecordsRemain() throws IOException {
+        try (LogStructuredUserStore store = open()) {
+            for (int round = 0; round < 10; round++) {
+                for (int i = 0; i < 100; i++) {
+                    store.save("user" + i + "@example.com", "hash-" + round);
+                }
+            }
+            long before = Files.size(logPath());
+
+            assertThat(store.compactIfNeeded()).isTrue();
+            assertThat(Files.size(logPath())).isLessThan(before / 5);
+            assertThat(store.findPasswordHash("user42@example.com")).contains("hash-9");
+
+            store.save("new@example.com", "hash-new");
+        }
+
+        try (LogStructuredUserStore store = open()) {
+            assertThat(store.size()).isEqualTo(101);
+            assertThat(store.findPasswordHash("new@example.com")).contains("hash-new");
+        }
+    }
+
+    @Test
+    @DisplayName("fsync 寫入與壓縮同時進行時，並行查詢應一律讀到已寫入的完整雜湊")
+    void whenWritingAndCompactingConcurrently_thenReadersSeeCommittedHashes() throws Exception {
+        ExecutorService readers = Executors.newFixedThreadPool(4);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        try (LogStructuredUserStore store = open(true)) {
+            for (int i = 0; i < 50; i++) {
+                store.save("user" + i + "@example.com", "hash-0");
+            }
+            List<Future<Long>> reads = new ArrayList<>();
+            for (int r = 0; r < 4; r++) {
+                reads.add(readers.submit(() -> {
+                    long count = 0;
+                    while (writing.get()) {
+                        String hash = store.findPasswordHash("user" + (count % 50) + "@example.com").orElseThrow();
+                        assertThat(hash).matches("hash-\\d+");
+                        count++;
+                    }
+                    return count;
+                }));
+            }
+
+            for (int round = 1; round <= 20; round++) {
+                for (int i = 0; i < 50; i++) {
+                    store.save("user" + i + "@example.com", "hash-" + round);
+                }
+                store.compactIfNeeded();
+            }
+            writing.set(false);
+            for (Future<Long> read : reads) {
+                assertThat(read.get()).isPositive();
+            }
+            assertThat(store.findPasswordHash("user7@example.com")).contains("hash-20");
+        } finally {
+            readers.shutdownNow();
+        }
+    }
+
+    private LogStructuredUserStore open() throws IOException {
+        return open(false);
+    }
+
+    private LogStructuredUserStore open(boolean syncOnWrite) throws IOException {
+        UserStoreProperties.Log properties = new UserStoreProperties.Log();
+        properties.setPath(logPath());
+        properties.setSyncOnWrite(syncOnWrite);
+        properties.setCompactionInterval(Duration.ZERO);
+        properties.setCompactionMinSize(DataSize.ofBytes(0));
+        return new LogStructuredUserStore(properties);
+    }
+
+    private Path logPath() {
+        return tempDir.resolve("users.log");
+    }
+
+}